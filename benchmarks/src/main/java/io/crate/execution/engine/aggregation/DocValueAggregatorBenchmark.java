@@ -0,0 +1,180 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import static org.elasticsearch.cluster.metadata.Metadata.COLUMN_OID_UNASSIGNED;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.impl.AggregationImplModule;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.memory.MemoryManager;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.metadata.Functions;
+import io.crate.metadata.IndexType;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.SearchPath;
+import io.crate.metadata.SimpleReference;
+import io.crate.sql.tree.ColumnPolicy;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Compares applying the matching documents one by one to a {@link DocValueAggregator}
+ * with applying them in blocks, as done by {@link io.crate.execution.engine.collect.DocValuesAggregates}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+@Warmup(iterations = 2)
+public class DocValueAggregatorBenchmark {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    @Param({"sum", "max", "min"})
+    public String function;
+
+    private DocValueAggregator<Object> aggregator;
+    private MemoryManager memoryManager;
+    private IndexSearcher searcher;
+    private Weight weight;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        Functions functions = new ModulesBuilder()
+            .add(new AggregationImplModule())
+            .createInjector()
+            .getInstance(Functions.class);
+        List<DataType<?>> argumentTypes = List.of(DataTypes.LONG);
+        var aggregationFunction = (AggregationFunction<?, ?>) functions.get(
+            null,
+            function,
+            InputColumn.mapToInputColumns(argumentTypes),
+            SearchPath.pathWithPGCatalogAndDoc()
+        );
+        Reference reference = new SimpleReference(
+            new ReferenceIdent(new RelationName(Schemas.DOC_SCHEMA_NAME, "dummyTable"), "x"),
+            RowGranularity.DOC,
+            DataTypes.LONG,
+            ColumnPolicy.DYNAMIC,
+            IndexType.PLAIN,
+            true,
+            true,
+            1,
+            COLUMN_OID_UNASSIGNED,
+            false,
+            null
+        );
+        aggregator = (DocValueAggregator<Object>) aggregationFunction.getDocValueAggregator(
+            null,
+            List.of(reference),
+            null,
+            List.of()
+        );
+        memoryManager = new OnHeapMemoryManager(bytes -> {});
+
+        try (IndexWriter iw =
+                 new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()))) {
+            for (int i = 0; i < 10_000_000; i++) {
+                var doc = new Document();
+                doc.add(new SortedNumericDocValuesField(reference.storageIdent(), i % 1000));
+                iw.addDocument(doc);
+            }
+            iw.commit();
+            iw.forceMerge(1, true);
+            searcher = new IndexSearcher(DirectoryReader.open(iw));
+        }
+        weight = searcher.createWeight(new MatchAllDocsQuery(), ScoreMode.COMPLETE_NO_SCORES, 1.0f);
+    }
+
+    @Benchmark
+    public Object measureApplyPerDoc() throws IOException {
+        Object state = aggregator.initialState(RamAccounting.NO_ACCOUNTING, memoryManager, Version.CURRENT);
+        for (LeafReaderContext leaf : searcher.getTopReaderContext().leaves()) {
+            aggregator.loadDocValues(leaf);
+            DocIdSetIterator docs = weight.scorer(leaf).iterator();
+            for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                aggregator.apply(RamAccounting.NO_ACCOUNTING, doc, state);
+            }
+        }
+        return aggregator.partialResult(RamAccounting.NO_ACCOUNTING, state);
+    }
+
+    @Benchmark
+    public Object measureApplyBlocks() throws IOException {
+        Object state = aggregator.initialState(RamAccounting.NO_ACCOUNTING, memoryManager, Version.CURRENT);
+        int[] docBlock = new int[BLOCK_SIZE];
+        for (LeafReaderContext leaf : searcher.getTopReaderContext().leaves()) {
+            aggregator.loadDocValues(leaf);
+            DocIdSetIterator docs = weight.scorer(leaf).iterator();
+            int numDocs = 0;
+            for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                docBlock[numDocs++] = doc;
+                if (numDocs == BLOCK_SIZE) {
+                    aggregator.apply(RamAccounting.NO_ACCOUNTING, docBlock, numDocs, state);
+                    numDocs = 0;
+                }
+            }
+            if (numDocs > 0) {
+                aggregator.apply(RamAccounting.NO_ACCOUNTING, docBlock, numDocs, state);
+            }
+        }
+        return aggregator.partialResult(RamAccounting.NO_ACCOUNTING, state);
+    }
+}
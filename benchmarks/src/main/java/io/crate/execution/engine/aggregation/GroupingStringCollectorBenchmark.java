@@ -46,6 +46,7 @@ import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
+import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.aggregation.impl.AggregationImplModule;
 import io.crate.execution.engine.aggregation.impl.MinimumAggregation;
@@ -64,8 +65,10 @@ import io.crate.types.DataTypes;
 public class GroupingStringCollectorBenchmark {
 
     private GroupingCollector<?> groupByMinCollector;
+    private GroupingCollector<?> groupByMinManyKeysCollector;
     private BatchIterator<Row> rowsIterator;
     private List<Row> rows;
+    private List<Row> manyKeysRows;
     private OnHeapMemoryManager memoryManager;
 
     @Setup
@@ -73,8 +76,9 @@ public class GroupingStringCollectorBenchmark {
         Functions functions = new ModulesBuilder().add(new AggregationImplModule())
             .createInjector().getInstance(Functions.class);
 
-        groupByMinCollector = createGroupByMinBytesRefCollector(functions);
         memoryManager = new OnHeapMemoryManager(bytes -> {});
+        groupByMinCollector = createGroupByMinBytesRefCollector(functions);
+        groupByMinManyKeysCollector = createGroupByMinManyKeysCollector(functions);
 
         List<String> keys = new ArrayList<>(Locale.getISOCountries().length);
         keys.addAll(Arrays.asList(Locale.getISOCountries()));
@@ -83,6 +87,11 @@ public class GroupingStringCollectorBenchmark {
         for (int i = 0; i < 20_000_000; i++) {
             rows.add(new Row1(keys.get(i % keys.size())));
         }
+
+        manyKeysRows = new ArrayList<>(20_000_000);
+        for (int i = 0; i < 20_000_000; i++) {
+            manyKeysRows.add(new RowN(keys.get(i % keys.size()), (long) (i % 365) * 86_400_000L));
+        }
     }
 
     @SuppressWarnings({"rawtypes", "unchecked"})
@@ -116,9 +125,47 @@ public class GroupingStringCollectorBenchmark {
         );
     }
 
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private GroupingCollector<?> createGroupByMinManyKeysCollector(Functions functions) {
+        RowCollectExpression tenantInput = new RowCollectExpression(0);
+        RowCollectExpression dayInput = new RowCollectExpression(1);
+        List<Input<?>> keyInputs = List.of(tenantInput, dayInput);
+        CollectExpression[] collectExpressions = new CollectExpression[]{tenantInput, dayInput};
+
+        MinimumAggregation minAgg = (MinimumAggregation) functions.getQualified(
+            Signature.aggregate(
+                MinimumAggregation.NAME,
+                DataTypes.STRING.getTypeSignature(),
+                DataTypes.STRING.getTypeSignature()
+            ),
+            List.of(DataTypes.STRING),
+            DataTypes.STRING
+        );
+
+        return GroupingCollector.manyKeys(
+            collectExpressions,
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { minAgg },
+            new Input[][] { new Input[] { tenantInput }},
+            new Input[] { Literal.BOOLEAN_TRUE },
+            RamAccounting.NO_ACCOUNTING,
+            memoryManager,
+            Version.CURRENT,
+            keyInputs,
+            List.of(DataTypes.STRING, DataTypes.TIMESTAMPZ),
+            Version.CURRENT
+        );
+    }
+
     @Benchmark
     public void measureGroupByMinString(Blackhole blackhole) throws Exception {
         rowsIterator = InMemoryBatchIterator.of(rows, SENTINEL, true);
         blackhole.consume(rowsIterator.collect(groupByMinCollector).get());
     }
+
+    @Benchmark
+    public void measureGroupByMinStringAndTimestamp(Blackhole blackhole) throws Exception {
+        rowsIterator = InMemoryBatchIterator.of(manyKeysRows, SENTINEL, true);
+        blackhole.consume(rowsIterator.collect(groupByMinManyKeysCollector).get());
+    }
 }
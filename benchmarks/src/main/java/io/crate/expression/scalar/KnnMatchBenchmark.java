@@ -0,0 +1,188 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.expression.scalar;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.crate.types.FloatVectorType;
+
+/**
+ * Compares kNN searches on raw float vectors with searches on int8 quantized vectors.
+ * <p>
+ * The setup prints the size of the vector files and the recall@k of the queries
+ * compared to an exact search, the benchmark measures the latency of the queries.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Fork(value = 1)
+@Measurement(iterations = 3)
+public class KnnMatchBenchmark {
+
+    private static final int NUM_DOCS = 50_000;
+    private static final int DIMENSIONS = 256;
+    private static final int NUM_QUERIES = 100;
+    private static final int K = 10;
+
+    @Param({"none", "int8"})
+    public String quantization;
+
+    @Param({"10", "50"})
+    public int numCandidates;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private IndexSearcher searcher;
+    private Query[] queries;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        float[][] vectors = new float[NUM_DOCS][];
+        for (int i = 0; i < NUM_DOCS; i++) {
+            vectors[i] = randomVector(random);
+        }
+        IndexWriterConfig config = new IndexWriterConfig();
+        if (quantization.equals("int8")) {
+            config.setCodec(new Lucene99Codec() {
+
+                @Override
+                public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+                    return new Lucene99HnswScalarQuantizedVectorsFormat();
+                }
+            });
+        }
+        directory = new ByteBuffersDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, config)) {
+            for (float[] vector : vectors) {
+                Document doc = new Document();
+                doc.add(new KnnFloatVectorField("x", vector, FloatVectorType.SIMILARITY_FUNC));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+
+        queries = new Query[NUM_QUERIES];
+        double recall = 0;
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            float[] target = randomVector(random);
+            queries[i] = new KnnMatch.NumCandidatesKnnQuery("x", target, K, numCandidates, null);
+            recall += recall(vectors, target, searcher.search(queries[i], K));
+        }
+        System.out.printf(
+            Locale.ENGLISH,
+            "%nquantization=%s numCandidates=%d recall@%d=%.3f files=%s%n",
+            quantization,
+            numCandidates,
+            K,
+            recall / NUM_QUERIES,
+            fileSizesByExtension(directory)
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public void measure_knn_search(Blackhole blackhole) throws IOException {
+        for (Query query : queries) {
+            blackhole.consume(searcher.search(query, K));
+        }
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = random.nextFloat();
+        }
+        return vector;
+    }
+
+    private static double recall(float[][] vectors, float[] target, TopDocs topDocs) {
+        Set<Integer> expected = new HashSet<>();
+        IntStream.range(0, vectors.length)
+            .boxed()
+            .sorted(Comparator.comparing(
+                (Integer doc) -> FloatVectorType.SIMILARITY_FUNC.compare(target, vectors[doc])).reversed())
+            .limit(K)
+            .forEach(expected::add);
+        long found = Arrays.stream(topDocs.scoreDocs)
+            .map(scoreDoc -> scoreDoc.doc)
+            .filter(expected::contains)
+            .count();
+        return (double) found / K;
+    }
+
+    private static TreeMap<String, Long> fileSizesByExtension(Directory directory) throws IOException {
+        TreeMap<String, Long> sizes = new TreeMap<>();
+        for (String file : directory.listAll()) {
+            String extension = IndexFileNames.getExtension(file);
+            sizes.merge(extension == null ? file : extension, directory.fileLength(file), Long::sum);
+        }
+        return sizes;
+    }
+}
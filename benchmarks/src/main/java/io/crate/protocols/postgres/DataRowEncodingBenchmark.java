@@ -0,0 +1,153 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Compares encoding DataRow messages into one buffer per row with
+ * encoding them into a shared buffer like the {@link ResultSetReceiver} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Fork(value = 2)
+@Measurement(iterations = 3)
+public class DataRowEncodingBenchmark {
+
+    private static final int NUM_ROWS = 10_000;
+
+    @Param({"narrow", "wide"})
+    public String rowShape;
+
+    @Param({"TEXT", "BINARY"})
+    public FormatCodes.FormatCode format;
+
+    private final PooledByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+    private final List<Row> rows = new ArrayList<>(NUM_ROWS);
+    private List<PGType<?>> columnTypes;
+    private FormatCodes.FormatCode[] formatCodes;
+    private ByteBuf dataRows;
+
+    @Setup
+    public void setup() {
+        List<DataType<?>> types;
+        if (rowShape.equals("narrow")) {
+            types = List.of(DataTypes.INTEGER, DataTypes.STRING);
+        } else {
+            types = List.of(
+                DataTypes.INTEGER,
+                DataTypes.LONG,
+                DataTypes.SHORT,
+                DataTypes.DOUBLE,
+                DataTypes.FLOAT,
+                DataTypes.STRING,
+                DataTypes.STRING,
+                DataTypes.TIMESTAMPZ,
+                DataTypes.TIMESTAMP,
+                DataTypes.UNTYPED_OBJECT,
+                DataTypes.BOOLEAN,
+                DataTypes.LONG
+            );
+        }
+        columnTypes = types.stream().<PGType<?>>map(PGTypes::get).toList();
+        formatCodes = new FormatCodes.FormatCode[] { format };
+        for (int i = 0; i < NUM_ROWS; i++) {
+            if (rowShape.equals("narrow")) {
+                rows.add(new RowN(i, "name-" + i));
+            } else {
+                rows.add(new RowN(
+                    i,
+                    i * 1_000_003L,
+                    (short) (i % Short.MAX_VALUE),
+                    i / 7.0,
+                    i / 3.0f,
+                    "name-" + i,
+                    "a somewhat longer text value of row " + i,
+                    1467072000000L + i,
+                    1467072000000L - i,
+                    Map.of("id", i, "tags", Arrays.asList("a", "b")),
+                    i % 2 == 0,
+                    -i
+                ));
+            }
+        }
+        dataRows = allocator.buffer(ResultSetReceiver.DATA_ROWS_BUFFER_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataRows.release();
+    }
+
+    @Benchmark
+    public void measure_buffer_per_row(Blackhole blackhole) {
+        for (int i = 0; i < rows.size(); i++) {
+            ByteBuf buffer = allocator.buffer();
+            Messages.writeDataRow(buffer, rows.get(i), columnTypes, formatCodes);
+            blackhole.consume(buffer.readableBytes());
+            buffer.release();
+        }
+    }
+
+    @Benchmark
+    public void measure_shared_buffer(Blackhole blackhole) {
+        ByteBuf buffer = dataRows;
+        for (int i = 0; i < rows.size(); i++) {
+            Messages.writeDataRow(buffer, rows.get(i), columnTypes, formatCodes);
+            if (buffer.readableBytes() >= ResultSetReceiver.DATA_ROWS_BUFFER_SIZE) {
+                blackhole.consume(buffer.readableBytes());
+                buffer.clear();
+            }
+        }
+        blackhole.consume(buffer.readableBytes());
+        buffer.clear();
+    }
+}
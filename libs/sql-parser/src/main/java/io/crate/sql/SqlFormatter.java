@@ -56,6 +56,7 @@ import io.crate.sql.tree.ColumnDefinition;
 import io.crate.sql.tree.ColumnStorageDefinition;
 import io.crate.sql.tree.ColumnType;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreatePublication;
 import io.crate.sql.tree.CreateRole;
@@ -214,7 +215,11 @@ public final class SqlFormatter {
                 builder.append(')');
             }
             append(indent, " FROM ");
-            copyFrom.path().accept(this, indent);
+            if (copyFrom.isStdin()) {
+                builder.append("STDIN");
+            } else {
+                copyFrom.path().accept(this, indent);
+            }
             if (!copyFrom.properties().isEmpty()) {
                 append(indent, " ");
                 copyFrom.properties().accept(this, indent);
@@ -225,6 +230,21 @@ public final class SqlFormatter {
             return null;
         }
 
+        @SuppressWarnings("unchecked")
+        @Override
+        public Void visitCopyToStdout(CopyToStdout<?> node, Integer indent) {
+            var copyToStdout = (CopyToStdout<Expression>) node;
+            append(indent, "COPY (")
+                .append('\n');
+            copyToStdout.query().accept(this, indent + 1);
+            append(indent, ") TO STDOUT");
+            if (!copyToStdout.properties().isEmpty()) {
+                append(indent, " ");
+                copyToStdout.properties().accept(this, indent);
+            }
+            return null;
+        }
+
         @Override
         public Void visitRefreshStatement(RefreshStatement<?> node, Integer indent) {
             append(indent, "REFRESH TABLE ");
@@ -22,6 +22,7 @@
 package io.crate.copy.s3;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
@@ -137,6 +138,31 @@ public class S3FileInput implements FileInput {
         throw new IOException("Failed to load S3 URI: " + uri.toString());
     }
 
+    @Override
+    public InputStream getStream(URI uri, long offset) throws IOException {
+        if (offset == 0) {
+            return getStream(uri);
+        }
+        S3URI s3URI = S3URI.toS3URI(uri);
+        if (client == null) {
+            client = clientBuilder.client(s3URI, protocolSetting);
+        }
+        S3Object object = client.getObject(new GetObjectRequest(s3URI.bucket(), s3URI.key()).withRange(offset));
+        if (object != null) {
+            return object.getObjectContent();
+        }
+        throw new IOException("Failed to load S3 URI: " + uri.toString());
+    }
+
+    @Override
+    public long size(URI uri) throws IOException {
+        S3URI s3URI = S3URI.toS3URI(uri);
+        if (client == null) {
+            client = clientBuilder.client(s3URI, protocolSetting);
+        }
+        return client.getObjectMetadata(s3URI.bucket(), s3URI.key()).getContentLength();
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return true;
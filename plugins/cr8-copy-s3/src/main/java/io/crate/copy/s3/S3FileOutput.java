@@ -31,6 +31,7 @@ import com.amazonaws.services.s3.model.UploadPartResult;
 
 import io.crate.copy.s3.common.S3ClientHelper;
 import io.crate.copy.s3.common.S3URI;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.export.FileOutput;
 
@@ -48,7 +49,6 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.zip.GZIPOutputStream;
 
 @NotThreadSafe
 public class S3FileOutput implements FileOutput {
@@ -61,12 +61,12 @@ public class S3FileOutput implements FileOutput {
     }
 
     @Override
-    public OutputStream acquireOutputStream(Executor executor, URI uri, WriterProjection.CompressionType compressionType) throws IOException {
+    public OutputStream acquireOutputStream(Executor executor,
+                                            URI uri,
+                                            WriterProjection.CompressionType compressionType,
+                                            RamAccounting ramAccounting) throws IOException {
         OutputStream outputStream = new S3OutputStream(executor, S3URI.toS3URI(uri), new S3ClientHelper(), protocolSetting);
-        if (compressionType != null) {
-            outputStream = new GZIPOutputStream(outputStream);
-        }
-        return outputStream;
+        return FileOutput.compress(outputStream, executor, compressionType, ramAccounting);
     }
 
 
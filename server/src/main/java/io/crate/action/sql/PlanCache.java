@@ -0,0 +1,176 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.action.sql;
+
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.Relations;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.expression.symbol.Symbols;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.planner.Plan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.Rule;
+import io.crate.statistics.TableStats;
+
+/**
+ * Caches the plans of prepared SELECT statements so that repeated Bind/Execute
+ * cycles can skip the planner and optimizer.
+ * <p>
+ * The plans are stored on the {@link PreparedStmt} of a session because they are
+ * based on its analyzed statement, which already depends on the session (user, search path).
+ * This class is the node wide switch and keeps the hit/miss counters.
+ * </p>
+ * <p>
+ * A cached plan is only re-used if the metadata of the cluster, the minimum node version,
+ * the table statistics and the optimizer related session settings didn't change since it was created.
+ * Parameters are bound when the plan is executed, so they don't have to match.
+ * </p>
+ * <p>
+ * Statements containing non-deterministic functions like {@code now()} aren't cached,
+ * because the planner evaluates them (e.g. to normalize the WHERE clause or to prune partitions).
+ * </p>
+ */
+public final class PlanCache {
+
+    public static final Setting<Boolean> PLAN_CACHE_ENABLED = Setting.boolSetting(
+        "plan_cache.enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final TableStats tableStats;
+    private volatile boolean enabled;
+
+    public PlanCache(Settings settings, ClusterSettings clusterSettings, TableStats tableStats) {
+        this.tableStats = tableStats;
+        this.enabled = PLAN_CACHE_ENABLED.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(PLAN_CACHE_ENABLED, newValue -> enabled = newValue);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true if plans of the statement are independent of the parameters and the
+     *         {@link io.crate.planner.PlannerContext} and can be re-used.
+     */
+    static boolean isCacheable(AnalyzedStatement analyzedStatement) {
+        return analyzedStatement instanceof AnalyzedRelation && isDeterministic(analyzedStatement);
+    }
+
+    private static boolean isDeterministic(AnalyzedStatement analyzedStatement) {
+        boolean[] isDeterministic = new boolean[] { true };
+        Relations.traverseDeepSymbols(analyzedStatement, symbol -> {
+            if (isDeterministic[0] == false) {
+                return;
+            }
+            if (Symbols.isDeterministic(symbol) == false) {
+                isDeterministic[0] = false;
+                return;
+            }
+            for (AnalyzedRelation subQuery : SymbolVisitors.extractAnalyzedRelations(symbol)) {
+                if (isDeterministic(subQuery) == false) {
+                    isDeterministic[0] = false;
+                    return;
+                }
+            }
+        });
+        return isDeterministic[0];
+    }
+
+    /**
+     * @return the cached plan of the statement if it is still valid, otherwise null.
+     */
+    @Nullable
+    Plan get(PreparedStmt preparedStmt, ClusterState clusterState, CoordinatorSessionSettings sessionSettings) {
+        if (!enabled || !isCacheable(preparedStmt.analyzedStatement())) {
+            return null;
+        }
+        CachedPlan cachedPlan = preparedStmt.cachedPlan();
+        if (cachedPlan != null && cachedPlan.isValid(clusterState, tableStats.version(), sessionSettings)) {
+            hits.increment();
+            return cachedPlan.plan();
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(PreparedStmt preparedStmt,
+             Plan plan,
+             ClusterState clusterState,
+             CoordinatorSessionSettings sessionSettings) {
+        if (!enabled || !isCacheable(preparedStmt.analyzedStatement()) || !(plan instanceof LogicalPlan)) {
+            return;
+        }
+        preparedStmt.cachedPlan(new CachedPlan(
+            plan,
+            clusterState.metadata().version(),
+            clusterState.nodes().getMinNodeVersion(),
+            tableStats.version(),
+            sessionSettings.hashJoinsEnabled(),
+            Set.copyOf(sessionSettings.excludedOptimizerRules())
+        ));
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    record CachedPlan(Plan plan,
+                      long metadataVersion,
+                      Version minNodeVersion,
+                      long tableStatsVersion,
+                      boolean hashJoinsEnabled,
+                      Set<Class<? extends Rule<?>>> excludedOptimizerRules) {
+
+        boolean isValid(ClusterState clusterState,
+                        long currentTableStatsVersion,
+                        CoordinatorSessionSettings sessionSettings) {
+            return metadataVersion == clusterState.metadata().version()
+                && minNodeVersion.equals(clusterState.nodes().getMinNodeVersion())
+                && tableStatsVersion == currentTableStatsVersion
+                && hashJoinsEnabled == sessionSettings.hashJoinsEnabled()
+                && excludedOptimizerRules.equals(sessionSettings.excludedOptimizerRules());
+        }
+    }
+}
@@ -21,6 +21,9 @@
 
 package io.crate.action.sql;
 
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.action.sql.PlanCache.CachedPlan;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.ParamTypeHints;
 import io.crate.sql.tree.Statement;
@@ -33,6 +36,9 @@ public class PreparedStmt {
     private final String rawStatement;
     private final DataType<?>[] describedParameterTypes;
 
+    @Nullable
+    private CachedPlan cachedPlan;
+
     PreparedStmt(Statement parsedStatement,
                  AnalyzedStatement analyzedStatement,
                  String query,
@@ -71,4 +77,13 @@ public class PreparedStmt {
     public String rawStatement() {
         return rawStatement;
     }
+
+    @Nullable
+    CachedPlan cachedPlan() {
+        return cachedPlan;
+    }
+
+    void cachedPlan(CachedPlan cachedPlan) {
+        this.cachedPlan = cachedPlan;
+    }
 }
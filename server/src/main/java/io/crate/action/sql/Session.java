@@ -24,7 +24,6 @@ package io.crate.action.sql;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -43,6 +42,7 @@ import org.jetbrains.annotations.Nullable;
 import io.crate.analyze.AnalyzedBegin;
 import io.crate.analyze.AnalyzedClose;
 import io.crate.analyze.AnalyzedCommit;
+import io.crate.analyze.AnalyzedCopyFrom;
 import io.crate.analyze.AnalyzedDeallocate;
 import io.crate.analyze.AnalyzedDeclare;
 import io.crate.analyze.AnalyzedDiscard;
@@ -62,6 +62,8 @@ import io.crate.data.RowConsumer;
 import io.crate.data.RowN;
 import io.crate.exceptions.ReadOnlyException;
 import io.crate.exceptions.SQLExceptions;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
+import io.crate.execution.engine.collect.files.StdinInputStream;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.execution.jobs.kill.KillJobsNodeAction;
 import io.crate.execution.jobs.kill.KillJobsNodeRequest;
@@ -131,6 +133,10 @@ public class Session implements AutoCloseable {
     private static final Statement EMPTY_STMT = SqlParser.createStatement("select '' from sys.cluster limit 0");
 
     public static final String UNNAMED = "";
+
+    private static final String COPY_FROM_STDIN_UNSUPPORTED =
+        "COPY FROM STDIN is only supported by PostgreSQL clients using the simple query protocol";
+
     private final DependencyCarrier executor;
     private final CoordinatorSessionSettings sessionSettings;
 
@@ -141,8 +147,12 @@ public class Session implements AutoCloseable {
 
     final Cursors cursors = new Cursors();
 
+    /**
+     * Deferred executions in the order they were received.
+     * Consecutive executions of the same statement are grouped so that they can be executed as bulk operation.
+     */
     @VisibleForTesting
-    final Map<Statement, List<DeferredExecution>> deferredExecutionsByStmt = new LinkedHashMap<>();
+    final List<List<DeferredExecution>> deferredExecutions = new ArrayList<>();
 
     @VisibleForTesting
     @Nullable
@@ -159,6 +169,7 @@ public class Session implements AutoCloseable {
     private final boolean isReadOnly;
     private final Runnable onClose;
     private final TableStats tableStats;
+    private final PlanCache planCache;
 
     private TransactionState currentTransactionState = TransactionState.IDLE;
 
@@ -172,6 +183,7 @@ public class Session implements AutoCloseable {
                    DependencyCarrier executor,
                    CoordinatorSessionSettings sessionSettings,
                    TableStats tableStats,
+                   PlanCache planCache,
                    Runnable onClose) {
         this.id = sessionId;
         this.secret = ThreadLocalRandom.current().nextInt();
@@ -183,6 +195,7 @@ public class Session implements AutoCloseable {
         this.executor = executor;
         this.sessionSettings = sessionSettings;
         this.tableStats = tableStats;
+        this.planCache = planCache;
         this.onClose = onClose;
     }
 
@@ -207,6 +220,9 @@ public class Session implements AutoCloseable {
             ParamTypeHints.EMPTY,
             cursors
         );
+        if (analyzedStatement instanceof AnalyzedCopyFrom copyFrom && copyFrom.isStdin()) {
+            throw new UnsupportedOperationException(COPY_FROM_STDIN_UNSUPPORTED);
+        }
         RoutingProvider routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
         mostRecentJobID = UUIDs.dirtyUUID();
         ClusterState clusterState = planner.currentClusterState();
@@ -280,6 +296,14 @@ public class Session implements AutoCloseable {
         plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
     }
 
+    /**
+     * Provides the data for a {@code COPY FROM STDIN} statement bound to the portal.
+     * The stream is closed once the execution of the statement finished.
+     */
+    public void copyIn(String portalName, StdinInputStream stream) {
+        getSafePortal(portalName).copyIn(stream);
+    }
+
     private Portal getSafePortal(String portalName) {
         Portal portal = portals.get(portalName);
         if (portal == null) {
@@ -490,7 +514,8 @@ public class Session implements AutoCloseable {
             resultReceiver.allFinished();
         } else if (analyzedStmt instanceof AnalyzedDiscard) {
             AnalyzedDiscard discard = (AnalyzedDiscard) analyzedStmt;
-            // We don't cache plans, don't have sequences or temporary tables
+            // Cached plans are dropped together with the prepared statements.
+            // We don't have sequences or temporary tables
             // See https://www.postgresql.org/docs/current/sql-discard.html
             if (discard.target() == Target.ALL) {
                 close();
@@ -510,19 +535,20 @@ public class Session implements AutoCloseable {
              *          preparedStatement.execute(args)
              *      conn.commit()
              */
-            deferredExecutionsByStmt.compute(
-                portal.preparedStmt().parsedStatement(), (key, oldValue) -> {
-                    DeferredExecution deferredExecution = new DeferredExecution(portal, maxRows, resultReceiver);
-                    if (oldValue == null) {
-                        ArrayList<DeferredExecution> deferredExecutions = new ArrayList<>();
-                        deferredExecutions.add(deferredExecution);
-                        return deferredExecutions;
-                    } else {
-                        oldValue.add(deferredExecution);
-                        return oldValue;
-                    }
-                }
-            );
+            DeferredExecution deferredExecution = new DeferredExecution(portal, maxRows, resultReceiver);
+            List<DeferredExecution> lastGroup = deferredExecutions.isEmpty()
+                ? null
+                : deferredExecutions.get(deferredExecutions.size() - 1);
+            // Only consecutive executions of the same statement are combined, results must be
+            // sent in the order in which the statements were received.
+            Statement statement = portal.preparedStmt().parsedStatement();
+            if (lastGroup != null && lastGroup.get(0).portal().preparedStmt().parsedStatement().equals(statement)) {
+                lastGroup.add(deferredExecution);
+            } else {
+                ArrayList<DeferredExecution> group = new ArrayList<>();
+                group.add(deferredExecution);
+                deferredExecutions.add(group);
+            }
             return resultReceiver.completionFuture();
         } else {
             if (analyzedStmt instanceof AnalyzedClose close) {
@@ -534,7 +560,7 @@ public class Session implements AutoCloseable {
                     }
                 }
             }
-            if (!deferredExecutionsByStmt.isEmpty()) {
+            if (!deferredExecutions.isEmpty()) {
                 throw new UnsupportedOperationException(
                     "Only write operations are allowed in Batch statements");
             }
@@ -549,8 +575,13 @@ public class Session implements AutoCloseable {
         return null;
     }
 
-    public void flush() {
-        assert !deferredExecutionsByStmt.isEmpty()
+    /**
+     * Triggers the deferred executions.
+     *
+     * @return future completed once the triggered executions finished.
+     */
+    public CompletableFuture<?> flush() {
+        assert !deferredExecutions.isEmpty()
             : "Session.flush() must only be called if there are deferred executions";
 
         // This will make `sync` use the triggered execution instead of
@@ -561,6 +592,7 @@ public class Session implements AutoCloseable {
         // E.g. PostgresWireProtocol would otherwise send a `ReadyForQuery` message too
         // early.
         activeExecution = triggerDeferredExecutions();
+        return activeExecution;
     }
 
     public CompletableFuture<?> sync() {
@@ -597,30 +629,29 @@ public class Session implements AutoCloseable {
     }
 
     private CompletableFuture<?> triggerDeferredExecutions() {
-        switch (deferredExecutionsByStmt.size()) {
+        switch (deferredExecutions.size()) {
             case 0:
                 LOGGER.debug("method=sync deferredExecutions=0");
                 return CompletableFuture.completedFuture(null);
             case 1: {
-                var deferredExecutions = deferredExecutionsByStmt.values().iterator().next();
-                deferredExecutionsByStmt.clear();
-                return exec(deferredExecutions);
+                var group = deferredExecutions.get(0);
+                deferredExecutions.clear();
+                return exec(group);
             }
             default: {
                 // sequentiallize execution to ensure client receives row counts in correct order
                 CompletableFuture<?> allCompleted = null;
-                for (var entry : deferredExecutionsByStmt.entrySet()) {
-                    var deferredExecutions = entry.getValue();
+                for (var group : deferredExecutions) {
                     if (allCompleted == null) {
-                        allCompleted = exec(deferredExecutions);
+                        allCompleted = exec(group);
                     } else {
                         allCompleted = allCompleted
                             // individual rowReceiver will receive failure; must not break execution chain due to failures.
                             .exceptionally(swallowException -> null)
-                            .thenCompose(ignored -> exec(deferredExecutions));
+                            .thenCompose(ignored -> exec(group));
                     }
                 }
-                deferredExecutionsByStmt.clear();
+                deferredExecutions.clear();
                 return allCompleted;
             }
         }
@@ -748,12 +779,20 @@ public class Session implements AutoCloseable {
             jobsLogs.logPreExecutionFailure(mostRecentJobID, rawStatement, errorMsg, sessionSettings.sessionUser());
             throw new IllegalStateException(errorMsg);
         }
-        Plan plan;
-        try {
-            plan = planner.plan(analyzedStmt, plannerContext);
-        } catch (Throwable t) {
-            jobsLogs.logPreExecutionFailure(mostRecentJobID, rawStatement, SQLExceptions.messageOf(t), sessionSettings.sessionUser());
-            throw t;
+        StdinInputStream copyIn = portal.copyIn();
+        if (copyIn == null && analyzedStmt instanceof AnalyzedCopyFrom copyFrom && copyFrom.isStdin()) {
+            jobsLogs.logPreExecutionFailure(mostRecentJobID, rawStatement, COPY_FROM_STDIN_UNSUPPORTED, sessionSettings.sessionUser());
+            throw new UnsupportedOperationException(COPY_FROM_STDIN_UNSUPPORTED);
+        }
+        Plan plan = planCache.get(portal.preparedStmt(), clusterState, sessionSettings);
+        if (plan == null) {
+            try {
+                plan = planner.plan(analyzedStmt, plannerContext);
+            } catch (Throwable t) {
+                jobsLogs.logPreExecutionFailure(mostRecentJobID, rawStatement, SQLExceptions.messageOf(t), sessionSettings.sessionUser());
+                throw t;
+            }
+            planCache.put(portal.preparedStmt(), plan, clusterState, sessionSettings);
         }
         if (!analyzedStmt.isWriteOperation()) {
             resultReceiver = new RetryOnFailureResultReceiver<>(
@@ -781,8 +820,17 @@ public class Session implements AutoCloseable {
         RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(
             resultReceiver, maxRows, new JobsLogsUpdateListener(mostRecentJobID, jobsLogs));
         portal.setActiveConsumer(consumer);
-        plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
         CompletableFuture<?> result = resultReceiver.completionFuture();
+        if (copyIn != null) {
+            UUID jobId = mostRecentJobID;
+            StdinFileInputFactory stdinInputs = executor.stdinInputs();
+            stdinInputs.register(jobId, copyIn);
+            result.whenComplete((res, err) -> {
+                stdinInputs.unregister(jobId);
+                copyIn.close();
+            });
+        }
+        plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
         addStatementTimeout(result);
         return result;
 
@@ -886,17 +934,17 @@ public class Session implements AutoCloseable {
     }
 
     public boolean hasDeferredExecutions() {
-        return !deferredExecutionsByStmt.isEmpty();
+        return !deferredExecutions.isEmpty();
     }
 
     public void resetDeferredExecutions() {
-        for (var deferredExecutions : deferredExecutionsByStmt.values()) {
-            for (DeferredExecution deferredExecution : deferredExecutions) {
+        for (var group : deferredExecutions) {
+            for (DeferredExecution deferredExecution : group) {
                 deferredExecution.portal().closeActiveConsumer();
                 portals.remove(deferredExecution.portal().name());
             }
         }
-        deferredExecutionsByStmt.clear();
+        deferredExecutions.clear();
     }
 
     public TransactionState transactionState() {
@@ -87,6 +87,7 @@ public class Sessions {
     private final boolean isReadOnly;
     private final AtomicInteger nextSessionId = new AtomicInteger();
     private final ConcurrentMap<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private final PlanCache planCache;
 
     private volatile boolean disabled;
     private volatile TimeValue defaultStatementTimeout;
@@ -113,6 +114,7 @@ public class Sessions {
         this.defaultStatementTimeout = STATEMENT_TIMEOUT.get(settings);
         this.memoryLimit = MEMORY_LIMIT.get(settings);
         ClusterSettings clusterSettings = clusterService.getClusterSettings();
+        this.planCache = new PlanCache(settings, clusterSettings, tableStats);
         clusterSettings.addSettingsUpdateConsumer(STATEMENT_TIMEOUT, statementTimeout -> {
             this.defaultStatementTimeout = statementTimeout;
         });
@@ -136,6 +138,7 @@ public class Sessions {
             executorProvider.get(),
             sessionSettings,
             tableStats,
+            planCache,
             () -> sessions.remove(sessionId)
         );
         sessions.put(sessionId, session);
@@ -178,6 +181,10 @@ public class Sessions {
         return !disabled;
     }
 
+    public PlanCache planCache() {
+        return planCache;
+    }
+
     /**
      * @return true if a session matches the keyData, false otherwise.
      */
@@ -21,6 +21,8 @@
 
 package io.crate.analyze;
 
+import java.util.List;
+
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
@@ -57,6 +59,7 @@ import io.crate.sql.tree.Close;
 import io.crate.sql.tree.CommitStatement;
 import io.crate.sql.tree.CopyFrom;
 import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateFunction;
@@ -367,6 +370,16 @@ public class Analyzer {
                 context.transactionContext());
         }
 
+        @Override
+        public AnalyzedStatement visitCopyToStdout(CopyToStdout<?> node, Analysis context) {
+            // The rows are encoded by the protocol, the statement itself is analyzed as its query
+            node.properties().ensureContainsOnly(List.of(CopyStatementSettings.OUTPUT_FORMAT_SETTING.getKey()));
+            return relationAnalyzer.analyze(
+                node.query(),
+                context.transactionContext(),
+                context.paramTypeHints());
+        }
+
         @Override
         public AnalyzedStatement visitCreateAnalyzer(CreateAnalyzer<?> node, Analysis context) {
             return createAnalyzerStatementAnalyzer.analyze(
@@ -78,6 +78,12 @@ class CopyAnalyzer {
         Table<Symbol> table = node.table().map(t -> exprAnalyzerWithFieldsAsString.convert(t, exprCtx));
         GenericProperties<Symbol> properties = node.properties().map(t -> exprAnalyzerWithoutFields.convert(t,
                                                                                                             exprCtx));
+        if (node.isStdin()) {
+            if (node.isReturnSummary()) {
+                throw new UnsupportedOperationException("RETURN SUMMARY is not supported with COPY FROM STDIN");
+            }
+            return new AnalyzedCopyFrom(tableInfo, node.columns(), table, properties, null);
+        }
         Symbol uri = exprAnalyzerWithoutFields.convert(node.path(), exprCtx);
 
         if (node.isReturnSummary()) {
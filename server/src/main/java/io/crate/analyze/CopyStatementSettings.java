@@ -37,19 +37,19 @@ public final class CopyStatementSettings {
 
     public static final Setting<String> COMPRESSION_SETTING = Setting.simpleString(
         "compression",
-        Validators.stringValidator("compression", "gzip"),
+        Validators.stringValidator("compression", "gzip", "lz4"),
         Setting.Property.Dynamic);
 
     public static final Setting<String> OUTPUT_FORMAT_SETTING = Setting.simpleString(
         "format",
-        Validators.stringValidator("format", "json_object", "json_array"),
+        Validators.stringValidator("format", "json_object", "json_array", "columnar"),
         Setting.Property.Dynamic);
 
     public static final Setting<String> INPUT_FORMAT_SETTING = new Setting<>(
         "format",
         "json",
         (s) -> s,
-        Validators.stringValidator("format", "json", "csv"),
+        Validators.stringValidator("format", "json", "csv", "columnar"),
         DataTypes.STRING,
         Setting.Property.Dynamic);
 
@@ -41,8 +41,10 @@ import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.MergeSchedulerConfig;
+import org.elasticsearch.index.codec.PerFieldMappingPostingFormatCodec;
 import org.elasticsearch.index.engine.EngineConfig;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.store.FsDirectoryFactory;
 import org.elasticsearch.index.store.Store;
 
 import io.crate.blob.v2.BlobIndicesService;
@@ -107,7 +109,9 @@ public class TableParameters {
             IndexMetadata.INDEX_ROUTING_INCLUDE_GROUP_SETTING,
             IndexMetadata.INDEX_ROUTING_EXCLUDE_GROUP_SETTING,
             EngineConfig.INDEX_CODEC_SETTING,
+            PerFieldMappingPostingFormatCodec.INDEX_KNN_QUANTIZATION_SETTING,
             IndexModule.INDEX_STORE_TYPE_SETTING,
+            FsDirectoryFactory.INDEX_STORE_PRE_LOAD_SETTING,
             MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING,
@@ -140,7 +144,13 @@ public class TableParameters {
         IndexSettings.INDEX_REFRESH_INTERVAL_SETTING,
 
         IndexSettings.FILE_BASED_RECOVERY_THRESHOLD_SETTING,
-        Store.INDEX_STORE_STATS_REFRESH_INTERVAL_SETTING
+        Store.INDEX_STORE_STATS_REFRESH_INTERVAL_SETTING,
+
+        // Only shown if set explicitly, tables without float_vector columns don't need it
+        PerFieldMappingPostingFormatCodec.INDEX_KNN_QUANTIZATION_SETTING,
+
+        // Only shown if set explicitly, nothing is preloaded by default
+        FsDirectoryFactory.INDEX_STORE_PRE_LOAD_SETTING
     );
 
     private static final Map<String, Setting<?>> SUPPORTED_SETTINGS_DEFAULT
@@ -275,6 +285,9 @@ public class TableParameters {
             // return time as long (epoch) in MS so it can be compared correctly
             return ((TimeValue) value).millis();
         }
+        if (value instanceof List<?> list) {
+            return list.stream().map(Object::toString).toArray(String[]::new);
+        }
         return value.toString();
     }
 }
@@ -223,6 +223,8 @@ public final class TableProperties {
             Object value = setting.get(singleSettingBuilder.build());
             if (value instanceof Settings settings) {
                 builder.put(settings);
+            } else if (value instanceof List<?> list) {
+                builder.putList(setting.getKey(), list);
             } else {
                 builder.put(setting.getKey(), value.toString());
             }
@@ -241,6 +243,8 @@ public final class TableProperties {
                 builder.putNull(setting.getKey());
             } else if (value instanceof Settings settings) {
                 builder.put(settings);
+            } else if (value instanceof List<?> list) {
+                builder.putList(setting.getKey(), list);
             } else {
                 builder.put(setting.getKey(), value.toString());
             }
@@ -80,7 +80,8 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
 
     public enum InputFormat {
         JSON,
-        CSV
+        CSV,
+        COLUMNAR
     }
 
     public Symbol targetUri() {
@@ -167,6 +168,9 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
             out.writeStringCollection(targetColumns);
         }
         Symbols.toStream(toCollect, out);
+        if (inputFormat == InputFormat.COLUMNAR && out.getVersion().before(Version.V_5_7_0)) {
+            throw new IllegalStateException("Cannot use the columnar format until all nodes are upgraded to 5.7");
+        }
         out.writeVInt(inputFormat.ordinal());
         if (out.getVersion().onOrAfter(Version.V_4_4_0)) {
             parserProperties.writeTo(out);
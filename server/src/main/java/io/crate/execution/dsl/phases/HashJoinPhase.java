@@ -44,6 +44,7 @@ public class HashJoinPhase extends JoinPhase {
     private final List<Symbol> rightJoinConditionInputs;
 
     private final List<DataType<?>> leftOutputTypes;
+    private final List<DataType<?>> rightOutputTypes;
     private final long estimatedRowSizeForLeft;
 
     public HashJoinPhase(UUID jobId,
@@ -59,6 +60,7 @@ public class HashJoinPhase extends JoinPhase {
                          List<Symbol> leftJoinConditionInputs,
                          List<Symbol> rightJoinConditionInputs,
                          List<DataType<?>> leftOutputTypes,
+                         List<DataType<?>> rightOutputTypes,
                          long estimatedRowSizeForLeft) {
         super(
             jobId,
@@ -76,6 +78,7 @@ public class HashJoinPhase extends JoinPhase {
         this.leftJoinConditionInputs = leftJoinConditionInputs;
         this.rightJoinConditionInputs = rightJoinConditionInputs;
         this.leftOutputTypes = leftOutputTypes;
+        this.rightOutputTypes = rightOutputTypes;
         this.estimatedRowSizeForLeft = estimatedRowSizeForLeft;
     }
 
@@ -91,6 +94,12 @@ public class HashJoinPhase extends JoinPhase {
             // Version before 5.6.0 used to send numberOfRowsForLeft
             in.readZLong();
         }
+        if (in.getVersion().onOrAfter(Version.V_5_7_0)) {
+            rightOutputTypes = DataTypes.listFromStream(in);
+        } else {
+            // Spilling is not possible without the types of the right side
+            rightOutputTypes = List.of();
+        }
     }
 
     @Override
@@ -107,6 +116,9 @@ public class HashJoinPhase extends JoinPhase {
             // sending neutral value, indicating that this stat is unavailable.
             out.writeZLong(-1);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_7_0)) {
+            DataTypes.toStream(rightOutputTypes, out);
+        }
     }
 
     @Override
@@ -131,6 +143,13 @@ public class HashJoinPhase extends JoinPhase {
         return leftOutputTypes;
     }
 
+    /**
+     * @return the types of the right outputs or an empty list if the phase was created by a node before 5.7.0
+     */
+    public List<DataType<?>> rightOutputTypes() {
+        return rightOutputTypes;
+    }
+
     public long estimatedRowSizeForLeft() {
         return estimatedRowSizeForLeft;
     }
@@ -84,6 +84,12 @@ public class WriterProjection extends Projection {
         DataTypes.STRING
     );
 
+    public static final Symbol DIRECTORY_TO_COLUMNAR_FILENAME = new Function(
+        FormatFunction.SIGNATURE,
+        List.of(Literal.of("%s_%s_%s.col"), TABLE_NAME_REF, SHARD_ID_REF, PARTITION_IDENT_REF),
+        DataTypes.STRING
+    );
+
     private final Symbol uri;
     private final List<Symbol> inputs;
 
@@ -102,13 +108,15 @@ public class WriterProjection extends Projection {
 
     public enum OutputFormat {
         JSON_OBJECT,
-        JSON_ARRAY
+        JSON_ARRAY,
+        COLUMNAR
     }
 
     private final CompressionType compressionType;
 
     public enum CompressionType {
-        GZIP
+        GZIP,
+        LZ4
     }
 
     public WriterProjection(List<Symbol> inputs,
@@ -220,7 +228,13 @@ public class WriterProjection extends Projection {
             entry.getKey().writeTo(out);
             Symbols.toStream(entry.getValue(), out);
         }
+        if (compressionType == CompressionType.LZ4 && out.getVersion().before(Version.V_5_7_0)) {
+            throw new IllegalStateException("Cannot use lz4 compression until all nodes are upgraded to 5.7");
+        }
         out.writeInt(compressionType != null ? compressionType.ordinal() : -1);
+        if (outputFormat == OutputFormat.COLUMNAR && out.getVersion().before(Version.V_5_7_0)) {
+            throw new IllegalStateException("Cannot use the columnar format until all nodes are upgraded to 5.7");
+        }
         out.writeInt(outputFormat.ordinal());
         if (out.getVersion().onOrAfter(Version.V_4_8_0)) {
             Settings.writeSettingsToStream(withClauseOptions, out);
@@ -0,0 +1,197 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+
+/**
+ * BatchIterator for a partial GROUP BY which stops grouping if it doesn't reduce the number of rows.
+ * <p>
+ * The first {@code sampleSize} rows are grouped. If the number of groups is close to the number of rows
+ * the groups are emitted and all further rows are forwarded with the partial states of the single row,
+ * leaving the aggregation to the merge phase. Otherwise all rows are grouped and the groups are
+ * emitted once the source is exhausted, like a {@link io.crate.data.CollectingBatchIterator} would do.
+ * </p>
+ */
+final class AdaptiveGroupingBatchIterator<K> implements BatchIterator<Row> {
+
+    /**
+     * Rows are forwarded if grouping the sampled rows reduced them by less than 10%
+     */
+    static final double MAX_GROUPS_PER_ROW = 0.9;
+
+    private final BatchIterator<Row> source;
+    private final GroupingCollector<K> collector;
+    private final BiConsumer<Map<K, Object[]>, Row> accumulator;
+    private final int sampleSize;
+    private final Consumer<Map<String, Object>> onStrategyChosen;
+    private final Object[] cells;
+    private final RowN passThroughRow;
+
+    private Map<K, Object[]> statesByKey;
+    private long numRows = 0;
+    private boolean passThrough = false;
+    private long rowsToSkip = 0;
+
+    @Nullable
+    private Iterator<Row> groups;
+    private Row current;
+    private volatile Throwable killed;
+
+    AdaptiveGroupingBatchIterator(BatchIterator<Row> source,
+                                  GroupingCollector<K> collector,
+                                  int sampleSize,
+                                  Consumer<Map<String, Object>> onStrategyChosen) {
+        assert collector.supportsPassThrough() : "collector must support pass-through";
+        this.source = source;
+        this.collector = collector;
+        this.accumulator = collector.accumulator();
+        this.sampleSize = sampleSize;
+        this.onStrategyChosen = onStrategyChosen;
+        this.statesByKey = collector.supplier().get();
+        this.cells = new Object[collector.numColumns()];
+        this.passThroughRow = new RowN(cells);
+    }
+
+    @Override
+    public Row currentElement() {
+        return current;
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfKilled();
+        if (passThrough) {
+            groups = collector.finisher().apply(statesByKey).iterator();
+            rowsToSkip = sampleSize;
+            source.moveToStart();
+        } else if (groups != null) {
+            groups = collector.finisher().apply(statesByKey).iterator();
+        } else if (numRows == 0) {
+            source.moveToStart();
+        } else {
+            throw new IllegalStateException("BatchIterator is loading");
+        }
+        current = null;
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfKilled();
+        if (groups != null) {
+            if (groups.hasNext()) {
+                current = groups.next();
+                return true;
+            }
+            if (!passThrough) {
+                current = null;
+                return false;
+            }
+            groups = null;
+        }
+        if (passThrough) {
+            while (source.moveNext()) {
+                if (rowsToSkip > 0) {
+                    rowsToSkip--;
+                    continue;
+                }
+                collector.passThrough(source.currentElement(), cells);
+                current = passThroughRow;
+                return true;
+            }
+            current = null;
+            return false;
+        }
+        while (source.moveNext()) {
+            accumulator.accept(statesByKey, source.currentElement());
+            numRows++;
+            if (numRows == sampleSize) {
+                int numGroups = statesByKey.size();
+                passThrough = numGroups > numRows * MAX_GROUPS_PER_ROW;
+                onStrategyChosen.accept(Map.of(
+                    "Strategy", passThrough ? "pass_through" : "aggregate",
+                    "SampledRows", numRows,
+                    "Groups", numGroups
+                ));
+                if (passThrough) {
+                    groups = collector.finisher().apply(statesByKey).iterator();
+                    return moveNext();
+                }
+            }
+        }
+        if (source.allLoaded()) {
+            groups = collector.finisher().apply(statesByKey).iterator();
+            return moveNext();
+        }
+        current = null;
+        return false;
+    }
+
+    @Override
+    public void close() {
+        source.close();
+        killed = BatchIterator.CLOSED;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        if (source.allLoaded()) {
+            throw new IllegalStateException("BatchIterator already fully loaded");
+        }
+        return source.loadNextBatch();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return source.allLoaded();
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        source.kill(throwable);
+        killed = throwable;
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return source.hasLazyResultSet();
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+}
@@ -117,6 +117,15 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
                                                 "not removable cumulative");
     }
 
+    /**
+     * Indicates if {@link #reduce(RamAccounting, Object, Object)} selects one of the two states without modifying
+     * either of them. Partial states of such functions can be combined multiple times, which allows clients to
+     * evaluate sliding window frames using a segment tree as described in http://www.vldb.org/pvldb/vol8/p1058-leis.pdf
+     */
+    public boolean isSelectiveReduce() {
+        return false;
+    }
+
     @Nullable
     public DocValueAggregator<?> getDocValueAggregator(LuceneReferenceResolver referenceResolver,
                                                        List<Reference> aggregationReferences,
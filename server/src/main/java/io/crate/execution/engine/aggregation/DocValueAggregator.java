@@ -38,6 +38,20 @@ public interface DocValueAggregator<T> {
 
     public void apply(RamAccounting ramAccounting, int doc, T state) throws IOException;
 
+    /**
+     * Applies a block of matching documents. The doc ids are in increasing order.
+     * <p>
+     * Implementations can override this to first read the values of the block into a primitive
+     * array (see {@link io.crate.execution.engine.aggregation.impl.templates.NumericDocValuesBlock})
+     * and aggregate them in a separate, tight loop which the JIT can unroll and vectorize.
+     * </p>
+     */
+    public default void apply(RamAccounting ramAccounting, int[] docs, int numDocs, T state) throws IOException {
+        for (int i = 0; i < numDocs; i++) {
+            apply(ramAccounting, docs[i], state);
+        }
+    }
+
     // Aggregations are executed on shard level,
     // that means there is always a final reduce step necessary
     // → never return final value, but always partial result
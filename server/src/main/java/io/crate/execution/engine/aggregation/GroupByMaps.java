@@ -24,17 +24,26 @@ package io.crate.execution.engine.aggregation;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 import org.apache.lucene.util.RamUsageEstimator;
 
 import io.crate.data.breaker.RamAccounting;
+import io.crate.memory.MemoryManager;
+import io.crate.types.BooleanType;
 import io.crate.types.ByteType;
+import io.crate.types.CharacterType;
 import io.crate.types.DataType;
+import io.crate.types.DateType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
 import io.crate.types.IntegerType;
+import io.crate.types.IpType;
 import io.crate.types.LongType;
 import io.crate.types.ShortType;
+import io.crate.types.StringType;
 import io.crate.types.TimestampType;
 import io.netty.util.collection.ByteObjectHashMap;
 import io.netty.util.collection.IntObjectHashMap;
@@ -43,6 +52,51 @@ import io.netty.util.collection.ShortObjectHashMap;
 
 public final class GroupByMaps {
 
+    /**
+     * Types with a canonical serialized representation: Values are equal if and only if their serialized bytes are equal.
+     * Intervals are excluded because {@link org.joda.time.Period#equals(Object)} also compares the period type.
+     */
+    private static final Set<Integer> SERIALIZABLE_KEY_TYPES = Set.of(
+        ByteType.ID,
+        BooleanType.ID,
+        CharacterType.ID,
+        StringType.ID,
+        IpType.ID,
+        DoubleType.ID,
+        FloatType.ID,
+        ShortType.ID,
+        IntegerType.ID,
+        LongType.ID,
+        TimestampType.ID_WITH_TZ,
+        TimestampType.ID_WITHOUT_TZ,
+        DateType.ID
+    );
+
+    /**
+     * @return true if groups for keys of the given types should be stored in a {@link SerializedKeyMap}.
+     *         Single numeric keys are better served by the primitive maps of {@link #mapForType(DataType)}.
+     */
+    @SuppressWarnings("rawtypes")
+    public static boolean useSerializedKeys(List<? extends DataType> types) {
+        if (types.size() == 1 && hasPrimitiveMap(types.get(0))) {
+            return false;
+        }
+        for (DataType type : types) {
+            if (!SERIALIZABLE_KEY_TYPES.contains(type.id())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Accounts for the per-entry overhead of a {@link SerializedKeyMap}.
+     * The memory of the serialized keys is accounted by the {@link MemoryManager} of the map.
+     */
+    public static <K, V> BiConsumer<Map<K, V>, K> accountForNewSerializedEntry(RamAccounting ramAccounting) {
+        return (map, k) -> ramAccounting.addBytes(SerializedKeyMap.ENTRY_OVERHEAD_BYTES);
+    }
+
     public static <K, V> BiConsumer<Map<K, V>, K> accountForNewEntry(RamAccounting ramAccounting, DataType<K> type) {
         return (map, k) -> ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(type.valueBytes(k) + 36));
     }
@@ -81,4 +135,35 @@ public final class GroupByMaps {
                 return HashMap::new;
         }
     }
+
+    public static <K, V> Supplier<Map<K, V>> mapForType(DataType<K> type, MemoryManager memoryManager) {
+        if (useSerializedKeys(List.of(type))) {
+            return () -> SerializedKeyMap.forSingleKey(type, memoryManager);
+        }
+        return mapForType(type);
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static <V> Supplier<Map<List<Object>, V>> mapForTypes(List<? extends DataType> types,
+                                                                 MemoryManager memoryManager) {
+        if (useSerializedKeys(types)) {
+            return () -> SerializedKeyMap.forManyKeys(types, memoryManager);
+        }
+        return HashMap::new;
+    }
+
+    private static boolean hasPrimitiveMap(DataType<?> type) {
+        switch (type.id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case TimestampType.ID_WITH_TZ:
+            case TimestampType.ID_WITHOUT_TZ:
+                return true;
+
+            default:
+                return false;
+        }
+    }
 }
@@ -30,11 +30,11 @@ import io.crate.expression.InputCondition;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.memory.MemoryManager;
 import io.crate.types.DataType;
+import io.crate.types.FixedWidthType;
 import org.elasticsearch.Version;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -80,6 +80,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                Input<?> keyInput,
                                                DataType keyType,
                                                Version indexVersionCreated) {
+        boolean serializedKeys = GroupByMaps.useSerializedKeys(List.of(keyType));
         return new GroupingCollector<>(
             expressions,
             aggregations,
@@ -91,10 +92,12 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             minNodeVersion,
             (key, cells) -> cells[0] = key,
             1,
-            GroupByMaps.accountForNewEntry(ramAccounting, keyType),
+            serializedKeys
+                ? GroupByMaps.accountForNewSerializedEntry(ramAccounting)
+                : GroupByMaps.accountForNewEntry(ramAccounting, keyType),
             row -> keyInput.value(),
             indexVersionCreated,
-            GroupByMaps.mapForType(keyType)
+            GroupByMaps.mapForType(keyType, memoryManager)
         );
     }
 
@@ -109,6 +112,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                     List<Input<?>> keyInputs,
                                                     List<? extends DataType> keyTypes,
                                                     Version indexVersionCreated) {
+        boolean serializedKeys = GroupByMaps.useSerializedKeys(keyTypes);
         return new GroupingCollector<>(
             expressions,
             aggregations,
@@ -120,10 +124,12 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             minNodeVersion,
             GroupingCollector::applyKeysToCells,
             keyInputs.size(),
-            GroupByMaps.accountForNewEntry(ramAccountingContext, keyTypes),
+            serializedKeys
+                ? GroupByMaps.accountForNewSerializedEntry(ramAccountingContext)
+                : GroupByMaps.accountForNewEntry(ramAccountingContext, keyTypes),
             row -> evalKeyInputs(keyInputs),
             indexVersionCreated,
-            HashMap::new
+            GroupByMaps.mapForTypes(keyTypes, memoryManager)
         );
     }
 
@@ -258,11 +264,62 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         addWithAccounting(statesByKey, key, states);
     }
 
+    /**
+     * @return true if rows can be forwarded with their own partial states instead of being grouped.
+     *         This is only possible if the states are merged by a later {@link AggregateMode#PARTIAL_FINAL}
+     *         aggregation and if the states aren't larger than the values they are built from.
+     * @see #passThrough(Row, Object[])
+     */
+    boolean supportsPassThrough() {
+        if (mode != AggregateMode.ITER_PARTIAL) {
+            return false;
+        }
+        for (AggregationFunction<?, ?> aggregation : aggregations) {
+            if (!(aggregation.partialType() instanceof FixedWidthType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the keys and the partial states of a single row into {@code cells} without adding it to a group.
+     * <p>
+     * The states aren't accounted, they can be released as soon as the row has been consumed.
+     * </p>
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void passThrough(Row row, Object[] cells) {
+        for (CollectExpression<Row, ?> expression : expressions) {
+            expression.setNextRow(row);
+        }
+        applyKeyToCells.accept(keyExtractor.apply(row), cells);
+        int c = numKeyColumns;
+        for (int i = 0; i < aggregations.length; i++) {
+            AggregationFunction aggregation = aggregations[i];
+            Object state = aggregation.newState(
+                RamAccounting.NO_ACCOUNTING,
+                indexVersionCreated,
+                minNodeVersion,
+                memoryManager
+            );
+            if (InputCondition.matches(filters[i])) {
+                state = aggregation.iterate(RamAccounting.NO_ACCOUNTING, memoryManager, state, inputs[i]);
+            }
+            cells[c] = mode.finishCollect(RamAccounting.NO_ACCOUNTING, aggregation, state);
+            c++;
+        }
+    }
+
+    int numColumns() {
+        return numKeyColumns + aggregations.length;
+    }
+
     private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
 
         return () -> new Iterator<>() {
             final Iterator<Map.Entry<K, Object[]>> iterator = statesByKey.entrySet().iterator();
-            final RowN row = new RowN(numKeyColumns + aggregations.length);
+            final RowN row = new RowN(numColumns());
             final Object[] cells = new Object[row.numColumns()];
 
             {
@@ -34,13 +34,21 @@ import io.crate.memory.MemoryManager;
 import org.elasticsearch.Version;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collector;
 
 import static io.crate.expression.symbol.Symbols.typeView;
 
 public class GroupingProjector implements Projector {
 
-    private final Collector<Row, ?, Iterable<Row>> collector;
+    /**
+     * Number of rows after which a partial GROUP BY decides if it keeps grouping or forwards the rows
+     */
+    static final int PASS_THROUGH_SAMPLE_SIZE = 10_000;
+
+    private final GroupingCollector<?> collector;
+    private final Consumer<Map<String, Object>> onStrategyChosen;
 
 
     public GroupingProjector(List<? extends Symbol> keys,
@@ -51,7 +59,8 @@ public class GroupingProjector implements Projector {
                              RamAccounting ramAccounting,
                              MemoryManager memoryManager,
                              Version minNodeVersion,
-                             Version indexVersionCreated) {
+                             Version indexVersionCreated,
+                             Consumer<Map<String, Object>> onStrategyChosen) {
         assert keys.size() == keyInputs.size() : "number of key types must match with number of key inputs";
 
         AggregationFunction[] functions = new AggregationFunction[aggregations.length];
@@ -79,8 +88,7 @@ public class GroupingProjector implements Projector {
                 indexVersionCreated
             );
         } else {
-            //noinspection unchecked
-            collector = (GroupingCollector<Object>) (GroupingCollector) GroupingCollector.manyKeys(
+            collector = GroupingCollector.manyKeys(
                 collectExpressions,
                 mode,
                 functions,
@@ -94,10 +102,19 @@ public class GroupingProjector implements Projector {
                 indexVersionCreated
             );
         }
+        this.onStrategyChosen = onStrategyChosen;
     }
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        if (collector.supportsPassThrough()) {
+            return new AdaptiveGroupingBatchIterator<>(
+                batchIterator,
+                collector,
+                PASS_THROUGH_SAMPLE_SIZE,
+                onStrategyChosen
+            );
+        }
         return CollectingBatchIterator.newInstance(batchIterator, collector);
     }
 
@@ -107,6 +124,7 @@ public class GroupingProjector implements Projector {
 
     @Override
     public boolean providesIndependentScroll() {
-        return true;
+        // once rows are forwarded a scroll requires the source to move to the start as well
+        return !collector.supportsPassThrough();
     }
 }
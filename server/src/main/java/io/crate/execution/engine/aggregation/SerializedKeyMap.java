@@ -0,0 +1,357 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.lucene.util.StringHelper;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import io.crate.Streamer;
+import io.crate.memory.MemoryManager;
+import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Open addressing hash map which stores the keys in their serialized form
+ * within buffers allocated by a {@link MemoryManager}.
+ * <p>
+ * Compared to a {@link java.util.HashMap} with {@code List<Object>} keys this avoids
+ * retaining one entry, one list and boxed values per group; a group only costs
+ * its serialized key bytes plus a few slots in primitive arrays.
+ * If the memory manager is a {@link io.crate.memory.OffHeapMemoryManager} the keys
+ * are stored outside of the heap.
+ * </p>
+ * <p>
+ * The serialized form must be canonical: Two keys are considered equal if their
+ * serialized bytes are equal. This holds for the types accepted by
+ * {@link GroupByMaps#useSerializedKeys(List)}.
+ * </p>
+ * <p>
+ * Keys are materialized again only when iterating over the entries.
+ * Removal of entries is not supported.
+ * </p>
+ */
+public final class SerializedKeyMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * Estimated heap overhead per entry in addition to the key bytes:
+     * two table slots (load factor 0.5), the hash, the key address and the value reference.
+     */
+    public static final int ENTRY_OVERHEAD_BYTES = 2 * Integer.BYTES + Integer.BYTES + Long.BYTES + 8;
+
+    private static final int MIN_PAGE_SIZE = 4 * 1024;
+    private static final int MAX_PAGE_SIZE = 1024 * 1024;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private interface KeyCodec<K> {
+
+        void write(StreamOutput out, K key) throws IOException;
+
+        K read(StreamInput in) throws IOException;
+    }
+
+    private final KeyCodec<K> codec;
+    private final MemoryManager memoryManager;
+    private final ArrayList<ByteBuf> pages = new ArrayList<>();
+
+    private final ByteBuf scratch = Unpooled.buffer(64);
+    private final StreamOutput scratchOut = new OutputStreamStreamOutput(new ByteBufOutputStream(scratch));
+    private Object scratchKey;
+    private int scratchHash;
+
+    /**
+     * Slots of the open addressing table; contains entry index + 1, 0 marks a free slot.
+     */
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private ByteBuf currentPage;
+
+    public static <K, V> SerializedKeyMap<K, V> forSingleKey(DataType<K> type, MemoryManager memoryManager) {
+        Streamer<K> streamer = type.streamer();
+        return new SerializedKeyMap<>(
+            new KeyCodec<K>() {
+
+                @Override
+                public void write(StreamOutput out, K key) throws IOException {
+                    streamer.writeValueTo(out, key);
+                }
+
+                @Override
+                public K read(StreamInput in) throws IOException {
+                    return streamer.readValueFrom(in);
+                }
+            },
+            memoryManager
+        );
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static <V> SerializedKeyMap<List<Object>, V> forManyKeys(List<? extends DataType> types,
+                                                                    MemoryManager memoryManager) {
+        Streamer[] streamers = new Streamer[types.size()];
+        for (int i = 0; i < streamers.length; i++) {
+            streamers[i] = types.get(i).streamer();
+        }
+        return new SerializedKeyMap<>(
+            new KeyCodec<List<Object>>() {
+
+                @Override
+                public void write(StreamOutput out, List<Object> key) throws IOException {
+                    assert key.size() == streamers.length : "key must have a value for each key type";
+                    for (int i = 0; i < streamers.length; i++) {
+                        streamers[i].writeValueTo(out, key.get(i));
+                    }
+                }
+
+                @Override
+                public List<Object> read(StreamInput in) throws IOException {
+                    ArrayList<Object> key = new ArrayList<>(streamers.length);
+                    for (Streamer streamer : streamers) {
+                        key.add(streamer.readValueFrom(in));
+                    }
+                    return key;
+                }
+            },
+            memoryManager
+        );
+    }
+
+    private SerializedKeyMap(KeyCodec<K> codec, MemoryManager memoryManager) {
+        this.codec = codec;
+        this.memoryManager = memoryManager;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        serializeToScratch((K) key);
+        int entry = findEntry();
+        return entry == -1 ? null : (V) values[entry];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        assert value != null : "SerializedKeyMap doesn't support null values";
+        // GroupingCollector always calls get() before put() with the same key instance;
+        // re-use the serialized bytes in that case.
+        if (key != scratchKey || key == null) {
+            serializeToScratch(key);
+        }
+        int entry = findEntry();
+        if (entry != -1) {
+            V previous = (V) values[entry];
+            values[entry] = value;
+            return previous;
+        }
+        if (size == hashes.length) {
+            int newLength = hashes.length << 1;
+            hashes = Arrays.copyOf(hashes, newLength);
+            addresses = Arrays.copyOf(addresses, newLength);
+            values = Arrays.copyOf(values, newLength);
+            rehash(newLength * 2);
+        }
+        entry = size;
+        hashes[entry] = scratchHash;
+        addresses[entry] = storeScratch();
+        values[entry] = value;
+        size++;
+        insertIntoTable(entry);
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        // Pages are owned by the memory manager and released when it is closed,
+        // they cannot be handed back individually. Re-use the current one.
+        if (currentPage != null) {
+            currentPage.clear();
+            pages.clear();
+            pages.add(currentPage);
+        }
+        scratchKey = null;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<>() {
+
+                    int entry = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return entry < size;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<K, V> next() {
+                        if (entry >= size) {
+                            throw new NoSuchElementException("No more entries in SerializedKeyMap");
+                        }
+                        K key = readKey(addresses[entry]);
+                        V value = (V) values[entry];
+                        entry++;
+                        return new SimpleImmutableEntry<>(key, value);
+                    }
+                };
+            }
+        };
+    }
+
+    private void serializeToScratch(K key) {
+        scratch.clear();
+        try {
+            codec.write(scratchOut, key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        scratchKey = key;
+        scratchHash = StringHelper.murmurhash3_x86_32(
+            scratch.array(),
+            scratch.arrayOffset(),
+            scratch.writerIndex(),
+            StringHelper.GOOD_FAST_HASH_SEED
+        );
+    }
+
+    /**
+     * @return the index of the entry whose key equals the key in the scratch buffer or -1
+     */
+    private int findEntry() {
+        int mask = table.length - 1;
+        int keyLength = scratch.writerIndex();
+        for (int slot = scratchHash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (entry == -1) {
+                return -1;
+            }
+            if (hashes[entry] == scratchHash && keyEquals(addresses[entry], keyLength)) {
+                return entry;
+            }
+        }
+    }
+
+    private boolean keyEquals(long address, int keyLength) {
+        ByteBuf page = pages.get(pageIndex(address));
+        int offset = pageOffset(address);
+        return page.getInt(offset) == keyLength
+            && ByteBufUtil.equals(page, offset + Integer.BYTES, scratch, 0, keyLength);
+    }
+
+    private void insertIntoTable(int entry) {
+        int mask = table.length - 1;
+        int slot = hashes[entry] & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    private void rehash(int newCapacity) {
+        table = new int[newCapacity];
+        for (int entry = 0; entry < size; entry++) {
+            insertIntoTable(entry);
+        }
+    }
+
+    /**
+     * Copies the serialized key from the scratch buffer into a page; Layout: [length:int][bytes]
+     * @return the address of the key
+     */
+    private long storeScratch() {
+        int keyLength = scratch.writerIndex();
+        int requiredBytes = Integer.BYTES + keyLength;
+        if (currentPage == null || currentPage.writableBytes() < requiredBytes) {
+            int pageSize = currentPage == null ? MIN_PAGE_SIZE : Math.min(currentPage.capacity() << 1, MAX_PAGE_SIZE);
+            currentPage = memoryManager.allocate(Math.max(pageSize, requiredBytes));
+            pages.add(currentPage);
+        }
+        long address = ((long) (pages.size() - 1) << 32) | currentPage.writerIndex();
+        currentPage.writeInt(keyLength);
+        currentPage.writeBytes(scratch, 0, keyLength);
+        return address;
+    }
+
+    private K readKey(long address) {
+        ByteBuf page = pages.get(pageIndex(address));
+        int offset = pageOffset(address);
+        int keyLength = page.getInt(offset);
+        ByteBuf keyBytes = page.slice(offset + Integer.BYTES, keyLength);
+        try (var in = new InputStreamStreamInput(new ByteBufInputStream(keyBytes))) {
+            return codec.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int pageIndex(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int pageOffset(long address) {
+        return (int) address;
+    }
+}
@@ -140,6 +140,11 @@ public class ArbitraryAggregation extends AggregationFunction<Object, Object> {
         return state1;
     }
 
+    @Override
+    public boolean isSelectiveReduce() {
+        return true;
+    }
+
     @Override
     public Object terminatePartial(RamAccounting ramAccounting, Object state) {
         return state;
@@ -247,6 +247,11 @@ public final class CmpByAggregation extends AggregationFunction<CmpByAggregation
         }
     }
 
+    @Override
+    public boolean isSelectiveReduce() {
+        return true;
+    }
+
     @Override
     public Object terminatePartial(RamAccounting ramAccounting, CompareBy state) {
         return state.resultValue;
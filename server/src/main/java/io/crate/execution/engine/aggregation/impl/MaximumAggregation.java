@@ -40,6 +40,7 @@ import io.crate.data.Input;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.impl.templates.NumericDocValuesBlock;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Literal;
 import io.crate.memory.MemoryManager;
@@ -83,6 +84,7 @@ public abstract class MaximumAggregation extends AggregationFunction<Object, Obj
 
         private final String columnName;
         private final DataType<?> partialType;
+        private final NumericDocValuesBlock block = new NumericDocValuesBlock();
         private SortedNumericDocValues values;
 
         public LongMax(String columnName, DataType<?> partialType) {
@@ -111,6 +113,20 @@ public abstract class MaximumAggregation extends AggregationFunction<Object, Obj
             }
         }
 
+        @Override
+        public void apply(RamAccounting ramAccounting, int[] docs, int numDocs, MutableLong state) throws IOException {
+            int numValues = block.read(values, docs, numDocs);
+            if (numValues == 0) {
+                return;
+            }
+            long[] blockValues = block.values();
+            long result = state.value();
+            for (int i = 0; i < numValues; i++) {
+                result = Math.max(result, blockValues[i]);
+            }
+            state.setValue(result);
+        }
+
         @Override
         public Object partialResult(RamAccounting ramAccounting, MutableLong state) {
             if (state.hasValue()) {
@@ -339,6 +355,11 @@ public abstract class MaximumAggregation extends AggregationFunction<Object, Obj
         return reduce(ramAccounting, state, value);
     }
 
+    @Override
+    public boolean isSelectiveReduce() {
+        return true;
+    }
+
     @Override
     public Object terminatePartial(RamAccounting ramAccounting, Object state) {
         return state;
@@ -40,6 +40,7 @@ import io.crate.data.Input;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.impl.templates.NumericDocValuesBlock;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Literal;
 import io.crate.memory.MemoryManager;
@@ -82,6 +83,7 @@ public abstract class MinimumAggregation extends AggregationFunction<Object, Obj
 
         private final String columnName;
         private final DataType<?> partialType;
+        private final NumericDocValuesBlock block = new NumericDocValuesBlock();
         private SortedNumericDocValues values;
 
         public LongMin(String columnName, DataType<?> partialType) {
@@ -110,6 +112,20 @@ public abstract class MinimumAggregation extends AggregationFunction<Object, Obj
             }
         }
 
+        @Override
+        public void apply(RamAccounting ramAccounting, int[] docs, int numDocs, MutableLong state) throws IOException {
+            int numValues = block.read(values, docs, numDocs);
+            if (numValues == 0) {
+                return;
+            }
+            long[] blockValues = block.values();
+            long result = state.value();
+            for (int i = 0; i < numValues; i++) {
+                result = Math.min(result, blockValues[i]);
+            }
+            state.setValue(result);
+        }
+
         @Override
         public Object partialResult(RamAccounting ramAccounting, MutableLong state) {
             if (state.hasValue()) {
@@ -327,6 +343,11 @@ public abstract class MinimumAggregation extends AggregationFunction<Object, Obj
         return boundSignature.returnType();
     }
 
+    @Override
+    public boolean isSelectiveReduce() {
+        return true;
+    }
+
     @Override
     public Object terminatePartial(RamAccounting ramAccounting, Object state) {
         return state;
@@ -41,6 +41,7 @@ import io.crate.data.Input;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.impl.templates.NumericDocValuesBlock;
 import io.crate.execution.engine.aggregation.impl.util.KahanSummationForDouble;
 import io.crate.execution.engine.aggregation.impl.util.KahanSummationForFloat;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
@@ -242,6 +243,7 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
     public static class SumLong implements DocValueAggregator<MutableLong> {
 
         private final String columnName;
+        private final NumericDocValuesBlock block = new NumericDocValuesBlock();
         private SortedNumericDocValues values;
 
         SumLong(String columnName) {
@@ -266,6 +268,28 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
             }
         }
 
+        @Override
+        public void apply(RamAccounting ramAccounting, int[] docs, int numDocs, MutableLong state) throws IOException {
+            int numValues = block.read(values, docs, numDocs);
+            if (numValues == 0) {
+                return;
+            }
+            long[] blockValues = block.values();
+            long sum = state.value();
+            long overflow = 0;
+            for (int i = 0; i < numValues; i++) {
+                long value = blockValues[i];
+                long result = sum + value;
+                // Same check as Math.addExact; accumulated to keep the loop free of branches
+                overflow |= (sum ^ result) & (value ^ result);
+                sum = result;
+            }
+            if (overflow < 0) {
+                throw new ArithmeticException("long overflow");
+            }
+            state.setValue(sum);
+        }
+
         @Override
         public Long partialResult(RamAccounting ramAccounting, MutableLong state) {
             return state.hasValue() ? state.value() : null;
@@ -0,0 +1,59 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation.impl.templates;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.SortedNumericDocValues;
+
+/**
+ * Reads the values of a block of documents from {@link SortedNumericDocValues} into a long[].
+ * <p>
+ * Documents without a value or with multiple values are skipped, so the first {@code n} entries of
+ * {@link #values()} are all non-null values of the block and can be aggregated without further checks.
+ * </p>
+ */
+public final class NumericDocValuesBlock {
+
+    private long[] values = new long[0];
+
+    /**
+     * @param docs doc ids in increasing order
+     * @return the number of values read into {@link #values()}
+     */
+    public int read(SortedNumericDocValues docValues, int[] docs, int numDocs) throws IOException {
+        if (values.length < numDocs) {
+            values = new long[numDocs];
+        }
+        int numValues = 0;
+        for (int i = 0; i < numDocs; i++) {
+            if (docValues.advanceExact(docs[i]) && docValues.docValueCount() == 1) {
+                values[numValues++] = docValues.nextValue();
+            }
+        }
+        return numValues;
+    }
+
+    public long[] values() {
+        return values;
+    }
+}
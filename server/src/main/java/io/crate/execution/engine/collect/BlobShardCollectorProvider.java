@@ -76,7 +76,8 @@ public class BlobShardCollectorProvider extends ShardCollectorProvider {
             elasticsearchClient,
             blobShard.indexShard(),
             new ShardRowContext(blobShard, clusterService),
-            fileOutputFactoryMap
+            fileOutputFactoryMap,
+            null
         );
         inputFactory = new InputFactory(nodeCtx);
         this.blobShard = blobShard;
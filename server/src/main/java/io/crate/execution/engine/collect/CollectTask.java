@@ -27,6 +27,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 import org.apache.lucene.search.IndexSearcher;
 import org.elasticsearch.Version;
@@ -77,6 +78,7 @@ public class CollectTask implements Task {
     private boolean releasedResources = false;
 
     private long totalBytes = -1;
+    private volatile LongSupplier bytesRead = () -> -1;
 
     public CollectTask(CollectPhase collectPhase,
                        TransactionContext txnCtx,
@@ -215,6 +217,18 @@ public class CollectTask implements Task {
         }
     }
 
+    @Override
+    public long bytesRead() {
+        return bytesRead.getAsLong();
+    }
+
+    /**
+     * Sets the source of {@link #bytesRead()}, used by collect sources reading files.
+     */
+    public void bytesRead(LongSupplier bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
     @Override
     public String name() {
         return collectPhase.name();
@@ -73,6 +73,12 @@ import io.crate.types.DataTypes;
 
 public final class DocValuesAggregates {
 
+    /**
+     * Number of matching documents which are collected before they're passed to the aggregators.
+     * Aggregating blocks allows the aggregators to process the values in tight loops.
+     */
+    static final int BLOCK_SIZE = 1024;
+
     private DocValuesAggregates() {}
 
     @Nullable
@@ -235,6 +241,7 @@ public final class DocValuesAggregates {
         Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
         List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
         Object[] cells = new Object[aggregators.size()];
+        int[] docBlock = new int[BLOCK_SIZE];
         for (int i = 0; i < aggregators.size(); i++) {
             cells[i] = aggregators.get(i).initialState(ramAccounting, memoryManager, minNodeVersion);
         }
@@ -248,18 +255,20 @@ public final class DocValuesAggregates {
             }
             DocIdSetIterator docs = scorer.iterator();
             Bits liveDocs = leaf.reader().getLiveDocs();
+            int numDocs = 0;
             for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
                 if (liveDocs != null && !liveDocs.get(doc)) {
                     continue;
                 }
-                Throwable killCause = killed.get();
-                if (killCause != null) {
-                    Exceptions.rethrowUnchecked(killCause);
-                }
-                for (int i = 0; i < aggregators.size(); i++) {
-                    aggregators.get(i).apply(ramAccounting, doc, cells[i]);
+                docBlock[numDocs++] = doc;
+                if (numDocs == BLOCK_SIZE) {
+                    applyBlock(ramAccounting, killed, aggregators, cells, docBlock, numDocs);
+                    numDocs = 0;
                 }
             }
+            if (numDocs > 0) {
+                applyBlock(ramAccounting, killed, aggregators, cells, docBlock, numDocs);
+            }
         }
         for (int i = 0; i < aggregators.size(); i++) {
             cells[i] = aggregators.get(i).partialResult(ramAccounting, cells[i]);
@@ -267,6 +276,22 @@ public final class DocValuesAggregates {
         return List.of(new RowN(cells));
     }
 
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static void applyBlock(RamAccounting ramAccounting,
+                                   AtomicReference<Throwable> killed,
+                                   List<DocValueAggregator> aggregators,
+                                   Object[] cells,
+                                   int[] docs,
+                                   int numDocs) throws IOException {
+        Throwable killCause = killed.get();
+        if (killCause != null) {
+            Exceptions.rethrowUnchecked(killCause);
+        }
+        for (int i = 0; i < aggregators.size(); i++) {
+            aggregators.get(i).apply(ramAccounting, docs, numDocs, cells[i]);
+        }
+    }
+
 
     @Nullable
     private static AggregationProjection aggregateProjection(Collection<? extends Projection> shardProjections) {
@@ -51,6 +51,7 @@ import io.crate.execution.engine.export.FileOutputFactory;
 import io.crate.execution.engine.sort.LuceneSortGenerator;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.jobs.SharedShardContext;
+import io.crate.execution.jobs.TasksService;
 import io.crate.expression.InputFactory;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
@@ -90,7 +91,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                                         ElasticsearchClient elasticsearchClient,
                                         IndexShard indexShard,
                                         BigArrays bigArrays,
-                                        Map<String, FileOutputFactory> fileOutputFactoryMap) {
+                                        Map<String, FileOutputFactory> fileOutputFactoryMap,
+                                        TasksService tasksService) {
         super(
             clusterService,
             circuitBreakerService,
@@ -102,7 +104,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             elasticsearchClient,
             indexShard,
             new ShardRowContext(indexShard, clusterService),
-            fileOutputFactoryMap
+            fileOutputFactoryMap,
+            tasksService
         );
         this.luceneQueryBuilder = luceneQueryBuilder;
         this.nodeCtx = nodeCtx;
@@ -47,6 +47,7 @@ import io.crate.execution.engine.pipeline.ProjectorFactory;
 import io.crate.execution.engine.pipeline.Projectors;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.jobs.SharedShardContext;
+import io.crate.execution.jobs.TasksService;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.reference.sys.shard.ShardRowContext;
@@ -74,7 +75,8 @@ public abstract class ShardCollectorProvider {
                            ElasticsearchClient elasticsearchClient,
                            IndexShard indexShard,
                            ShardRowContext shardRowContext,
-                           Map<String, FileOutputFactory> fileOutputFactoryMap) {
+                           Map<String, FileOutputFactory> fileOutputFactoryMap,
+                           @Nullable TasksService tasksService) {
         this.schemas = schemas;
         this.indexShard = indexShard;
         this.shardRowContext = shardRowContext;
@@ -99,7 +101,9 @@ public abstract class ShardCollectorProvider {
             t -> null,
             indexShard.indexSettings().getIndexVersionCreated(),
             indexShard.shardId(),
-            fileOutputFactoryMap
+            fileOutputFactoryMap,
+            null,
+            tasksService
         );
         this.batchIteratorFactory = new BatchIteratorFactory();
     }
@@ -0,0 +1,120 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Exposes the lines of a byte range {@code [start, end)} of a file.
+ * <p>
+ * Lines are assigned to the chunk in which they start: If {@code start > 0} the partial line at the
+ * beginning is skipped because it belongs to the previous chunk, and the last line is read beyond
+ * {@code end} until its line break. This way the chunks of a file contain each line exactly once.
+ * </p>
+ * <p>
+ * The provided stream must begin at {@code start - 1}, or at 0 for the first chunk.
+ * </p>
+ */
+final class ChunkInputStream extends InputStream {
+
+    private final InputStream in;
+    private final long end;
+
+    private long pos;
+    private boolean eof = false;
+
+    ChunkInputStream(InputStream in, long start, long end) throws IOException {
+        assert start < end : "start of a chunk must be before its end";
+        this.in = new BufferedInputStream(in);
+        this.end = end;
+        if (start == 0) {
+            pos = 0;
+        } else {
+            // The byte before the chunk tells whether the chunk starts with a new line
+            pos = start - 1;
+            int b;
+            while ((b = this.in.read()) != -1) {
+                pos++;
+                if (b == '\n') {
+                    break;
+                }
+            }
+            eof = b == -1 || pos >= end;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (eof) {
+            return -1;
+        }
+        int b = in.read();
+        if (b == -1) {
+            eof = true;
+            return -1;
+        }
+        pos++;
+        if (b == '\n' && pos >= end) {
+            eof = true;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (eof) {
+            return -1;
+        }
+        int maxLen = len;
+        if (pos < end) {
+            // Don't read beyond end yet, the chunk might end before
+            maxLen = (int) Math.min(len, end - pos);
+        }
+        int n = in.read(b, off, maxLen);
+        if (n == -1) {
+            eof = true;
+            return -1;
+        }
+        // Only a line break at position end - 1 or later can end the chunk
+        int from = (int) Math.min(Math.max(0, end - 1 - pos), n);
+        for (int i = from; i < n; i++) {
+            if (b[off + i] == '\n') {
+                n = i + 1;
+                eof = true;
+                break;
+            }
+        }
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.execution.engine.export.ColumnarFileWriter;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Reads the rows of a file written by {@link ColumnarFileWriter} as documents.
+ * <p>
+ * Row groups are decoded one column at a time using the {@link Streamer} of the column type.
+ * Row groups not matching the given predicate are skipped without decoding them, which allows
+ * several readers to share the rows of a single file.
+ * </p>
+ */
+public final class ColumnarFileReader implements Closeable {
+
+    private final StreamInput in;
+    private final IntPredicate readRowGroup;
+    private final String[] columnNames;
+    private final DataType<?>[] columnTypes;
+
+    private int rowGroup = -1;
+    private int numRows = 0;
+    private int row = 0;
+    private long rowNumber = 0;
+    private Object[][] columns;
+    private boolean finished = false;
+
+    /**
+     * @param readRowGroup called with the 0-based index of each row group, if false the row group is skipped.
+     */
+    public ColumnarFileReader(InputStream inputStream, IntPredicate readRowGroup) throws IOException {
+        this.in = new InputStreamStreamInput(inputStream);
+        this.readRowGroup = readRowGroup;
+        byte[] magic = new byte[ColumnarFileWriter.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarFileWriter.MAGIC)) {
+            throw new IOException("Not a file in the columnar format");
+        }
+        Version version = Version.readVersion(in);
+        if (version.after(Version.CURRENT)) {
+            throw new IOException("Columnar file was written by the newer version " + version + " and cannot be read");
+        }
+        in.setVersion(version);
+        int numColumns = in.readVInt();
+        columnNames = new String[numColumns];
+        columnTypes = new DataType<?>[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            columnNames[i] = in.readString();
+            columnTypes[i] = DataTypes.fromStream(in);
+        }
+        columns = new Object[numColumns][];
+    }
+
+    public List<String> columnNames() {
+        return List.of(columnNames);
+    }
+
+    public List<DataType<?>> columnTypes() {
+        return List.of(columnTypes);
+    }
+
+    /**
+     * @return the 1-based position of the row last returned by {@link #nextDocument()} within the file.
+     *         Rows of skipped row groups are counted as well.
+     */
+    public long rowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * @return the next row as a map from column name to value or null if there are no more rows.
+     */
+    @Nullable
+    public LinkedHashMap<String, Object> nextDocument() throws IOException {
+        while (row >= numRows) {
+            if (!nextRowGroup()) {
+                return null;
+            }
+        }
+        LinkedHashMap<String, Object> document = new LinkedHashMap<>(columnNames.length * 2);
+        for (int i = 0; i < columnNames.length; i++) {
+            document.put(columnNames[i], columns[i][row]);
+        }
+        row++;
+        rowNumber++;
+        return document;
+    }
+
+    private boolean nextRowGroup() throws IOException {
+        if (finished) {
+            return false;
+        }
+        row = 0;
+        numRows = in.readVInt();
+        if (numRows == 0) {
+            finished = true;
+            return false;
+        }
+        rowGroup++;
+        byte codec = in.readByte();
+        int uncompressedLength = in.readVInt();
+        int storedLength = in.readVInt();
+        if (!readRowGroup.test(rowGroup)) {
+            in.skipNBytes(storedLength);
+            rowNumber += numRows;
+            numRows = 0;
+            return true;
+        }
+        byte[] stored = new byte[storedLength];
+        in.readFully(stored);
+        byte[] values = switch (codec) {
+            case ColumnarFileWriter.CODEC_NONE -> stored;
+            case ColumnarFileWriter.CODEC_LZ4 -> {
+                byte[] uncompressed = new byte[uncompressedLength];
+                LZ4.decompress(new ByteArrayDataInput(stored), uncompressedLength, uncompressed, 0);
+                yield uncompressed;
+            }
+            default -> throw new IOException("Unknown codec " + codec + " of row group " + rowGroup);
+        };
+        try (StreamInput valuesIn = StreamInput.wrap(values)) {
+            valuesIn.setVersion(in.getVersion());
+            for (int i = 0; i < columnTypes.length; i++) {
+                Streamer<?> streamer = columnTypes[i].streamer();
+                Object[] column = new Object[numRows];
+                for (int j = 0; j < numRows; j++) {
+                    column[j] = streamer.readValueFrom(valuesIn);
+                }
+                columns[i] = column;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -43,6 +43,8 @@ public class CopyModule extends AbstractModule {
         MapBinder<String, FileOutputFactory> fileOutputFactoryMapBinder = MapBinder.newMapBinder(binder(), String.class, FileOutputFactory.class);
 
         fileInputFactoryMapBinder.addBinding(LocalFsFileInputFactory.NAME).to(LocalFsFileInputFactory.class).asEagerSingleton();
+        bind(StdinFileInputFactory.class).asEagerSingleton();
+        fileInputFactoryMapBinder.addBinding(StdinFileInputFactory.NAME).to(StdinFileInputFactory.class);
         fileOutputFactoryMapBinder.addBinding(LocalFsFileOutputFactory.NAME).to(LocalFsFileOutputFactory.class).asEagerSingleton();
 
         for (var copyPlugin : copyPlugins) {
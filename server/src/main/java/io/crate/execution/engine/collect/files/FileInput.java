@@ -38,6 +38,24 @@ public interface FileInput {
 
     InputStream getStream(URI uri) throws IOException;
 
+    /**
+     * Opens a stream which starts at the given byte offset of the file.
+     * Implementations should override this if the source supports reading from an offset
+     * without reading the preceding bytes.
+     */
+    default InputStream getStream(URI uri, long offset) throws IOException {
+        InputStream stream = getStream(uri);
+        stream.skipNBytes(offset);
+        return stream;
+    }
+
+    /**
+     * @return the size of the file in bytes or -1 if it is unknown.
+     */
+    default long size(URI uri) throws IOException {
+        return -1;
+    }
+
     boolean isGlobbed();
 
     URI uri();
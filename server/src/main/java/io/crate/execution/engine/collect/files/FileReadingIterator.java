@@ -23,24 +23,31 @@ package io.crate.execution.engine.collect.files;
 
 import static io.crate.common.exceptions.Exceptions.rethrowUnchecked;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.logging.log4j.LogManager;
@@ -54,9 +61,12 @@ import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.exceptions.Exceptions;
 import io.crate.common.unit.TimeValue;
 import io.crate.data.BatchIterator;
+import io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat;
 
 /**
  * BatchIterator to read lines from one or more {@link URI}s.
+ * Files in the {@link InputFormat#COLUMNAR} format are read using a {@link ColumnarFileReader}
+ * and their rows are exposed as documents instead of lines.
  *
  * <p>
  * URIs are opened using a {@link FileInputFactory}.
@@ -65,6 +75,19 @@ import io.crate.data.BatchIterator;
  * </p>
  *
  * <p>
+ * If the storage is shared, each URI is read by a single reader, except for columnar files:
+ * Those are opened by all readers and their row groups are distributed among the readers.
+ * </p>
+ *
+ * <p>
+ * Multiple iterators can read the files of a node concurrently, see {@link Split}.
+ * The workers of all nodes sharing the storage are then treated as individual readers.
+ * Compressed files are decompressed, if no compression is set gzip and LZ4 are detected by their magic bytes.
+ * Uncompressed files larger than {@link Split#chunkSize()} are split into chunks aligned on line boundaries,
+ * which are distributed among the readers instead of the whole file.
+ * </p>
+ *
+ * <p>
  * The iterator automatically retries reading on
  * @{link {@link SocketException} or {@link SocketTimeoutException}
  * </p>
@@ -83,22 +106,30 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     private static final Logger LOGGER = LogManager.getLogger(FileReadingIterator.class);
     @VisibleForTesting
     static final int MAX_SOCKET_TIMEOUT_RETRIES = 5;
-
-    private static final Predicate<URI> MATCH_ALL_PREDICATE = (URI input) -> true;
+    private static final List<String> COMPRESSED_EXTENSIONS = List.of(".gz", ".gzip", ".lz4");
+    private static final List<String> UNCOMPRESSED_EXTENSIONS = List.of(".json", ".jsonl", ".ndjson", ".csv", ".txt");
 
     private final Map<String, FileInputFactory> fileInputFactories;
     private final Boolean shared;
     private final int numReaders;
     private final int readerNumber;
-    private final boolean compressed;
+    @Nullable
+    private final String compression;
+    private final InputFormat inputFormat;
+    private final Split split;
     private final List<FileInput> fileInputs;
+    private final LongAdder bytesRead = new LongAdder();
 
     private volatile Throwable killed;
 
     private Iterator<FileInput> fileInputsIterator = null;
     private FileInput currentInput = null;
-    private Iterator<URI> currentInputUriIterator = null;
+    private Iterator<Chunk> currentChunkIterator = null;
+    private Chunk currentChunk = null;
+    private boolean prependHeader = false;
+    private boolean firstChunk = true;
     private BufferedReader currentReader = null;
+    private ColumnarFileReader currentColumnarReader = null;
 
     @VisibleForTesting
     long watermark;
@@ -107,10 +138,32 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     private final ScheduledExecutorService scheduler;
     private final Iterator<TimeValue> backOffPolicy;
 
+    /**
+     * Describes how the files of a node are divided among multiple iterators reading them concurrently.
+     *
+     * @param numWorkers number of iterators reading the files on each node.
+     * @param worker number of this iterator, between 0 and numWorkers - 1.
+     * @param chunkSize size in bytes of the chunks large files are split into, 0 to never split files.
+     *                  Compressed and columnar files are never split.
+     * @param csvHeader true if CSV files start with a header.
+     *                  The header is then prepended to the first chunk of this iterator if it's not at the start of a file.
+     */
+    public record Split(int numWorkers, int worker, long chunkSize, boolean csvHeader) {
+
+        public static final Split NONE = new Split(1, 0, 0, false);
+    }
+
+    /**
+     * A byte range of a file, end is -1 to read the whole file.
+     */
+    private record Chunk(URI uri, long start, long end) {
+    }
+
     public static class LineCursor {
         private URI uri;
         private long lineNumber;
         private String line;
+        private LinkedHashMap<String, Object> document;
         private IOException failure;
 
         public LineCursor() {
@@ -136,6 +189,14 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             return line;
         }
 
+        /**
+         * @return the current row if the file is in the {@link InputFormat#COLUMNAR} format, otherwise null.
+         */
+        @Nullable
+        public LinkedHashMap<String, Object> document() {
+            return document;
+        }
+
         @Nullable
         public IOException failure() {
             return failure;
@@ -143,17 +204,19 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
 
         @VisibleForTesting
         public LineCursor copy() {
-            return new LineCursor(uri, lineNumber, line, failure);
+            LineCursor copy = new LineCursor(uri, lineNumber, line, failure);
+            copy.document = document;
+            return copy;
         }
 
         @Override
         public String toString() {
-            return "LineCursor{" + uri + ":" + lineNumber + ":line=" + line + ", failure=" + failure + "}";
+            return "LineCursor{" + uri + ":" + lineNumber + ":line=" + line + ", document=" + document + ", failure=" + failure + "}";
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(uri, lineNumber, line, failure);
+            return Objects.hash(uri, lineNumber, line, document, failure);
         }
 
         @Override
@@ -171,6 +234,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             return Objects.equals(uri, other.uri)
                 && lineNumber == other.lineNumber
                 && Objects.equals(line, other.line)
+                && Objects.equals(document, other.document)
                 && Objects.equals(failure, other.failure);
         }
     }
@@ -183,13 +247,37 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
                                int readerNumber,
                                Settings withClauseOptions,
                                ScheduledExecutorService scheduler) {
-        this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
+        this(fileUris,
+             compression,
+             fileInputFactories,
+             shared,
+             numReaders,
+             readerNumber,
+             withClauseOptions,
+             scheduler,
+             InputFormat.JSON,
+             Split.NONE);
+    }
+
+    public FileReadingIterator(Collection<URI> fileUris,
+                               String compression,
+                               Map<String, FileInputFactory> fileInputFactories,
+                               Boolean shared,
+                               int numReaders,
+                               int readerNumber,
+                               Settings withClauseOptions,
+                               ScheduledExecutorService scheduler,
+                               InputFormat inputFormat,
+                               Split split) {
+        this.compression = compression;
         this.fileInputFactories = fileInputFactories;
         this.cursor = new LineCursor();
         this.shared = shared;
         this.numReaders = numReaders;
         this.readerNumber = readerNumber;
         this.scheduler = scheduler;
+        this.inputFormat = inputFormat;
+        this.split = split;
         this.backOffPolicy = BackoffPolicy.exponentialBackoff(TimeValue.ZERO, MAX_SOCKET_TIMEOUT_RETRIES).iterator();
 
         this.fileInputs = fileUris.stream()
@@ -204,6 +292,13 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         return cursor;
     }
 
+    /**
+     * @return number of bytes read from the files so far. Can be called from any thread.
+     */
+    public long bytesRead() {
+        return bytesRead.sum();
+    }
+
     @Override
     public void kill(@NotNull Throwable throwable) {
         killed = throwable;
@@ -214,6 +309,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         raiseIfKilled();
         reset();
         watermark = 0;
+        firstChunk = true;
         fileInputsIterator = fileInputs.iterator();
     }
 
@@ -221,25 +317,24 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     public boolean moveNext() {
         raiseIfKilled();
         try {
-            if (currentReader != null) {
-                String line;
+            if (currentReader != null || currentColumnarReader != null) {
+                boolean hasNext;
                 try {
-                    line = getLine(currentReader);
+                    hasNext = readNext();
                 } catch (SocketException | SocketTimeoutException e) {
                     if (backOffPolicy.hasNext()) {
                         return false;
                     }
                     throw e;
                 }
-                if (line == null) {
+                if (!hasNext) {
                     closeReader();
                     return moveNext();
                 }
-                cursor.line = line;
                 cursor.failure = null;
                 return true;
-            } else if (currentInputUriIterator != null && currentInputUriIterator.hasNext()) {
-                advanceToNextUri(currentInput);
+            } else if (currentChunkIterator != null && currentChunkIterator.hasNext()) {
+                advanceToNextChunk();
                 return moveNext();
             } else if (fileInputsIterator != null && fileInputsIterator.hasNext()) {
                 advanceToNextFileInput();
@@ -250,6 +345,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             }
         } catch (IOException e) {
             cursor.failure = e;
+            cursor.document = null;
             closeReader();
             // If IOError happens on file opening, let consumers collect the error
             // This is mostly for RETURN SUMMARY of COPY FROM
@@ -260,38 +356,167 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         }
     }
 
-    private void advanceToNextUri(FileInput fileInput) throws IOException {
+    private void advanceToNextChunk() throws IOException {
         watermark = 0;
-        createReader(fileInput, currentInputUriIterator.next());
+        currentChunk = currentChunkIterator.next();
+        prependHeader = firstChunk && currentChunk.start > 0 && split.csvHeader() && isCSV(currentChunk.uri);
+        firstChunk = false;
+        createReader();
     }
 
     private void advanceToNextFileInput() throws IOException {
         currentInput = fileInputsIterator.next();
-        List<URI> uris = currentInput.expandUri().stream().filter(this::shouldBeReadByCurrentNode).toList();
-        if (uris.size() > 0) {
-            currentInputUriIterator = uris.iterator();
-            advanceToNextUri(currentInput);
-        } else if (currentInput.isGlobbed()) {
+        List<URI> uris = currentInput.expandUri();
+        List<Chunk> chunks = chunksToRead(uris);
+        if (chunks.size() > 0) {
+            currentChunkIterator = chunks.iterator();
+            advanceToNextChunk();
+        } else if (currentInput.isGlobbed() && (uris.isEmpty() || split.worker() == 0)) {
+            // Other workers of the node don't report a missing match, one failure per node is enough
             URI uri = currentInput.uri();
             cursor.uri = uri;
             throw new IOException("Cannot find any URI matching: " + uri.toString());
         }
     }
 
-    private boolean shouldBeReadByCurrentNode(URI uri) {
-        boolean sharedStorage = Objects.requireNonNullElse(shared, currentInput.sharedStorageDefault());
-        if (sharedStorage) {
-            return moduloPredicateImpl(uri, this.readerNumber, this.numReaders);
-        } else {
-            return MATCH_ALL_PREDICATE.test(uri);
+    private List<Chunk> chunksToRead(List<URI> uris) throws IOException {
+        int totalReaders = totalReaders();
+        int readerIndex = readerIndex();
+        boolean splittable = split.chunkSize() > 0 && totalReaders > 1 && compression == null;
+        List<Chunk> chunks = new ArrayList<>();
+        for (URI uri : uris) {
+            if (inputFormat == InputFormat.COLUMNAR) {
+                // Row groups are distributed among the readers, see shouldRowGroupBeReadByCurrentReader
+                chunks.add(new Chunk(uri, 0, -1));
+                continue;
+            }
+            cursor.uri = uri;
+            long size = splittable ? currentInput.size(uri) : -1;
+            if (size > split.chunkSize() && !isCompressed(uri)) {
+                int hash = uri.hashCode();
+                long chunk = 0;
+                for (long start = 0; start < size; start += split.chunkSize()) {
+                    if (Math.floorMod(hash + chunk, totalReaders) == readerIndex) {
+                        chunks.add(new Chunk(uri, start, Math.min(start + split.chunkSize(), size)));
+                    }
+                    chunk++;
+                }
+            } else if (moduloPredicateImpl(uri, readerIndex, totalReaders)) {
+                chunks.add(new Chunk(uri, 0, -1));
+            }
         }
+        return chunks;
+    }
+
+    private boolean sharedStorage() {
+        return Objects.requireNonNullElse(shared, currentInput.sharedStorageDefault());
+    }
+
+    /**
+     * @return the number of iterators reading the current file input across all nodes.
+     */
+    private int totalReaders() {
+        return sharedStorage() ? numReaders * split.numWorkers() : split.numWorkers();
+    }
+
+    private int readerIndex() {
+        return sharedStorage() ? readerNumber * split.numWorkers() + split.worker() : split.worker();
+    }
+
+    private boolean shouldRowGroupBeReadByCurrentReader(int rowGroup) {
+        return rowGroup % totalReaders() == readerIndex();
     }
 
-    private void createReader(FileInput fileInput, URI uri) throws IOException {
+    private boolean isCSV(URI uri) {
+        return inputFormat == InputFormat.CSV || uri.toString().endsWith(".csv");
+    }
+
+    private void createReader() throws IOException {
+        URI uri = currentChunk.uri;
         cursor.uri = uri;
         cursor.lineNumber = 0;
-        InputStream stream = fileInput.getStream(uri);
-        currentReader = createBufferedReader(stream);
+        InputStream stream;
+        if (currentChunk.end < 0) {
+            stream = decompress(new CountingInputStream(currentInput.getStream(uri), bytesRead), compression);
+        } else {
+            long offset = Math.max(0, currentChunk.start - 1);
+            stream = new ChunkInputStream(
+                new CountingInputStream(currentInput.getStream(uri, offset), bytesRead),
+                currentChunk.start,
+                currentChunk.end
+            );
+            if (prependHeader) {
+                stream = new SequenceInputStream(readHeader(uri), stream);
+            }
+        }
+        if (inputFormat == InputFormat.COLUMNAR) {
+            currentColumnarReader = new ColumnarFileReader(stream, this::shouldRowGroupBeReadByCurrentReader);
+        } else {
+            currentReader = createBufferedReader(stream);
+        }
+    }
+
+    /**
+     * Uses the file extension if it is known to avoid opening the file an additional time,
+     * which is an additional request for remote inputs. Otherwise the magic bytes are checked.
+     */
+    private boolean isCompressed(URI uri) throws IOException {
+        String name = uri.toString().toLowerCase(Locale.ENGLISH);
+        for (String extension : COMPRESSED_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        for (String extension : UNCOMPRESSED_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return false;
+            }
+        }
+        try (InputStream stream = currentInput.getStream(uri)) {
+            return compressionOf(stream.readNBytes(4)) != null;
+        }
+    }
+
+    /**
+     * Wraps the stream into a stream decompressing the data with the given compression.
+     * Without compression, gzip and LZ4 compressed data is detected by its magic bytes.
+     */
+    @VisibleForTesting
+    static InputStream decompress(InputStream stream, @Nullable String compression) throws IOException {
+        if (compression == null) {
+            BufferedInputStream in = new BufferedInputStream(stream);
+            in.mark(4);
+            compression = compressionOf(in.readNBytes(4));
+            in.reset();
+            stream = in;
+        }
+        if (compression == null) {
+            return stream;
+        }
+        return switch (compression.toLowerCase(Locale.ENGLISH)) {
+            case "gzip" -> new GZIPInputStream(stream);
+            case "lz4" -> new Lz4FrameInputStream(stream);
+            default -> throw new IllegalArgumentException("Unsupported compression: " + compression);
+        };
+    }
+
+    @Nullable
+    private static String compressionOf(byte[] magic) {
+        if (magic.length >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) {
+            return "gzip";
+        }
+        if (magic.length == 4
+            && ((magic[0] & 0xFF) | (magic[1] & 0xFF) << 8 | (magic[2] & 0xFF) << 16 | (magic[3] & 0xFF) << 24)
+                == Lz4FrameInputStream.MAGIC) {
+            return "lz4";
+        }
+        return null;
+    }
+
+    private InputStream readHeader(URI uri) throws IOException {
+        try (InputStream firstLine = new ChunkInputStream(currentInput.getStream(uri), 0, 1)) {
+            return new ByteArrayInputStream(firstLine.readAllBytes());
+        }
     }
 
     private void closeReader() {
@@ -303,28 +528,32 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             }
             currentReader = null;
         }
+        if (currentColumnarReader != null) {
+            try {
+                currentColumnarReader.close();
+            } catch (IOException e) {
+                LOGGER.error("Unable to close reader for " + cursor.uri, e);
+            }
+            currentColumnarReader = null;
+        }
     }
 
-    private String getLine(BufferedReader reader) throws IOException {
-        String line = null;
+    /**
+     * Moves the cursor to the next line or document of the current reader.
+     *
+     * @return false if the current reader is exhausted.
+     */
+    private boolean readNext() throws IOException {
         try {
-            while ((line = reader.readLine()) != null) {
-                cursor.lineNumber++;
-                if (cursor.lineNumber < watermark) {
-                    continue;
-                } else {
-                    watermark = 0;
-                }
-                if (line.length() == 0) {
-                    continue;
-                }
-                break;
+            if (currentColumnarReader != null) {
+                return readDocument(currentColumnarReader);
             }
+            return readLine(currentReader);
         } catch (SocketException | SocketTimeoutException e) {
             if (backOffPolicy.hasNext()) {
                 watermark = watermark == 0 ? cursor.lineNumber + 1 : watermark;
                 closeReader();
-                createReader(currentInput, cursor.uri);
+                createReader();
             } else {
                 URI uri = currentInput.uri();
                 LOGGER.error("Timeout during COPY FROM '" + uri.toString() +
@@ -339,7 +568,40 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             LOGGER.error("Error during COPY FROM '" + uri.toString() + "'", e);
             rethrowUnchecked(e);
         }
-        return line;
+        return false;
+    }
+
+    private boolean readLine(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            cursor.lineNumber++;
+            if (cursor.lineNumber < watermark) {
+                continue;
+            } else {
+                watermark = 0;
+            }
+            if (line.length() == 0) {
+                continue;
+            }
+            cursor.line = line;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean readDocument(ColumnarFileReader reader) throws IOException {
+        LinkedHashMap<String, Object> document;
+        while ((document = reader.nextDocument()) != null) {
+            cursor.lineNumber = reader.rowNumber();
+            if (cursor.lineNumber < watermark) {
+                continue;
+            } else {
+                watermark = 0;
+            }
+            cursor.document = document;
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -351,7 +613,8 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
 
     private void reset() {
         fileInputsIterator = null;
-        currentInputUriIterator = null;
+        currentChunkIterator = null;
+        currentChunk = null;
         currentInput = null;
         cursor.failure = null;
     }
@@ -412,14 +675,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
 
     @VisibleForTesting
     BufferedReader createBufferedReader(InputStream inputStream) throws IOException {
-        BufferedReader reader;
-        if (compressed) {
-            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(inputStream),
-                StandardCharsets.UTF_8));
-        } else {
-            reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-        }
-        return reader;
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
     }
 
     @VisibleForTesting
@@ -431,6 +687,41 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         return Math.abs(hash) % numReaders == readerNumber;
     }
 
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final LongAdder counter;
+
+        CountingInputStream(InputStream in, LongAdder counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counter.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                counter.add(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counter.add(skipped);
+            return skipped;
+        }
+    }
+
     private void raiseIfKilled() {
         if (killed != null) {
             Exceptions.rethrowUnchecked(killed);
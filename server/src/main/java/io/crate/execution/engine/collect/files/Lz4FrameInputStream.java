@@ -0,0 +1,283 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads data in the LZ4 frame format, as written by the {@code lz4} command line tool or by
+ * {@link io.crate.execution.engine.export.Lz4FrameOutputStream}.
+ * See https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md
+ * <p>
+ * Concatenated and skippable frames are supported. Checksums are skipped without verification,
+ * frames using a dictionary are rejected.
+ * </p>
+ */
+public final class Lz4FrameInputStream extends InputStream {
+
+    public static final int MAGIC = 0x184D2204;
+    private static final int SKIPPABLE_MAGIC_MIN = 0x184D2A50;
+    private static final int SKIPPABLE_MAGIC_MAX = 0x184D2A5F;
+
+    /**
+     * Number of bytes of previous blocks a match in a dependent block can refer to
+     */
+    private static final int WINDOW_SIZE = 64 * 1024;
+    private static final int UNCOMPRESSED_BLOCK = 0x80000000;
+
+    private final InputStream in;
+
+    private boolean blockIndependence;
+    private boolean blockChecksum;
+    private boolean contentChecksum;
+
+    @Nullable
+    private byte[] compressed;
+    private byte[] buffer = new byte[0];
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+
+    public Lz4FrameInputStream(InputStream in) throws IOException {
+        this.in = in;
+        if (!readFrameHeader()) {
+            throw new EOFException("Stream doesn't contain an LZ4 frame");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !readBlock()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position == limit && !readBlock()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * @return false if the stream ended before a new frame started.
+     */
+    private boolean readFrameHeader() throws IOException {
+        while (true) {
+            int first = in.read();
+            if (first == -1) {
+                return false;
+            }
+            int magic = first | readIntLE(3) << 8;
+            if (magic >= SKIPPABLE_MAGIC_MIN && magic <= SKIPPABLE_MAGIC_MAX) {
+                in.skipNBytes(Integer.toUnsignedLong(readIntLE(4)));
+                continue;
+            }
+            if (magic != MAGIC) {
+                throw new IOException("Invalid LZ4 frame, magic number doesn't match");
+            }
+            int flg = readByte();
+            int bd = readByte();
+            if (flg >>> 6 != 1) {
+                throw new IOException("Unsupported LZ4 frame version: " + (flg >>> 6));
+            }
+            if ((flg & 0x01) != 0) {
+                throw new IOException("LZ4 frames using a dictionary are not supported");
+            }
+            blockIndependence = (flg & 0x20) != 0;
+            blockChecksum = (flg & 0x10) != 0;
+            contentChecksum = (flg & 0x04) != 0;
+            if ((flg & 0x08) != 0) {
+                // content size
+                in.skipNBytes(8);
+            }
+            // header checksum
+            readByte();
+
+            int blockSizeId = (bd >>> 4) & 0x07;
+            if (blockSizeId < 4) {
+                throw new IOException("Invalid LZ4 block size id: " + blockSizeId);
+            }
+            int maxBlockSize = 1 << (8 + 2 * blockSizeId);
+            if (compressed == null || compressed.length < maxBlockSize) {
+                compressed = new byte[maxBlockSize];
+                buffer = new byte[WINDOW_SIZE + maxBlockSize];
+            }
+            position = 0;
+            limit = 0;
+            return true;
+        }
+    }
+
+    /**
+     * Reads and decompresses the next block of the current or the next frame.
+     *
+     * @return false if the stream ended.
+     */
+    private boolean readBlock() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int blockSize = readIntLE(4);
+        while (blockSize == 0) {
+            if (contentChecksum) {
+                in.skipNBytes(4);
+            }
+            if (!readFrameHeader()) {
+                eof = true;
+                return false;
+            }
+            blockSize = readIntLE(4);
+        }
+        boolean isCompressed = (blockSize & UNCOMPRESSED_BLOCK) == 0;
+        blockSize &= ~UNCOMPRESSED_BLOCK;
+        assert compressed != null : "Frame header must be read before blocks";
+        if (blockSize > compressed.length) {
+            throw new IOException("Invalid LZ4 block size: " + blockSize);
+        }
+
+        int start = 0;
+        if (!blockIndependence && limit > 0) {
+            // Keep the last bytes of the previous block, matches can refer to them
+            int history = Math.min(WINDOW_SIZE, limit);
+            System.arraycopy(buffer, limit - history, buffer, 0, history);
+            start = history;
+        }
+        if (isCompressed) {
+            readFully(compressed, 0, blockSize);
+            limit = decompressBlock(compressed, blockSize, buffer, start);
+        } else {
+            readFully(buffer, start, blockSize);
+            limit = start + blockSize;
+        }
+        position = start;
+        if (blockChecksum) {
+            in.skipNBytes(4);
+        }
+        return true;
+    }
+
+    /**
+     * Decompresses a block in the LZ4 block format. Matches can refer to data in dest before destOff.
+     *
+     * @return the end of the decompressed data in dest.
+     */
+    static int decompressBlock(byte[] src, int length, byte[] dest, int destOff) throws IOException {
+        int pos = 0;
+        int out = destOff;
+        try {
+            while (pos < length) {
+                int token = src[pos++] & 0xFF;
+                int literalsLength = token >>> 4;
+                if (literalsLength == 15) {
+                    int b;
+                    do {
+                        b = src[pos++] & 0xFF;
+                        literalsLength += b;
+                    } while (b == 255);
+                }
+                if (pos + literalsLength > length) {
+                    throw new IOException("Invalid LZ4 block, literals exceed the block");
+                }
+                System.arraycopy(src, pos, dest, out, literalsLength);
+                pos += literalsLength;
+                out += literalsLength;
+                if (pos == length) {
+                    // The last sequence only contains literals
+                    break;
+                }
+                int offset = (src[pos] & 0xFF) | (src[pos + 1] & 0xFF) << 8;
+                pos += 2;
+                int matchLength = token & 0x0F;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = src[pos++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += 4;
+                int ref = out - offset;
+                if (offset == 0 || ref < 0) {
+                    throw new IOException("Invalid LZ4 block, match offset out of range");
+                }
+                if (offset >= matchLength) {
+                    System.arraycopy(dest, ref, dest, out, matchLength);
+                } else {
+                    // Overlapping match, repeats the last offset bytes
+                    for (int i = 0; i < matchLength; i++) {
+                        dest[out + i] = dest[ref + i];
+                    }
+                }
+                out += matchLength;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Invalid LZ4 block", e);
+        }
+        return out;
+    }
+
+    private void readFully(byte[] b, int off, int len) throws IOException {
+        if (in.readNBytes(b, off, len) < len) {
+            throw new EOFException("Unexpected end of LZ4 frame");
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            throw new EOFException("Unexpected end of LZ4 frame");
+        }
+        return b;
+    }
+
+    private int readIntLE(int numBytes) throws IOException {
+        int value = 0;
+        for (int i = 0; i < numBytes; i++) {
+            value |= readByte() << (8 * i);
+        }
+        return value;
+    }
+}
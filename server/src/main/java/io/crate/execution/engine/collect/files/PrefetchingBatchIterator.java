@@ -0,0 +1,137 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.files;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.jetbrains.annotations.NotNull;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.BatchIterator;
+import io.crate.data.CompositeBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+
+/**
+ * A BatchIterator which consumes up to {@code batchSize} rows of its source within {@link #loadNextBatch()}.
+ * <p>
+ * Used together with {@link CompositeBatchIterator#asyncComposite} this moves the work of the source,
+ * like reading and parsing lines, to the threads loading the batches. Multiple sources are then
+ * consumed concurrently while the consumer only iterates over the buffered rows.
+ * </p>
+ */
+public final class PrefetchingBatchIterator implements BatchIterator<Row> {
+
+    private final BatchIterator<Row> source;
+    private final int batchSize;
+    private final List<Object[]> buffer;
+    private final RowN row;
+
+    private int position = -1;
+    private boolean sourceExhausted = false;
+    private volatile Throwable killed;
+
+    public PrefetchingBatchIterator(BatchIterator<Row> source, int numColumns, int batchSize) {
+        this.source = source;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayList<>(batchSize);
+        this.row = new RowN(new Object[numColumns]);
+    }
+
+    @Override
+    public Row currentElement() {
+        return row;
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfKilled();
+        source.moveToStart();
+        buffer.clear();
+        position = -1;
+        sourceExhausted = false;
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfKilled();
+        if (position + 1 < buffer.size()) {
+            position++;
+            row.cells(buffer.get(position));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        source.close();
+        buffer.clear();
+        killed = BatchIterator.CLOSED;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        if (sourceExhausted) {
+            throw new IllegalStateException("BatchIterator already fully loaded");
+        }
+        buffer.clear();
+        position = -1;
+        while (buffer.size() < batchSize) {
+            if (source.moveNext()) {
+                buffer.add(source.currentElement().materialize());
+            } else if (source.allLoaded()) {
+                sourceExhausted = true;
+                break;
+            } else {
+                return source.loadNextBatch();
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return sourceExhausted;
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        source.kill(throwable);
+        killed = throwable;
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return true;
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+}
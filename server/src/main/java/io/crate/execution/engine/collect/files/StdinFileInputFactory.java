@@ -0,0 +1,129 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+
+import io.crate.exceptions.JobKilledException;
+import io.crate.execution.jobs.TasksService;
+import io.crate.execution.jobs.kill.KillAllListener;
+
+/**
+ * Provides the data received via {@code COPY FROM STDIN} to the {@link FileReadingIterator}.
+ * <p>
+ * The protocol handler registers a {@link StdinInputStream} for the job executing the statement,
+ * the job reads it using the URI returned by {@link #uri(UUID)}. A stream can only be read once.
+ * </p>
+ * <p>
+ * If the job is killed, the stream is failed so that a reader waiting for data from the client is released.
+ * </p>
+ */
+@Singleton
+public class StdinFileInputFactory implements FileInputFactory, KillAllListener {
+
+    public static final String NAME = "stdin";
+
+    private final Map<UUID, StdinInputStream> streams = new ConcurrentHashMap<>();
+
+    @Inject
+    public StdinFileInputFactory(TasksService tasksService) {
+        tasksService.addListener(this);
+    }
+
+    public static URI uri(UUID jobId) {
+        return URI.create(NAME + ":///" + jobId);
+    }
+
+    public void register(UUID jobId, StdinInputStream stream) {
+        streams.put(jobId, stream);
+    }
+
+    public void unregister(UUID jobId) {
+        streams.remove(jobId);
+    }
+
+    @Override
+    public FileInput create(URI uri, Settings withClauseOptions) {
+        return new FileInput() {
+
+            @Override
+            public List<URI> expandUri() {
+                return List.of(uri);
+            }
+
+            @Override
+            public InputStream getStream(URI uri) throws IOException {
+                UUID jobId;
+                try {
+                    jobId = UUID.fromString(uri.getPath().substring(1));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid STDIN URI: " + uri, e);
+                }
+                StdinInputStream stream = streams.get(jobId);
+                if (stream == null || stream.claim() == false) {
+                    throw new IOException("No data from STDIN available for job " + jobId);
+                }
+                return stream;
+            }
+
+            @Override
+            public boolean isGlobbed() {
+                return false;
+            }
+
+            @Override
+            public URI uri() {
+                return uri;
+            }
+
+            @Override
+            public boolean sharedStorageDefault() {
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void killAllJobs() {
+        for (StdinInputStream stream : streams.values()) {
+            stream.fail(JobKilledException.MESSAGE);
+        }
+    }
+
+    @Override
+    public void killJob(UUID jobId) {
+        StdinInputStream stream = streams.get(jobId);
+        if (stream != null) {
+            stream.fail(JobKilledException.MESSAGE);
+        }
+    }
+}
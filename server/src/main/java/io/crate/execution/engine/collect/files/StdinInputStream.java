@@ -0,0 +1,197 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.unit.TimeValue;
+
+/**
+ * An {@link InputStream} over the data a client sends for a {@code COPY FROM STDIN} statement.
+ * <p>
+ * The protocol handler appends the received chunks using {@link #write(byte[])} and calls
+ * {@link #finish()} once the client is done. Reads block until data is available.
+ * </p>
+ * <p>
+ * If more than {@link #MAX_BUFFERED_BYTES} are buffered, the protocol handler is told to stop
+ * reading from the connection until the reader caught up, so a client can't send data faster
+ * than it is indexed.
+ * </p>
+ * <p>
+ * A read fails if the client didn't send any data within the idle timeout, so that a stalled client
+ * can't block the reading thread forever. The stream is also failed if the job reading it is killed,
+ * see {@link StdinFileInputFactory}.
+ * </p>
+ */
+public final class StdinInputStream extends InputStream {
+
+    static final int MAX_BUFFERED_BYTES = 4 * 1024 * 1024;
+
+    public static final TimeValue DEFAULT_IDLE_TIMEOUT = TimeValue.timeValueMinutes(5);
+
+    private final Consumer<Boolean> readFromClient;
+    private final TimeValue idleTimeout;
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+
+    @Nullable
+    private byte[] current;
+    private int position;
+    private long bufferedBytes;
+    private boolean paused;
+    private boolean finished;
+    private boolean closed;
+    private boolean claimed;
+
+    @Nullable
+    private String failure;
+
+    /**
+     * @param readFromClient called with false if the protocol handler must stop reading
+     *                       data from the client and with true once it can continue.
+     */
+    public StdinInputStream(Consumer<Boolean> readFromClient) {
+        this(readFromClient, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param idleTimeout maximum time a read waits for data from the client
+     */
+    public StdinInputStream(Consumer<Boolean> readFromClient, TimeValue idleTimeout) {
+        this.readFromClient = readFromClient;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * @return true if the stream wasn't claimed by a reader yet. The data can only be read once.
+     */
+    synchronized boolean claim() {
+        if (claimed) {
+            return false;
+        }
+        claimed = true;
+        return true;
+    }
+
+    public synchronized void write(byte[] bytes) {
+        if (finished || closed) {
+            return;
+        }
+        chunks.add(bytes);
+        bufferedBytes += bytes.length;
+        if (!paused && bufferedBytes > MAX_BUFFERED_BYTES) {
+            paused = true;
+            readFromClient.accept(false);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Called once the client sent all data, readers will reach the end of the stream.
+     */
+    public synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    /**
+     * Called if the client aborted sending data, readers will fail with an {@link IOException}.
+     */
+    public synchronized void fail(String message) {
+        failure = message;
+        notifyAll();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = read(b, 0, 1);
+        return read == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        long deadline = System.nanoTime() + idleTimeout.nanos();
+        while (current == null || position == current.length) {
+            if (failure != null) {
+                throw new IOException(failure);
+            }
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            current = chunks.poll();
+            position = 0;
+            if (current == null) {
+                if (finished) {
+                    return -1;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IOException(
+                        "Timed out after " + idleTimeout + " waiting for data from the client");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for data from the client");
+                }
+            }
+        }
+        int numBytes = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, numBytes);
+        position += numBytes;
+        bufferedBytes -= numBytes;
+        if (paused && bufferedBytes < MAX_BUFFERED_BYTES / 2) {
+            paused = false;
+            readFromClient.accept(true);
+        }
+        return numBytes;
+    }
+
+    /**
+     * Discards all buffered data. Blocked and future reads fail, data written afterwards is ignored.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        chunks.clear();
+        current = null;
+        bufferedBytes = 0;
+        if (paused) {
+            paused = false;
+            readFromClient.accept(true);
+        }
+        notifyAll();
+    }
+}
@@ -24,16 +24,20 @@ package io.crate.execution.engine.collect.sources;
 import static java.util.Objects.requireNonNull;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import io.crate.analyze.AnalyzedCopyFrom;
@@ -41,6 +45,7 @@ import io.crate.analyze.CopyFromParserProperties;
 import io.crate.analyze.SymbolEvaluator;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.data.BatchIterator;
+import io.crate.data.CompositeBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.SkippingBatchIterator;
 import io.crate.exceptions.UnauthorizedException;
@@ -51,8 +56,12 @@ import io.crate.execution.engine.collect.files.FileInputFactory;
 import io.crate.execution.engine.collect.files.FileReadingIterator;
 import io.crate.execution.engine.collect.files.LineCollectorExpression;
 import io.crate.execution.engine.collect.files.LineProcessor;
+import io.crate.execution.engine.collect.files.PrefetchingBatchIterator;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
+import io.crate.execution.support.ThreadPools;
 import io.crate.expression.InputFactory;
 import io.crate.expression.reference.file.FileLineReferenceResolver;
+import io.crate.expression.reference.file.SourceLineNumberExpression;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.NodeContext;
 import io.crate.metadata.TransactionContext;
@@ -64,12 +73,33 @@ import io.crate.types.DataTypes;
 @Singleton
 public class FileCollectSource implements CollectSource {
 
+    public static final Setting<Integer> PARALLELISM_SETTING = Setting.intSetting(
+        "copy_from.parallelism",
+        1,
+        1,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
+    /**
+     * Size of the chunks large files are split into if they are read by multiple readers
+     */
+    @VisibleForTesting
+    static final long CHUNK_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Number of rows a reader parses per batch if multiple readers are used on a node
+     */
+    private static final int PREFETCH_BATCH_SIZE = 1000;
+
     private final ClusterService clusterService;
     private final Map<String, FileInputFactory> fileInputFactoryMap;
     private final InputFactory inputFactory;
     private final NodeContext nodeCtx;
     private final ThreadPool threadPool;
     private final Roles roles;
+    private volatile int parallelism;
 
     @Inject
     public FileCollectSource(NodeContext nodeCtx,
@@ -83,6 +113,11 @@ public class FileCollectSource implements CollectSource {
         this.clusterService = clusterService;
         this.threadPool = threadPool;
         this.roles = roles;
+        this.parallelism = PARALLELISM_SETTING.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            PARALLELISM_SETTING,
+            newValue -> parallelism = newValue
+        );
     }
 
     @Override
@@ -102,31 +137,70 @@ public class FileCollectSource implements CollectSource {
                 if (uri.getScheme().equals("file") && user.isSuperUser() == false) {
                     throw new UnauthorizedException("Only a superuser can read from the local file system");
                 }
+                if (uri.getScheme().equals(StdinFileInputFactory.NAME)
+                    && uri.equals(StdinFileInputFactory.uri(collectPhase.jobId())) == false) {
+                    throw new UnauthorizedException("Data from STDIN can only be read by the COPY FROM STDIN statement receiving it");
+                }
                 return uri;
             })
             .toList();
-        FileReadingIterator fileReadingIterator = new FileReadingIterator(
-            fileUris,
-            fileUriCollectPhase.compression(),
-            fileInputFactoryMap,
-            fileUriCollectPhase.sharedStorage(),
-            fileUriCollectPhase.nodeIds().size(),
-            getReaderNumber(fileUriCollectPhase.nodeIds(), clusterService.state().nodes().getLocalNodeId()),
-            fileUriCollectPhase.withClauseOptions(),
-            threadPool.scheduler()
-        );
         CopyFromParserProperties parserProperties = fileUriCollectPhase.parserProperties();
-        LineProcessor lineProcessor = new LineProcessor(
-            parserProperties.skipNumLines() > 0
-                ? new SkippingBatchIterator<>(fileReadingIterator, (int) parserProperties.skipNumLines())
-                : fileReadingIterator,
-            ctx.topLevelInputs(),
-            ctx.expressions(),
-            fileUriCollectPhase.inputFormat(),
-            parserProperties,
-            fileUriCollectPhase.targetColumns()
-        );
-        return CompletableFuture.completedFuture(lineProcessor);
+        // Lines to skip are counted per reader
+        int parallelism = parserProperties.skipNumLines() > 0 ? 1 : this.parallelism;
+        // Line numbers would be relative to the start of a chunk
+        boolean splitFiles = fileUriCollectPhase.compression() == null
+            && ctx.expressions().stream().noneMatch(SourceLineNumberExpression.class::isInstance);
+
+        List<FileReadingIterator> fileReadingIterators = new ArrayList<>(parallelism);
+        List<BatchIterator<Row>> lineProcessors = new ArrayList<>(parallelism);
+        for (int worker = 0; worker < parallelism; worker++) {
+            if (worker > 0) {
+                // Each reader needs its own expressions
+                ctx = inputFactory.ctxForRefs(txnCtx, FileLineReferenceResolver::getImplementation);
+                ctx.add(collectPhase.toCollect());
+            }
+            FileReadingIterator fileReadingIterator = new FileReadingIterator(
+                fileUris,
+                fileUriCollectPhase.compression(),
+                fileInputFactoryMap,
+                fileUriCollectPhase.sharedStorage(),
+                fileUriCollectPhase.nodeIds().size(),
+                getReaderNumber(fileUriCollectPhase.nodeIds(), clusterService.state().nodes().getLocalNodeId()),
+                fileUriCollectPhase.withClauseOptions(),
+                threadPool.scheduler(),
+                fileUriCollectPhase.inputFormat(),
+                new FileReadingIterator.Split(
+                    parallelism,
+                    worker,
+                    splitFiles ? CHUNK_SIZE : 0,
+                    parserProperties.fileHeader()
+                )
+            );
+            fileReadingIterators.add(fileReadingIterator);
+            lineProcessors.add(new LineProcessor(
+                parserProperties.skipNumLines() > 0
+                    ? new SkippingBatchIterator<>(fileReadingIterator, (int) parserProperties.skipNumLines())
+                    : fileReadingIterator,
+                ctx.topLevelInputs(),
+                ctx.expressions(),
+                fileUriCollectPhase.inputFormat(),
+                parserProperties,
+                fileUriCollectPhase.targetColumns()
+            ));
+        }
+        collectTask.bytesRead(() -> fileReadingIterators.stream().mapToLong(FileReadingIterator::bytesRead).sum());
+        if (parallelism == 1) {
+            return CompletableFuture.completedFuture(lineProcessors.get(0));
+        }
+        int numColumns = collectPhase.toCollect().size();
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
+        return CompletableFuture.completedFuture(CompositeBatchIterator.asyncComposite(
+            executor,
+            ThreadPools.numIdleThreads(executor, parallelism),
+            lineProcessors.stream()
+                .map(lineProcessor -> new PrefetchingBatchIterator(lineProcessor, numColumns, PREFETCH_BATCH_SIZE))
+                .toList()
+        ));
     }
 
     @VisibleForTesting
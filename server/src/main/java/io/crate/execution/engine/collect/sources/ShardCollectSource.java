@@ -89,6 +89,7 @@ import io.crate.execution.engine.sort.OrderingByPosition;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.TasksService;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.reference.StaticTableReferenceResolver;
@@ -167,7 +168,8 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
                               RemoteCollectorFactory remoteCollectorFactory,
                               SystemCollectSource systemCollectSource,
                               CircuitBreakerService circuitBreakerService,
-                              ShardCollectorProviderFactory shardCollectorProviderFactory) {
+                              ShardCollectorProviderFactory shardCollectorProviderFactory,
+                              TasksService tasksService) {
         this.unassignedShardReferenceResolver = new StaticTableReferenceResolver<>(
             SysShardsTableInfo.unassignedShardsExpressions());
         this.shardReferenceResolver = new StaticTableReferenceResolver<>(SysShardsTableInfo.create(nodeCtx.roles()).expressions());
@@ -197,7 +199,9 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
             inputFactory,
             nodeNormalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            null,
+            tasksService
         );
     }
 
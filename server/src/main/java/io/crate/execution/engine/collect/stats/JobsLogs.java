@@ -156,10 +156,18 @@ public class JobsLogs {
     }
 
     public void operationStarted(int operationId, UUID jobId, String name, LongSupplier bytesUsed) {
+        operationStarted(operationId, jobId, name, bytesUsed, () -> -1);
+    }
+
+    public void operationStarted(int operationId,
+                                 UUID jobId,
+                                 String name,
+                                 LongSupplier bytesUsed,
+                                 LongSupplier bytesRead) {
         if (isEnabled()) {
             operationsTable.put(
                 new OperationId(operationId, jobId),
-                new OperationContext(operationId, jobId, name, System.currentTimeMillis(), bytesUsed));
+                new OperationContext(operationId, jobId, name, System.currentTimeMillis(), bytesUsed, bytesRead));
         }
     }
 
@@ -32,6 +32,7 @@ import org.elasticsearch.transport.TransportRequest;
 
 import io.crate.Streamer;
 import io.crate.data.Bucket;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.support.NodeRequest;
 
 public class DistributedResultRequest extends TransportRequest {
@@ -118,8 +119,12 @@ public class DistributedResultRequest extends TransportRequest {
         return bucketIdx;
     }
 
-    public Bucket readRows(Streamer<?>[] streamers) {
+    /**
+     * @param ramAccounting accounts for the memory needed to decompress the rows while they're read
+     */
+    public Bucket readRows(Streamer<?>[] streamers, RamAccounting ramAccounting) {
         rows.streamers(streamers);
+        rows.ramAccounting(ramAccounting);
         return rows;
     }
 
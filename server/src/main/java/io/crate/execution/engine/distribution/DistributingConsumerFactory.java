@@ -51,14 +51,17 @@ public class DistributingConsumerFactory {
     private final ClusterService clusterService;
     private final Executor responseExecutor;
     private final ActionExecutor<NodeRequest<DistributedResultRequest>, DistributedResultResponse> distributedResultAction;
+    private final PageCompression pageCompression;
 
     @Inject
     public DistributingConsumerFactory(ClusterService clusterService,
                                        ThreadPool threadPool,
-                                       Node node) {
+                                       Node node,
+                                       PageCompression pageCompression) {
         this.clusterService = clusterService;
         this.responseExecutor = threadPool.executor(RESPONSE_EXECUTOR_NAME);
         this.distributedResultAction = req -> node.client().execute(DistributedResultAction.INSTANCE, req);
+        this.pageCompression = pageCompression;
     }
 
     public RowConsumer create(NodeOperation nodeOperation,
@@ -112,7 +115,8 @@ public class DistributingConsumerFactory {
             bucketIdx,
             nodeOperation.downstreamNodes(),
             distributedResultAction,
-            pageSize
+            pageSize,
+            pageCompression.newCompressor()
         );
     }
 
@@ -0,0 +1,175 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.distribution;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.annotations.VisibleForTesting;
+
+/**
+ * LZ4 compression of the pages which a {@link DistributingConsumer} sends to other nodes.
+ * <p>
+ * Pages are compressed when they are written to a transport connection, so pages for the local
+ * node and connections to nodes which can't read compressed pages are left untouched.
+ * Whether a page is compressed is decided per {@link Compressor}, which is created per consumer:
+ * Small pages are never compressed and if compressing a page didn't save enough bytes, the next
+ * pages are sent uncompressed, as the data of a consumer usually compresses similarly.
+ * </p>
+ * <p>
+ * Receivers keep the compressed bytes and decompress them once the rows are consumed.
+ * </p>
+ */
+@Singleton
+public final class PageCompression {
+
+    public static final Setting<Boolean> COMPRESSION_ENABLED = Setting.boolSetting(
+        "distributed_results.compression.enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
+    /**
+     * Pages smaller than this are sent uncompressed.
+     */
+    @VisibleForTesting
+    static final int MIN_PAGE_BYTES = 4 * 1024;
+
+    /**
+     * A compressed page must be smaller than this ratio of the uncompressed page,
+     * otherwise the page is sent uncompressed.
+     */
+    private static final double MAX_COMPRESSION_RATIO = 0.9;
+
+    /**
+     * Number of pages sent uncompressed after the compression of a page didn't save enough bytes.
+     */
+    @VisibleForTesting
+    static final int PAGES_TO_SKIP_AFTER_POOR_RATIO = 16;
+
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private volatile boolean enabled;
+
+    @Inject
+    public PageCompression(Settings settings, ClusterSettings clusterSettings) {
+        this(COMPRESSION_ENABLED.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(COMPRESSION_ENABLED, newValue -> enabled = newValue);
+    }
+
+    @VisibleForTesting
+    PageCompression(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Compressor newCompressor() {
+        return new Compressor();
+    }
+
+    /**
+     * @return number of bytes of rows sent to other nodes, after compression.
+     *         A page sent to several nodes is counted once.
+     */
+    public long bytesSent() {
+        return bytesSent.sum();
+    }
+
+    /**
+     * @return number of bytes by which compression reduced the rows sent to other nodes.
+     */
+    public long bytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    static BytesReference compress(BytesReference page) {
+        BytesRef ref = page.toBytesRef();
+        ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+        try {
+            LZ4.compress(ref.bytes, ref.offset, ref.length, out, new LZ4.FastCompressionHashTable());
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't compress rows", e);
+        }
+        return new BytesArray(out.toArrayCopy());
+    }
+
+    static BytesReference decompress(BytesReference compressed, int uncompressedLength) {
+        BytesRef ref = compressed.toBytesRef();
+        byte[] uncompressed = new byte[uncompressedLength];
+        try {
+            LZ4.decompress(new ByteArrayDataInput(ref.bytes, ref.offset, ref.length), uncompressedLength, uncompressed, 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't decompress rows", e);
+        }
+        return new BytesArray(uncompressed);
+    }
+
+    public final class Compressor {
+
+        private final AtomicInteger pagesToSkip = new AtomicInteger(0);
+
+        private Compressor() {
+        }
+
+        /**
+         * Compresses the page if it is large enough and compression is enabled and worthwhile.
+         * Must be called once per page, the result is reused if the page is written to several nodes
+         * or written again on a retry, so that the page is also counted once in the statistics.
+         *
+         * @return the compressed bytes or null if the page should be sent uncompressed.
+         */
+        @Nullable
+        BytesReference maybeCompress(BytesReference page) {
+            int length = page.length();
+            if (enabled && length >= MIN_PAGE_BYTES && pagesToSkip.getAndUpdate(x -> Math.max(x - 1, 0)) == 0) {
+                BytesReference compressed = compress(page);
+                if (compressed.length() > length * MAX_COMPRESSION_RATIO) {
+                    pagesToSkip.set(PAGES_TO_SKIP_AFTER_POOR_RATIO);
+                    bytesSent.add(length);
+                    return null;
+                }
+                bytesSent.add(compressed.length());
+                bytesSaved.add(length - compressed.length());
+                return compressed;
+            }
+            bytesSent.add(length);
+            return null;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Collections;
 import java.util.Iterator;
 
 import org.apache.lucene.util.Accountable;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -49,6 +50,31 @@ public class StreamBucket implements Bucket, Writeable {
     private int size = -1;
     private BytesReference bytes;
 
+    /**
+     * Length of the rows if {@link #bytes} is compressed, otherwise -1
+     */
+    private int uncompressedLength = -1;
+
+    @Nullable
+    private PageCompression.Compressor compressor;
+
+    /**
+     * Set once it was decided if the rows are compressed when they're written to another node,
+     * so that a bucket which is sent to several nodes is only compressed once.
+     */
+    private boolean compressionDecided = false;
+
+    /**
+     * Compressed {@link #bytes} if {@link #compressionDecided} and compression was worthwhile
+     */
+    @Nullable
+    private BytesReference compressedBytes;
+
+    /**
+     * Accounts for the uncompressed rows while they're read
+     */
+    private RamAccounting ramAccounting = RamAccounting.NO_ACCOUNTING;
+
     public static class Builder implements Accountable {
 
         private static final int INITIAL_PAGE_SIZE = 1024;
@@ -82,6 +108,20 @@ public class StreamBucket implements Bucket, Writeable {
             prevOutSize = out.size();
         }
 
+        /**
+         * Adds a row which has already been serialized using the streamers of this builder.
+         */
+        public void addSerialized(BytesReference row) {
+            size++;
+            try {
+                row.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ramAccounting.addBytes(out.size() - prevOutSize);
+            prevOutSize = out.size();
+        }
+
         public StreamBucket build() {
             StreamBucket sb = new StreamBucket(streamers);
             sb.size = size;
@@ -119,6 +159,38 @@ public class StreamBucket implements Bucket, Writeable {
         this.streamers = streamers;
     }
 
+    /**
+     * Sets the compressor used to decide if the rows are compressed once they're written to another node.
+     */
+    public void compressor(@Nullable PageCompression.Compressor compressor) {
+        this.compressor = compressor;
+    }
+
+    /**
+     * Sets the accounting used for the memory needed to decompress received rows.
+     * The memory is accounted once the rows are read and released once all rows were read.
+     */
+    public void ramAccounting(RamAccounting ramAccounting) {
+        this.ramAccounting = ramAccounting;
+    }
+
+    @Nullable
+    private synchronized BytesReference compressedBytes() {
+        if (compressionDecided == false) {
+            compressedBytes = compressor.maybeCompress(bytes);
+            compressionDecided = true;
+        }
+        return compressedBytes;
+    }
+
+    private BytesReference uncompressedBytes() {
+        if (uncompressedLength >= 0) {
+            bytes = PageCompression.decompress(bytes, uncompressedLength);
+            uncompressedLength = -1;
+        }
+        return bytes;
+    }
+
     private static boolean validStreamers(Streamer<?>[] streamers) {
         if (streamers == null) {
             return true;
@@ -138,11 +210,14 @@ public class StreamBucket implements Bucket, Writeable {
         private final StreamInput input;
         private final Object[] current;
         private final RowN row;
+        @Nullable
+        private final Runnable onConsumed;
         private int pos = 0;
 
-        private RowIterator(StreamInput streamInput, Streamer<?>[] streamers, int size) {
+        private RowIterator(StreamInput streamInput, Streamer<?>[] streamers, int size, @Nullable Runnable onConsumed) {
             this.streamers = streamers;
             this.size = size;
+            this.onConsumed = onConsumed;
             input = streamInput;
             current = new Object[streamers.length];
             row = new RowN(current);
@@ -163,6 +238,9 @@ public class StreamBucket implements Bucket, Writeable {
                 }
             }
             pos++;
+            if (pos == size && onConsumed != null) {
+                onConsumed.run();
+            }
             return row;
         }
 
@@ -178,8 +256,15 @@ public class StreamBucket implements Bucket, Writeable {
             return Collections.emptyIterator();
         }
         assert streamers != null : "streamers must not be null";
+        Runnable onConsumed = null;
+        if (uncompressedLength >= 0) {
+            long accountedBytes = uncompressedLength;
+            RamAccounting accounting = ramAccounting;
+            accounting.addBytes(accountedBytes);
+            onConsumed = () -> accounting.addBytes(-accountedBytes);
+        }
         try {
-            return new RowIterator(bytes.streamInput(), streamers, size);
+            return new RowIterator(uncompressedBytes().streamInput(), streamers, size, onConsumed);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -201,6 +286,9 @@ public class StreamBucket implements Bucket, Writeable {
     public StreamBucket(StreamInput in) throws IOException {
         size = in.readVInt();
         if (size > 0) {
+            if (in.getVersion().onOrAfter(Version.V_5_7_0) && in.readBoolean()) {
+                uncompressedLength = in.readVInt();
+            }
             bytes = in.readBytesReference();
         }
     }
@@ -216,8 +304,27 @@ public class StreamBucket implements Bucket, Writeable {
     public void writeTo(StreamOutput out) throws IOException {
         assert size > -1 : "size must be > -1";
         out.writeVInt(size);
-        if (size > 0) {
+        if (size <= 0) {
+            return;
+        }
+        if (out.getVersion().before(Version.V_5_7_0)) {
+            out.writeBytesReference(uncompressedBytes());
+        } else if (uncompressedLength >= 0) {
+            out.writeBoolean(true);
+            out.writeVInt(uncompressedLength);
             out.writeBytesReference(bytes);
+        } else {
+            BytesReference compressed = null;
+            if (compressor != null) {
+                compressed = compressedBytes();
+            }
+            out.writeBoolean(compressed != null);
+            if (compressed == null) {
+                out.writeBytesReference(bytes);
+            } else {
+                out.writeVInt(bytes.length());
+                out.writeBytesReference(compressed);
+            }
         }
     }
 }
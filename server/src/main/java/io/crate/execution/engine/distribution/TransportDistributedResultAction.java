@@ -44,6 +44,7 @@ import org.jetbrains.annotations.Nullable;
 
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.unit.TimeValue;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.exceptions.JobKilledException;
 import io.crate.exceptions.TaskMissing;
 import io.crate.execution.jobs.DownstreamRXTask;
@@ -172,9 +173,10 @@ public class TransportDistributedResultAction extends TransportAction<NodeReques
         Throwable throwable = request.throwable();
         if (throwable == null) {
             SendResponsePageResultListener pageResultListener = new SendResponsePageResultListener();
+            RamAccounting ramAccounting = rxTask.ramAccounting(request.executionPhaseInputId());
             pageBucketReceiver.setBucket(
                 request.bucketIdx(),
-                request.readRows(pageBucketReceiver.streamers()),
+                request.readRows(pageBucketReceiver.streamers(), ramAccounting),
                 request.isLast(),
                 pageResultListener
             );
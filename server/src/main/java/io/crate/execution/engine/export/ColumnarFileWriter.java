@@ -0,0 +1,172 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import io.crate.Streamer;
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.data.Row;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Writes rows into a self-describing, columnar file.
+ * <p>
+ * Layout of a file:
+ * <pre>
+ *  magic bytes | version | number of columns | (name, type) per column
+ *  row group*
+ *  0
+ * </pre>
+ * A row group contains up to {@link #ROW_GROUP_SIZE} rows and is written as
+ * <pre>
+ *  number of rows | codec | uncompressed length | stored length | stored bytes
+ * </pre>
+ * The uncompressed bytes of a row group contain the values of the first column of all rows,
+ * followed by the values of the second column and so on. Values are encoded using the
+ * {@link Streamer} of the column type. Row groups are compressed with LZ4 unless that
+ * doesn't reduce their size.
+ * </p>
+ * <p>
+ * As the stored length of each row group is known, readers can skip row groups without decoding them.
+ * See {@link io.crate.execution.engine.collect.files.ColumnarFileReader}.
+ * </p>
+ */
+public final class ColumnarFileWriter implements Closeable {
+
+    public static final byte[] MAGIC = new byte[] { 'C', 'R', 'C', 'F' };
+
+    public static final byte CODEC_NONE = 0;
+    public static final byte CODEC_LZ4 = 1;
+
+    @VisibleForTesting
+    static final int ROW_GROUP_SIZE = 10_000;
+
+    /**
+     * A row group is written once its values exceed this size, even if it has less than {@link #ROW_GROUP_SIZE} rows.
+     */
+    private static final int MAX_ROW_GROUP_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * A compressed row group must be smaller than this ratio of the uncompressed bytes,
+     * otherwise it is stored uncompressed.
+     */
+    private static final double MAX_COMPRESSION_RATIO = 0.9;
+
+    private final StreamOutput out;
+    private final DataType<?>[] types;
+    private final Streamer<?>[] streamers;
+    private final BytesStreamOutput[] columns;
+    private final LZ4.FastCompressionHashTable hashTable = new LZ4.FastCompressionHashTable();
+
+    private int numRows = 0;
+    private long numBytes = 0;
+
+    public ColumnarFileWriter(OutputStream outputStream,
+                              List<String> columnNames,
+                              List<? extends DataType<?>> columnTypes) throws IOException {
+        assert columnNames.size() == columnTypes.size() : "Each column must have a name and a type";
+        this.out = new OutputStreamStreamOutput(outputStream);
+        this.types = columnTypes.toArray(new DataType<?>[0]);
+        this.streamers = new Streamer<?>[types.length];
+        this.columns = new BytesStreamOutput[types.length];
+        out.writeBytes(MAGIC);
+        Version.writeVersion(Version.CURRENT, out);
+        out.writeVInt(types.length);
+        for (int i = 0; i < types.length; i++) {
+            out.writeString(columnNames.get(i));
+            DataTypes.toStream(types[i], out);
+            streamers[i] = types[i].streamer();
+            columns[i] = new BytesStreamOutput();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void write(Row row) throws IOException {
+        assert row.numColumns() == types.length : "Row must have a value for each column";
+        long bytes = 0;
+        for (int i = 0; i < types.length; i++) {
+            BytesStreamOutput column = columns[i];
+            ((Streamer) streamers[i]).writeValueTo(column, types[i].sanitizeValue(row.get(i)));
+            bytes += column.size();
+        }
+        numRows++;
+        numBytes = bytes;
+        if (numRows >= ROW_GROUP_SIZE || numBytes >= MAX_ROW_GROUP_BYTES) {
+            writeRowGroup();
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        if (numRows == 0) {
+            return;
+        }
+        BytesStreamOutput group = new BytesStreamOutput(Math.toIntExact(numBytes));
+        for (BytesStreamOutput column : columns) {
+            column.bytes().writeTo(group);
+            column.reset();
+        }
+        BytesRef values = group.bytes().toBytesRef();
+        ByteBuffersDataOutput compressed = new ByteBuffersDataOutput();
+        LZ4.compress(values.bytes, values.offset, values.length, compressed, hashTable);
+
+        out.writeVInt(numRows);
+        if (compressed.size() < values.length * MAX_COMPRESSION_RATIO) {
+            out.writeByte(CODEC_LZ4);
+            out.writeVInt(values.length);
+            out.writeVInt(Math.toIntExact(compressed.size()));
+            out.writeBytes(compressed.toArrayCopy());
+        } else {
+            out.writeByte(CODEC_NONE);
+            out.writeVInt(values.length);
+            out.writeVInt(values.length);
+            out.writeBytes(values.bytes, values.offset, values.length);
+        }
+        numRows = 0;
+        numBytes = 0;
+    }
+
+    /**
+     * Writes the pending row group and the end marker and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeRowGroup();
+            out.writeVInt(0);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -21,19 +21,44 @@
 
 package io.crate.execution.engine.export;
 
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dsl.projection.WriterProjection;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
 
 public interface FileOutput {
 
     /**
      * calling this method creates & acquires an OutputStream which must be closed by the caller if it is no longer needed
      *
+     * @param ramAccounting used to account for the buffers of the compression
      * @throws IOException in case the Output can't be created (e.g. due to file permission errors or something like that)
      */
-    OutputStream acquireOutputStream(Executor executor, URI uri, WriterProjection.CompressionType compressionType) throws IOException;
+    OutputStream acquireOutputStream(Executor executor,
+                                     URI uri,
+                                     WriterProjection.CompressionType compressionType,
+                                     RamAccounting ramAccounting) throws IOException;
+
+    /**
+     * @return the stream wrapped into a stream compressing the data with the given compression type,
+     *         or the stream itself if compressionType is null.
+     */
+    static OutputStream compress(OutputStream out,
+                                 Executor executor,
+                                 @Nullable WriterProjection.CompressionType compressionType,
+                                 RamAccounting ramAccounting) throws IOException {
+        if (compressionType == null) {
+            return out;
+        }
+        return switch (compressionType) {
+            case GZIP -> new GZIPOutputStream(out);
+            case LZ4 -> new Lz4FrameOutputStream(out, executor, Lz4FrameOutputStream.DEFAULT_PARALLELISM, ramAccounting);
+        };
+    }
 }
@@ -52,13 +52,16 @@ import io.crate.common.annotations.VisibleForTesting;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.exceptions.SQLParseException;
 import io.crate.exceptions.UnhandledServerException;
 import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.expression.InputRow;
 import io.crate.metadata.ColumnIdent;
 import io.crate.server.xcontent.XContentHelper;
+import io.crate.types.DataType;
 
 /**
  * Collector implementation which writes the rows to the configured {@link FileOutput}
@@ -71,6 +74,7 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     private final Executor executor;
     private final Iterable<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
+    private final List<DataType<?>> inputTypes;
     private final URI uri;
     private final FileOutput fileOutput;
     private final Map<String, Object> overwrites;
@@ -78,6 +82,7 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     @Nullable
     private final List<String> outputNames;
     private final WriterProjection.OutputFormat outputFormat;
+    private final RamAccounting ramAccounting;
 
     private final RowWriter rowWriter;
 
@@ -85,19 +90,23 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
                              String uriStr,
                              @Nullable WriterProjection.CompressionType compressionType,
                              @Nullable List<Input<?>> inputs,
+                             List<DataType<?>> inputTypes,
                              Iterable<CollectExpression<Row, ?>> collectExpressions,
                              Map<ColumnIdent, Object> overwrites,
                              @Nullable List<String> outputNames,
                              WriterProjection.OutputFormat outputFormat,
                              Map<String, FileOutputFactory> fileOutputFactories,
-                             Settings withClauseOptions) {
+                             Settings withClauseOptions,
+                             RamAccounting ramAccounting) {
         this.executor = executor;
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.overwrites = toNestedStringObjectMap(overwrites);
         this.compressionType = compressionType;
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
+        this.ramAccounting = ramAccounting;
         try {
             uri = new URI(uriStr);
         } catch (URISyntaxException e) {
@@ -155,13 +164,16 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         try {
             if (!overwrites.isEmpty()) {
                 return new DocWriter(
-                    fileOutput.acquireOutputStream(executor, uri, compressionType), collectExpressions, overwrites);
+                    fileOutput.acquireOutputStream(executor, uri, compressionType, ramAccounting), collectExpressions, overwrites);
+            } else if (outputFormat.equals(WriterProjection.OutputFormat.COLUMNAR)) {
+                return new ColumnarRowWriter(
+                    fileOutput.acquireOutputStream(executor, uri, compressionType, ramAccounting), collectExpressions, inputs, inputTypes, outputNames);
             } else if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
-                return new ColumnRowWriter(fileOutput.acquireOutputStream(executor, uri, compressionType), collectExpressions, inputs);
+                return new ColumnRowWriter(fileOutput.acquireOutputStream(executor, uri, compressionType, ramAccounting), collectExpressions, inputs);
             } else if (outputNames != null && outputFormat.equals(WriterProjection.OutputFormat.JSON_OBJECT)) {
-                return new ColumnRowObjectWriter(fileOutput.acquireOutputStream(executor, uri, compressionType), collectExpressions, inputs, outputNames);
+                return new ColumnRowObjectWriter(fileOutput.acquireOutputStream(executor, uri, compressionType, ramAccounting), collectExpressions, inputs, outputNames);
             } else {
-                return new RawRowWriter(fileOutput.acquireOutputStream(executor, uri, compressionType));
+                return new RawRowWriter(fileOutput.acquireOutputStream(executor, uri, compressionType, ramAccounting));
             }
         } catch (IOException e) {
             throw new UnhandledServerException(String.format(Locale.ENGLISH, "Failed to open output: '%s'", e.getMessage()), e);
@@ -361,4 +373,38 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
             }
         }
     }
+
+    static class ColumnarRowWriter implements RowWriter {
+
+        private final Iterable<CollectExpression<Row, ?>> collectExpressions;
+        private final InputRow inputRow;
+        private final ColumnarFileWriter writer;
+
+        ColumnarRowWriter(OutputStream outputStream,
+                          Iterable<CollectExpression<Row, ?>> collectExpressions,
+                          List<Input<?>> inputs,
+                          List<DataType<?>> inputTypes,
+                          List<String> outputNames) throws IOException {
+            this.collectExpressions = collectExpressions;
+            this.inputRow = new InputRow(inputs);
+            this.writer = new ColumnarFileWriter(outputStream, outputNames, inputTypes);
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            try {
+                writer.write(inputRow);
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
 }
@@ -26,9 +26,11 @@ import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.metadata.ColumnIdent;
+import io.crate.types.DataType;
 import org.elasticsearch.common.settings.Settings;
 
 import org.jetbrains.annotations.Nullable;
@@ -41,6 +43,7 @@ public class FileWriterProjector implements Projector {
     private final String uri;
     private final Iterable<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
+    private final List<DataType<?>> inputTypes;
     private final Map<ColumnIdent, Object> overwrites;
     @Nullable
     private final List<String> outputNames;
@@ -49,6 +52,7 @@ public class FileWriterProjector implements Projector {
     private final Executor executor;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
     private final Settings withClauseOptions;
+    private final RamAccounting ramAccounting;
 
     /**
      * @param inputs a list of {@link Input}.
@@ -57,20 +61,24 @@ public class FileWriterProjector implements Projector {
      *               That raw source is then written to the output
      *               <p/>
      *               If inputs is not null the inputs are consumed to write a JSON array to the output.
+     * @param inputTypes the types of the inputs, used to encode the values in the columnar format.
      */
     public FileWriterProjector(Executor executor,
                                String uri,
                                @Nullable WriterProjection.CompressionType compressionType,
                                @Nullable List<Input<?>> inputs,
+                               List<DataType<?>> inputTypes,
                                Iterable<CollectExpression<Row, ?>> collectExpressions,
                                Map<ColumnIdent, Object> overwrites,
                                @Nullable List<String> outputNames,
                                WriterProjection.OutputFormat outputFormat,
                                Map<String, FileOutputFactory> fileOutputFactoryMap,
-                               Settings withClauseOptions) {
+                               Settings withClauseOptions,
+                               RamAccounting ramAccounting) {
         this.collectExpressions = collectExpressions;
         this.executor = executor;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.overwrites = overwrites;
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
@@ -78,6 +86,7 @@ public class FileWriterProjector implements Projector {
         this.uri = uri;
         this.fileOutputFactoryMap = fileOutputFactoryMap;
         this.withClauseOptions = withClauseOptions;
+        this.ramAccounting = ramAccounting;
     }
 
     @Override
@@ -89,12 +98,14 @@ public class FileWriterProjector implements Projector {
                 uri,
                 compressionType,
                 inputs,
+                inputTypes,
                 collectExpressions,
                 overwrites,
                 outputNames,
                 outputFormat,
                 fileOutputFactoryMap,
-                withClauseOptions
+                withClauseOptions,
+                ramAccounting
             )
         );
     }
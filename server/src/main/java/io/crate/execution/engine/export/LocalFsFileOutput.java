@@ -21,6 +21,7 @@
 
 package io.crate.execution.engine.export;
 
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dsl.projection.WriterProjection;
 
 import java.io.BufferedOutputStream;
@@ -30,12 +31,14 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.concurrent.Executor;
-import java.util.zip.GZIPOutputStream;
 
 public class LocalFsFileOutput implements FileOutput {
 
     @Override
-    public OutputStream acquireOutputStream(Executor executor, URI uri, WriterProjection.CompressionType compressionType) throws IOException {
+    public OutputStream acquireOutputStream(Executor executor,
+                                            URI uri,
+                                            WriterProjection.CompressionType compressionType,
+                                            RamAccounting ramAccounting) throws IOException {
         if (uri.getHost() != null) {
             throw new IllegalArgumentException("the URI host must be defined");
         }
@@ -46,10 +49,7 @@ public class LocalFsFileOutput implements FileOutput {
                 throw new IOException("Output path is a directory: " + path);
             }
         }
-        OutputStream os = new FileOutputStream(outFile);
-        if (compressionType != null) {
-            os = new GZIPOutputStream(os);
-        }
+        OutputStream os = FileOutput.compress(new FileOutputStream(outFile), executor, compressionType, ramAccounting);
         return new BufferedOutputStream(os);
     }
 }
@@ -0,0 +1,384 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.common.concurrent.CompletableFutures;
+import io.crate.data.breaker.RamAccounting;
+
+/**
+ * Writes data in the LZ4 frame format, which can also be read by the {@code lz4} command line tool.
+ * See https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md
+ * <p>
+ * The data is split into independent blocks of up to 4MB. Up to {@code parallelism} blocks
+ * are compressed concurrently using the given executor, and written in order once they are compressed.
+ * </p>
+ * <p>
+ * The block buffers and the buffers used to compress a block are accounted for with the given
+ * {@link RamAccounting} and released again once the stream is closed or a block has been written.
+ * </p>
+ */
+public final class Lz4FrameOutputStream extends OutputStream {
+
+    public static final int MAGIC = 0x184D2204;
+
+    @VisibleForTesting
+    static final int BLOCK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Number of blocks compressed concurrently by default, each needs about twice the block size of memory
+     */
+    public static final int DEFAULT_PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Version 01, independent blocks, no checksums, no content size
+     */
+    private static final byte FLG = 0x60;
+
+    /**
+     * Maximum block size of 4MB
+     */
+    private static final byte BD = 0x70;
+
+    /**
+     * Marks a block which is stored without compression
+     */
+    private static final int UNCOMPRESSED_BLOCK = 0x80000000;
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 65535;
+    // The last match must start 12 bytes and end 5 bytes before the end of a block
+    private static final int MATCH_START_LIMIT = 12;
+    private static final int LAST_LITERALS = 5;
+    private static final int HASH_LOG = 16;
+    private static final int HASH_TABLE_BYTES = Integer.BYTES << HASH_LOG;
+
+    private static final int PRIME32_1 = 0x9E3779B1;
+    private static final int PRIME32_2 = 0x85EBCA77;
+    private static final int PRIME32_3 = 0xC2B2AE3D;
+    private static final int PRIME32_4 = 0x27D4EB2F;
+    private static final int PRIME32_5 = 0x165667B1;
+
+    private final OutputStream out;
+    private final Executor executor;
+    private final int parallelism;
+    private final RamAccounting ramAccounting;
+    private final ArrayDeque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+    private final ArrayDeque<byte[]> freeBlocks = new ArrayDeque<>();
+
+    private byte[] block;
+    private int blockLength = 0;
+    private int numBlocks = 0;
+    private boolean closed = false;
+
+    /**
+     * @param compressionBytes bytes accounted for the buffers used to compress the block
+     */
+    private record PendingBlock(byte[] data, CompletableFuture<byte[]> framed, long compressionBytes) {
+    }
+
+    public Lz4FrameOutputStream(OutputStream out,
+                                Executor executor,
+                                int parallelism,
+                                RamAccounting ramAccounting) throws IOException {
+        assert parallelism > 0 : "parallelism must be at least 1";
+        this.out = out;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.ramAccounting = ramAccounting;
+        writeIntLE(out, MAGIC);
+        out.write(FLG);
+        out.write(BD);
+        out.write((xxHash32(new byte[] { FLG, BD }) >> 8) & 0xFF);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (block == null) {
+            block = nextBlock();
+        }
+        block[blockLength++] = (byte) b;
+        if (blockLength == BLOCK_SIZE) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (block == null) {
+                block = nextBlock();
+            }
+            int n = Math.min(len, BLOCK_SIZE - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            len -= n;
+            if (blockLength == BLOCK_SIZE) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Flushes the blocks which are already written. Like with {@link java.util.zip.GZIPOutputStream}
+     * data of the current, incomplete block is kept until the block is full or the stream is closed.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (out) {
+            if (blockLength > 0) {
+                submitBlock();
+            }
+            while (!pendingBlocks.isEmpty()) {
+                writeBlock(pendingBlocks.poll());
+            }
+            writeIntLE(out, 0);
+        } finally {
+            releaseBlocks();
+        }
+    }
+
+    private byte[] nextBlock() {
+        if (!freeBlocks.isEmpty()) {
+            return freeBlocks.poll();
+        }
+        ramAccounting.addBytes(BLOCK_SIZE);
+        numBlocks++;
+        return new byte[BLOCK_SIZE];
+    }
+
+    /**
+     * Releases the accounted memory of the block buffers and of the blocks which are still pending
+     * because writing a previous block failed.
+     */
+    private void releaseBlocks() {
+        long bytes = (long) numBlocks * BLOCK_SIZE;
+        for (PendingBlock pendingBlock : pendingBlocks) {
+            bytes += pendingBlock.compressionBytes;
+        }
+        pendingBlocks.clear();
+        freeBlocks.clear();
+        block = null;
+        numBlocks = 0;
+        ramAccounting.addBytes(-bytes);
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] data = block;
+        int length = blockLength;
+        // The compression needs a hash table and a buffer for the compressed data which is then copied into
+        // the framed block
+        long compressionBytes = HASH_TABLE_BYTES + maxCompressedLength(length) + 4L + length;
+        ramAccounting.addBytes(compressionBytes);
+        pendingBlocks.add(new PendingBlock(
+            data,
+            CompletableFutures.supplyAsync(() -> frameBlock(data, length), executor),
+            compressionBytes
+        ));
+        // The next block is taken once there is more data, so that closing doesn't allocate a new one
+        block = null;
+        blockLength = 0;
+        while (pendingBlocks.size() > parallelism) {
+            writeBlock(pendingBlocks.poll());
+        }
+    }
+
+    private void writeBlock(PendingBlock pendingBlock) throws IOException {
+        byte[] framed;
+        try {
+            framed = pendingBlock.framed.join();
+        } catch (CompletionException e) {
+            throw new IOException("Couldn't compress block", e.getCause());
+        } finally {
+            ramAccounting.addBytes(-pendingBlock.compressionBytes);
+        }
+        out.write(framed);
+        freeBlocks.add(pendingBlock.data);
+    }
+
+    private static int maxCompressedLength(int length) {
+        return 4 + length + length / 255 + 16;
+    }
+
+    /**
+     * @return the block size followed by the compressed data, or by the data itself if it doesn't compress.
+     */
+    @VisibleForTesting
+    static byte[] frameBlock(byte[] data, int length) {
+        byte[] compressed = new byte[maxCompressedLength(length)];
+        int compressedLength = compressBlock(data, length, compressed, 4);
+        byte[] framed;
+        if (compressedLength < length) {
+            framed = new byte[4 + compressedLength];
+            System.arraycopy(compressed, 4, framed, 4, compressedLength);
+            setIntLE(framed, 0, compressedLength);
+        } else {
+            framed = new byte[4 + length];
+            System.arraycopy(data, 0, framed, 4, length);
+            setIntLE(framed, 0, length | UNCOMPRESSED_BLOCK);
+        }
+        return framed;
+    }
+
+    /**
+     * Compresses the data into the LZ4 block format using a greedy search for matches,
+     * where each 4 byte sequence is looked up in a hash table of the last position it occurred at.
+     *
+     * @return the number of bytes written to dest.
+     */
+    private static int compressBlock(byte[] src, int length, byte[] dest, int destOff) {
+        int[] positions = new int[1 << HASH_LOG];
+        int anchor = 0;
+        int pos = 0;
+        int out = destOff;
+        while (pos <= length - MATCH_START_LIMIT) {
+            int sequence = readIntLE(src, pos);
+            int hash = (sequence * PRIME32_1) >>> (32 - HASH_LOG);
+            // positions are stored + 1 so that 0 marks an empty slot
+            int ref = positions[hash] - 1;
+            positions[hash] = pos + 1;
+            if (ref >= 0 && pos - ref <= MAX_OFFSET && readIntLE(src, ref) == sequence) {
+                int matchLength = MIN_MATCH;
+                int maxMatchLength = length - LAST_LITERALS - pos;
+                while (matchLength < maxMatchLength && src[ref + matchLength] == src[pos + matchLength]) {
+                    matchLength++;
+                }
+                out = writeSequence(src, anchor, pos - anchor, dest, out, pos - ref, matchLength);
+                pos += matchLength;
+                anchor = pos;
+            } else {
+                // Skip faster over data that doesn't compress
+                pos += 1 + ((pos - anchor) >>> 6);
+            }
+        }
+        return writeSequence(src, anchor, length - anchor, dest, out, 0, 0) - destOff;
+    }
+
+    /**
+     * Writes literals followed by a match, or only literals if matchLength is 0.
+     */
+    private static int writeSequence(byte[] src,
+                                     int literalsOff,
+                                     int literalsLength,
+                                     byte[] dest,
+                                     int out,
+                                     int offset,
+                                     int matchLength) {
+        int tokenOut = out++;
+        int token = Math.min(literalsLength, 15) << 4;
+        if (literalsLength >= 15) {
+            out = writeLength(dest, out, literalsLength - 15);
+        }
+        System.arraycopy(src, literalsOff, dest, out, literalsLength);
+        out += literalsLength;
+        if (matchLength > 0) {
+            dest[out++] = (byte) offset;
+            dest[out++] = (byte) (offset >>> 8);
+            int length = matchLength - MIN_MATCH;
+            token |= Math.min(length, 15);
+            if (length >= 15) {
+                out = writeLength(dest, out, length - 15);
+            }
+        }
+        dest[tokenOut] = (byte) token;
+        return out;
+    }
+
+    private static int writeLength(byte[] dest, int out, int length) {
+        while (length >= 255) {
+            dest[out++] = (byte) 255;
+            length -= 255;
+        }
+        dest[out++] = (byte) length;
+        return out;
+    }
+
+    private static int readIntLE(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF)
+            | (bytes[offset + 1] & 0xFF) << 8
+            | (bytes[offset + 2] & 0xFF) << 16
+            | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private static void writeIntLE(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void setIntLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * xxHash32 with seed 0 of inputs shorter than 16 bytes, used for the checksum of the frame descriptor
+     */
+    @VisibleForTesting
+    static int xxHash32(byte[] data) {
+        assert data.length < 16 : "Only short inputs are supported";
+        int hash = PRIME32_5 + data.length;
+        int i = 0;
+        for (; i + 4 <= data.length; i += 4) {
+            int k = readIntLE(data, i);
+            hash = Integer.rotateLeft(hash + k * PRIME32_3, 17) * PRIME32_4;
+        }
+        for (; i < data.length; i++) {
+            hash = Integer.rotateLeft(hash + (data[i] & 0xFF) * PRIME32_5, 11) * PRIME32_1;
+        }
+        hash ^= hash >>> 15;
+        hash *= PRIME32_2;
+        hash ^= hash >>> 13;
+        hash *= PRIME32_3;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
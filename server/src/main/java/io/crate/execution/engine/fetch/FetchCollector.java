@@ -23,12 +23,16 @@ package io.crate.execution.engine.fetch;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
+import org.jetbrains.annotations.Nullable;
 
 import com.carrotsearch.hppc.IntArrayList;
 
@@ -42,6 +46,11 @@ import io.netty.util.collection.IntObjectHashMap;
 
 class FetchCollector {
 
+    /**
+     * Minimum number of documents read from a segment to use the merge instance of its stored fields reader.
+     */
+    private static final int MIN_DOCS_FOR_SEQUENTIAL_READER = 10;
+
     private final LuceneCollectorExpression[] collectorExpressions;
     private final InputRow row;
     private final Streamer<?>[] streamers;
@@ -77,40 +86,105 @@ class FetchCollector {
     }
 
     public StreamBucket collect(IntArrayList docIds) {
-        boolean collectSequential = isSequential(docIds);
         StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccounting);
         try (var borrowed = fetchTask.searcher(readerId)) {
             var searcher = borrowed.item();
             List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+            int[] readerIndices = new int[docIds.size()];
+            int[] numDocsPerReader = new int[leaves.size()];
+            for (int i = 0; i < readerIndices.length; i++) {
+                int readerIndex = readerIndex(docIds.get(i), leaves);
+                readerIndices[i] = readerIndex;
+                numDocsPerReader[readerIndex]++;
+            }
             var readerContexts = new IntObjectHashMap<ReaderContext>(leaves.size());
-            for (var cursor : docIds) {
-                int docId = cursor.value;
-                int readerIndex = readerIndex(docId, leaves);
-                LeafReaderContext subReaderContext = leaves.get(readerIndex);
-                try {
-                    var readerContext = readerContexts.get(readerIndex);
-                    if (readerContext == null) {
-                        // If the document access is sequential, the field reader from the merge instance can be used
-                        // to provide a significant speed up. However, accessing the merge CompressingStoredFieldsReader is expensive
-                        // because the underlying inputData is cloned.
-                        if (collectSequential && subReaderContext.reader() instanceof SequentialStoredFieldsLeafReader storedFieldsLeafReader) {
-                            StoredFieldsReader sequentialStoredFieldsReader = storedFieldsLeafReader.getSequentialStoredFieldsReader();
-                            readerContext = new ReaderContext(subReaderContext, sequentialStoredFieldsReader::document);
-                        } else {
-                            readerContext = new ReaderContext(subReaderContext);
-                        }
-                        readerContexts.put(readerIndex, readerContext);
-                    }
-                    setNextDocId(readerContext, docId - subReaderContext.docBase);
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
+            boolean collectSequential = isSequential(docIds);
+            int[] positions = positionsSortedByDocId(docIds);
+            if (positions == null) {
+                for (int i = 0; i < readerIndices.length; i++) {
+                    setNextDocId(
+                        docIds.get(i),
+                        readerIndices[i],
+                        leaves,
+                        readerContexts,
+                        numDocsPerReader,
+                        collectSequential
+                    );
+                    builder.add(row);
+                }
+            } else {
+                // The doc ids are in the order of the query (e.g. ORDER BY), but reading them in index order
+                // decompresses each stored fields block only once. The rows are serialized while reading and
+                // added in the requested order afterwards.
+                BytesStreamOutput rowsOut = new BytesStreamOutput();
+                int[] rowStarts = new int[positions.length];
+                int[] rowEnds = new int[positions.length];
+                for (int position : positions) {
+                    setNextDocId(
+                        docIds.get(position),
+                        readerIndices[position],
+                        leaves,
+                        readerContexts,
+                        numDocsPerReader,
+                        collectSequential
+                    );
+                    rowStarts[position] = rowsOut.size();
+                    writeRow(rowsOut);
+                    rowEnds[position] = rowsOut.size();
+                    ramAccounting.addBytes(rowEnds[position] - rowStarts[position]);
                 }
-                builder.add(row);
+                BytesReference rows = rowsOut.bytes();
+                for (int i = 0; i < positions.length; i++) {
+                    builder.addSerialized(rows.slice(rowStarts[i], rowEnds[i] - rowStarts[i]));
+                }
+                // The rows are accounted for by the builder now, the buffer is garbage after the copy
+                ramAccounting.addBytes(-rowsOut.size());
             }
         }
         return builder.build();
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void writeRow(BytesStreamOutput out) {
+        for (int i = 0; i < streamers.length; i++) {
+            try {
+                ((Streamer) streamers[i]).writeValueTo(out, row.get(i));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void setNextDocId(int docId,
+                              int readerIndex,
+                              List<LeafReaderContext> leaves,
+                              IntObjectHashMap<ReaderContext> readerContexts,
+                              int[] numDocsPerReader,
+                              boolean collectSequential) {
+        LeafReaderContext subReaderContext = leaves.get(readerIndex);
+        try {
+            var readerContext = readerContexts.get(readerIndex);
+            if (readerContext == null) {
+                // The documents are always read in ascending doc id order, so the field reader from the merge instance
+                // can be used. It keeps the last decompressed block and provides a significant speed up if documents
+                // share a block. However, accessing the merge CompressingStoredFieldsReader is expensive because the
+                // underlying inputData is cloned, so it's only used if enough documents are read from the segment.
+                boolean useSequentialReader = collectSequential
+                    || numDocsPerReader[readerIndex] >= MIN_DOCS_FOR_SEQUENTIAL_READER;
+                if (useSequentialReader && subReaderContext.reader() instanceof SequentialStoredFieldsLeafReader storedFieldsLeafReader) {
+                    StoredFieldsReader sequentialStoredFieldsReader = storedFieldsLeafReader.getSequentialStoredFieldsReader();
+                    readerContext = new ReaderContext(subReaderContext, sequentialStoredFieldsReader::document);
+                } else {
+                    readerContext = new ReaderContext(subReaderContext);
+                }
+                readerContexts.put(readerIndex, readerContext);
+            }
+            setNextDocId(readerContext, docId - subReaderContext.docBase);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private int readerIndex(int docId, List<LeafReaderContext> leaves) {
         int readerIndex = ReaderUtil.subIndex(docId, leaves);
         if (readerIndex == -1) {
@@ -119,6 +193,33 @@ class FetchCollector {
         return readerIndex;
     }
 
+    /**
+     * @return the positions of the doc ids ordered by doc id or null if the doc ids are already in ascending order.
+     */
+    @Nullable
+    static int[] positionsSortedByDocId(IntArrayList docIds) {
+        int size = docIds.size();
+        boolean ascending = true;
+        for (int i = 1; i < size && ascending; i++) {
+            ascending = docIds.get(i - 1) <= docIds.get(i);
+        }
+        if (ascending) {
+            return null;
+        }
+        // Doc ids are not negative, so sorting the doc id in the upper and the position in the lower 32 bits
+        // orders by doc id and keeps the requested order for duplicates
+        long[] docIdsWithPosition = new long[size];
+        for (int i = 0; i < size; i++) {
+            docIdsWithPosition[i] = ((long) docIds.get(i) << 32) | i;
+        }
+        Arrays.sort(docIdsWithPosition);
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = (int) docIdsWithPosition[i];
+        }
+        return positions;
+    }
+
     static boolean isSequential(IntArrayList docIds) {
         if (docIds.size() < 2) {
             return false;
@@ -27,7 +27,9 @@ import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.jetbrains.annotations.Nullable;
 
+import io.crate.Streamer;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.BatchIterator;
 import io.crate.data.CapturingRowConsumer;
@@ -37,9 +39,12 @@ import io.crate.data.RowConsumer;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.join.CombinedRow;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillDirectory;
 import io.crate.expression.InputFactory;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.TransactionContext;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 
 public class HashJoinOperation implements CompletionListenable {
 
@@ -57,7 +62,10 @@ public class HashJoinOperation implements CompletionListenable {
                              TransactionContext txnCtx,
                              InputFactory inputFactory,
                              CircuitBreaker circuitBreaker,
-                             long estimatedRowSizeForLeft) {
+                             long estimatedRowSizeForLeft,
+                             List<DataType<?>> leftOutputTypes,
+                             List<DataType<?>> rightOutputTypes,
+                             SpillDirectory spillDirectory) {
 
         this.resultConsumer = nlResultConsumer;
         this.leftConsumer = new CapturingRowConsumer(nlResultConsumer.requiresScroll(), nlResultConsumer.completionFuture());
@@ -67,6 +75,8 @@ public class HashJoinOperation implements CompletionListenable {
                 if (failure == null) {
                     BatchIterator<Row> joinIterator;
                     try {
+                        // Phases created by nodes < 5.7.0 don't provide the right output types
+                        boolean spill = spillDirectory.enabled() && rightOutputTypes.isEmpty() == false;
                         joinIterator = createHashJoinIterator(
                             leftConsumer.capturedBatchIterator().join(),
                             numLeftCols,
@@ -80,7 +90,10 @@ public class HashJoinOperation implements CompletionListenable {
                                 Paging.PAGE_SIZE,
                                 circuitBreaker,
                                 estimatedRowSizeForLeft
-                            )
+                            ),
+                            spill ? spillDirectory : null,
+                            DataTypes.getStreamers(leftOutputTypes),
+                            DataTypes.getStreamers(rightOutputTypes)
                         );
                         nlResultConsumer.accept(joinIterator, null);
                     } catch (Exception e) {
@@ -132,8 +145,25 @@ public class HashJoinOperation implements CompletionListenable {
                                                              ToIntFunction<Row> hashBuilderForLeft,
                                                              ToIntFunction<Row> hashBuilderForRight,
                                                              RowAccounting<Object[]> rowAccounting,
-                                                             RamBlockSizeCalculator blockSizeCalculator) {
+                                                             RamBlockSizeCalculator blockSizeCalculator,
+                                                             @Nullable SpillDirectory spillDirectory,
+                                                             Streamer<?>[] leftStreamers,
+                                                             Streamer<?>[] rightStreamers) {
         CombinedRow combiner = new CombinedRow(leftNumCols, rightNumCols);
+        if (spillDirectory != null) {
+            return new HybridHashJoinBatchIterator(
+                left,
+                right,
+                rowAccounting,
+                combiner,
+                joinCondition,
+                hashBuilderForLeft,
+                hashBuilderForRight,
+                blockSizeCalculator,
+                prefix -> spillDirectory.newFile(prefix, leftStreamers),
+                prefix -> spillDirectory.newFile(prefix, rightStreamers)
+            );
+        }
         return new HashInnerJoinBatchIterator(
             left,
             right,
@@ -0,0 +1,495 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongToIntFunction;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.io.IOUtils;
+import io.crate.data.BatchIterator;
+import io.crate.data.CloseableIterator;
+import io.crate.data.Row;
+import io.crate.data.UnsafeArrayRow;
+import io.crate.data.breaker.RowAccounting;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.join.JoinBatchIterator;
+import io.crate.execution.engine.spill.SpillFile;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+
+/**
+ * Hash join which reads each side exactly once, independent of the size of the left (build) side.
+ * <pre>
+ *     Build Phase:
+ *     for (leftRow in left) {
+ *         if (partition(leftRow) is spilled) {
+ *             append leftRow to the left file of the partition
+ *         } else {
+ *             put leftRow into the in-memory buffer
+ *             if the buffer exceeds the blockSize or the circuit breaker trips {
+ *                 spill partitions: move their rows from the buffer into files
+ *             }
+ *         }
+ *     }
+ *
+ *     Probe Phase:
+ *     for (rightRow in right) {
+ *         if (partition(rightRow) is spilled) {
+ *             append rightRow to the right file of the partition
+ *         } else {
+ *             emit matches of the in-memory buffer
+ *         }
+ *     }
+ *
+ *     Spilled Partitions Phase:
+ *     for (partition in spilled partitions) {
+ *         for (block of rows in left file of partition) {
+ *             build buffer from block
+ *             for (rightRow in right file of partition) {
+ *                 emit matches of the buffer
+ *             }
+ *         }
+ *     }
+ * </pre>
+ * <p>
+ * As long as the left side fits into a single block no file is written and the join behaves like
+ * {@link HashInnerJoinBatchIterator} with a single block. On the first overflow all partitions but
+ * the first one are spilled, the first one stays in memory (hybrid hash join) until it overflows as well.
+ * </p>
+ * <p>
+ * In contrast to {@link HashInnerJoinBatchIterator} the right side is never re-read from the upstream. If a single
+ * spilled partition doesn't fit into memory it is processed in blocks, re-reading only the local right file of the
+ * partition.
+ * </p>
+ */
+public class HybridHashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
+
+    static final int NUM_PARTITIONS = 16;
+
+    private enum Phase {
+        BUILD,
+        PROBE,
+        SPILLED_PARTITIONS,
+        DONE
+    }
+
+    private final RowAccounting<Object[]> leftRowAccounting;
+    private final Predicate<Row> joinCondition;
+    private final ToIntFunction<Row> hashBuilderForLeft;
+    private final ToIntFunction<Row> hashBuilderForRight;
+    private final LongToIntFunction calculateBlockSize;
+    private final Function<String, SpillFile> newLeftSpillFile;
+    private final Function<String, SpillFile> newRightSpillFile;
+    private final IntObjectHashMap<List<Object[]>> buffer = new IntObjectHashMap<>();
+
+    private final UnsafeArrayRow leftRow = new UnsafeArrayRow();
+    private final UnsafeArrayRow spilledRightRow = new UnsafeArrayRow();
+    private final UnsafeArrayRow unsafeArrayRow = new UnsafeArrayRow();
+
+    private Phase phase = Phase.BUILD;
+    private int blockSize;
+    private int numberOfRowsInBuffer = 0;
+    private long leftRowSizeSum = 0;
+    private long numLeftRowsAccounted = 0;
+    private Iterator<Object[]> leftMatchingRowsIterator;
+
+    @Nullable
+    private SpillFile[] leftPartitions;
+    @Nullable
+    private SpillFile[] rightPartitions;
+    private final boolean[] spilled = new boolean[NUM_PARTITIONS];
+
+    private int currentPartition = -1;
+    @Nullable
+    private CloseableIterator<Object[]> spilledLeftRows;
+    @Nullable
+    private CloseableIterator<Object[]> spilledRightRows;
+
+    /**
+     * @param newLeftSpillFile creates a new file for left rows, the argument is a prefix for the file name
+     * @param newRightSpillFile creates a new file for right rows, the argument is a prefix for the file name
+     */
+    public HybridHashJoinBatchIterator(BatchIterator<Row> left,
+                                       BatchIterator<Row> right,
+                                       RowAccounting<Object[]> leftRowAccounting,
+                                       CombinedRow combiner,
+                                       Predicate<Row> joinCondition,
+                                       ToIntFunction<Row> hashBuilderForLeft,
+                                       ToIntFunction<Row> hashBuilderForRight,
+                                       LongToIntFunction calculateBlockSize,
+                                       Function<String, SpillFile> newLeftSpillFile,
+                                       Function<String, SpillFile> newRightSpillFile) {
+        super(left, right, combiner);
+        this.leftRowAccounting = leftRowAccounting;
+        this.joinCondition = joinCondition;
+        this.hashBuilderForLeft = hashBuilderForLeft;
+        this.hashBuilderForRight = hashBuilderForRight;
+        this.calculateBlockSize = calculateBlockSize;
+        this.newLeftSpillFile = newLeftSpillFile;
+        this.newRightSpillFile = newRightSpillFile;
+        this.blockSize = calculateBlockSize.applyAsInt(-1);
+    }
+
+    @Override
+    public Row currentElement() {
+        return combiner.currentElement();
+    }
+
+    @Override
+    public void moveToStart() {
+        super.moveToStart();
+        closeSpillFiles();
+        leftPartitions = null;
+        rightPartitions = null;
+        Arrays.fill(spilled, false);
+        currentPartition = -1;
+        clearBuffer();
+        leftMatchingRowsIterator = null;
+        leftRowSizeSum = 0;
+        numLeftRowsAccounted = 0;
+        blockSize = calculateBlockSize.applyAsInt(-1);
+        phase = Phase.BUILD;
+    }
+
+    @Override
+    public boolean moveNext() {
+        while (true) {
+            switch (phase) {
+                case BUILD:
+                    if (buildBuffer() == false) {
+                        // left needs the next batch loaded
+                        return false;
+                    }
+                    phase = Phase.PROBE;
+                    activeIt = right;
+                    break;
+
+                case PROBE:
+                    if (probeRight()) {
+                        return true;
+                    }
+                    if (right.allLoaded() == false) {
+                        // right needs the next batch loaded
+                        return false;
+                    }
+                    phase = Phase.SPILLED_PARTITIONS;
+                    break;
+
+                case SPILLED_PARTITIONS:
+                    if (joinSpilledPartitions()) {
+                        return true;
+                    }
+                    phase = Phase.DONE;
+                    break;
+
+                case DONE:
+                    return false;
+
+                default:
+                    throw new AssertionError("Unexpected phase: " + phase);
+            }
+        }
+    }
+
+    /**
+     * @return true if the left side is fully consumed
+     */
+    private boolean buildBuffer() {
+        while (left.moveNext()) {
+            Object[] row = left.currentElement().materialize();
+            int hash = hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(row));
+            int partition = partition(hash);
+            if (spilled[partition]) {
+                leftPartitions[partition].write(row);
+                continue;
+            }
+            if (numberOfRowsInBuffer >= blockSize) {
+                spill();
+                if (spilled[partition]) {
+                    leftPartitions[partition].write(row);
+                    continue;
+                }
+            }
+            try {
+                accountLeftRow(row);
+            } catch (CircuitBreakingException e) {
+                if (spilled[0]) {
+                    throw e;
+                }
+                spill();
+                if (spilled[partition]) {
+                    leftPartitions[partition].write(row);
+                    continue;
+                }
+                try {
+                    accountLeftRow(row);
+                } catch (CircuitBreakingException e2) {
+                    // The row doesn't fit next to the rows of the first partition, spill those as well
+                    spill();
+                    leftPartitions[partition].write(row);
+                    continue;
+                }
+            }
+            addToBuffer(row, hash);
+        }
+        return left.allLoaded();
+    }
+
+    private boolean probeRight() {
+        // In case of multiple matches on the left side (duplicate values or hash collisions)
+        if (leftMatchingRowsIterator != null && findMatchingRows()) {
+            return true;
+        }
+        leftMatchingRowsIterator = null;
+        while (right.moveNext()) {
+            Row rightRow = right.currentElement();
+            int rightHash = hashBuilderForRight.applyAsInt(rightRow);
+            int partition = partition(rightHash);
+            if (spilled[partition]) {
+                if (leftPartitions[partition].numRows() > 0) {
+                    rightPartitions[partition].write(rightRow.materialize());
+                }
+                continue;
+            }
+            List<Object[]> leftMatchingRows = buffer.get(rightHash);
+            if (leftMatchingRows != null) {
+                leftMatchingRowsIterator = leftMatchingRows.iterator();
+                combiner.setRight(rightRow);
+                if (findMatchingRows()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean joinSpilledPartitions() {
+        if (leftMatchingRowsIterator != null && findMatchingRows()) {
+            return true;
+        }
+        leftMatchingRowsIterator = null;
+        while (true) {
+            if (spilledRightRows != null) {
+                while (spilledRightRows.hasNext()) {
+                    spilledRightRow.cells(spilledRightRows.next());
+                    int rightHash = hashBuilderForRight.applyAsInt(spilledRightRow);
+                    List<Object[]> leftMatchingRows = buffer.get(rightHash);
+                    if (leftMatchingRows != null) {
+                        leftMatchingRowsIterator = leftMatchingRows.iterator();
+                        combiner.setRight(spilledRightRow);
+                        if (findMatchingRows()) {
+                            return true;
+                        }
+                    }
+                }
+                spilledRightRows.close();
+                spilledRightRows = null;
+            }
+            clearBuffer();
+            if (spilledLeftRows == null || spilledLeftRows.hasNext() == false) {
+                if (nextSpilledPartition() == false) {
+                    return false;
+                }
+            }
+            blockSize = calculateBlockSize.applyAsInt(averageLeftRowSize());
+            while (numberOfRowsInBuffer < blockSize && spilledLeftRows.hasNext()) {
+                Object[] row = spilledLeftRows.next();
+                accountLeftRow(row);
+                addToBuffer(row, hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(row)));
+            }
+            spilledRightRows = rightPartitions[currentPartition].read();
+        }
+    }
+
+    /**
+     * Moves to the next spilled partition which has rows on both sides and removes the files of the current one.
+     */
+    private boolean nextSpilledPartition() {
+        if (spilledLeftRows != null) {
+            spilledLeftRows.close();
+            spilledLeftRows = null;
+        }
+        if (leftPartitions == null) {
+            return false;
+        }
+        if (currentPartition >= 0) {
+            leftPartitions[currentPartition].close();
+            rightPartitions[currentPartition].close();
+        }
+        for (currentPartition++; currentPartition < NUM_PARTITIONS; currentPartition++) {
+            if (spilled[currentPartition] == false) {
+                continue;
+            }
+            SpillFile leftFile = leftPartitions[currentPartition];
+            SpillFile rightFile = rightPartitions[currentPartition];
+            if (leftFile.numRows() > 0 && rightFile.numRows() > 0) {
+                leftFile.finishWriting();
+                rightFile.finishWriting();
+                spilledLeftRows = leftFile.read();
+                return true;
+            }
+            leftFile.close();
+            rightFile.close();
+        }
+        return false;
+    }
+
+    /**
+     * Spills all partitions except the first one on the first call, the first partition on the second call.
+     * Rows of spilled partitions are moved from the buffer into the files of the partitions.
+     * <p>
+     * The accounted memory is released before the rows are written, only the rows which stay in memory
+     * are accounted again. If those don't fit anymore, the first partition is spilled as well.
+     * </p>
+     */
+    private void spill() {
+        assert spilled[0] == false : "Cannot spill if all partitions are already spilled";
+        if (leftPartitions == null) {
+            leftPartitions = new SpillFile[NUM_PARTITIONS];
+            rightPartitions = new SpillFile[NUM_PARTITIONS];
+            for (int i = 0; i < NUM_PARTITIONS; i++) {
+                leftPartitions[i] = newLeftSpillFile.apply("hash-join-left-" + i + "-");
+                rightPartitions[i] = newRightSpillFile.apply("hash-join-right-" + i + "-");
+                spilled[i] = i > 0;
+            }
+        } else {
+            spilled[0] = true;
+        }
+        leftRowAccounting.release();
+        ArrayList<Object[]> remainingRows = new ArrayList<>();
+        for (IntObjectMap.PrimitiveEntry<List<Object[]>> entry : buffer.entries()) {
+            int partition = partition(entry.key());
+            if (spilled[partition]) {
+                for (Object[] row : entry.value()) {
+                    leftPartitions[partition].write(row);
+                }
+            } else {
+                remainingRows.addAll(entry.value());
+            }
+        }
+        clearBuffer();
+        blockSize = calculateBlockSize.applyAsInt(averageLeftRowSize());
+        int i = 0;
+        try {
+            for (; i < remainingRows.size(); i++) {
+                Object[] row = remainingRows.get(i);
+                // Not added to the row size statistics, the rows were already accounted once
+                leftRowAccounting.accountForAndMaybeBreak(row);
+                addToBuffer(row, hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(row)));
+            }
+        } catch (CircuitBreakingException e) {
+            // The memory got used by others in the meantime, keep the rows in the buffer to spill them
+            for (; i < remainingRows.size(); i++) {
+                Object[] row = remainingRows.get(i);
+                addToBuffer(row, hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(row)));
+            }
+            spill();
+        }
+    }
+
+    private void accountLeftRow(Object[] row) {
+        leftRowSizeSum += leftRowAccounting.accountForAndMaybeBreak(row);
+        numLeftRowsAccounted++;
+    }
+
+    private long averageLeftRowSize() {
+        return numLeftRowsAccounted > 0 ? leftRowSizeSum / numLeftRowsAccounted : -1;
+    }
+
+    private void clearBuffer() {
+        buffer.clear();
+        numberOfRowsInBuffer = 0;
+        leftRowAccounting.release();
+    }
+
+    private void addToBuffer(Object[] currentRow, int hash) {
+        List<Object[]> existingRows = buffer.get(hash);
+        if (existingRows == null) {
+            existingRows = new ArrayList<>();
+            buffer.put(hash, existingRows);
+        }
+        existingRows.add(currentRow);
+        numberOfRowsInBuffer++;
+    }
+
+    private boolean findMatchingRows() {
+        while (leftMatchingRowsIterator.hasNext()) {
+            leftRow.cells(leftMatchingRowsIterator.next());
+            combiner.setLeft(leftRow);
+            if (joinCondition.test(combiner.currentElement())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Partitions by the upper bits of the mixed hash, the buffer uses the full hash as key.
+     */
+    static int partition(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return (mixed >>> 28) & (NUM_PARTITIONS - 1);
+    }
+
+    private void closeSpillFiles() {
+        if (spilledLeftRows != null) {
+            spilledLeftRows.close();
+            spilledLeftRows = null;
+        }
+        if (spilledRightRows != null) {
+            spilledRightRows.close();
+            spilledRightRows = null;
+        }
+        if (leftPartitions != null) {
+            IOUtils.closeWhileHandlingException(leftPartitions);
+            IOUtils.closeWhileHandlingException(rightPartitions);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            closeSpillFiles();
+        } finally {
+            super.close();
+        }
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        try {
+            closeSpillFiles();
+        } finally {
+            super.kill(throwable);
+        }
+    }
+}
@@ -53,6 +53,7 @@ import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.jetbrains.annotations.Nullable;
 
+import io.crate.Streamer;
 import io.crate.analyze.NumberOfReplicas;
 import io.crate.analyze.SymbolEvaluator;
 import io.crate.breaker.RowCellsAccountingWithEstimators;
@@ -115,8 +116,11 @@ import io.crate.execution.engine.sort.OrderingByPosition;
 import io.crate.execution.engine.sort.SortingLimitAndOffsetProjector;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.engine.sort.UnboundedSortingLimitAndOffsetCollector;
+import io.crate.execution.engine.spill.SpillDirectory;
 import io.crate.execution.engine.window.WindowProjector;
 import io.crate.execution.jobs.NodeLimits;
+import io.crate.execution.jobs.RootTask;
+import io.crate.execution.jobs.TasksService;
 import io.crate.execution.support.ThreadPools;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
@@ -139,6 +143,7 @@ import io.crate.metadata.TransactionContext;
 import io.crate.metadata.sys.SysNodeChecksTableInfo;
 import io.crate.metadata.table.Operation;
 import io.crate.planner.operators.SubQueryResults;
+import io.crate.profile.ProfilingContext;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.StringType;
@@ -160,6 +165,12 @@ public class ProjectionToProjectorVisitor
      */
     private static final int UNBOUNDED_COLLECTOR_THRESHOLD = 10_000;
 
+    /**
+     * If spilling is enabled, an unbounded sort writes its rows to disk once they use more than
+     * this fraction of the query circuit breaker limit, so that concurrent queries still have room.
+     */
+    private static final int MAX_SORT_RUN_FRACTION_OF_BREAKER = 4;
+
     private final ClusterService clusterService;
     private final NodeLimits nodeJobsCounter;
     private final NodeContext nodeCtx;
@@ -177,6 +188,10 @@ public class ProjectionToProjectorVisitor
     private final int numProcessors;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
     private final Schemas schemas;
+    @Nullable
+    private final SpillDirectory spillDirectory;
+    @Nullable
+    private final TasksService tasksService;
 
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
@@ -193,7 +208,9 @@ public class ProjectionToProjectorVisitor
                                         Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
                                         Version indexVersionCreated,
                                         @Nullable ShardId shardId,
-                                        Map<String, FileOutputFactory> fileOutputFactoryMap) {
+                                        Map<String, FileOutputFactory> fileOutputFactoryMap,
+                                        @Nullable SpillDirectory spillDirectory,
+                                        @Nullable TasksService tasksService) {
         this.clusterService = clusterService;
         this.schemas = schemas;
         this.nodeJobsCounter = nodeJobsCounter;
@@ -210,6 +227,8 @@ public class ProjectionToProjectorVisitor
         this.shardId = shardId;
         this.numProcessors = EsExecutors.numberOfProcessors(settings);
         this.fileOutputFactoryMap = fileOutputFactoryMap;
+        this.spillDirectory = spillDirectory;
+        this.tasksService = tasksService;
     }
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
@@ -236,12 +255,45 @@ public class ProjectionToProjectorVisitor
             normalizer,
             sysUpdaterGetter,
             staticTableDefinitionGetter,
-            Version.CURRENT,
             null,
             null
         );
     }
 
+    public ProjectionToProjectorVisitor(ClusterService clusterService,
+                                        Schemas schemas,
+                                        NodeLimits nodeJobsCounter,
+                                        CircuitBreakerService circuitBreakerService,
+                                        NodeContext nodeCtx,
+                                        ThreadPool threadPool,
+                                        Settings settings,
+                                        ElasticsearchClient elasticsearchClient,
+                                        InputFactory inputFactory,
+                                        EvaluatingNormalizer normalizer,
+                                        Function<RelationName, SysRowUpdater<?>> sysUpdaterGetter,
+                                        Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
+                                        @Nullable SpillDirectory spillDirectory,
+                                        @Nullable TasksService tasksService) {
+        this(clusterService,
+            schemas,
+            nodeJobsCounter,
+            circuitBreakerService,
+            nodeCtx,
+            threadPool,
+            settings,
+            elasticsearchClient,
+            inputFactory,
+            normalizer,
+            sysUpdaterGetter,
+            staticTableDefinitionGetter,
+            Version.CURRENT,
+            null,
+            null,
+            spillDirectory,
+            tasksService
+        );
+    }
+
     @Override
     public RowGranularity supportedGranularity() {
         if (this.shardId == null) {
@@ -293,6 +345,20 @@ public class ProjectionToProjectorVisitor
                 UNBOUNDED_COLLECTOR_THRESHOLD
             );
         }
+        if (spillDirectory != null && spillDirectory.enabled()) {
+            Streamer<?>[] streamers = DataTypes.getStreamers(rowTypes);
+            long breakerLimit = circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY).getLimit();
+            return new SortingProjector(
+                rowAccounting,
+                inputs,
+                ctx.expressions(),
+                numOutputs,
+                OrderingByPosition.arrayOrdering(rowTypes, orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
+                projection.offset(),
+                () -> spillDirectory.newFile("sort-run-", streamers),
+                breakerLimit > 0 ? breakerLimit / MAX_SORT_RUN_FRACTION_OF_BREAKER : Long.MAX_VALUE
+            );
+        }
         return new SortingProjector(
             rowAccounting,
             inputs,
@@ -348,10 +414,26 @@ public class ProjectionToProjectorVisitor
             context.ramAccounting,
             context.memoryManager,
             clusterService.state().nodes().getMinNodeVersion(),
-            indexVersionCreated
+            indexVersionCreated,
+            detail -> addProfilingDetail(context.jobId, "GroupBy", detail)
         );
     }
 
+    /**
+     * Adds the detail to the profiling results of the job if it runs with EXPLAIN ANALYZE.
+     * The task is looked up lazily because projectors can be created before the task is registered.
+     */
+    private void addProfilingDetail(UUID jobId, String name, Map<String, Object> detail) {
+        if (tasksService == null) {
+            return;
+        }
+        RootTask rootTask = tasksService.getTaskOrNull(jobId);
+        ProfilingContext profilingContext = rootTask == null ? null : rootTask.profilingContext();
+        if (profilingContext != null) {
+            profilingContext.addDetail(name, detail);
+        }
+    }
+
     @Override
     public Projector visitMergeCountProjection(MergeCountProjection projection, Context context) {
         return new MergeCountProjector();
@@ -388,7 +470,12 @@ public class ProjectionToProjectorVisitor
         assert uri != null : "URI must not be null";
 
         StringBuilder sb = new StringBuilder(uri);
-        Symbol resolvedFileName = normalizer.normalize(WriterProjection.DIRECTORY_TO_FILENAME, context.txnCtx);
+        Symbol resolvedFileName = normalizer.normalize(
+            projection.outputFormat() == WriterProjection.OutputFormat.COLUMNAR
+                ? WriterProjection.DIRECTORY_TO_COLUMNAR_FILENAME
+                : WriterProjection.DIRECTORY_TO_FILENAME,
+            context.txnCtx
+        );
         assert resolvedFileName instanceof Literal : "resolvedFileName must be a Literal, but is: " + resolvedFileName;
         assert resolvedFileName.valueType().id() == StringType.ID :
             "resolvedFileName.valueType() must be " + StringType.INSTANCE;
@@ -400,6 +487,8 @@ public class ProjectionToProjectorVisitor
         sb.append(fileName);
         if (projection.compressionType() == WriterProjection.CompressionType.GZIP) {
             sb.append(".gz");
+        } else if (projection.compressionType() == WriterProjection.CompressionType.LZ4) {
+            sb.append(".lz4");
         }
         uri = sb.toString();
 
@@ -411,12 +500,14 @@ public class ProjectionToProjectorVisitor
             uri,
             projection.compressionType(),
             inputs,
+            Symbols.typeView(projection.inputs()),
             ctx.expressions(),
             overwrites,
             projection.outputNames(),
             projection.outputFormat(),
             fileOutputFactoryMap,
-            projection.withClauseOptions()
+            projection.withClauseOptions(),
+            context.ramAccounting
         );
     }
 
@@ -23,6 +23,8 @@ package io.crate.execution.engine.sort;
 
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
+import io.crate.data.Buckets;
+import io.crate.data.CloseableIterator;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.CollectionBucket;
 import io.crate.data.Input;
@@ -30,18 +32,32 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.distribution.merge.KeyIterable;
+import io.crate.execution.engine.distribution.merge.PagingIterator;
+import io.crate.execution.engine.spill.SpillFile;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.jetbrains.annotations.Nullable;
+
 /**
  * Sort rows by ordering criteria and process given offset before emitting.
  * <p>
  * Compared to {@link SortingLimitAndOffsetProjector} this projector does not support limiting,
  * while the {@link SortingLimitAndOffsetProjector} does not work WITHOUT a limit.
+ * <p>
+ * If a {@link SpillFile} supplier is given, rows are sorted in runs. A run is sorted and written to a
+ * {@link SpillFile} once it exceeds {@code maxRunBytes} or the circuit breaker trips, and all runs are
+ * merged when the result is consumed. This keeps large sorts within the memory limits instead of failing them.
  */
 public class SortingProjector implements Projector {
 
@@ -52,6 +68,9 @@ public class SortingProjector implements Projector {
     private final int offset;
     private final int numOutputs;
     private final RowAccounting<Object[]> rowAccounting;
+    @Nullable
+    private final Supplier<SpillFile> newRunFile;
+    private final long maxRunBytes;
 
     /**
      * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
@@ -67,6 +86,21 @@ public class SortingProjector implements Projector {
                             int numOutputs,
                             Comparator<Object[]> comparator,
                             int offset) {
+        this(rowAccounting, inputs, collectExpressions, numOutputs, comparator, offset, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param newRunFile  if not null, used to create the files sorted runs are written to
+     * @param maxRunBytes number of accounted bytes after which a run is written to disk
+     */
+    public SortingProjector(RowAccounting<Object[]> rowAccounting,
+                            Collection<? extends Input<?>> inputs,
+                            Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                            int numOutputs,
+                            Comparator<Object[]> comparator,
+                            int offset,
+                            @Nullable Supplier<SpillFile> newRunFile,
+                            long maxRunBytes) {
         if (offset < 0) {
             throw new IllegalArgumentException("invalid offset " + offset);
         }
@@ -76,11 +110,36 @@ public class SortingProjector implements Projector {
         this.collectExpressions = collectExpressions;
         this.comparator = comparator;
         this.offset = offset;
+        this.newRunFile = newRunFile;
+        this.maxRunBytes = maxRunBytes;
     }
 
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        if (newRunFile != null) {
+            SortedRuns sortedRuns = new SortedRuns(newRunFile);
+            Collector<Row, SortedRuns, Iterable<Row>> collector = Collector.of(
+                () -> sortedRuns,
+                SortedRuns::add,
+                (a, b) -> {
+                    throw new UnsupportedOperationException("SortedRuns cannot be combined");
+                },
+                SortedRuns::finish
+            );
+            return CollectingBatchIterator.newInstance(
+                () -> {
+                    batchIterator.close();
+                    sortedRuns.close();
+                },
+                t -> {
+                    batchIterator.kill(t);
+                    sortedRuns.close();
+                },
+                () -> batchIterator.collect(collector),
+                true
+            );
+        }
         Collector<Row, ?, Bucket> collector = Collectors.mapping(
             this::getCells,
             Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
@@ -93,6 +152,12 @@ public class SortingProjector implements Projector {
     }
 
     private Object[] getCells(Row row) {
+        Object[] newRow = materialize(row);
+        rowAccounting.accountForAndMaybeBreak(newRow);
+        return newRow;
+    }
+
+    private Object[] materialize(Row row) {
         for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
             collectExpression.setNextRow(row);
         }
@@ -101,7 +166,6 @@ public class SortingProjector implements Projector {
         for (Input<?> input : inputs) {
             newRow[i++] = input.value();
         }
-        rowAccounting.accountForAndMaybeBreak(newRow);
         return newRow;
     }
 
@@ -112,4 +176,104 @@ public class SortingProjector implements Projector {
         }
         return new CollectionBucket(rows.subList(offset, rows.size()), numOutputs);
     }
+
+    private final class SortedRuns {
+
+        private final Supplier<SpillFile> newRunFile;
+        private final List<SpillFile> runs = new ArrayList<>();
+        private final List<CloseableIterator<Object[]>> openReaders = new ArrayList<>();
+        private List<Object[]> rows = new ArrayList<>();
+        private long runBytes = 0;
+
+        SortedRuns(Supplier<SpillFile> newRunFile) {
+            this.newRunFile = newRunFile;
+        }
+
+        void add(Row row) {
+            Object[] cells = materialize(row);
+            long rowBytes;
+            try {
+                rowBytes = rowAccounting.accountForAndMaybeBreak(cells);
+            } catch (CircuitBreakingException e) {
+                if (rows.isEmpty()) {
+                    throw e;
+                }
+                spill();
+                rowBytes = rowAccounting.accountForAndMaybeBreak(cells);
+            }
+            rows.add(cells);
+            runBytes += rowBytes;
+            if (runBytes >= maxRunBytes) {
+                spill();
+            }
+        }
+
+        private void spill() {
+            rows.sort(comparator);
+            SpillFile run = newRunFile.get();
+            runs.add(run);
+            for (Object[] row : rows) {
+                run.write(row);
+            }
+            run.finishWriting();
+            rows = new ArrayList<>();
+            runBytes = 0;
+            rowAccounting.release();
+        }
+
+        Iterable<Row> finish() {
+            if (runs.isEmpty()) {
+                return sortAndCreateBucket(rows);
+            }
+            rows.sort(comparator);
+            return this::mergeRuns;
+        }
+
+        /**
+         * Creates a new iterator over the merged runs. Called again on {@link BatchIterator#moveToStart()}.
+         */
+        private Iterator<Row> mergeRuns() {
+            closeReaders();
+            List<KeyIterable<Integer, Object[]>> iterables = new ArrayList<>(runs.size() + 1);
+            for (int i = 0; i < runs.size(); i++) {
+                CloseableIterator<Object[]> reader = runs.get(i).read();
+                openReaders.add(reader);
+                iterables.add(new KeyIterable<>(i, () -> reader));
+            }
+            iterables.add(new KeyIterable<>(runs.size(), rows));
+            PagingIterator<Integer, Object[]> merged = PagingIterator.createSorted(comparator, false);
+            merged.merge(iterables);
+            merged.finish();
+            for (int i = 0; i < offset && merged.hasNext(); i++) {
+                merged.next();
+            }
+            Function<Object[], Row> arrayToRow = Buckets.arrayToSharedRow(numOutputs);
+            return new Iterator<>() {
+
+                @Override
+                public boolean hasNext() {
+                    return merged.hasNext();
+                }
+
+                @Override
+                public Row next() {
+                    return arrayToRow.apply(merged.next());
+                }
+            };
+        }
+
+        private void closeReaders() {
+            for (CloseableIterator<Object[]> reader : openReaders) {
+                reader.close();
+            }
+            openReaders.clear();
+        }
+
+        void close() {
+            closeReaders();
+            for (SpillFile run : runs) {
+                run.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.NodeEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+
+/**
+ * Provides temporary files below the data path of the node to operations which
+ * can write intermediate results to disk instead of keeping them in memory.
+ * <p>
+ * Left-over files of a previous run are removed when the node starts.
+ * </p>
+ */
+@Singleton
+public final class SpillDirectory {
+
+    private static final Logger LOGGER = LogManager.getLogger(SpillDirectory.class);
+
+    public static final Setting<Boolean> SPILL_ENABLED = Setting.boolSetting(
+        "memory.spill.enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
+    @Nullable
+    private final Path path;
+    private volatile boolean enabled;
+
+    @Inject
+    public SpillDirectory(Settings settings, ClusterSettings clusterSettings, NodeEnvironment nodeEnvironment) {
+        this(nodeEnvironment.hasNodeFile() ? nodeEnvironment.nodeDataPaths()[0].resolve("spill") : null,
+             SPILL_ENABLED.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(SPILL_ENABLED, newValue -> enabled = newValue);
+    }
+
+    public SpillDirectory(@Nullable Path path, boolean enabled) {
+        this.path = path;
+        this.enabled = enabled;
+        if (path != null) {
+            try {
+                IOUtils.rm(path);
+                Files.createDirectories(path);
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't prepare spill directory {}, spilling to disk is disabled", path, e);
+                this.enabled = false;
+            }
+        }
+    }
+
+    /**
+     * @return true if operations are allowed to spill intermediate results to disk
+     */
+    public boolean enabled() {
+        return enabled && path != null;
+    }
+
+    /**
+     * Creates a new file to write rows to. The file is deleted once the returned {@link SpillFile} is closed.
+     *
+     * @param prefix used as prefix of the file name, helps to identify the operation owning a file.
+     */
+    public SpillFile newFile(String prefix, Streamer<?>[] streamers) {
+        assert path != null : "newFile must only be called if spilling is enabled";
+        try {
+            return new SpillFile(Files.createTempFile(path, prefix, ".spill"), streamers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+import io.crate.data.CloseableIterator;
+
+/**
+ * A temporary file containing rows encoded with the {@link Streamer}s of their columns.
+ * <p>
+ * Rows are appended using {@link #write(Object[])}. Once {@link #finishWriting()} got called
+ * the rows can be read (multiple times) in the order they were written using {@link #read()}.
+ * </p>
+ * <p>
+ * {@link #close()} closes all open streams and deletes the file.
+ * </p>
+ */
+public final class SpillFile implements Closeable {
+
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Streamer<?>[] streamers;
+    private final List<StreamInput> openReaders = new ArrayList<>();
+
+    @Nullable
+    private StreamOutput out;
+    private long numRows = 0;
+
+    SpillFile(Path path, Streamer<?>[] streamers) throws IOException {
+        this.path = path;
+        this.streamers = streamers;
+        this.out = new OutputStreamStreamOutput(
+            new BufferedOutputStream(Files.newOutputStream(path), WRITE_BUFFER_SIZE));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void write(Object[] row) {
+        assert out != null : "Cannot write to a SpillFile after finishWriting has been called";
+        assert row.length == streamers.length : "Row must have a value for each streamer";
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                ((Streamer) streamers[i]).writeValueTo(out, row[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows++;
+    }
+
+    public long numRows() {
+        return numRows;
+    }
+
+    public void finishWriting() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out = null;
+        }
+    }
+
+    /**
+     * @return an iterator over all rows of the file. Each call creates a new iterator returning new row instances.
+     */
+    public CloseableIterator<Object[]> read() {
+        assert out == null : "finishWriting must be called before rows can be read";
+        StreamInput in;
+        try {
+            in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), READ_BUFFER_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        openReaders.add(in);
+        return new CloseableIterator<>() {
+
+            long remaining = numRows;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Object[] next() {
+                if (remaining <= 0) {
+                    throw new NoSuchElementException("SpillFile has no more rows");
+                }
+                Object[] row = new Object[streamers.length];
+                try {
+                    for (int i = 0; i < streamers.length; i++) {
+                        row[i] = streamers[i].readValueFrom(in);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                remaining--;
+                return row;
+            }
+
+            @Override
+            public void close() {
+                openReaders.remove(in);
+                IOUtils.closeWhileHandlingException(in);
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeWhileHandlingException(out);
+        IOUtils.closeWhileHandlingException(openReaders);
+        openReaders.clear();
+        out = null;
+        IOUtils.deleteFilesIgnoringExceptions(path);
+    }
+}
@@ -23,8 +23,10 @@ package io.crate.execution.engine.window;
 
 import static io.crate.execution.engine.window.WindowFrameState.isLowerBoundIncreasing;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.Version;
 import org.jetbrains.annotations.Nullable;
 
@@ -57,6 +59,13 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
     private int seenFrameUpperBound = -1;
     private Object resultForCurrentFrame;
 
+    /**
+     * Built for the current partition once the frame start of a function with a selective reduce moves
+     */
+    @Nullable
+    private SegmentTree<Object> segmentTree;
+    private Object emptyState;
+
     AggregateToWindowFunctionAdapter(AggregationFunction aggregationFunction,
                                      ExpressionsInput<Row, Boolean> filter,
                                      Version indexVersionCreated,
@@ -100,7 +109,12 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                           Input<?> ... args) {
         assert ignoreNulls == null;
         if (idxInPartition == 0) {
+            segmentTree = null;
             recomputeFunction(frame, expressions, args);
+        } else if (segmentTree != null) {
+            if (frame.lowerBound() != seenFrameLowerBound || frame.upperBoundExclusive() != seenFrameUpperBound) {
+                executeAggregateUsingSegmentTree(frame);
+            }
         } else if (isLowerBoundIncreasing(frame, seenFrameLowerBound)) {
             if (aggregationFunction.isRemovableCumulative()) {
                 removeSeenRowsFromAccumulatedState(frame, expressions, args);
@@ -111,6 +125,10 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                 }
                 seenFrameLowerBound = frame.lowerBound();
                 seenFrameUpperBound = frame.upperBoundExclusive();
+            } else if (aggregationFunction.isSelectiveReduce()) {
+                // Recomputing on every move of the frame start would be O(frame size) per row
+                segmentTree = buildSegmentTree(frame, expressions, args);
+                executeAggregateUsingSegmentTree(frame);
             } else {
                 recomputeFunction(frame, expressions, args);
             }
@@ -141,6 +159,46 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private SegmentTree<Object> buildSegmentTree(WindowFrameState frame,
+                                                 List<? extends CollectExpression<Row, ?>> expressions,
+                                                 Input<?> ... args) {
+        int partitionSize = frame.partitionSize();
+        List<Object> states = new ArrayList<>(partitionSize);
+        var row = new ArrayRow();
+        for (int i = 0; i < partitionSize; i++) {
+            Object state = aggregationFunction.newState(ramAccounting, indexVersionCreated, minNodeVersion, memoryManager);
+            row.cells(frame.getRowInPartitionAtIndexOrNull(i));
+            for (int j = 0, expressionsSize = expressions.size(); j < expressionsSize; j++) {
+                expressions.get(j).setNextRow(row);
+            }
+            if (filter.value(row)) {
+                state = aggregationFunction.iterate(ramAccounting, memoryManager, state, args);
+            }
+            states.add(state);
+        }
+        emptyState = aggregationFunction.newState(ramAccounting, indexVersionCreated, minNodeVersion, memoryManager);
+        // The inner nodes reference the states of the leaves, the states don't have to be accounted again
+        SegmentTree<Object> tree = new SegmentTree<>(
+            states,
+            (state1, state2) -> aggregationFunction.reduce(RamAccounting.NO_ACCOUNTING, state1, state2)
+        );
+        ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(
+            RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) tree.numNodes() * RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+        return tree;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executeAggregateUsingSegmentTree(WindowFrameState frame) {
+        assert segmentTree != null : "segmentTree must be built before it can be used";
+        int lowerBound = frame.lowerBound();
+        int upperBound = Math.max(lowerBound, frame.upperBoundExclusive());
+        Object state = segmentTree.query(lowerBound, upperBound, emptyState);
+        resultForCurrentFrame = aggregationFunction.terminatePartial(ramAccounting, state);
+        seenFrameLowerBound = frame.lowerBound();
+        seenFrameUpperBound = frame.upperBoundExclusive();
+    }
+
     private void recomputeFunction(WindowFrameState frame,
                                    List<? extends CollectExpression<Row, ?>> expressions,
                                    Input<?> ... args) {
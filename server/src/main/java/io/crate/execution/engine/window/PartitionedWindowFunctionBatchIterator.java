@@ -0,0 +1,203 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.window;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.BatchIterator;
+import io.crate.data.Buckets;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.breaker.RowAccounting;
+import io.crate.execution.engine.collect.CollectExpression;
+
+/**
+ * BatchIterator which computes window functions over a source that is already ordered by the
+ * PARTITION BY and ORDER BY of the window definition.
+ * <p>
+ * Unlike {@link WindowFunctionBatchIterator#of} this doesn't materialize all rows. Only the rows of the
+ * current partition are kept in memory. Once the first row of the next partition arrives the window functions
+ * are computed for the completed partition and its rows are emitted. Their memory is released before the
+ * rows of the next partition are emitted.
+ * </p>
+ * <p>
+ * Without PARTITION BY all rows belong to the same partition, so this only pays off if there is a PARTITION BY.
+ * </p>
+ */
+final class PartitionedWindowFunctionBatchIterator implements BatchIterator<Row> {
+
+    private final BatchIterator<Row> source;
+    private final RowAccounting<Row> rowAccounting;
+    private final RamAccounting ramAccounting;
+    private final Function<List<Object[]>, Iterable<Object[]>> computeWindowFunctions;
+    @Nullable
+    private final Comparator<Object[]> cmpPartitionBy;
+    private final int numWindowFunctions;
+    private final Function<Object[], Row> toRow = Buckets.arrayToSharedRow();
+
+    private List<Object[]> partition = new ArrayList<>();
+    private long partitionBytes = 0;
+
+    @Nullable
+    private Iterator<Object[]> computedRows;
+    private long computedRowsBytes = 0;
+
+    private Row current;
+    private volatile Throwable killed;
+
+    PartitionedWindowFunctionBatchIterator(BatchIterator<Row> source,
+                                           RowAccounting<Row> rowAccounting,
+                                           RamAccounting ramAccounting,
+                                           ComputeFrameBoundary<Object[]> computeFrameStart,
+                                           ComputeFrameBoundary<Object[]> computeFrameEnd,
+                                           @Nullable Comparator<Object[]> cmpPartitionBy,
+                                           int numCellsInSourceRow,
+                                           List<WindowFunction> windowFunctions,
+                                           List<? extends CollectExpression<Row, ?>> argsExpressions,
+                                           Boolean[] ignoreNulls,
+                                           Input<?>[]... args) {
+        this.source = source;
+        this.rowAccounting = rowAccounting;
+        this.ramAccounting = ramAccounting;
+        this.cmpPartitionBy = cmpPartitionBy;
+        this.numWindowFunctions = windowFunctions.size();
+        // Each list only contains the rows of one partition, no need to look for partition boundaries
+        this.computeWindowFunctions = rows -> WindowFunctionBatchIterator.computeWindowFunctions(
+            rows,
+            computeFrameStart,
+            computeFrameEnd,
+            null,
+            numCellsInSourceRow,
+            windowFunctions,
+            argsExpressions,
+            ignoreNulls,
+            args
+        );
+    }
+
+    @Override
+    public Row currentElement() {
+        return current;
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfKilled();
+        releaseComputedRows();
+        ramAccounting.addBytes(-partitionBytes);
+        partition = new ArrayList<>();
+        partitionBytes = 0;
+        current = null;
+        source.moveToStart();
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfKilled();
+        if (computedRows != null) {
+            if (computedRows.hasNext()) {
+                current = toRow.apply(computedRows.next());
+                return true;
+            }
+            releaseComputedRows();
+        }
+        while (source.moveNext()) {
+            Row row = source.currentElement();
+            long bytes = rowAccounting.accountForAndMaybeBreak(row);
+            Object[] cells = WindowFunctionBatchIterator.materializeWithSpare(row, numWindowFunctions);
+            if (cmpPartitionBy != null && !partition.isEmpty() && cmpPartitionBy.compare(partition.get(0), cells) != 0) {
+                computePartition();
+                partition.add(cells);
+                partitionBytes = bytes;
+                return moveNext();
+            }
+            partition.add(cells);
+            partitionBytes += bytes;
+        }
+        if (source.allLoaded() && !partition.isEmpty()) {
+            computePartition();
+            return moveNext();
+        }
+        current = null;
+        return false;
+    }
+
+    private void computePartition() {
+        computedRows = computeWindowFunctions.apply(partition).iterator();
+        computedRowsBytes = partitionBytes;
+        partition = new ArrayList<>();
+        partitionBytes = 0;
+    }
+
+    private void releaseComputedRows() {
+        computedRows = null;
+        ramAccounting.addBytes(-computedRowsBytes);
+        computedRowsBytes = 0;
+    }
+
+    @Override
+    public void close() {
+        source.close();
+        killed = BatchIterator.CLOSED;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        if (source.allLoaded()) {
+            throw new IllegalStateException("BatchIterator already fully loaded");
+        }
+        return source.loadNextBatch();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return source.allLoaded();
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        source.kill(throwable);
+        killed = throwable;
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return source.hasLazyResultSet();
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+}
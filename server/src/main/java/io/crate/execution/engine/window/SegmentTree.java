@@ -0,0 +1,97 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.window;
+
+import java.util.List;
+import java.util.function.BinaryOperator;
+
+/**
+ * A segment tree over a fixed list of values which combines the values of any range in O(log n).
+ * <p>
+ * The leaves contain the values, each inner node the combination of its two children.
+ * The combine function must be associative and must not modify its arguments, as a node is
+ * combined with other nodes by every query covering it. It doesn't have to be commutative,
+ * the values are combined in the order of the list.
+ * </p>
+ */
+final class SegmentTree<T> {
+
+    private final int size;
+    private final Object[] nodes;
+    private final BinaryOperator<T> combine;
+
+    SegmentTree(List<T> values, BinaryOperator<T> combine) {
+        this.size = values.size();
+        this.nodes = new Object[2 * size];
+        this.combine = combine;
+        for (int i = 0; i < size; i++) {
+            nodes[size + i] = values.get(i);
+        }
+        for (int i = size - 1; i > 0; i--) {
+            nodes[i] = combine.apply(node(2 * i), node(2 * i + 1));
+        }
+    }
+
+    /**
+     * @return the number of tree nodes (including the leaves)
+     */
+    int numNodes() {
+        return nodes.length;
+    }
+
+    /**
+     * Combines the values within {@code [from, toExclusive)}.
+     * Returns {@code empty} if the range is empty.
+     */
+    T query(int from, int toExclusive, T empty) {
+        assert from >= 0 && toExclusive <= size : "range must be within the values of the tree";
+        T left = null;
+        boolean hasLeft = false;
+        T right = null;
+        boolean hasRight = false;
+        for (int l = from + size, r = toExclusive + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                left = hasLeft ? combine.apply(left, node(l)) : node(l);
+                hasLeft = true;
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                right = hasRight ? combine.apply(node(r), right) : node(r);
+                hasRight = true;
+            }
+        }
+        if (hasLeft && hasRight) {
+            return combine.apply(left, right);
+        }
+        if (hasLeft) {
+            return left;
+        }
+        return hasRight ? right : empty;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T node(int idx) {
+        return (T) nodes[idx];
+    }
+}
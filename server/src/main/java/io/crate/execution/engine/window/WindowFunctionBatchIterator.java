@@ -43,6 +43,7 @@ import io.crate.data.Buckets;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.sort.Sort;
@@ -57,6 +58,7 @@ import io.crate.execution.engine.sort.Sort;
  *
  * Doing the ORDER BY within the BatchIterator (instead of demanding the source to be pre-sorted) allows us to operate
  * on a in-memory list with RandomAccess instead of using the BatchIterator interface for the source.
+ * If the source is already sorted, {@link #ofPresorted} only materializes one partition at a time.
  * </p>
  *
  * <pre>
@@ -117,7 +119,39 @@ public final class WindowFunctionBatchIterator {
         );
     }
 
-    private static Object[] materializeWithSpare(Row row, int numWindowFunctions) {
+    /**
+     * Like {@link #of} but requires the source to be ordered by the PARTITION BY and ORDER BY of the window.
+     * Only the rows of the current partition are kept in memory.
+     */
+    public static BatchIterator<Row> ofPresorted(BatchIterator<Row> source,
+                                                 RowAccounting<Row> rowAccounting,
+                                                 RamAccounting ramAccounting,
+                                                 ComputeFrameBoundary<Object[]> computeFrameStart,
+                                                 ComputeFrameBoundary<Object[]> computeFrameEnd,
+                                                 @Nullable Comparator<Object[]> cmpPartitionBy,
+                                                 int numCellsInSourceRow,
+                                                 List<WindowFunction> windowFunctions,
+                                                 List<? extends CollectExpression<Row, ?>> argsExpressions,
+                                                 Boolean[] ignoreNulls,
+                                                 Input<?>[] ... args) {
+        assert windowFunctions.size() == args.length : "arguments must be defined for each window function";
+        assert args.length == ignoreNulls.length : "ignore-nulls option must be defined for each window function";
+        return new PartitionedWindowFunctionBatchIterator(
+            source,
+            rowAccounting,
+            ramAccounting,
+            computeFrameStart,
+            computeFrameEnd,
+            cmpPartitionBy,
+            numCellsInSourceRow,
+            windowFunctions,
+            argsExpressions,
+            ignoreNulls,
+            args
+        );
+    }
+
+    static Object[] materializeWithSpare(Row row, int numWindowFunctions) {
         Object[] cells = new Object[row.numColumns() + numWindowFunctions];
         for (int i = 0; i < row.numColumns(); i++) {
             cells[i] = row.get(i);
@@ -160,7 +194,7 @@ public final class WindowFunctionBatchIterator {
         }
     }
 
-    private static Iterable<Object[]> computeWindowFunctions(List<Object[]> sortedRows,
+    static Iterable<Object[]> computeWindowFunctions(List<Object[]> sortedRows,
                                                              ComputeFrameBoundary<Object[]> computeFrameStart,
                                                              ComputeFrameBoundary<Object[]> computeFrameEnd,
                                                              @Nullable Comparator<Object[]> cmpPartitionBy,
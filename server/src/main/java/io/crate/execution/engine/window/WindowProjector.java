@@ -152,6 +152,21 @@ public class WindowProjector {
             windowDefinition,
             cmpOrderBy
         );
+        if (projection.presorted()) {
+            return sourceRows -> WindowFunctionBatchIterator.ofPresorted(
+                sourceRows,
+                accounting,
+                ramAccounting,
+                computeFrameStart,
+                computeFrameEnd,
+                cmpPartitionBy,
+                numCellsInSourceRow,
+                windowFunctions,
+                windowFuncArgsExpressions,
+                ignoreNulls,
+                windowFuncArgsInputs
+            );
+        }
         return sourceRows -> WindowFunctionBatchIterator.of(
             sourceRows,
             accounting,
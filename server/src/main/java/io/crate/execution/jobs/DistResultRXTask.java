@@ -113,6 +113,11 @@ public class DistResultRXTask implements Task, DownstreamRXTask {
         return pageBucketReceiver;
     }
 
+    @Override
+    public RamAccounting ramAccounting(byte inputId) {
+        return ramAccounting;
+    }
+
     @Override
     public CompletableFuture<Void> completionFuture() {
         return completionFuture;
@@ -23,6 +23,8 @@ package io.crate.execution.jobs;
 
 import org.jetbrains.annotations.Nullable;
 
+import io.crate.data.breaker.RamAccounting;
+
 /**
  * An Task which receives data from an upstream.
  */
@@ -30,4 +32,9 @@ public interface DownstreamRXTask {
 
     @Nullable
     PageBucketReceiver getBucketReceiver(byte inputId);
+
+    /**
+     * @return the accounting for the memory used by the rows received for the input
+     */
+    RamAccounting ramAccounting(byte inputId);
 }
@@ -110,6 +110,7 @@ import io.crate.execution.engine.join.NestedLoopOperation;
 import io.crate.execution.engine.pipeline.ProjectingRowConsumer;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
+import io.crate.execution.engine.spill.SpillDirectory;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -136,6 +137,7 @@ public class JobSetup {
     private final CircuitBreakerService circuitBreakerService;
     private final CountOperation countOperation;
     private final MemoryManagerFactory memoryManagerFactory;
+    private final SpillDirectory spillDirectory;
     private final DistributingConsumerFactory distributingConsumerFactory;
     private final InnerPreparer innerPreparer;
     private final InputFactory inputFactory;
@@ -160,7 +162,9 @@ public class JobSetup {
                     NodeContext nodeCtx,
                     SystemCollectSource systemCollectSource,
                     ShardCollectSource shardCollectSource,
-                    MemoryManagerFactory memoryManagerFactory) {
+                    MemoryManagerFactory memoryManagerFactory,
+                    SpillDirectory spillDirectory,
+                    TasksService tasksService) {
         this.nodeName = Node.NODE_NAME_SETTING.get(settings);
         this.schemas = schemas;
         this.collectOperation = collectOperation;
@@ -168,6 +172,7 @@ public class JobSetup {
         this.circuitBreakerService = circuitBreakerService;
         this.countOperation = countOperation;
         this.memoryManagerFactory = memoryManagerFactory;
+        this.spillDirectory = spillDirectory;
         this.pkLookupOperation = new PKLookupOperation(indicesService, shardCollectSource);
         this.distributingConsumerFactory = distributingConsumerFactory;
         innerPreparer = new InnerPreparer();
@@ -186,7 +191,9 @@ public class JobSetup {
             inputFactory,
             normalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            spillDirectory,
+            tasksService
         );
     }
 
@@ -906,8 +913,8 @@ public class JobSetup {
             context.registerSubContext(new JoinTask(
                 phase,
                 joinOperation,
-                left != null ? left.getBucketReceiver((byte) 0) : null,
-                right != null ? right.getBucketReceiver((byte) 0) : null
+                left,
+                right
             ));
             return null;
         }
@@ -953,7 +960,10 @@ public class JobSetup {
                 context.transactionContext,
                 inputFactory,
                 breaker(),
-                phase.estimatedRowSizeForLeft()
+                phase.estimatedRowSizeForLeft(),
+                phase.leftOutputTypes(),
+                phase.rightOutputTypes(),
+                spillDirectory
             );
             DistResultRXTask left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
@@ -982,8 +992,8 @@ public class JobSetup {
             context.registerSubContext(new JoinTask(
                 phase,
                 joinOperation,
-                left != null ? left.getBucketReceiver((byte) 0) : null,
-                right != null ? right.getBucketReceiver((byte) 0) : null
+                left,
+                right
             ));
             return null;
         }
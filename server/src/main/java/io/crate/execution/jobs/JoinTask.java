@@ -22,6 +22,7 @@
 package io.crate.execution.jobs;
 
 import io.crate.concurrent.CompletionListenable;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dsl.phases.JoinPhase;
 
 import org.jetbrains.annotations.Nullable;
@@ -36,15 +37,20 @@ class JoinTask extends AbstractTask implements DownstreamRXTask {
     @Nullable
     private final PageBucketReceiver rightPageBucketReceiver;
 
+    private final RamAccounting leftRamAccounting;
+    private final RamAccounting rightRamAccounting;
+
     JoinTask(JoinPhase joinPhase,
              CompletionListenable<?> completionListenable,
-             @Nullable PageBucketReceiver leftPageBucketReceiver,
-             @Nullable PageBucketReceiver rightPageBucketReceiver) {
+             @Nullable DistResultRXTask left,
+             @Nullable DistResultRXTask right) {
         super(joinPhase.phaseId());
 
         this.joinPhase = joinPhase;
-        this.leftPageBucketReceiver = leftPageBucketReceiver;
-        this.rightPageBucketReceiver = rightPageBucketReceiver;
+        this.leftPageBucketReceiver = left != null ? left.getBucketReceiver((byte) 0) : null;
+        this.rightPageBucketReceiver = right != null ? right.getBucketReceiver((byte) 0) : null;
+        this.leftRamAccounting = left != null ? left.ramAccounting((byte) 0) : RamAccounting.NO_ACCOUNTING;
+        this.rightRamAccounting = right != null ? right.ramAccounting((byte) 0) : RamAccounting.NO_ACCOUNTING;
 
         completionListenable.completionFuture().whenComplete(closeOrKill(this));
     }
@@ -74,6 +80,12 @@ class JoinTask extends AbstractTask implements DownstreamRXTask {
         return rightPageBucketReceiver;
     }
 
+    @Override
+    public RamAccounting ramAccounting(byte inputId) {
+        assert inputId < 2 : "Only 0 and 1 inputId's supported";
+        return inputId == 0 ? leftRamAccounting : rightRamAccounting;
+    }
+
     @Override
     public String toString() {
         return "JoinTask{" +
@@ -163,7 +163,7 @@ public class RootTask implements CompletionListenable<Void> {
             profilingFuture = new CompletableFuture<>();
         }
         for (Task task : orderedTasks) {
-            jobsLogs.operationStarted(task.id(), jobId, task.name(), task::bytesUsed);
+            jobsLogs.operationStarted(task.id(), jobId, task.name(), task::bytesUsed, task::bytesRead);
             task.completionFuture().whenComplete(new TaskFinishedListener(task.id()));
         }
     }
@@ -303,6 +303,14 @@ public class RootTask implements CompletionListenable<Void> {
         return profilingFuture.whenComplete((o, t) -> close());
     }
 
+    /**
+     * @return the profiling context of the job on this node, or null if the job isn't profiled.
+     */
+    @Nullable
+    public ProfilingContext profilingContext() {
+        return profiler;
+    }
+
     @VisibleForTesting
     Map<String, Object> executionTimes() {
         if (profiler == null) {
@@ -45,4 +45,11 @@ public interface Task extends CompletionListenable<Void>, Killable {
     int id();
 
     long bytesUsed();
+
+    /**
+     * @return number of bytes the task read from external sources like files, or -1 if it doesn't read any.
+     */
+    default long bytesRead() {
+        return -1;
+    }
 }
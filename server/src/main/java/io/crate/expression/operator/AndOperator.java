@@ -28,8 +28,10 @@ import java.util.List;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
+import org.jetbrains.annotations.Nullable;
 
 import io.crate.data.Input;
+import io.crate.expression.scalar.KnnMatch;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
@@ -135,6 +137,10 @@ public class AndOperator extends Operator<Boolean> {
 
     @Override
     public Query toQuery(Function function, Context context) {
+        Query knnQuery = knnQueryWithFilter(function, context);
+        if (knnQuery != null) {
+            return knnQuery;
+        }
         BooleanQuery.Builder query = new BooleanQuery.Builder();
         for (Symbol symbol : function.arguments()) {
             query.add(symbol.accept(context.visitor(), context), BooleanClause.Occur.MUST);
@@ -142,6 +148,32 @@ public class AndOperator extends Operator<Boolean> {
         return query.build();
     }
 
+    /**
+     * Passes the other conjunctions of a knn_match as filter into the kNN query.
+     * Otherwise they'd be applied to the k nearest neighbours, which could result in fewer than k matches.
+     */
+    @Nullable
+    private static Query knnQueryWithFilter(Function function, Context context) {
+        List<Symbol> conjunctions = split(function);
+        Function knnMatch = null;
+        for (Symbol conjunction : conjunctions) {
+            if (conjunction instanceof Function func && func.name().equals(KnnMatch.NAME)) {
+                knnMatch = func;
+                break;
+            }
+        }
+        if (knnMatch == null) {
+            return null;
+        }
+        BooleanQuery.Builder filter = new BooleanQuery.Builder();
+        for (Symbol conjunction : conjunctions) {
+            if (conjunction != knnMatch) {
+                filter.add(conjunction.accept(context.visitor(), context), BooleanClause.Occur.FILTER);
+            }
+        }
+        return KnnMatch.toQuery(knnMatch, filter.build());
+    }
+
     public static Function of(Symbol first, Symbol second) {
         assert first.valueType().equals(DataTypes.BOOLEAN) || first.valueType().equals(DataTypes.UNDEFINED) :
             "first symbol must have BOOLEAN return type to create AND function";
@@ -75,6 +75,8 @@ public class NodeStatsContext implements Writeable {
     private String jvmVendor;
     private String jvmVersion;
     private long openTransportConnections = 0L;
+    private long distributedResultsBytesSent = 0L;
+    private long distributedResultsBytesSaved = 0L;
     private Integer transportPort;
     private Integer httpPort;
     private Integer pgPort;
@@ -208,6 +210,14 @@ public class NodeStatsContext implements Writeable {
         return openTransportConnections;
     }
 
+    public long distributedResultsBytesSent() {
+        return distributedResultsBytesSent;
+    }
+
+    public long distributedResultsBytesSaved() {
+        return distributedResultsBytesSaved;
+    }
+
     public Integer httpPort() {
         return httpPort;
     }
@@ -308,6 +318,14 @@ public class NodeStatsContext implements Writeable {
         this.openTransportConnections = openTransportConnections;
     }
 
+    void distributedResultsBytesSent(long distributedResultsBytesSent) {
+        this.distributedResultsBytesSent = distributedResultsBytesSent;
+    }
+
+    void distributedResultsBytesSaved(long distributedResultsBytesSaved) {
+        this.distributedResultsBytesSaved = distributedResultsBytesSaved;
+    }
+
     public NodeStatsContext(StreamInput in, boolean complete) throws IOException {
         this.complete = complete;
         this.id = DataTypes.STRING.readValueFrom(in);
@@ -333,6 +351,10 @@ public class NodeStatsContext implements Writeable {
         this.httpStats = in.readOptionalWriteable(HttpStats::new);
         this.psqlStats = in.readOptionalWriteable(ConnectionStats::new);
         this.openTransportConnections = in.readLong();
+        if (in.getVersion().onOrAfter(Version.V_5_7_0)) {
+            this.distributedResultsBytesSent = in.readLong();
+            this.distributedResultsBytesSaved = in.readLong();
+        }
         this.clusterStateVersion = in.readLong();
 
         this.osName = DataTypes.STRING.readValueFrom(in);
@@ -375,6 +397,10 @@ public class NodeStatsContext implements Writeable {
         out.writeOptionalWriteable(httpStats);
         out.writeOptionalWriteable(psqlStats);
         out.writeLong(openTransportConnections);
+        if (out.getVersion().onOrAfter(Version.V_5_7_0)) {
+            out.writeLong(distributedResultsBytesSent);
+            out.writeLong(distributedResultsBytesSaved);
+        }
         out.writeLong(clusterStateVersion);
 
         DataTypes.STRING.writeValueTo(out, osName);
@@ -59,6 +59,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
 import io.crate.common.annotations.VisibleForTesting;
+import io.crate.execution.engine.distribution.PageCompression;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.sys.SysNodesTableInfo;
 import io.crate.monitor.ExtendedNodeInfo;
@@ -77,6 +78,8 @@ public class NodeStatsContextFieldResolver {
     private final Supplier<ConnectionStats> psqlStats;
     private final Supplier<TransportAddress> boundPostgresAddress;
     private final LongSupplier numOpenTransportConnections;
+    private final LongSupplier distributedResultsBytesSent;
+    private final LongSupplier distributedResultsBytesSaved;
     private final ProcessService processService;
     private final OsService osService;
     private final JvmService jvmService;
@@ -91,7 +94,8 @@ public class NodeStatsContextFieldResolver {
                                          TransportService transportService,
                                          ThreadPool threadPool,
                                          ExtendedNodeInfo extendedNodeInfo,
-                                         PostgresNetty postgresNetty) {
+                                         PostgresNetty postgresNetty,
+                                         PageCompression pageCompression) {
         this(
             clusterService::localNode,
             nodeService.getMonitorService(),
@@ -108,6 +112,8 @@ public class NodeStatsContextFieldResolver {
                 return boundTransportAddress.publishAddress();
             },
             () -> transportService.stats().getServerOpen(),
+            pageCompression::bytesSent,
+            pageCompression::bytesSaved,
             () -> clusterService.state().version()
         );
     }
@@ -122,6 +128,8 @@ public class NodeStatsContextFieldResolver {
                                   Supplier<ConnectionStats> psqlStats,
                                   Supplier<TransportAddress> boundPostgresAddress,
                                   LongSupplier numOpenTransportConnections,
+                                  LongSupplier distributedResultsBytesSent,
+                                  LongSupplier distributedResultsBytesSaved,
                                   LongSupplier clusterStateVersion) {
         this.localNode = localNode;
         processService = monitorService.processService();
@@ -135,6 +143,8 @@ public class NodeStatsContextFieldResolver {
         this.psqlStats = psqlStats;
         this.boundPostgresAddress = boundPostgresAddress;
         this.numOpenTransportConnections = numOpenTransportConnections;
+        this.distributedResultsBytesSent = distributedResultsBytesSent;
+        this.distributedResultsBytesSaved = distributedResultsBytesSaved;
         this.clusterStateVersion = clusterStateVersion;
     }
 
@@ -251,6 +261,8 @@ public class NodeStatsContextFieldResolver {
                 nodeStatsContext.httpStats(httpStatsSupplier.get());
                 nodeStatsContext.psqlStats(psqlStats.get());
                 nodeStatsContext.openTransportConnections(numOpenTransportConnections.getAsLong());
+                nodeStatsContext.distributedResultsBytesSent(distributedResultsBytesSent.getAsLong());
+                nodeStatsContext.distributedResultsBytesSaved(distributedResultsBytesSaved.getAsLong());
             }
         }),
         entry(SysNodesTableInfo.Columns.OS, new Consumer<>() {
@@ -33,13 +33,24 @@ public class OperationContext {
 
     public final long started;
     private final LongSupplier bytesUsed;
+    private final LongSupplier bytesRead;
 
     public OperationContext(int id, UUID jobId, String name, long started, LongSupplier bytesUsed) {
+        this(id, jobId, name, started, bytesUsed, () -> -1);
+    }
+
+    public OperationContext(int id,
+                            UUID jobId,
+                            String name,
+                            long started,
+                            LongSupplier bytesUsed,
+                            LongSupplier bytesRead) {
         this.id = id;
         this.jobId = jobId;
         this.name = name;
         this.started = started;
         this.bytesUsed = bytesUsed;
+        this.bytesRead = bytesRead;
     }
 
     public int id() {
@@ -62,6 +73,10 @@ public class OperationContext {
         return bytesUsed.getAsLong();
     }
 
+    public long readBytes() {
+        return bytesRead.getAsLong();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -22,12 +22,25 @@
 
 package io.crate.expression.scalar;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
+import org.apache.lucene.codecs.perfield.PerFieldKnnVectorsFormat;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.KnnFloatVectorQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.util.Bits;
 import org.jetbrains.annotations.Nullable;
 
+import io.crate.common.annotations.VisibleForTesting;
 import io.crate.data.Input;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
@@ -45,10 +58,12 @@ import io.crate.types.TypeSignature;
 
 public class KnnMatch extends Scalar<Boolean, Object> {
 
+    public static final String NAME = "knn_match";
+
     public static void register(ScalarFunctionModule module) {
         module.register(
             Signature.scalar(
-                "knn_match",
+                NAME,
                 TypeSignature.parse(FloatVectorType.NAME),
                 TypeSignature.parse(FloatVectorType.NAME),
                 DataTypes.INTEGER.getTypeSignature(),
@@ -56,6 +71,17 @@ public class KnnMatch extends Scalar<Boolean, Object> {
             ),
             KnnMatch::new
         );
+        module.register(
+            Signature.scalar(
+                NAME,
+                TypeSignature.parse(FloatVectorType.NAME),
+                TypeSignature.parse(FloatVectorType.NAME),
+                DataTypes.INTEGER.getTypeSignature(),
+                DataTypes.INTEGER.getTypeSignature(),
+                DataTypes.BOOLEAN.getTypeSignature()
+            ),
+            KnnMatch::new
+        );
     }
 
     public KnnMatch(Signature signature, BoundSignature boundSignature) {
@@ -73,6 +99,20 @@ public class KnnMatch extends Scalar<Boolean, Object> {
     @Override
     @Nullable
     public Query toQuery(Function function, Context context) {
+        return toQuery(function, null);
+    }
+
+    /**
+     * Creates the kNN query of a knn_match function.
+     *
+     * @param filter restricts the documents which are searched. The kNN search applies the filter while it
+     *               looks for the nearest neighbours, so that up to k matching documents are found.
+     *               Lucene searches all matching documents exactly instead of using the HNSW graph if
+     *               the filter matches fewer documents than the graph search would visit.
+     * @return the query or null if the arguments are not supported
+     */
+    @Nullable
+    public static Query toQuery(Function function, @Nullable Query filter) {
         List<Symbol> args = function.arguments();
         if (args.get(0) instanceof Reference ref
                 && args.get(1) instanceof Literal<?> targetLiteral
@@ -80,12 +120,109 @@ public class KnnMatch extends Scalar<Boolean, Object> {
 
             Object target = targetLiteral.value();
             Object k = kLiteral.value();
-            if (target instanceof float[] && k instanceof Integer) {
-                return new KnnFloatVectorQuery(ref.storageIdent(), (float[]) target, (int) k);
+            if (!(target instanceof float[] targetVector && k instanceof Integer numNeighbours)) {
+                return null;
+            }
+            if (args.size() == 3) {
+                return new KnnFloatVectorQuery(ref.storageIdent(), targetVector, numNeighbours, filter);
+            }
+            if (args.get(3) instanceof Literal<?> numCandidatesLiteral
+                    && numCandidatesLiteral.value() instanceof Integer numCandidates) {
+                if (numCandidates < numNeighbours) {
+                    throw new IllegalArgumentException(
+                        "The number of candidates of knn_match must be greater than or equal to k, got: " + numCandidates);
+                }
+                return new NumCandidatesKnnQuery(ref.storageIdent(), targetVector, numNeighbours, numCandidates, filter);
             }
             return null;
         }
         return null;
     }
 
+    /**
+     * Searches {@code numCandidates} nearest neighbours per segment, which improves the accuracy of the
+     * approximate search, and keeps the best {@code k} of them.
+     * <p>
+     * If the vectors of a segment are quantized (see
+     * {@link org.elasticsearch.index.codec.PerFieldMappingPostingFormatCodec#INDEX_KNN_QUANTIZATION_SETTING})
+     * the graph search only computes approximate scores. The candidates are then re-scored using the
+     * original float vectors, so that the final ranking isn't affected by the quantization error.
+     * A {@code knn_match} without {@code num_candidates} uses a plain {@link KnnFloatVectorQuery} and
+     * therefore always ranks by the quantized scores.
+     * </p>
+     */
+    static class NumCandidatesKnnQuery extends KnnFloatVectorQuery {
+
+        private static final String QUANTIZED_FORMAT_NAME = new Lucene99HnswScalarQuantizedVectorsFormat().getName();
+
+        private static final Comparator<ScoreDoc> BY_SCORE_DESC = Comparator
+            .comparing((ScoreDoc scoreDoc) -> scoreDoc.score)
+            .reversed()
+            .thenComparingInt(scoreDoc -> scoreDoc.doc);
+
+        private final float[] target;
+        private final int numNeighbours;
+
+        NumCandidatesKnnQuery(String field,
+                              float[] target,
+                              int numNeighbours,
+                              int numCandidates,
+                              @Nullable Query filter) {
+            super(field, target, numCandidates, filter);
+            this.target = target;
+            this.numNeighbours = numNeighbours;
+        }
+
+        @Override
+        protected TopDocs approximateSearch(LeafReaderContext context,
+                                            Bits acceptDocs,
+                                            int visitedLimit) throws IOException {
+            TopDocs topDocs = super.approximateSearch(context, acceptDocs, visitedLimit);
+            FieldInfo fieldInfo = context.reader().getFieldInfos().fieldInfo(field);
+            if (topDocs.scoreDocs.length == 0 || fieldInfo == null || !isQuantized(fieldInfo)) {
+                return topDocs;
+            }
+            FloatVectorValues vectorValues = context.reader().getFloatVectorValues(field);
+            if (vectorValues == null) {
+                return topDocs;
+            }
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            // FloatVectorValues can only be advanced forward
+            Arrays.sort(scoreDocs, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+            for (ScoreDoc scoreDoc : scoreDocs) {
+                int doc = vectorValues.docID() < scoreDoc.doc
+                    ? vectorValues.advance(scoreDoc.doc)
+                    : vectorValues.docID();
+                assert doc == scoreDoc.doc : "Every hit of the kNN search must have a vector";
+                scoreDoc.score = fieldInfo.getVectorSimilarityFunction().compare(target, vectorValues.vectorValue());
+            }
+            Arrays.sort(scoreDocs, BY_SCORE_DESC);
+            return new TopDocs(topDocs.totalHits, scoreDocs);
+        }
+
+        @VisibleForTesting
+        static boolean isQuantized(FieldInfo fieldInfo) {
+            return QUANTIZED_FORMAT_NAME.equals(fieldInfo.getAttribute(PerFieldKnnVectorsFormat.PER_FIELD_FORMAT_KEY));
+        }
+
+        @Override
+        protected TopDocs mergeLeafResults(TopDocs[] perLeafResults) {
+            return TopDocs.merge(numNeighbours, perLeafResults);
+        }
+
+        @Override
+        public String toString(String field) {
+            return super.toString(field) + "[numNeighbours=" + numNeighbours + "]";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return super.equals(o) && numNeighbours == ((NumCandidatesKnnQuery) o).numNeighbours;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), numNeighbours);
+        }
+    }
 }
@@ -178,6 +178,10 @@ public class SysNodesTableInfo {
                 .endObject()
                 .startObject("transport")
                     .add("open", LONG, NodeStatsContext::openTransportConnections)
+                    .startObject("distributed_results")
+                        .add("bytes_sent", LONG, NodeStatsContext::distributedResultsBytesSent)
+                        .add("bytes_saved", LONG, NodeStatsContext::distributedResultsBytesSaved)
+                    .endObject()
                 .endObject()
             .endObject()
             .startObject("os")
@@ -45,6 +45,7 @@ public class SysOperationsTableInfo {
             .add("name", STRING, OperationContext::name)
             .add("started", TIMESTAMPZ, OperationContext::started)
             .add("used_bytes", LONG, OperationContext::usedBytes)
+            .add("read_bytes", LONG, OperationContext::readBytes)
             .startObject("node")
                 .add("id", STRING, ignored -> localNode.get().getId())
                 .add("name", STRING, ignored -> localNode.get().getName())
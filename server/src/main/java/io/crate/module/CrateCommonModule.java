@@ -24,6 +24,7 @@ package io.crate.module;
 import org.elasticsearch.common.inject.AbstractModule;
 
 import io.crate.action.sql.Sessions;
+import io.crate.execution.engine.spill.SpillDirectory;
 import io.crate.expression.udf.UserDefinedFunctionService;
 import io.crate.memory.MemoryManagerFactory;
 import io.crate.metadata.DanglingArtifactsService;
@@ -47,6 +48,7 @@ public class CrateCommonModule extends AbstractModule {
         bind(TableStats.class).asEagerSingleton();
         bind(TableStatsService.class).asEagerSingleton();
         bind(MemoryManagerFactory.class).asEagerSingleton();
+        bind(SpillDirectory.class).asEagerSingleton();
         bind(UserDefinedFunctionService.class).asEagerSingleton();
         bind(RestSQLAction.class).asEagerSingleton();
         bind(DanglingArtifactsService.class).asEagerSingleton();
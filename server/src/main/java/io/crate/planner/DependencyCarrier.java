@@ -31,6 +31,7 @@ import io.crate.execution.ddl.views.TransportCreateViewAction;
 import io.crate.execution.ddl.views.TransportDropViewAction;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.PhasesTaskFactory;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.expression.udf.TransportCreateUserDefinedFunctionAction;
 import io.crate.expression.udf.TransportDropUserDefinedFunctionAction;
@@ -90,6 +91,7 @@ public class DependencyCarrier {
     private final TransportCreateSubscriptionAction createSubscriptionAction;
     private final LogicalReplicationService logicalReplicationService;
     private final ElasticsearchClient client;
+    private final StdinFileInputFactory stdinInputs;
     private CircuitBreakerService circuitBreakerService;
 
     @Inject
@@ -119,7 +121,8 @@ public class DependencyCarrier {
                              TransportDropPublicationAction dropPublicationAction,
                              TransportAlterPublicationAction alterPublicationAction,
                              TransportCreateSubscriptionAction createSubscriptionAction,
-                             LogicalReplicationService logicalReplicationService) {
+                             LogicalReplicationService logicalReplicationService,
+                             StdinFileInputFactory stdinInputs) {
         this.settings = settings;
         this.client = node.client();
         this.phasesTaskFactory = phasesTaskFactory;
@@ -148,6 +151,7 @@ public class DependencyCarrier {
         this.alterPublicationAction = alterPublicationAction;
         this.createSubscriptionAction = createSubscriptionAction;
         this.logicalReplicationService = logicalReplicationService;
+        this.stdinInputs = stdinInputs;
     }
 
     public Schemas schemas() {
@@ -266,6 +270,10 @@ public class DependencyCarrier {
         return client;
     }
 
+    public StdinFileInputFactory stdinInputs() {
+        return stdinInputs;
+    }
+
     public CircuitBreaker circuitBreaker(String name) {
         return circuitBreakerService.getBreaker(name);
     }
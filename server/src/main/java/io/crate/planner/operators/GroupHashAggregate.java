@@ -68,6 +68,7 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
     final List<Function> aggregates;
     final List<Symbol> groupKeys;
     private final List<Symbol> outputs;
+    private final AggregateMode mode;
 
 
     public static long approximateDistinctValues(Stats stats, List<Symbol> groupKeys) {
@@ -109,7 +110,18 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
     }
 
     public GroupHashAggregate(LogicalPlan source, List<Symbol> groupKeys, List<Function> aggregates) {
+        this(source, groupKeys, aggregates, AggregateMode.ITER_FINAL);
+    }
+
+    /**
+     * @param mode {@link AggregateMode#ITER_FINAL} to aggregate the rows of the source to final values.
+     *             {@link AggregateMode#ITER_PARTIAL} to output partial states instead, which must be
+     *             merged by a {@link AggregateMode#PARTIAL_FINAL} aggregation further up in the plan.
+     *             {@link AggregateMode#PARTIAL_FINAL} if the source outputs the partial states of the aggregates.
+     */
+    public GroupHashAggregate(LogicalPlan source, List<Symbol> groupKeys, List<Function> aggregates, AggregateMode mode) {
         super(source);
+        this.mode = mode;
         this.aggregates = List.copyOf(new LinkedHashSet<>(aggregates));
         this.outputs = Lists.concat(groupKeys, this.aggregates);
         this.groupKeys = groupKeys;
@@ -129,6 +141,10 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
         return groupKeys;
     }
 
+    public AggregateMode mode() {
+        return mode;
+    }
+
     @Override
     public ExecutionPlan build(DependencyCarrier executor,
                                PlannerContext plannerContext,
@@ -152,6 +168,40 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
         SubQueryAndParamBinder paramBinder = new SubQueryAndParamBinder(params, subQueryResults);
 
         List<Symbol> sourceOutputs = source.outputs();
+        if (mode == AggregateMode.ITER_PARTIAL) {
+            // Partial states of the same group can be emitted by several shards or nodes,
+            // they're merged by the PARTIAL_FINAL aggregation consuming them.
+            executionPlan.addProjection(
+                projectionBuilder.groupProjection(
+                    sourceOutputs,
+                    groupKeys,
+                    aggregates,
+                    paramBinder,
+                    AggregateMode.ITER_PARTIAL,
+                    source.preferShardProjections() ? RowGranularity.SHARD : RowGranularity.NODE,
+                    plannerContext.transactionContext().sessionSettings().searchPath()
+                )
+            );
+            return executionPlan;
+        }
+        if (mode == AggregateMode.PARTIAL_FINAL) {
+            executionPlan = Merge.ensureOnHandler(executionPlan, plannerContext);
+            executionPlan.addProjection(
+                projectionBuilder.groupProjection(
+                    sourceOutputs,
+                    groupKeys,
+                    aggregates,
+                    paramBinder,
+                    AggregateMode.PARTIAL_FINAL,
+                    RowGranularity.CLUSTER,
+                    plannerContext.transactionContext().sessionSettings().searchPath()
+                ),
+                NO_LIMIT,
+                0,
+                null
+            );
+            return executionPlan;
+        }
         if (shardsContainAllGroupKeyValues()) {
             GroupProjection groupProjection = projectionBuilder.groupProjection(
                 sourceOutputs,
@@ -266,12 +316,12 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
         if (newSource == source && aggregates.size() == newAggregates.size()) {
             return this;
         }
-        return new GroupHashAggregate(newSource, groupKeys, newAggregates);
+        return new GroupHashAggregate(newSource, groupKeys, newAggregates, mode);
     }
 
     @Override
     public LogicalPlan replaceSources(List<LogicalPlan> sources) {
-        return new GroupHashAggregate(Lists.getOnlyElement(sources), groupKeys, aggregates);
+        return new GroupHashAggregate(Lists.getOnlyElement(sources), groupKeys, aggregates, mode);
     }
 
     private ExecutionPlan createMerge(PlannerContext plannerContext,
@@ -324,6 +374,7 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
                "src=" + source +
                ", keys=" + groupKeys +
                ", agg=" + aggregates +
+               ", mode=" + mode +
                '}';
     }
 
@@ -337,6 +388,11 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
                 .text(" | ")
                 .text(Lists.joinOn(", ", aggregates, Symbol::toString));
         }
+        if (mode != AggregateMode.ITER_FINAL) {
+            printContext
+                .text(" | ")
+                .text(mode.name());
+        }
         printContext
             .text("]");
         printStats(printContext);
@@ -53,6 +53,7 @@ import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.Merge;
 import io.crate.planner.PlannerContext;
+import io.crate.planner.PositionalOrderBy;
 import io.crate.planner.ResultDescription;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.DistributionType;
@@ -155,13 +156,12 @@ public class WindowAgg extends ForwardingLogicalPlan {
         Function<Symbol, Symbol> toInputCols = binder.andThen(s -> InputColumns.create(s, sourceSymbols));
 
         List<WindowFunction> boundWindowFunctions = (List<WindowFunction>)(List<?>) Lists.map(windowFunctions, toInputCols);
-        List<Projection> projections = new ArrayList<>();
-        WindowAggProjection windowAggProjection = new WindowAggProjection(
-            windowDefinition.map(toInputCols),
-            boundWindowFunctions,
-            InputColumns.create(this.standalone, sourceSymbols)
-        );
-        projections.add(windowAggProjection);
+        // If the source is a Collect it can provide the rows ordered by PARTITION BY and ORDER BY (via Lucene sort)
+        // which allows the window functions to be computed one partition at a time.
+        // Without PARTITION BY all rows are a single partition, so the sorted collect wouldn't save any memory.
+        OrderBy sourceOrder = source instanceof Collect && !windowDefinition.partitions().isEmpty()
+            ? createOrderByInclPartitionBy(windowDefinition)
+            : null;
         ExecutionPlan sourcePlan = source.build(
             executor,
             plannerContext,
@@ -169,11 +169,20 @@ public class WindowAgg extends ForwardingLogicalPlan {
             projectionBuilder,
             LimitAndOffset.NO_LIMIT,
             LimitAndOffset.NO_OFFSET,
-            null,
+            sourceOrder,
             pageSizeHint,
             params,
             subQueryResults
         );
+        PositionalOrderBy sourcePlanOrder = sourceOrder == null ? null : sourcePlan.resultDescription().orderBy();
+        List<Projection> projections = new ArrayList<>();
+        WindowAggProjection windowAggProjection = new WindowAggProjection(
+            windowDefinition.map(toInputCols),
+            boundWindowFunctions,
+            InputColumns.create(this.standalone, sourceSymbols),
+            sourcePlanOrder != null
+        );
+        projections.add(windowAggProjection);
         ResultDescription resultDescription = sourcePlan.resultDescription();
         boolean executesOnHandler = executesOnHandler(plannerContext.handlerNode(), resultDescription.nodeIds());
         boolean nonDistExecution = windowDefinition.partitions().isEmpty()
@@ -199,7 +208,7 @@ public class WindowAgg extends ForwardingLogicalPlan {
                 resultDescription.streamOutputs(),
                 projections,
                 DistributionInfo.DEFAULT_BROADCAST,
-                null
+                sourcePlanOrder
             );
             return new Merge(
                 sourcePlan,
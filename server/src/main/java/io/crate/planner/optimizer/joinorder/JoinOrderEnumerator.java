@@ -0,0 +1,297 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.joinorder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.selectivity.SelectivityFunctions;
+import io.crate.statistics.Stats;
+
+/**
+ * Enumerates the join orders of a {@link JoinGraph} to find the one with the
+ * smallest intermediate results.
+ *
+ * <p>
+ * The number of rows of a join of a set of relations is estimated as the product of
+ * the number of rows of the relations multiplied with the selectivity of the
+ * equi-join conditions between them. The selectivity of a join condition is based on
+ * the column statistics (most common values, distinct values, null fraction) collected
+ * by {@code ANALYZE}, see {@link SelectivityFunctions}.
+ * </p>
+ *
+ * <p>
+ * The cost of an order is the sum of the estimated rows of all joins in the
+ * left-deep tree built from it. Only orders where each relation is joined with
+ * at least one of the relations before it are considered, so that no cross joins
+ * are introduced.
+ * </p>
+ *
+ * <p>
+ * For up to {@link #MAX_RELATIONS_FOR_DP} relations all orders are enumerated
+ * using dynamic programming over the subsets of the relations. For more relations
+ * the order is built greedily, starting with the cheapest pair and adding the
+ * relation which results in the smallest join in each step.
+ * </p>
+ */
+public final class JoinOrderEnumerator {
+
+    static final int MAX_RELATIONS_FOR_DP = 10;
+
+    /**
+     * Sets of relations are represented as bit masks
+     */
+    private static final int MAX_RELATIONS = Integer.SIZE - 1;
+
+    private final List<LogicalPlan> nodes;
+    private final double[] numRows;
+    private final double[][] selectivity;
+    private final int[] neighbours;
+
+    @Nullable
+    private final double[] cardinalities;
+
+    private JoinOrderEnumerator(List<LogicalPlan> nodes,
+                                double[] numRows,
+                                double[][] selectivity,
+                                int[] neighbours) {
+        this.nodes = nodes;
+        this.numRows = numRows;
+        this.selectivity = selectivity;
+        this.neighbours = neighbours;
+        if (nodes.size() <= MAX_RELATIONS_FOR_DP) {
+            cardinalities = new double[1 << nodes.size()];
+            for (int mask = 1; mask < cardinalities.length; mask++) {
+                cardinalities[mask] = computeCardinality(mask);
+            }
+        } else {
+            cardinalities = null;
+        }
+    }
+
+    /**
+     * @return an enumerator for the graph or null if there are no statistics for one of the relations.
+     */
+    @Nullable
+    public static JoinOrderEnumerator create(JoinGraph graph, PlanStats planStats) {
+        List<LogicalPlan> nodes = graph.nodes();
+        int size = nodes.size();
+        if (size > MAX_RELATIONS) {
+            return null;
+        }
+        Map<LogicalPlan, Integer> positions = new HashMap<>();
+        Stats[] stats = new Stats[size];
+        double[] numRows = new double[size];
+        for (int i = 0; i < size; i++) {
+            LogicalPlan node = nodes.get(i);
+            positions.put(node, i);
+            stats[i] = planStats.get(node);
+            if (stats[i].numDocs() == -1) {
+                return null;
+            }
+            numRows[i] = stats[i].numDocs();
+        }
+        double[][] selectivity = new double[size][size];
+        int[] neighbours = new int[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                selectivity[i][j] = 1.0;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            for (var edge : graph.edges(nodes.get(i))) {
+                Integer j = positions.get(edge.to());
+                // Each condition is indexed from both sides, only count it once
+                if (j == null || j <= i) {
+                    continue;
+                }
+                // The edge is indexed with the same left/right from both sides,
+                // so left can belong to either relation
+                boolean leftIsI = nodes.get(i).outputs().contains(edge.left());
+                double conditionSelectivity = SelectivityFunctions.eqJoinSelectivity(
+                    edge.left(),
+                    leftIsI ? stats[i] : stats[j],
+                    edge.right(),
+                    leftIsI ? stats[j] : stats[i]
+                );
+                selectivity[i][j] *= clamp(conditionSelectivity);
+                selectivity[j][i] = selectivity[i][j];
+                neighbours[i] |= 1 << j;
+                neighbours[j] |= 1 << i;
+            }
+        }
+        return new JoinOrderEnumerator(nodes, numRows, selectivity, neighbours);
+    }
+
+    /**
+     * @return the order with the smallest cost or null if the relations can't be joined without a cross join.
+     */
+    @Nullable
+    public List<LogicalPlan> bestOrder() {
+        int[] order = cardinalities == null ? greedyOrder() : dpOrder();
+        if (order == null) {
+            return null;
+        }
+        List<LogicalPlan> result = new ArrayList<>(order.length);
+        for (int position : order) {
+            result.add(nodes.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * @return the sum of the estimated rows of the joins if the relations are joined in the given order.
+     */
+    public double cost(List<LogicalPlan> order) {
+        assert order.size() == nodes.size() : "Order must contain all relations";
+        double cost = 0.0;
+        int mask = 0;
+        for (int i = 0; i < order.size(); i++) {
+            mask |= 1 << nodes.indexOf(order.get(i));
+            if (i > 0) {
+                cost += cardinality(mask);
+            }
+        }
+        return cost;
+    }
+
+    @Nullable
+    private int[] dpOrder() {
+        assert cardinalities != null : "dpOrder requires pre-computed cardinalities";
+        int size = nodes.size();
+        int numSets = 1 << size;
+        double[] costs = new double[numSets];
+        int[] lastRelation = new int[numSets];
+        for (int mask = 1; mask < numSets; mask++) {
+            if (Integer.bitCount(mask) == 1) {
+                costs[mask] = 0.0;
+                lastRelation[mask] = Integer.numberOfTrailingZeros(mask);
+                continue;
+            }
+            costs[mask] = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < size; j++) {
+                int relation = 1 << j;
+                if ((mask & relation) == 0) {
+                    continue;
+                }
+                int previous = mask & ~relation;
+                if ((neighbours[j] & previous) == 0 || costs[previous] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                double cost = costs[previous] + cardinalities[mask];
+                if (cost < costs[mask]) {
+                    costs[mask] = cost;
+                    lastRelation[mask] = j;
+                }
+            }
+        }
+        int mask = numSets - 1;
+        if (costs[mask] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        int[] order = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            int relation = lastRelation[mask];
+            order[i] = relation;
+            mask &= ~(1 << relation);
+        }
+        return order;
+    }
+
+    @Nullable
+    private int[] greedyOrder() {
+        int size = nodes.size();
+        int[] order = new int[size];
+        double minCardinality = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if ((neighbours[i] & (1 << j)) == 0) {
+                    continue;
+                }
+                double cardinality = cardinality((1 << i) | (1 << j));
+                if (cardinality < minCardinality) {
+                    minCardinality = cardinality;
+                    order[0] = i;
+                    order[1] = j;
+                }
+            }
+        }
+        if (minCardinality == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        int mask = (1 << order[0]) | (1 << order[1]);
+        for (int i = 2; i < size; i++) {
+            int next = -1;
+            minCardinality = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < size; j++) {
+                if ((mask & (1 << j)) != 0 || (neighbours[j] & mask) == 0) {
+                    continue;
+                }
+                double cardinality = cardinality(mask | (1 << j));
+                if (cardinality < minCardinality) {
+                    minCardinality = cardinality;
+                    next = j;
+                }
+            }
+            if (next == -1) {
+                return null;
+            }
+            order[i] = next;
+            mask |= 1 << next;
+        }
+        return order;
+    }
+
+    private double cardinality(int mask) {
+        return cardinalities == null ? computeCardinality(mask) : cardinalities[mask];
+    }
+
+    private double computeCardinality(int mask) {
+        double cardinality = 1.0;
+        for (int i = 0; i < nodes.size(); i++) {
+            if ((mask & (1 << i)) == 0) {
+                continue;
+            }
+            cardinality *= numRows[i];
+            for (int j = i + 1; j < nodes.size(); j++) {
+                if ((mask & (1 << j)) != 0) {
+                    cardinality *= selectivity[i][j];
+                }
+            }
+        }
+        return cardinality;
+    }
+
+    private static double clamp(double selectivity) {
+        if (Double.isNaN(selectivity)) {
+            return 1.0;
+        }
+        return Math.min(Math.max(selectivity, 0.0), 1.0);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.analyze.expressions.ExpressionAnalyzer;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.exceptions.ConversionException;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.OrOperator;
+import io.crate.expression.operator.any.AnyEqOperator;
+import io.crate.expression.scalar.ArrayUpperFunction;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.Reference;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.GroupHashAggregate;
+import io.crate.planner.operators.HashJoin;
+import io.crate.planner.operators.Limit;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.MultiPhase;
+import io.crate.planner.operators.RootRelationBoundary;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.statistics.Stats;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+
+/**
+ * Filters the larger side of a hash join by the distinct join keys of the smaller side,
+ * so that rows without a join partner are already skipped by the Lucene query of the larger side
+ * instead of being collected and sent to the join nodes:
+ *
+ * <pre>
+ *     HashJoin[(small.k = large.k)]
+ *       ├ Collect[doc.small | [k] | (x = 1)]
+ *       └ Collect[doc.large | [k, v] | true]
+ * </pre>
+ *
+ * becomes
+ *
+ * <pre>
+ *     MultiPhase
+ *       └ HashJoin[(small.k = large.k)]
+ *         ├ Collect[doc.small | [k] | (x = 1)]
+ *         └ Collect[doc.large | [k, v] | ((k = ANY(keys)) OR (array_length(keys, 1) > MAX_KEYS))]
+ *       └ Limit[MAX_KEYS + 1;0]
+ *         └ GroupHashAggregate[k]
+ *           └ Collect[doc.small | [k] | (x = 1)]
+ * </pre>
+ *
+ * <p>
+ * The keys are collected before the join is executed and bound into the query of the larger side,
+ * where they become a terms query. If the smaller side has more than {@link #MAX_KEYS} distinct keys
+ * the filter evaluates to true, so outdated statistics can't cause large queries.
+ * </p>
+ * <p>
+ * The rule only applies to a single equi-join condition on columns of two tables and if the statistics
+ * show that the smaller side has at most {@link #MAX_KEYS} rows and the larger side at least
+ * {@link #MIN_ROWS_TO_FILTER} rows. Otherwise reading the smaller side twice doesn't pay off.
+ * </p>
+ */
+public final class FilterHashJoinSideByJoinKeys implements Rule<HashJoin> {
+
+    static final int MAX_KEYS = 10_000;
+    static final long MIN_ROWS_TO_FILTER = 1_000_000L;
+
+    private final Pattern<HashJoin> pattern = typeOf(HashJoin.class)
+        .with(join -> join.joinCondition() instanceof Function f && f.name().equals(EqOperator.NAME));
+
+    @Override
+    public Pattern<HashJoin> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(HashJoin join,
+                             Captures captures,
+                             PlanStats planStats,
+                             TransactionContext txnCtx,
+                             NodeContext nodeCtx,
+                             UnaryOperator<LogicalPlan> resolvePlan) {
+        if (!(resolvePlan.apply(join.lhs()) instanceof Collect lhs)
+            || !(resolvePlan.apply(join.rhs()) instanceof Collect rhs)) {
+            return null;
+        }
+        Stats lhsStats = planStats.get(lhs);
+        Stats rhsStats = planStats.get(rhs);
+        if (lhsStats.numDocs() < 0 || rhsStats.numDocs() < 0) {
+            return null;
+        }
+        boolean filterRhs = rhsStats.numDocs() >= lhsStats.numDocs();
+        Collect small = filterRhs ? lhs : rhs;
+        Collect large = filterRhs ? rhs : lhs;
+        long smallRows = Math.min(lhsStats.numDocs(), rhsStats.numDocs());
+        long largeRows = Math.max(lhsStats.numDocs(), rhsStats.numDocs());
+        if (smallRows > MAX_KEYS
+            || largeRows < MIN_ROWS_TO_FILTER
+            || !(large.relation() instanceof DocTableRelation)) {
+            return null;
+        }
+        // Sub-queries are bound when the plan is built and the filter must only be added once
+        Symbol smallQuery = small.where().queryOrFallback();
+        Symbol largeQuery = large.where().queryOrFallback();
+        if (SymbolVisitors.any(SelectSymbol.class::isInstance, smallQuery)
+            || SymbolVisitors.any(SelectSymbol.class::isInstance, largeQuery)) {
+            return null;
+        }
+
+        List<Symbol> args = ((Function) join.joinCondition()).arguments();
+        Symbol smallKey;
+        Symbol largeKey;
+        if (small.outputs().contains(args.get(0)) && large.outputs().contains(args.get(1))) {
+            smallKey = args.get(0);
+            largeKey = args.get(1);
+        } else if (small.outputs().contains(args.get(1)) && large.outputs().contains(args.get(0))) {
+            smallKey = args.get(1);
+            largeKey = args.get(0);
+        } else {
+            return null;
+        }
+        if (!(smallKey instanceof Reference)
+            || !(largeKey instanceof Reference)
+            || !smallKey.valueType().equals(largeKey.valueType())
+            || !DataTypes.isPrimitive(largeKey.valueType())) {
+            return null;
+        }
+
+        Literal<Long> keysLimit = Literal.of((long) MAX_KEYS + 1);
+        QueriedSelectRelation keysRelation = new QueriedSelectRelation(
+            true,
+            List.of(small.relation()),
+            List.of(),
+            List.of(smallKey),
+            smallQuery,
+            List.of(),
+            null,
+            null,
+            keysLimit,
+            null
+        );
+        SelectSymbol keys = new SelectSymbol(
+            keysRelation,
+            new ArrayType<>(smallKey.valueType()),
+            SelectSymbol.ResultType.SINGLE_COLUMN_MULTIPLE_VALUES,
+            false
+        );
+        Symbol keysFilter = keysFilter(largeKey, keys, txnCtx, nodeCtx);
+        if (keysFilter == null) {
+            return null;
+        }
+        LogicalPlan keysPlan = new RootRelationBoundary(
+            new Limit(
+                new GroupHashAggregate(
+                    new Collect(small.relation(), List.of(smallKey), small.where()),
+                    List.of(smallKey),
+                    List.of()
+                ),
+                keysLimit,
+                Literal.of(0L)
+            )
+        );
+        Collect filteredLarge = new Collect(large.relation(), large.outputs(), large.where().add(keysFilter));
+        HashJoin newJoin = filterRhs
+            ? new HashJoin(join.lhs(), filteredLarge, join.joinCondition())
+            : new HashJoin(filteredLarge, join.rhs(), join.joinCondition());
+        return MultiPhase.createIfNeeded(Map.of(keysPlan, keys), newJoin);
+    }
+
+    @Nullable
+    private static Symbol keysFilter(Symbol key, SelectSymbol keys, TransactionContext txnCtx, NodeContext nodeCtx) {
+        try {
+            Symbol anyEq = allocate(AnyEqOperator.NAME, List.of(key, keys), txnCtx, nodeCtx);
+            Symbol numKeys = allocate(ArrayUpperFunction.ARRAY_LENGTH, List.of(keys, Literal.of(1)), txnCtx, nodeCtx);
+            Symbol tooManyKeys = allocate(GtOperator.NAME, List.of(numKeys, Literal.of(MAX_KEYS)), txnCtx, nodeCtx);
+            return allocate(OrOperator.NAME, List.of(anyEq, tooManyKeys), txnCtx, nodeCtx);
+        } catch (ConversionException e) {
+            return null;
+        }
+    }
+
+    private static Symbol allocate(String name, List<Symbol> args, TransactionContext txnCtx, NodeContext nodeCtx) {
+        return ExpressionAnalyzer.allocateFunction(name, args, null, null, txnCtx, nodeCtx);
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+import static io.crate.planner.optimizer.matcher.Patterns.source;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.impl.MaximumAggregation;
+import io.crate.execution.engine.aggregation.impl.MinimumAggregation;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.ScopedSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.Reference;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.GroupHashAggregate;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.optimizer.matcher.Capture;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.Stats;
+
+/**
+ * Splits a GROUP BY on top of an inner join into a partial and a final aggregation
+ * and moves the partial aggregation beneath the join:
+ *
+ * <pre>
+ *     SELECT dim.attr, sum(fact.v) FROM fact JOIN dim ON fact.k = dim.k GROUP BY dim.attr
+ *
+ *     GroupHashAggregate[attr | sum(v)]
+ *       └ Join[INNER | (k = k)]
+ *         ├ Collect[doc.fact | [k, v] | true]
+ *         └ Collect[doc.dim | [k, attr] | true]
+ * </pre>
+ *
+ * becomes
+ *
+ * <pre>
+ *     GroupHashAggregate[attr | sum(v) | PARTIAL_FINAL]
+ *       └ Join[INNER | (k = k)]
+ *         ├ GroupHashAggregate[k | sum(v) | ITER_PARTIAL]
+ *         │  └ Collect[doc.fact | [k, v] | true]
+ *         └ Collect[doc.dim | [k, attr] | true]
+ * </pre>
+ *
+ * <p>
+ * The partial aggregation groups by the columns of its side used in the join condition and
+ * the group keys, so every partial state joins with the same rows as the rows it aggregates.
+ * The rule only applies if all aggregates can be merged from partial states whose type is the
+ * same as the type of the result and if the statistics of the side show that the partial
+ * aggregation reduces the number of rows to join at least by {@link #MIN_REDUCTION_FACTOR}.
+ * </p>
+ */
+public final class MovePartialAggregationBeneathJoin implements Rule<GroupHashAggregate> {
+
+    static final int MIN_REDUCTION_FACTOR = 2;
+
+    private static final Set<String> DECOMPOSABLE_AGGREGATES = Set.of(
+        SumAggregation.NAME,
+        MinimumAggregation.NAME,
+        MaximumAggregation.NAME
+    );
+
+    private final Capture<JoinPlan> joinCapture;
+    private final Pattern<GroupHashAggregate> pattern;
+
+    public MovePartialAggregationBeneathJoin() {
+        this.joinCapture = new Capture<>();
+        this.pattern = typeOf(GroupHashAggregate.class)
+            .with(groupBy -> groupBy.mode() == AggregateMode.ITER_FINAL && !groupBy.aggregates().isEmpty())
+            .with(source(), typeOf(JoinPlan.class).capturedAs(joinCapture)
+                .with(join -> join.joinType() == JoinType.INNER && join.joinCondition() != null));
+    }
+
+    @Override
+    public Pattern<GroupHashAggregate> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(GroupHashAggregate groupBy,
+                             Captures captures,
+                             PlanStats planStats,
+                             TransactionContext txnCtx,
+                             NodeContext nodeCtx,
+                             UnaryOperator<LogicalPlan> resolvePlan) {
+        JoinPlan join = captures.get(joinCapture);
+        for (Function aggregate : groupBy.aggregates()) {
+            if (!isDecomposable(aggregate, nodeCtx)) {
+                return null;
+            }
+        }
+        LogicalPlan lhs = join.lhs();
+        LogicalPlan rhs = join.rhs();
+        boolean aggregatesOnLhs = groupBy.aggregates().stream().allMatch(x -> providedBy(x, lhs.outputs()));
+        boolean aggregatesOnRhs = groupBy.aggregates().stream().allMatch(x -> providedBy(x, rhs.outputs()));
+        final boolean pushToLhs;
+        if (aggregatesOnLhs && aggregatesOnRhs) {
+            // Aggregates without any columns, pre-aggregate the bigger side
+            pushToLhs = planStats.get(lhs).numDocs() >= planStats.get(rhs).numDocs();
+        } else if (aggregatesOnLhs || aggregatesOnRhs) {
+            pushToLhs = aggregatesOnLhs;
+        } else {
+            return null;
+        }
+        LogicalPlan side = pushToLhs ? lhs : rhs;
+        LogicalPlan otherSide = pushToLhs ? rhs : lhs;
+        List<Symbol> partialGroupKeys = partialGroupKeys(groupBy, join, side, otherSide);
+        if (partialGroupKeys == null) {
+            return null;
+        }
+        Stats stats = planStats.get(side);
+        if (stats.numDocs() == -1) {
+            return null;
+        }
+        long numGroups = GroupHashAggregate.approximateDistinctValues(stats, partialGroupKeys);
+        if (numGroups * MIN_REDUCTION_FACTOR > stats.numDocs()) {
+            return null;
+        }
+        LogicalPlan partialAggregate = new GroupHashAggregate(
+            side,
+            partialGroupKeys,
+            groupBy.aggregates(),
+            AggregateMode.ITER_PARTIAL
+        );
+        LogicalPlan newJoin = join.replaceSources(
+            pushToLhs ? List.of(partialAggregate, rhs) : List.of(lhs, partialAggregate)
+        );
+        return new GroupHashAggregate(
+            newJoin,
+            groupBy.groupKeys(),
+            groupBy.aggregates(),
+            AggregateMode.PARTIAL_FINAL
+        );
+    }
+
+    /**
+     * The partial states are passed through the join with the type of the aggregate result,
+     * so only aggregates with the same partial and final type can be moved.
+     * This excludes for example count, which uses a mutable state.
+     */
+    private static boolean isDecomposable(Function aggregate, NodeContext nodeCtx) {
+        if (!DECOMPOSABLE_AGGREGATES.contains(aggregate.name())) {
+            return false;
+        }
+        var aggregationFunction = (AggregationFunction<?, ?>) nodeCtx.functions().getQualified(aggregate);
+        return aggregationFunction != null && aggregationFunction.partialType().equals(aggregate.valueType());
+    }
+
+    /**
+     * @return the group keys of the partial aggregation or null if group keys or the join condition
+     *         depend on columns of both sides.
+     */
+    @Nullable
+    private static List<Symbol> partialGroupKeys(GroupHashAggregate groupBy,
+                                                 JoinPlan join,
+                                                 LogicalPlan side,
+                                                 LogicalPlan otherSide) {
+        LinkedHashSet<Symbol> keys = new LinkedHashSet<>();
+        for (Symbol groupKey : groupBy.groupKeys()) {
+            if (providedBy(groupKey, side.outputs())) {
+                SymbolVisitors.intersection(groupKey, side.outputs(), keys::add);
+            } else if (!providedBy(groupKey, otherSide.outputs())) {
+                return null;
+            }
+        }
+        Symbol joinCondition = join.joinCondition();
+        assert joinCondition != null : "Pattern must only match joins with a join condition";
+        SymbolVisitors.intersection(joinCondition, side.outputs(), keys::add);
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * @return true if all columns used in the symbol are outputs of the given plan.
+     */
+    private static boolean providedBy(Symbol symbol, List<Symbol> outputs) {
+        if (outputs.contains(symbol)) {
+            return true;
+        }
+        boolean missingColumns = SymbolVisitors.any(
+            x -> (x instanceof Reference || x instanceof ScopedSymbol) && !outputs.contains(x),
+            symbol
+        );
+        if (missingColumns) {
+            return false;
+        }
+        if (symbol instanceof Function function && function.filter() != null) {
+            return providedBy(function.filter(), outputs);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.ScopedSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.Reference;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.Eval;
+import io.crate.planner.operators.Filter;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.optimizer.iterative.GroupReference;
+import io.crate.planner.optimizer.joinorder.JoinGraph;
+import io.crate.planner.optimizer.joinorder.JoinOrderEnumerator;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.sql.tree.JoinType;
+
+/**
+ * Changes the order of a tree of three or more inner joins to the order with the
+ * smallest estimated intermediate results, see {@link JoinOrderEnumerator}.
+ *
+ * <p>
+ * The rule only applies if there are statistics for all relations and if the new
+ * order is estimated to be cheaper than the current one. Which side of each join is
+ * used to build the hash table is still decided by {@link ReorderHashJoin}.
+ * </p>
+ */
+public class ReorderJoinsByCost implements Rule<JoinPlan> {
+
+    private final Pattern<JoinPlan> pattern = typeOf(JoinPlan.class);
+
+    @Override
+    public Pattern<JoinPlan> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(JoinPlan join,
+                             Captures captures,
+                             PlanStats planStats,
+                             TransactionContext txnCtx,
+                             NodeContext nodeCtx,
+                             UnaryOperator<LogicalPlan> resolvePlan) {
+        if (join.getRelationNames().size() < 3 || !isInnerJoinTree(join, resolvePlan)) {
+            return null;
+        }
+        JoinGraph joinGraph = JoinGraph.create(join, resolvePlan);
+        if (joinGraph.size() < 3 || joinGraph.hasCrossJoin() || !joinGraph.filters().isEmpty()) {
+            return null;
+        }
+        JoinOrderEnumerator enumerator = JoinOrderEnumerator.create(joinGraph, planStats);
+        if (enumerator == null) {
+            return null;
+        }
+        List<LogicalPlan> originalOrder = joinGraph.nodes();
+        List<LogicalPlan> newOrder = enumerator.bestOrder();
+        if (newOrder == null
+            || newOrder.equals(originalOrder)
+            || enumerator.cost(newOrder) >= enumerator.cost(originalOrder)) {
+            return null;
+        }
+        return Eval.create(
+            EliminateCrossJoin.reorder(joinGraph, newOrder),
+            join.outputs()
+        );
+    }
+
+    /**
+     * Outer joins, filters between the joins and join conditions other than equality between two
+     * columns would be lost when the {@link JoinGraph} is turned back into a tree of joins,
+     * so only trees consisting of inner equi-joins are reordered.
+     */
+    private static boolean isInnerJoinTree(LogicalPlan plan, UnaryOperator<LogicalPlan> resolvePlan) {
+        if (plan instanceof GroupReference) {
+            plan = resolvePlan.apply(plan);
+        }
+        if (plan instanceof Filter) {
+            return false;
+        }
+        if (plan instanceof JoinPlan joinPlan) {
+            return joinPlan.joinType() == JoinType.INNER
+                && isEquiJoinCondition(joinPlan.joinCondition())
+                && isInnerJoinTree(joinPlan.lhs(), resolvePlan)
+                && isInnerJoinTree(joinPlan.rhs(), resolvePlan);
+        }
+        return true;
+    }
+
+    private static boolean isEquiJoinCondition(@Nullable Symbol joinCondition) {
+        if (joinCondition == null) {
+            return false;
+        }
+        for (Symbol condition : AndOperator.split(joinCondition)) {
+            if (!(condition instanceof Function function) || !function.name().equals(EqOperator.NAME)) {
+                return false;
+            }
+            for (Symbol argument : function.arguments()) {
+                if (!(argument instanceof Reference) && !(argument instanceof ScopedSymbol)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
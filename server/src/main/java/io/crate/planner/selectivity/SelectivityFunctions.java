@@ -30,6 +30,10 @@ import org.jetbrains.annotations.Nullable;
 import io.crate.data.Row;
 import io.crate.expression.operator.AndOperator;
 import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
 import io.crate.expression.operator.Operators;
 import io.crate.expression.operator.OrOperator;
 import io.crate.expression.predicate.IsNullPredicate;
@@ -187,7 +191,27 @@ public class SelectivityFunctions {
         }
 
         ColumnStats<?> lhsStats = stats.getColumnStats(lhsColumn);
-        if (lhsStats == null || lhsStats.mostCommonValues().isEmpty()) {
+        if (lhsStats == null) {
+            return defaultSel;
+        }
+        if (rhsValue instanceof Number number) {
+            // The quantiles are based on all values of the column, use them if available
+            double fractionBelow = lhsStats.fractionBelow(number.doubleValue());
+            if (fractionBelow >= 0) {
+                double nonNullFraction = 1.0 - lhsStats.nullFraction();
+                switch (function.name()) {
+                    case LtOperator.NAME:
+                    case LteOperator.NAME:
+                        return fractionBelow * nonNullFraction;
+                    case GtOperator.NAME:
+                    case GteOperator.NAME:
+                        return (1.0 - fractionBelow) * nonNullFraction;
+                    default:
+                        break;
+                }
+            }
+        }
+        if (lhsStats.mostCommonValues().isEmpty()) {
             return defaultSel;
         }
 
@@ -245,26 +269,56 @@ public class SelectivityFunctions {
             if (rhsStats == null) {
                 return 1.0 / lhsStats.approxDistinct();
             }
+            return columnEqColumnSelectivity(lhsStats, rhsStats);
+        }
 
-            MostCommonValues lhsMcv = lhsStats.mostCommonValues();
-            MostCommonValues rhsMcv = rhsStats.mostCommonValues();
+        return 1.0 / lhsStats.approxDistinct();
+    }
 
-            if (!lhsMcv.isEmpty() && !rhsMcv.isEmpty()) {
-                return selectivityFromMvcMatches(lhsStats, rhsStats);
-            }
+    /**
+     * Estimates the selectivity of an equi-join condition {@code leftArg = rightArg}
+     * where each side belongs to a different relation.
+     *
+     * <p>
+     * The columns are looked up in the statistics of their own relation, so that
+     * columns with the same name in both relations don't shadow each other.
+     * </p>
+     */
+    public static double eqJoinSelectivity(Symbol leftArg,
+                                           Stats leftStats,
+                                           Symbol rightArg,
+                                           Stats rightStats) {
+        ColumnStats<?> lhsStats = getColumnStats(leftArg, leftStats);
+        ColumnStats<?> rhsStats = getColumnStats(rightArg, rightStats);
+        if (lhsStats == null && rhsStats == null) {
+            return DEFAULT_EQ_SEL;
+        }
+        if (rhsStats == null) {
+            return 1.0 / lhsStats.approxDistinct();
+        }
+        if (lhsStats == null) {
+            return 1.0 / rhsStats.approxDistinct();
+        }
+        return columnEqColumnSelectivity(lhsStats, rhsStats);
+    }
 
-            double nullfrac1 = lhsStats.nullFraction();
-            double nullfrac2 = rhsStats.nullFraction();
+    private static double columnEqColumnSelectivity(ColumnStats<?> lhsStats, ColumnStats<?> rhsStats) {
+        MostCommonValues lhsMcv = lhsStats.mostCommonValues();
+        MostCommonValues rhsMcv = rhsStats.mostCommonValues();
 
-            double selectivity = (1.0 - nullfrac1) * (1.0 - nullfrac2);
-            if (lhsStats.approxDistinct() > rhsStats.approxDistinct()) {
-                return selectivity / lhsStats.approxDistinct();
-            } else {
-                return selectivity / rhsStats.approxDistinct();
-            }
+        if (!lhsMcv.isEmpty() && !rhsMcv.isEmpty()) {
+            return selectivityFromMvcMatches(lhsStats, rhsStats);
         }
 
-        return 1.0 / lhsStats.approxDistinct();
+        double nullfrac1 = lhsStats.nullFraction();
+        double nullfrac2 = rhsStats.nullFraction();
+
+        double selectivity = (1.0 - nullfrac1) * (1.0 - nullfrac2);
+        if (lhsStats.approxDistinct() > rhsStats.approxDistinct()) {
+            return selectivity / lhsStats.approxDistinct();
+        } else {
+            return selectivity / rhsStats.approxDistinct();
+        }
     }
 
     private static double clamp(double value) {
@@ -364,6 +418,12 @@ public class SelectivityFunctions {
         }
     }
 
+    @Nullable
+    private static ColumnStats<?> getColumnStats(Symbol symbol, Stats stats) {
+        ColumnIdent column = getColumn(symbol);
+        return column == null ? null : stats.statsByColumn().get(column);
+    }
+
     @Nullable
     private static ColumnIdent getColumn(Symbol symbol) {
         if (symbol instanceof Reference ref) {
@@ -257,7 +257,8 @@ public final class CopyToPlan implements Plan {
         WriterProjection.OutputFormat outputFormat =
             settingAsEnum(WriterProjection.OutputFormat.class, OUTPUT_FORMAT_SETTING.get(settings));
 
-        if (!columnsDefined && outputFormat == WriterProjection.OutputFormat.JSON_ARRAY) {
+        if (!columnsDefined && (outputFormat == WriterProjection.OutputFormat.JSON_ARRAY
+                                || outputFormat == WriterProjection.OutputFormat.COLUMNAR)) {
             throw new UnsupportedFeatureException("Output format not supported without specifying columns.");
         }
 
@@ -29,6 +29,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -43,6 +45,7 @@ public class ProfilingContext {
     private static final double NS_TO_MS_FACTOR = 1_000_000.0d;
     private final HashMap<String, Double> durationInMSByTimer;
     private final List<QueryProfiler> profilers;
+    private final Map<String, List<Map<String, Object>>> detailsByName = new ConcurrentHashMap<>();
 
     public ProfilingContext(List<QueryProfiler> profilers) {
         this.profilers = profilers;
@@ -60,6 +63,7 @@ public class ProfilingContext {
         if (!queryTimings.isEmpty()) {
             builder.put("QueryBreakdown", queryTimings);
         }
+        detailsByName.forEach((name, details) -> builder.put(name, List.copyOf(details)));
         return Collections.unmodifiableMap(builder);
     }
 
@@ -82,6 +86,14 @@ public class ProfilingContext {
         return Collections.unmodifiableMap(queryTimingsBuilder);
     }
 
+    /**
+     * Adds information about a decision an operation took at runtime, e.g. the strategy it chose.
+     * Unlike the timers this can be called concurrently by operations running on different threads.
+     */
+    public void addDetail(String name, Map<String, Object> detail) {
+        detailsByName.computeIfAbsent(name, k -> new CopyOnWriteArrayList<>()).add(detail);
+    }
+
     public Timer createAndStartTimer(String name) {
         Timer timer = createTimer(name);
         timer.start();
@@ -0,0 +1,159 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import static io.crate.analyze.CopyStatementSettings.OUTPUT_FORMAT_SETTING;
+import static io.crate.analyze.CopyStatementSettings.settingAsEnum;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.auth.AccessControl;
+import io.crate.data.Row;
+import io.crate.exceptions.UnhandledServerException;
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.execution.dsl.projection.WriterProjection.OutputFormat;
+import io.crate.protocols.postgres.DelayableWriteChannel.DelayedWrites;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.GenericProperties;
+import io.crate.sql.tree.StringLiteral;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+
+/**
+ * Sends the rows of a {@code COPY (query) TO STDOUT} statement as CopyData messages,
+ * using one JSON line per row like {@code COPY TO} does for files.
+ */
+class CopyOutReceiver extends BaseResultReceiver {
+
+    private static final byte NEW_LINE = (byte) '\n';
+
+    private final String query;
+    private final DelayableWriteChannel channel;
+    private final DelayedWrites delayedWrites;
+    private final AccessControl accessControl;
+    private final Channel directChannel;
+    private final List<String> columnNames;
+    private final OutputFormat outputFormat;
+    private final BytesStreamOutput out;
+    private final XContentBuilder builder;
+
+    private long rowCount = 0;
+
+    CopyOutReceiver(String query,
+                    DelayableWriteChannel channel,
+                    DelayedWrites delayedWrites,
+                    AccessControl accessControl,
+                    List<String> columnNames,
+                    OutputFormat outputFormat) {
+        this.query = query;
+        this.channel = channel;
+        this.delayedWrites = delayedWrites;
+        this.directChannel = channel.bypassDelay();
+        this.accessControl = accessControl;
+        this.columnNames = columnNames;
+        this.outputFormat = outputFormat;
+        this.out = new BytesStreamOutput();
+        try {
+            this.builder = XContentFactory.json(out);
+        } catch (IOException e) {
+            throw new UnhandledServerException("Failed to create the JSON encoder for COPY TO STDOUT", e);
+        }
+        builder.generator().configure(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM, false);
+    }
+
+    /**
+     * @return the format of the lines, defined by the {@code format} property of the statement
+     */
+    static OutputFormat outputFormat(GenericProperties<Expression> properties) {
+        Expression format = properties.get(OUTPUT_FORMAT_SETTING.getKey());
+        if (format == null) {
+            return OutputFormat.JSON_OBJECT;
+        }
+        if (!(format instanceof StringLiteral literal)) {
+            throw new IllegalArgumentException("The format of COPY TO STDOUT must be a string literal, got: " + format);
+        }
+        Settings settings = Settings.builder().put(OUTPUT_FORMAT_SETTING.getKey(), literal.getValue()).build();
+        OutputFormat outputFormat = settingAsEnum(OutputFormat.class, OUTPUT_FORMAT_SETTING.get(settings));
+        if (outputFormat == OutputFormat.COLUMNAR) {
+            throw new UnsupportedFeatureException("The columnar format is not supported by COPY TO STDOUT");
+        }
+        return outputFormat;
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        rowCount++;
+        out.reset();
+        try {
+            if (outputFormat == OutputFormat.JSON_ARRAY) {
+                builder.startArray();
+                for (int i = 0; i < row.numColumns(); i++) {
+                    builder.value(row.get(i));
+                }
+                builder.endArray();
+            } else {
+                builder.startObject();
+                for (int i = 0; i < row.numColumns(); i++) {
+                    builder.field(columnNames.get(i), row.get(i));
+                }
+                builder.endObject();
+            }
+            builder.flush();
+        } catch (IOException e) {
+            throw new UnhandledServerException("Failed to encode row for COPY TO STDOUT", e);
+        }
+        out.writeByte(NEW_LINE);
+        BytesRef line = out.bytes().toBytesRef();
+        Messages.sendCopyData(directChannel, line.bytes, line.offset, line.length);
+        if (rowCount % 1000 == 0) {
+            directChannel.flush();
+        }
+    }
+
+    @Override
+    public void allFinished() {
+        Messages.sendCopyDone(directChannel);
+        ChannelFuture sendCommandComplete = Messages.sendCommandComplete(directChannel, query, rowCount);
+        channel.writePendingMessages(delayedWrites);
+        channel.flush();
+        sendCommandComplete.addListener(f -> super.allFinished());
+    }
+
+    @Override
+    public void fail(@NotNull Throwable throwable) {
+        ChannelFuture sendErrorResponse = Messages.sendErrorResponse(directChannel, accessControl, throwable);
+        channel.writePendingMessages(delayedWrites);
+        channel.flush();
+        sendErrorResponse.addListener(f -> super.fail(throwable));
+    }
+}
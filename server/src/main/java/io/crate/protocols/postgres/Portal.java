@@ -28,6 +28,7 @@ import org.jetbrains.annotations.Nullable;
 import io.crate.action.sql.PreparedStmt;
 import io.crate.action.sql.RowConsumerToResultReceiver;
 import io.crate.analyze.AnalyzedStatement;
+import io.crate.execution.engine.collect.files.StdinInputStream;
 
 public final class Portal {
 
@@ -40,6 +41,9 @@ public final class Portal {
 
     private RowConsumerToResultReceiver consumer;
 
+    @Nullable
+    private StdinInputStream copyIn;
+
     public Portal(String portalName,
                   PreparedStmt preparedStmt,
                   List<Object> params,
@@ -80,6 +84,18 @@ public final class Portal {
         return consumer;
     }
 
+    /**
+     * Sets the stream providing the rows sent by the client for a {@code COPY FROM STDIN} statement
+     */
+    public void copyIn(StdinInputStream copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    @Nullable
+    public StdinInputStream copyIn() {
+        return copyIn;
+    }
+
     public void closeActiveConsumer() {
         if (consumer != null) {
             consumer.closeAndFinishIfSuspended();
@@ -59,8 +59,11 @@ import io.crate.auth.AuthenticationMethod;
 import io.crate.auth.Protocol;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.collections.Lists;
+import io.crate.execution.dsl.projection.WriterProjection.OutputFormat;
+import io.crate.execution.engine.collect.files.StdinInputStream;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.metadata.settings.session.SessionSetting;
 import io.crate.metadata.settings.session.SessionSettingRegistry;
@@ -70,6 +73,8 @@ import io.crate.protocols.postgres.types.PGType;
 import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.role.Role;
 import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.Statement;
 import io.crate.types.DataType;
 import io.netty.buffer.ByteBuf;
@@ -209,6 +214,9 @@ public class PostgresWireProtocol {
     private DelayableWriteChannel channel;
     Session session;
     private boolean ignoreTillSync = false;
+
+    @Nullable
+    private volatile StdinInputStream copyIn;
     private AuthenticationContext authContext;
     private Properties properties;
 
@@ -362,6 +370,15 @@ public class PostgresWireProtocol {
                 case 'C':
                     handleClose(buffer, channel);
                     return;
+                case 'd':
+                    handleCopyData(buffer);
+                    return;
+                case 'c':
+                    handleCopyDone();
+                    return;
+                case 'f':
+                    handleCopyFail(buffer);
+                    return;
                 case 'X': // Terminate (called when jdbc connection is closed)
                     closeSession();
                     channel.close();
@@ -396,6 +413,11 @@ public class PostgresWireProtocol {
         @Override
         public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
             LOGGER.trace("channelDisconnected");
+            StdinInputStream stream = copyIn;
+            if (stream != null) {
+                copyIn = null;
+                stream.fail("Client disconnected during COPY FROM STDIN");
+            }
             channel = null;
             closeSession();
             super.channelUnregistered(ctx);
@@ -515,7 +537,8 @@ public class PostgresWireProtocol {
             // (That we've been holding back, as we don't eager react to `execute` requests. (We do that to optimize batch inserts))
             // The sync will also trigger a flush eventually if there are deferred executions.
             if (session.hasDeferredExecutions()) {
-                session.flush();
+                // The results of deferred executions aren't flushed individually
+                session.flush().whenComplete((ignored, t) -> channel.flush());
             } else {
                 channel.flush();
             }
@@ -699,12 +722,19 @@ public class PostgresWireProtocol {
         if (outputTypes == null) {
             // this is a DML query
             maxRows = 0;
-            resultReceiver = new RowCountReceiver(
+            RowCountReceiver rowCountReceiver = new RowCountReceiver(
                 query,
                 channel,
                 delayedWrites,
                 getAccessControl.apply(session.sessionSettings())
             );
+            session.execute(portalName, maxRows, rowCountReceiver);
+            if (session.hasDeferredExecutions()) {
+                // Write operations are deferred until the next Sync or Flush, which flush the results
+                // of all pipelined executions at once.
+                rowCountReceiver.skipFlush();
+            }
+            return;
         } else {
             // query with resultSet
             resultReceiver = new ResultSetReceiver(
@@ -799,7 +829,37 @@ public class PostgresWireProtocol {
             DescribeResult describeResult = session.describe('P', "");
             List<Symbol> fields = describeResult.getFields();
 
-            if (fields == null) {
+            if (statement instanceof CopyFrom<?> copyFrom && copyFrom.isStdin()) {
+                StdinInputStream stream = new StdinInputStream(readFromClient -> channel.config().setAutoRead(readFromClient));
+                session.copyIn("", stream);
+                copyIn = stream;
+                Messages.sendCopyInResponse(channel, 0);
+                DelayedWrites delayedWrites = channel.delayWrites();
+                RowCountReceiver rowCountReceiver = new RowCountReceiver(
+                    query,
+                    channel,
+                    delayedWrites,
+                    accessControl
+                );
+                session.execute("", 0, rowCountReceiver);
+                return session.sync().whenComplete((res, err) -> {
+                    copyIn = null;
+                    stream.close();
+                });
+            } else if (statement instanceof CopyToStdout<?> copyToStdout) {
+                OutputFormat outputFormat = CopyOutReceiver.outputFormat(copyToStdout.properties());
+                Messages.sendCopyOutResponse(channel, fields.size());
+                DelayedWrites delayedWrites = channel.delayWrites();
+                CopyOutReceiver copyOutReceiver = new CopyOutReceiver(
+                    query,
+                    channel,
+                    delayedWrites,
+                    accessControl,
+                    Lists.map(fields, x -> Symbols.pathFromSymbol(x).sqlFqn()),
+                    outputFormat
+                );
+                session.execute("", 0, copyOutReceiver);
+            } else if (fields == null) {
                 DelayedWrites delayedWrites = channel.delayWrites();
                 RowCountReceiver rowCountReceiver = new RowCountReceiver(
                     query,
@@ -824,6 +884,11 @@ public class PostgresWireProtocol {
             }
             return session.sync();
         } catch (Throwable t) {
+            StdinInputStream stream = copyIn;
+            if (stream != null) {
+                copyIn = null;
+                stream.close();
+            }
             channel.discardDelayedWrites();
             Messages.sendErrorResponse(channel, accessControl, t);
             result.completeExceptionally(t);
@@ -831,6 +896,37 @@ public class PostgresWireProtocol {
         }
     }
 
+    /**
+     * CopyData, CopyDone and CopyFail messages sent by the client during a {@code COPY FROM STDIN}.
+     * Messages received after the statement failed are ignored, as PostgreSQL does.
+     */
+    private void handleCopyData(ByteBuf buffer) {
+        StdinInputStream stream = copyIn;
+        if (stream == null) {
+            buffer.skipBytes(decoder.payloadLength());
+            return;
+        }
+        byte[] bytes = new byte[decoder.payloadLength()];
+        buffer.readBytes(bytes);
+        stream.write(bytes);
+    }
+
+    private void handleCopyDone() {
+        StdinInputStream stream = copyIn;
+        if (stream != null) {
+            stream.finish();
+        }
+    }
+
+    private void handleCopyFail(ByteBuf buffer) {
+        String message = readCString(buffer);
+        StdinInputStream stream = copyIn;
+        if (stream != null) {
+            stream.fail("COPY from stdin failed: " + message);
+            session.cancelCurrentJob();
+        }
+    }
+
     private void handleCancelRequestBody(ByteBuf buffer, Channel channel) {
         var keyData = KeyData.of(buffer);
 
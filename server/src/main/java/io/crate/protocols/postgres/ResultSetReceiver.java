@@ -31,11 +31,17 @@ import io.crate.auth.AccessControl;
 import io.crate.data.Row;
 import io.crate.protocols.postgres.DelayableWriteChannel.DelayedWrites;
 import io.crate.protocols.postgres.types.PGType;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 
 class ResultSetReceiver extends BaseResultReceiver {
 
+    /**
+     * DataRow messages are collected in a buffer of this size before they're written to the channel.
+     */
+    static final int DATA_ROWS_BUFFER_SIZE = 64 * 1024;
+
     private final String query;
     private final DelayableWriteChannel channel;
     private final List<PGType<?>> columnTypes;
@@ -49,6 +55,9 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     private long rowCount = 0;
 
+    @Nullable
+    private ByteBuf dataRows;
+
     ResultSetReceiver(String query,
                       DelayableWriteChannel channel,
                       DelayedWrites delayedWrites,
@@ -68,15 +77,41 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void setNextRow(Row row) {
+        ByteBuf buffer = dataRows;
+        if (buffer == null) {
+            buffer = directChannel.alloc().buffer(DATA_ROWS_BUFFER_SIZE);
+            dataRows = buffer;
+        }
+        Messages.writeDataRow(buffer, row, columnTypes, formatCodes);
         rowCount++;
-        Messages.sendDataRow(directChannel, row, columnTypes, formatCodes);
+        if (buffer.readableBytes() >= DATA_ROWS_BUFFER_SIZE) {
+            writeDataRows();
+        }
         if (rowCount % 1000 == 0) {
+            writeDataRows();
             directChannel.flush();
         }
     }
 
+    /**
+     * Writes the DataRow messages collected so far with a single write
+     */
+    private void writeDataRows() {
+        ByteBuf buffer = dataRows;
+        if (buffer == null) {
+            return;
+        }
+        dataRows = null;
+        if (buffer.isReadable()) {
+            directChannel.write(buffer);
+        } else {
+            buffer.release();
+        }
+    }
+
     @Override
     public void batchFinished() {
+        writeDataRows();
         ChannelFuture sendPortalSuspended = Messages.sendPortalSuspended(directChannel);
         channel.writePendingMessages(delayedWrites);
         channel.flush();
@@ -89,6 +124,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void allFinished() {
+        writeDataRows();
         ChannelFuture sendCommandComplete = Messages.sendCommandComplete(directChannel, query, rowCount);
         channel.writePendingMessages(delayedWrites);
         channel.flush();
@@ -97,6 +133,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void fail(@NotNull Throwable throwable) {
+        writeDataRows();
         ChannelFuture sendErrorResponse = Messages.sendErrorResponse(directChannel, accessControl, throwable);
         channel.writePendingMessages(delayedWrites);
         channel.flush();
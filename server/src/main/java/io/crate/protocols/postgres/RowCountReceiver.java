@@ -36,6 +36,7 @@ class RowCountReceiver extends BaseResultReceiver {
     private final AccessControl accessControl;
     private final DelayedWrites delayedWrites;
     private long rowCount;
+    private boolean flush = true;
 
     RowCountReceiver(String query,
                      DelayableWriteChannel channel,
@@ -47,6 +48,15 @@ class RowCountReceiver extends BaseResultReceiver {
         this.accessControl = accessControl;
     }
 
+    /**
+     * Don't flush the channel once finished, the caller is responsible for flushing.
+     * The receiver completes once the result is written to the channel instead of once it is sent,
+     * because the caller flushes only after the receiver completed.
+     */
+    void skipFlush() {
+        flush = false;
+    }
+
     @Override
     public void setNextRow(Row row) {
         rowCount = (long) row.get(0);
@@ -63,15 +73,23 @@ class RowCountReceiver extends BaseResultReceiver {
     public void allFinished() {
         ChannelFuture sendCommandComplete = Messages.sendCommandComplete(channel.bypassDelay(), query, rowCount);
         channel.writePendingMessages(delayedWrites);
-        channel.flush();
-        sendCommandComplete.addListener(f -> super.allFinished());
+        if (flush) {
+            channel.flush();
+            sendCommandComplete.addListener(f -> super.allFinished());
+        } else {
+            super.allFinished();
+        }
     }
 
     @Override
     public void fail(@NotNull Throwable throwable) {
         ChannelFuture sendErrorResponse = Messages.sendErrorResponse(channel.bypassDelay(), accessControl, throwable);
         channel.writePendingMessages(delayedWrites);
-        channel.flush();
-        sendErrorResponse.addListener(f -> super.fail(throwable));
+        if (flush) {
+            channel.flush();
+            sendErrorResponse.addListener(f -> super.fail(throwable));
+        } else {
+            super.fail(throwable);
+        }
     }
 }
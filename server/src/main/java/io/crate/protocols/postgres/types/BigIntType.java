@@ -62,6 +62,11 @@ class BigIntType extends PGType<Long> {
         return Type.BASE.code();
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @NotNull Long value) {
+        return writeLongAsText(buffer, value);
+    }
+
     @Override
     protected byte[] encodeAsUTF8Text(@NotNull Long value) {
         return Long.toString(value).getBytes(StandardCharsets.UTF_8);
@@ -0,0 +1,60 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres.types;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Allows formatters to write their output UTF-8 encoded directly into a {@link ByteBuf}.
+ * Meant for output consisting of ASCII characters, a surrogate pair appended char by char is not encoded correctly.
+ */
+final class ByteBufAppendable implements Appendable {
+
+    private final ByteBuf buffer;
+
+    ByteBufAppendable(ByteBuf buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) {
+        buffer.writeCharSequence(csq, StandardCharsets.UTF_8);
+        return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+        return append(csq.subSequence(start, end));
+    }
+
+    @Override
+    public Appendable append(char c) {
+        if (c < 0x80) {
+            buffer.writeByte(c);
+        } else {
+            buffer.writeCharSequence(String.valueOf(c), StandardCharsets.UTF_8);
+        }
+        return this;
+    }
+}
@@ -62,6 +62,11 @@ class IntegerType extends PGType<Integer> {
         return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @NotNull Integer value) {
+        return writeLongAsText(buffer, value);
+    }
+
     @Override
     protected byte[] encodeAsUTF8Text(@NotNull Integer value) {
         return Integer.toString(value).getBytes(StandardCharsets.UTF_8);
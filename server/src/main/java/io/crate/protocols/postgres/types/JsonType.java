@@ -32,11 +32,13 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.DeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 
 import io.crate.types.Regproc;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 
 class JsonType extends PGType<Object> {
 
@@ -77,10 +79,25 @@ class JsonType extends PGType<Object> {
 
     @Override
     public int writeAsBinary(ByteBuf buffer, @NotNull Object value) {
-        byte[] bytes = encodeAsUTF8Text(value);
-        buffer.writeInt(bytes.length);
-        buffer.writeBytes(bytes);
-        return INT32_BYTE_SIZE + bytes.length;
+        return writeAsText(buffer, value);
+    }
+
+    /**
+     * Generates the JSON directly into the buffer
+     */
+    @Override
+    public int writeAsText(ByteBuf buffer, @NotNull Object value) {
+        int lengthIndex = startLengthPrefixed(buffer);
+        if (value instanceof String str) {
+            buffer.writeCharSequence(str, StandardCharsets.UTF_8);
+        } else {
+            try (XContentBuilder builder = XContentFactory.json(new ByteBufOutputStream(buffer))) {
+                toXContent(builder, value);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return finishLengthPrefixed(buffer, lengthIndex);
     }
 
     @Override
@@ -90,15 +107,7 @@ class JsonType extends PGType<Object> {
         }
         try {
             XContentBuilder builder = JsonXContent.builder();
-            if (value instanceof List<?> values) {
-                builder.startArray();
-                for (Object o : values) {
-                    builder.value(o);
-                }
-                builder.endArray();
-            } else {
-                builder.map((Map) value);
-            }
+            toXContent(builder, value);
             builder.close();
             return BytesReference.toBytes(BytesReference.bytes(builder));
         } catch (IOException e) {
@@ -106,6 +115,19 @@ class JsonType extends PGType<Object> {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private static void toXContent(XContentBuilder builder, Object value) throws IOException {
+        if (value instanceof List<?> values) {
+            builder.startArray();
+            for (Object o : values) {
+                builder.value(o);
+            }
+            builder.endArray();
+        } else {
+            builder.map((Map<String, ?>) value);
+        }
+    }
+
     @Override
     public Object readBinaryValue(ByteBuf buffer, int valueLength) {
         byte[] bytes = new byte[valueLength];
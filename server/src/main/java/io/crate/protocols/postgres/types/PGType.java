@@ -175,6 +175,77 @@ public abstract class PGType<T> {
         return INT32_BYTE_SIZE + bytes.length;
     }
 
+    /**
+     * Writes the decimal text representation of a long into the buffer without creating an intermediate String.
+     *
+     * @return the number of bytes written. (4 (int32)  + N)
+     */
+    static int writeLongAsText(ByteBuf buffer, long value) {
+        if (value == Long.MIN_VALUE) {
+            return writeAsciiAsText(buffer, Long.toString(value));
+        }
+        boolean negative = value < 0;
+        long remaining = negative ? -value : value;
+        int length = numDigits(remaining) + (negative ? 1 : 0);
+        buffer.writeInt(length);
+        buffer.ensureWritable(length);
+        int start = buffer.writerIndex();
+        int pos = start + length;
+        do {
+            buffer.setByte(--pos, '0' + (int) (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (negative) {
+            buffer.setByte(start, '-');
+        }
+        buffer.writerIndex(start + length);
+        return INT32_BYTE_SIZE + length;
+    }
+
+    private static int numDigits(long positiveValue) {
+        long limit = 10;
+        for (int digits = 1; digits < 19; digits++) {
+            if (positiveValue < limit) {
+                return digits;
+            }
+            limit *= 10;
+        }
+        return 19;
+    }
+
+    /**
+     * Writes a text which only consists of ASCII characters, without encoding it into an intermediate byte[].
+     *
+     * @return the number of bytes written. (4 (int32)  + N)
+     */
+    static int writeAsciiAsText(ByteBuf buffer, CharSequence value) {
+        int length = value.length();
+        buffer.writeInt(length);
+        buffer.writeCharSequence(value, StandardCharsets.US_ASCII);
+        return INT32_BYTE_SIZE + length;
+    }
+
+    /**
+     * Reserves the length prefix of a value which is written directly into the buffer.
+     * Must be followed by {@link #finishLengthPrefixed(ByteBuf, int)} once the value is written.
+     *
+     * @return the position of the length prefix
+     */
+    static int startLengthPrefixed(ByteBuf buffer) {
+        int lengthIndex = buffer.writerIndex();
+        buffer.writeInt(0);
+        return lengthIndex;
+    }
+
+    /**
+     * @return the number of bytes written since {@link #startLengthPrefixed(ByteBuf)}, including the length prefix
+     */
+    static int finishLengthPrefixed(ByteBuf buffer, int lengthIndex) {
+        int length = buffer.writerIndex() - lengthIndex - INT32_BYTE_SIZE;
+        buffer.setInt(lengthIndex, length);
+        return INT32_BYTE_SIZE + length;
+    }
+
     public T readTextValue(ByteBuf buffer, int valueLength) {
         byte[] bytes = new byte[valueLength];
         buffer.readBytes(bytes);
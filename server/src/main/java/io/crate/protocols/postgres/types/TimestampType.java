@@ -36,6 +36,7 @@ import java.util.Locale;
 import org.jetbrains.annotations.NotNull;
 
 import io.crate.types.Regproc;
+import io.netty.buffer.ByteBuf;
 
 final class TimestampType extends BaseTimestampType {
 
@@ -88,6 +89,17 @@ final class TimestampType extends BaseTimestampType {
         return Regproc.of(NAME + "_recv");
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @NotNull Object value) {
+        long millis = (long) value;
+        LocalDateTime ts =
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+        DateTimeFormatter formatter = millis >= FIRST_MSEC_AFTER_CHRIST ? ISO_FORMATTER : ISO_FORMATTER_WITH_ERA;
+        int lengthIndex = startLengthPrefixed(buffer);
+        formatter.formatTo(ts, new ByteBufAppendable(buffer));
+        return finishLengthPrefixed(buffer, lengthIndex);
+    }
+
     @Override
     byte[] encodeAsUTF8Text(@NotNull Object value) {
         long millis = (long) value;
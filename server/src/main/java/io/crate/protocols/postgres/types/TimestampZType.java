@@ -21,6 +21,8 @@
 
 package io.crate.protocols.postgres.types;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 
@@ -32,6 +34,7 @@ import org.joda.time.format.DateTimeFormatter;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.types.DataTypes;
 import io.crate.types.Regproc;
+import io.netty.buffer.ByteBuf;
 
 final class TimestampZType extends BaseTimestampType {
 
@@ -91,6 +94,19 @@ final class TimestampZType extends BaseTimestampType {
         return Regproc.of("timestamptz_recv");
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @NotNull Object value) {
+        long msecs = (long) value;
+        DateTimeFormatter formatter = msecs >= FIRST_MSEC_AFTER_CHRIST ? ISO_FORMATTER : ISO_FORMATTER_WITH_ERA;
+        int lengthIndex = startLengthPrefixed(buffer);
+        try {
+            formatter.printTo(new ByteBufAppendable(buffer), msecs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return finishLengthPrefixed(buffer, lengthIndex);
+    }
+
     @Override
     byte[] encodeAsUTF8Text(@NotNull Object value) {
         long msecs = (long) value;
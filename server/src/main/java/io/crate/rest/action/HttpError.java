@@ -103,19 +103,26 @@ public class HttpError {
     }
 
     public XContentBuilder toXContent(boolean includeErrorTrace) throws IOException {
+        XContentBuilder builder = JsonXContent.builder().startObject();
+        errorToXContent(builder);
+
+        if (includeErrorTrace) {
+            builder.field("error_trace", Exceptions.stackTrace(t));
+        }
+        return builder.endObject();
+    }
+
+    /**
+     * Adds the {@code error} field to an already started object
+     */
+    void errorToXContent(XContentBuilder builder) throws IOException {
         // @formatter:off
-        XContentBuilder builder = JsonXContent.builder()
-            .startObject()
+        builder
             .startObject("error")
             .field("message", userFriendlyMessage(t))
             .field("code", errorCode)
             .endObject();
         // @formatter:on
-
-        if (includeErrorTrace) {
-            builder.field("error_trace", Exceptions.stackTrace(t));
-        }
-        return builder.endObject();
     }
 
     @Override
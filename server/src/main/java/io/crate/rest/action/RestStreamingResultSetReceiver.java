@@ -0,0 +1,345 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.rest.action;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+import org.jetbrains.annotations.Nullable;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.crate.action.sql.ResultReceiver;
+import io.crate.auth.AccessControl;
+import io.crate.data.Row;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.expression.symbol.Symbol;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+
+/**
+ * Writes the result set of a query as chunked HTTP response while the rows are produced,
+ * instead of building the whole response in memory like {@link RestResultSetReceiver}.
+ * <p>
+ * The rows are consumed in batches of {@link #BATCH_SIZE} rows. After each batch the execution
+ * is suspended, the {@link SqlHttpHandler} resumes it once the channel is writable again.
+ * A new batch must be started with {@link #nextBatch()}.
+ * </p>
+ * <p>
+ * The response head is sent with the first chunk. If the query fails before, the
+ * {@link #result()} fails and a regular error response can be sent. Otherwise the
+ * error is appended to the streamed response.
+ * </p>
+ */
+class RestStreamingResultSetReceiver implements ResultReceiver<Void> {
+
+    static final int BATCH_SIZE = 1000;
+    private static final int CHUNK_SIZE_IN_BYTES = 64 * 1024;
+    private static final byte NEW_LINE = (byte) '\n';
+
+    enum Format {
+
+        /**
+         * The same document as without streaming
+         */
+        JSON("application/json; charset=UTF-8"),
+
+        /**
+         * A line with the columns, followed by one line per row and a line with the row count
+         */
+        NDJSON("application/x-ndjson; charset=UTF-8");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        String mediaType() {
+            return mediaType;
+        }
+
+        static Format of(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                    "Invalid format '" + value + "', supported formats are: json, ndjson", e);
+            }
+        }
+    }
+
+    private final Channel channel;
+    private final HttpResponse head;
+    private final boolean closeConnection;
+    private final Format format;
+    private final List<Symbol> outputFields;
+    private final long startTimeNs;
+    private final AccessControl accessControl;
+    private final BytesStreamOutput out = new BytesStreamOutput();
+    private final CompletableFuture<XContentBuilder> result = new CompletableFuture<>();
+
+    /**
+     * Used for {@link Format#JSON}, the document spans all chunks
+     */
+    @Nullable
+    private final XContentBuilder documentBuilder;
+    @Nullable
+    private final ResultToXContentBuilder document;
+
+    private CompletableFuture<Void> batch = new CompletableFuture<>();
+
+    /**
+     * Future of the next batch, becomes {@link #batch} once the next batch is finished.
+     * {@link #completionFuture()} must return a completed future while the execution is resumed, otherwise
+     * the receiver would be finished by {@link io.crate.action.sql.RowConsumerToResultReceiver#replaceResultReceiver}.
+     */
+    @Nullable
+    private CompletableFuture<Void> pendingBatch;
+    // Accessed by the threads executing the statement and by the event loop of the channel
+    private volatile boolean headSent = false;
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private long rowCount;
+
+    RestStreamingResultSetReceiver(Channel channel,
+                                   HttpResponse head,
+                                   boolean closeConnection,
+                                   Format format,
+                                   List<Symbol> outputFields,
+                                   long startTimeNs,
+                                   boolean includeTypesOnResponse,
+                                   AccessControl accessControl) throws IOException {
+        this.channel = channel;
+        this.head = head;
+        this.closeConnection = closeConnection;
+        this.format = format;
+        this.outputFields = outputFields;
+        this.startTimeNs = startTimeNs;
+        this.accessControl = accessControl;
+        if (format == Format.JSON) {
+            documentBuilder = newBuilder();
+            document = ResultToXContentBuilder.builder(documentBuilder);
+            document.cols(outputFields);
+            if (includeTypesOnResponse) {
+                document.colTypes(outputFields);
+            }
+            document.startRows();
+        } else {
+            documentBuilder = null;
+            document = null;
+            try (XContentBuilder line = newBuilder()) {
+                ResultToXContentBuilder columns = ResultToXContentBuilder.builder(line).cols(outputFields);
+                if (includeTypesOnResponse) {
+                    columns.colTypes(outputFields);
+                }
+                columns.build();
+            }
+            out.writeByte(NEW_LINE);
+        }
+    }
+
+    private XContentBuilder newBuilder() throws IOException {
+        XContentBuilder builder = XContentFactory.json(out);
+        builder.generator().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        return builder;
+    }
+
+    Channel channel() {
+        return channel;
+    }
+
+    /**
+     * @return completed once the response is finished. Fails if the query failed before anything was sent.
+     */
+    CompletableFuture<XContentBuilder> result() {
+        return result;
+    }
+
+    boolean isFinished() {
+        return finished.get();
+    }
+
+    /**
+     * Must be called before the execution is started or resumed
+     *
+     * @return future completed once the batch is finished
+     */
+    CompletableFuture<Void> nextBatch() {
+        if (!batch.isDone()) {
+            return batch;
+        }
+        pendingBatch = new CompletableFuture<>();
+        return pendingBatch;
+    }
+
+    private CompletableFuture<Void> currentBatch() {
+        if (pendingBatch != null) {
+            batch = pendingBatch;
+            pendingBatch = null;
+        }
+        return batch;
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        rowCount++;
+        try {
+            if (document == null) {
+                try (XContentBuilder line = newBuilder()) {
+                    line.startArray();
+                    for (int i = 0; i < outputFields.size(); i++) {
+                        line.value(row.get(i));
+                    }
+                    line.endArray();
+                }
+                out.writeByte(NEW_LINE);
+            } else {
+                document.addRow(row, outputFields.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (out.size() >= CHUNK_SIZE_IN_BYTES) {
+            writeChunk();
+        }
+    }
+
+    @Override
+    public void batchFinished() {
+        writeChunk();
+        channel.flush();
+        currentBatch().complete(null);
+    }
+
+    @Override
+    public void allFinished() {
+        if (finished.compareAndSet(false, true) == false) {
+            return;
+        }
+        try {
+            if (document == null) {
+                try (XContentBuilder line = newBuilder()) {
+                    ResultToXContentBuilder.builder(line)
+                        .rowCount(rowCount)
+                        .duration(startTimeNs)
+                        .build();
+                }
+                out.writeByte(NEW_LINE);
+            } else {
+                document
+                    .finishRows()
+                    .rowCount(rowCount)
+                    .duration(startTimeNs)
+                    .build()
+                    .close();
+            }
+        } catch (IOException e) {
+            sendError(e);
+            return;
+        }
+        finish(false);
+        currentBatch().complete(null);
+    }
+
+    @Override
+    public void fail(Throwable t) {
+        if (finished.compareAndSet(false, true) == false) {
+            return;
+        }
+        sendError(t);
+    }
+
+    private void sendError(Throwable t) {
+        if (!headSent) {
+            out.close();
+            result.completeExceptionally(t);
+            currentBatch().completeExceptionally(t);
+            return;
+        }
+        HttpError httpError = HttpError.fromThrowable(SQLExceptions.prepareForClientTransmission(accessControl, t));
+        try {
+            if (document == null) {
+                try (XContentBuilder line = newBuilder()) {
+                    line.startObject();
+                    httpError.errorToXContent(line);
+                    line.endObject();
+                }
+                out.writeByte(NEW_LINE);
+            } else {
+                document.finishRows().rowCount(rowCount);
+                httpError.errorToXContent(documentBuilder);
+                document.build().close();
+            }
+        } catch (IOException e) {
+            t.addSuppressed(e);
+        }
+        // The status code was already sent, the connection is closed so that clients
+        // which don't look at the content notice that the response is incomplete.
+        finish(true);
+        currentBatch().completeExceptionally(t);
+    }
+
+    private void finish(boolean forceClose) {
+        writeChunk();
+        out.close();
+        ChannelFuture lastWrite = channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+        if (closeConnection || forceClose) {
+            lastWrite.addListener(ChannelFutureListener.CLOSE);
+        }
+        result.complete(null);
+    }
+
+    private void writeChunk() {
+        if (documentBuilder != null && !documentBuilder.generator().isClosed()) {
+            try {
+                documentBuilder.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (!headSent) {
+            headSent = true;
+            channel.write(head);
+        }
+        if (out.size() > 0) {
+            channel.write(new DefaultHttpContent(Netty4Utils.toByteBuf(out.copyBytes())));
+            out.reset();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> completionFuture() {
+        return batch;
+    }
+}
@@ -66,14 +66,18 @@ import io.crate.protocols.http.Headers;
 import io.crate.role.Role;
 import io.crate.role.Roles;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.QueryStringDecoder;
 
@@ -91,6 +95,15 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
 
     private Session session;
 
+    /**
+     * Resumes a streamed response which got suspended because the channel wasn't writable
+     */
+    @Nullable
+    private Runnable resumeStream;
+
+    @Nullable
+    private RestStreamingResultSetReceiver suspendedStream;
+
     SqlHttpHandler(Settings settings,
                    Sessions sqlOperations,
                    Function<String, CircuitBreaker> circuitBreakerProvider,
@@ -112,10 +125,13 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
             Session session = ensureSession(request);
             Map<String, List<String>> parameters = new QueryStringDecoder(request.uri()).parameters();
             ByteBuf content = request.content();
-            handleSQLRequest(session, content, paramContainFlag(parameters, "types"))
+            handleSQLRequest(session, ctx, request, parameters, content, paramContainFlag(parameters, "types"))
                 .whenComplete((result, t) -> {
                     try {
-                        sendResponse(session, ctx, request, parameters, result, t);
+                        // Streamed responses are already sent
+                        if (result != null || t != null) {
+                            sendResponse(session, ctx, request, parameters, result, t);
+                        }
                     } catch (Throwable ex) {
                         LOGGER.error("Error sending response", ex);
                         throw ex;
@@ -136,8 +152,46 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         return values != null && (values.equals(singletonList("")) || values.equals(singletonList("true")));
     }
 
+    /**
+     * @return the format of the response if it should be streamed, null otherwise.
+     *         A response is streamed if requested with {@code /_sql?stream} or {@code /_sql?format=ndjson}.
+     *         Other values of {@code format} are only validated if the response is streamed.
+     */
+    @Nullable
+    @VisibleForTesting
+    static RestStreamingResultSetReceiver.Format streamingFormat(Map<String, List<String>> parameters) {
+        List<String> formatValues = parameters.get("format");
+        String formatValue = formatValues == null || formatValues.isEmpty() ? null : formatValues.get(0);
+        if (paramContainFlag(parameters, "stream")) {
+            return formatValue == null
+                ? RestStreamingResultSetReceiver.Format.JSON
+                : RestStreamingResultSetReceiver.Format.of(formatValue);
+        }
+        if (RestStreamingResultSetReceiver.Format.NDJSON.name().equalsIgnoreCase(formatValue)) {
+            return RestStreamingResultSetReceiver.Format.NDJSON;
+        }
+        return null;
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        Runnable resume = resumeStream;
+        if (resume != null && ctx.channel().isWritable()) {
+            resumeStream = null;
+            suspendedStream = null;
+            resume.run();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     @Override
     public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
+        RestStreamingResultSetReceiver stream = suspendedStream;
+        if (stream != null) {
+            resumeStream = null;
+            suspendedStream = null;
+            stream.fail(new IllegalStateException("Client closed the connection while the result was streamed"));
+        }
         if (session != null) {
             session.close();
             session = null;
@@ -188,10 +242,17 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         ctx.writeAndFlush(resp, promise);
     }
 
-    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session, ByteBuf content, boolean includeTypes) {
+    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session,
+                                                                ChannelHandlerContext ctx,
+                                                                FullHttpRequest request,
+                                                                Map<String, List<String>> parameters,
+                                                                ByteBuf content,
+                                                                boolean includeTypes) {
         SQLRequestParseContext parseContext;
+        RestStreamingResultSetReceiver.Format streamingFormat;
         try {
             parseContext = SQLRequestParser.parseSource(Netty4Utils.toBytesReference(content));
+            streamingFormat = streamingFormat(parameters);
         } catch (Throwable t) {
             return CompletableFuture.failedFuture(t);
         }
@@ -203,6 +264,11 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         }
         try {
             if (args != null || bulkArgs == null) {
+                // HTTP/1.0 doesn't support chunked responses
+                if (streamingFormat != null && request.protocolVersion().equals(HttpVersion.HTTP_1_1)) {
+                    return executeStreamingRequest(
+                        session, ctx, request, parseContext.stmt(), args, includeTypes, streamingFormat);
+                }
                 return executeSimpleRequest(session, parseContext.stmt(), args, includeTypes);
             } else {
                 return executeBulkRequest(session, parseContext.stmt(), bulkArgs);
@@ -261,6 +327,88 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
             .thenCompose(ignored -> resultReceiver.completionFuture());
     }
 
+    /**
+     * Streams the result set as chunked response.
+     *
+     * @return a future completed with null once the response was sent, or with the row count result
+     *         of statements which don't return a result set.
+     */
+    private CompletableFuture<XContentBuilder> executeStreamingRequest(Session session,
+                                                                       ChannelHandlerContext ctx,
+                                                                       FullHttpRequest request,
+                                                                       String stmt,
+                                                                       List<Object> args,
+                                                                       boolean includeTypes,
+                                                                       RestStreamingResultSetReceiver.Format format) throws IOException {
+        long startTimeInNs = System.nanoTime();
+        session.parse(UNNAMED, stmt, emptyList());
+        session.bind(UNNAMED, UNNAMED, args == null ? emptyList() : args, null);
+        DescribeResult description = session.describe('P', UNNAMED);
+        List<Symbol> resultFields = description.getFields();
+        if (resultFields == null) {
+            var resultReceiver = new RestRowCountReceiver(JsonXContent.builder(), startTimeInNs, includeTypes);
+            session.execute(UNNAMED, 0, resultReceiver);
+            return session.sync()
+                .thenCompose(ignored -> resultReceiver.completionFuture());
+        }
+        HttpResponse head = new DefaultHttpResponse(request.protocolVersion(), HttpResponseStatus.OK);
+        head.headers().add(HttpHeaderNames.CONTENT_TYPE, format.mediaType());
+        HttpUtil.setTransferEncodingChunked(head, true);
+        Netty4CorsHandler.setCorsResponseHeaders(request, head, corsConfig);
+        boolean closeConnection = isCloseConnection(request);
+        if (!closeConnection) {
+            Headers.setKeepAlive(request.protocolVersion(), head);
+        }
+        RestStreamingResultSetReceiver resultReceiver = new RestStreamingResultSetReceiver(
+            ctx.channel(),
+            head,
+            closeConnection,
+            format,
+            resultFields,
+            startTimeInNs,
+            includeTypes,
+            getAccessControl.apply(session.sessionSettings())
+        );
+        streamNextBatch(session, resultReceiver);
+        return resultReceiver.result();
+    }
+
+    /**
+     * Executes or resumes the statement of the unnamed portal until the next {@link RestStreamingResultSetReceiver#BATCH_SIZE} rows
+     * are written. The next batch is started once the channel is writable again.
+     */
+    private void streamNextBatch(Session session, RestStreamingResultSetReceiver resultReceiver) {
+        CompletableFuture<Void> batch = resultReceiver.nextBatch();
+        session.execute(UNNAMED, RestStreamingResultSetReceiver.BATCH_SIZE, resultReceiver);
+        session.sync().whenComplete((ignored, t) -> {
+            // Errors raised before the execution started don't reach the receiver
+            if (t != null) {
+                resultReceiver.fail(t);
+            }
+        });
+        batch.whenComplete((ignored, t) -> {
+            if (t != null || resultReceiver.isFinished()) {
+                return;
+            }
+            Channel channel = resultReceiver.channel();
+            channel.eventLoop().execute(() -> {
+                Runnable resume = () -> {
+                    try {
+                        streamNextBatch(session, resultReceiver);
+                    } catch (Throwable t1) {
+                        resultReceiver.fail(t1);
+                    }
+                };
+                if (channel.isWritable()) {
+                    resume.run();
+                } else {
+                    resumeStream = resume;
+                    suspendedStream = resultReceiver;
+                }
+            });
+        });
+    }
+
     private CompletableFuture<XContentBuilder> executeBulkRequest(Session session,
                                                                   String stmt,
                                                                   List<List<Object>> bulkArgs) {
@@ -0,0 +1,187 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.statistics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.jetbrains.annotations.Nullable;
+
+import com.carrotsearch.hppc.BitMixer;
+import com.tdunning.math.stats.AVLTreeDigest;
+import com.tdunning.math.stats.Centroid;
+import com.tdunning.math.stats.TDigest;
+
+import io.crate.execution.engine.aggregation.impl.HyperLogLogPlusPlus;
+import io.crate.metadata.Reference;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.TimestampType;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Mergeable sketches over all non-null values of a column: A HyperLogLog++ counter to
+ * estimate the number of distinct values and, for numeric and timestamp columns, a t-digest
+ * to estimate quantiles.
+ * <p>
+ * The sketches are built per shard from the doc values of every document while the shard
+ * is sampled and are merged across all shards of a table. Unlike the samples they see every
+ * value, so the estimates don't degrade for columns with a high cardinality.
+ * </p>
+ */
+final class ColumnSketch implements Writeable {
+
+    /**
+     * 4kb per column, with a standard error of ~1.6%
+     */
+    static final int HLL_PRECISION = 12;
+    static final double DIGEST_COMPRESSION = 100;
+
+    private final HyperLogLogPlusPlus hll;
+
+    @Nullable
+    private final TDigest digest;
+
+    ColumnSketch(boolean withDigest) {
+        this.hll = newHll(HLL_PRECISION);
+        this.digest = withDigest ? new AVLTreeDigest(DIGEST_COMPRESSION) : null;
+    }
+
+    private ColumnSketch(HyperLogLogPlusPlus hll, @Nullable TDigest digest) {
+        this.hll = hll;
+        this.digest = digest;
+    }
+
+    ColumnSketch(StreamInput in) throws IOException {
+        this.hll = HyperLogLogPlusPlus.readFrom(in);
+        if (in.readBoolean()) {
+            double compression = in.readDouble();
+            TDigest digest = new AVLTreeDigest(compression);
+            int numCentroids = in.readVInt();
+            for (int i = 0; i < numCentroids; i++) {
+                digest.add(in.readDouble(), in.readVInt());
+            }
+            this.digest = digest;
+        } else {
+            this.digest = null;
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        hll.writeTo(out);
+        out.writeBoolean(digest != null);
+        if (digest != null) {
+            out.writeDouble(digest.compression());
+            out.writeVInt(digest.centroidCount());
+            for (Centroid centroid : digest.centroids()) {
+                out.writeDouble(centroid.mean());
+                out.writeVInt(centroid.count());
+            }
+        }
+    }
+
+    /**
+     * @return true if sketches can be built for the column; it must be backed by doc values.
+     */
+    static boolean supports(Reference column) {
+        return column.hasDocValues() && DataTypes.isPrimitive(column.valueType());
+    }
+
+    static ColumnSketch forColumn(Reference column) {
+        DataType<?> type = column.valueType();
+        return new ColumnSketch(DataTypes.isNumericPrimitive(type) || type instanceof TimestampType);
+    }
+
+    void add(@Nullable Object value) {
+        if (value == null) {
+            return;
+        }
+        hll.collect(hash(value));
+        if (digest != null && value instanceof Number number) {
+            digest.add(number.doubleValue());
+        }
+    }
+
+    private static long hash(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return BitMixer.mix64(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Number number) {
+            return BitMixer.mix64(number.longValue());
+        } else if (value instanceof String string) {
+            BytesRef bytes = new BytesRef(string);
+            return MurmurHash3.hash64(bytes.bytes, bytes.offset, bytes.length);
+        } else {
+            byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+            return MurmurHash3.hash64(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * @return a new sketch containing the values of both sketches. Neither sketch is modified.
+     */
+    ColumnSketch merge(ColumnSketch other) {
+        HyperLogLogPlusPlus mergedHll = newHll(hll.precision());
+        mergedHll.merge(hll);
+        mergedHll.merge(other.hll);
+        TDigest mergedDigest = null;
+        if (digest != null && other.digest != null) {
+            mergedDigest = new AVLTreeDigest(digest.compression());
+            for (Centroid centroid : digest.centroids()) {
+                mergedDigest.add(centroid.mean(), centroid.count());
+            }
+            for (Centroid centroid : other.digest.centroids()) {
+                mergedDigest.add(centroid.mean(), centroid.count());
+            }
+        }
+        return new ColumnSketch(mergedHll, mergedDigest);
+    }
+
+    long approxDistinct() {
+        return hll.cardinality();
+    }
+
+    /**
+     * @return {@code numBins + 1} values at equally spaced ranks, from the minimum to the maximum value.
+     *         Empty if the column isn't numeric or has no values.
+     */
+    double[] quantiles(int numBins) {
+        if (digest == null || digest.size() == 0) {
+            return new double[0];
+        }
+        double[] quantiles = new double[numBins + 1];
+        for (int i = 0; i <= numBins; i++) {
+            quantiles[i] = digest.quantile((double) i / numBins);
+        }
+        return quantiles;
+    }
+
+    private static HyperLogLogPlusPlus newHll(int precision) {
+        return new HyperLogLogPlusPlus(precision, size -> Unpooled.wrappedBuffer(new byte[size]));
+    }
+}
@@ -25,6 +25,7 @@ import io.crate.Streamer;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.FixedWidthType;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -44,18 +45,36 @@ public final class ColumnStats<T> implements Writeable {
     private final MostCommonValues mostCommonValues;
     private final List<T> histogram;
 
+    /**
+     * Values of a numeric column at equally spaced ranks, including the minimum and maximum value.
+     * Unlike the {@link #histogram} they are taken from a sketch over all values, including the most common values.
+     * Empty if not available.
+     */
+    private final double[] quantiles;
+
     public ColumnStats(double nullFraction,
                        double averageSizeInBytes,
                        double approxDistinct,
                        DataType<T> type,
                        MostCommonValues mostCommonValues,
                        List<T> histogram) {
+        this(nullFraction, averageSizeInBytes, approxDistinct, type, mostCommonValues, histogram, new double[0]);
+    }
+
+    public ColumnStats(double nullFraction,
+                       double averageSizeInBytes,
+                       double approxDistinct,
+                       DataType<T> type,
+                       MostCommonValues mostCommonValues,
+                       List<T> histogram,
+                       double[] quantiles) {
         this.nullFraction = nullFraction;
         this.averageSizeInBytes = averageSizeInBytes;
         this.approxDistinct = approxDistinct;
         this.type = type;
         this.mostCommonValues = mostCommonValues;
         this.histogram = histogram;
+        this.quantiles = quantiles;
     }
 
     public ColumnStats(StreamInput in) throws IOException {
@@ -73,6 +92,11 @@ public final class ColumnStats<T> implements Writeable {
             histogram.add(streamer.readValueFrom(in));
         }
         this.histogram = histogram;
+        if (in.getVersion().onOrAfter(Version.V_5_7_0)) {
+            this.quantiles = in.readDoubleArray();
+        } else {
+            this.quantiles = new double[0];
+        }
     }
 
     @Override
@@ -87,6 +111,9 @@ public final class ColumnStats<T> implements Writeable {
         for (T o : histogram) {
             streamer.writeValueTo(out, o);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_7_0)) {
+            out.writeDoubleArray(quantiles);
+        }
     }
 
     public double averageSizeInBytes() {
@@ -109,6 +136,55 @@ public final class ColumnStats<T> implements Writeable {
         return histogram;
     }
 
+    public double[] quantiles() {
+        return quantiles;
+    }
+
+    /**
+     * Estimates the fraction of the non-null values which are lower than {@code value} using the {@link #quantiles()}.
+     *
+     * @return the fraction between 0.0 and 1.0 or -1 if no quantiles are available.
+     */
+    public double fractionBelow(double value) {
+        if (quantiles.length < 2) {
+            return -1;
+        }
+        if (value <= quantiles[0]) {
+            return 0.0;
+        }
+        int last = quantiles.length - 1;
+        if (value > quantiles[last]) {
+            return 1.0;
+        }
+        int idx = Arrays.binarySearch(quantiles, value);
+        // Point to the highest bound lower than value
+        int lower = idx >= 0 ? idx - 1 : -idx - 2;
+        while (lower > 0 && quantiles[lower] >= value) {
+            lower--;
+        }
+        double lowerBound = quantiles[lower];
+        double upperBound = quantiles[lower + 1];
+        double withinBin = upperBound > lowerBound ? (value - lowerBound) / (upperBound - lowerBound) : 0.0;
+        return Math.min(1.0, (lower + withinBin) / last);
+    }
+
+    /**
+     * @return stats using the number of distinct values and the quantiles of a sketch over all values
+     *         of the column instead of the estimates derived from the samples.
+     */
+    ColumnStats<T> withSketch(ColumnSketch sketch) {
+        long sketchDistinct = sketch.approxDistinct();
+        return new ColumnStats<>(
+            nullFraction,
+            averageSizeInBytes,
+            sketchDistinct > 0 ? sketchDistinct : approxDistinct,
+            type,
+            mostCommonValues,
+            histogram,
+            sketch.quantiles(MostCommonValues.MCV_TARGET)
+        );
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -135,6 +211,9 @@ public final class ColumnStats<T> implements Writeable {
         if (!mostCommonValues.equals(that.mostCommonValues)) {
             return false;
         }
+        if (!Arrays.equals(quantiles, that.quantiles)) {
+            return false;
+        }
         return histogram.equals(that.histogram);
     }
 
@@ -151,6 +230,7 @@ public final class ColumnStats<T> implements Writeable {
         result = 31 * result + type.hashCode();
         result = 31 * result + mostCommonValues.hashCode();
         result = 31 * result + histogram.hashCode();
+        result = 31 * result + Arrays.hashCode(quantiles);
         return result;
     }
 
@@ -72,6 +72,7 @@ import io.crate.data.RowN;
 import io.crate.data.breaker.BlockBasedRamAccounting;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.exceptions.RelationUnknown;
+import io.crate.execution.engine.aggregation.impl.HyperLogLogPlusPlus;
 import io.crate.execution.engine.collect.DocInputFactory;
 import io.crate.execution.engine.fetch.FetchId;
 import io.crate.execution.engine.fetch.ReaderContext;
@@ -210,6 +211,17 @@ public final class ReservoirSampler {
         ArrayList<DocIdToRow> docIdToRowsFunctionPerReader = new ArrayList<>();
         long totalNumDocs = 0;
         long totalSizeInBytes = 0;
+        long totalModifications = 0;
+        ColumnSketch[] sketches = new ColumnSketch[columns.size()];
+        if (maxSamples > 0) {
+            for (int i = 0; i < sketches.length; i++) {
+                Reference column = columns.get(i);
+                if (ColumnSketch.supports(column)) {
+                    ramAccounting.addBytes(HyperLogLogPlusPlus.memoryUsage(ColumnSketch.HLL_PRECISION));
+                    sketches[i] = ColumnSketch.forColumn(column);
+                }
+            }
+        }
 
         for (String index : docTable.concreteOpenIndices()) {
             var indexMetadata = metadata.index(index);
@@ -222,14 +234,15 @@ public final class ReservoirSampler {
             }
             var mapperService = indexService.mapperService();
             FieldTypeLookup fieldTypeLookup = mapperService::fieldType;
-            var ctx = new DocInputFactory(
+            var docInputFactory = new DocInputFactory(
                 nodeCtx,
                 new LuceneReferenceResolver(
                     indexService.index().getName(),
                     fieldTypeLookup,
                     docTable.partitionedByColumns()
                 )
-            ).getCtx(coordinatorTxnCtx);
+            );
+            var ctx = docInputFactory.getCtx(coordinatorTxnCtx);
             ctx.add(Lists.map(columns, DocReferences::toSourceLookup));
             List<Input<?>> inputs = ctx.topLevelInputs();
             List<? extends LuceneCollectorExpression<?>> expressions = ctx.expressions();
@@ -237,6 +250,23 @@ public final class ReservoirSampler {
             for (LuceneCollectorExpression<?> expression : expressions) {
                 expression.startCollect(collectorContext);
             }
+            // The sketches read doc values instead of the source, like a regular collect would
+            List<Reference> sketchColumns = new ArrayList<>();
+            List<ColumnSketch> sketchesToUpdate = new ArrayList<>();
+            for (int i = 0; i < sketches.length; i++) {
+                if (sketches[i] != null) {
+                    sketchColumns.add(columns.get(i));
+                    sketchesToUpdate.add(sketches[i]);
+                }
+            }
+            var sketchCtx = docInputFactory.getCtx(coordinatorTxnCtx);
+            sketchCtx.add(sketchColumns);
+            List<Input<?>> sketchInputs = sketchCtx.topLevelInputs();
+            List<? extends LuceneCollectorExpression<?>> sketchExpressions = sketchCtx.expressions();
+            for (LuceneCollectorExpression<?> expression : sketchExpressions) {
+                expression.startCollect(collectorContext);
+            }
+            var sketchCollector = new SketchCollector(sketchesToUpdate, sketchInputs, sketchExpressions);
             for (IndexShard indexShard : indexService) {
                 if (!indexShard.routingEntry().primary()) {
                     continue;
@@ -246,14 +276,24 @@ public final class ReservoirSampler {
                     searchersToRelease.add(searcher);
                     totalNumDocs += searcher.getIndexReader().numDocs();
                     totalSizeInBytes += indexShard.storeStats().getSizeInBytes();
+                    // Every index, update or delete operation increments the seq_no of the shard
+                    totalModifications += indexShard.seqNoStats().getMaxSeqNo() + 1;
                     DocIdToRow docIdToRow = new DocIdToRow(searcher, inputs, expressions);
                     docIdToRowsFunctionPerReader.add(docIdToRow);
+                    if (maxSamples == 0) {
+                        // Only the counters are requested to decide if the table must be re-sampled
+                        continue;
+                    }
                     try {
                         // We do the sampling in 2 phases. First we get the docIds;
                         // then we retrieve the column values for the sampled docIds.
                         // we do this in 2 phases because the reservoir sampling might override previously seen
                         // items and we want to avoid unnecessary disk-lookup
-                        var collector = new ReservoirCollector(fetchIdSamples, searchersToRelease.size() - 1);
+                        var collector = new ReservoirCollector(
+                            fetchIdSamples,
+                            searchersToRelease.size() - 1,
+                            sketchCollector
+                        );
                         searcher.search(new MatchAllDocsQuery(), collector);
                     } catch (IOException e) {
                         throw new UncheckedIOException(e);
@@ -265,7 +305,14 @@ public final class ReservoirSampler {
 
         var rowAccounting = new RowCellsAccountingWithEstimators(Symbols.typeView(columns), ramAccounting, 0);
         ArrayList<Row> records = createRecords(fetchIdSamples.samples(), docIdToRowsFunctionPerReader, ramAccounting, rowAccounting, maxSamples);
-        return new Samples(records, streamers, totalNumDocs, totalSizeInBytes);
+        return new Samples(
+            records,
+            streamers,
+            totalNumDocs,
+            totalSizeInBytes,
+            totalModifications,
+            maxSamples > 0 ? sketches : new ColumnSketch[0]
+        );
     }
 
     @VisibleForTesting
@@ -339,19 +386,64 @@ public final class ReservoirSampler {
         }
     }
 
+    /**
+     * Adds the values of every collected document to the {@link ColumnSketch}es of the columns.
+     */
+    private class SketchCollector {
+
+        private final List<ColumnSketch> sketches;
+        private final List<Input<?>> inputs;
+        private final List<? extends LuceneCollectorExpression<?>> expressions;
+        private final long bytesPerDoc;
+        private long bytesSinceLastPause = 0;
+
+        SketchCollector(List<ColumnSketch> sketches,
+                        List<Input<?>> inputs,
+                        List<? extends LuceneCollectorExpression<?>> expressions) {
+            this.sketches = sketches;
+            this.inputs = inputs;
+            this.expressions = expressions;
+            // Doc values are mostly numbers or ordinals, use their size for throttling
+            this.bytesPerDoc = (long) Long.BYTES * inputs.size();
+        }
+
+        void setNextReader(LeafReaderContext context) throws IOException {
+            var readerContext = new ReaderContext(context);
+            for (LuceneCollectorExpression<?> expression : expressions) {
+                expression.setNextReader(readerContext);
+            }
+        }
+
+        void collect(int doc) {
+            if (sketches.isEmpty()) {
+                return;
+            }
+            for (LuceneCollectorExpression<?> expression : expressions) {
+                expression.setNextDocId(doc);
+            }
+            for (int i = 0; i < sketches.size(); i++) {
+                sketches.get(i).add(inputs.get(i).value());
+            }
+            bytesSinceLastPause = maybePause(bytesPerDoc, bytesSinceLastPause);
+        }
+    }
+
     private static class ReservoirCollector implements Collector {
 
         private final Reservoir reservoir;
         private final int readerIdx;
+        private final SketchCollector sketchCollector;
 
-        ReservoirCollector(Reservoir reservoir, int readerIdx) {
+        ReservoirCollector(Reservoir reservoir, int readerIdx, SketchCollector sketchCollector) {
             this.reservoir = reservoir;
             this.readerIdx = readerIdx;
+            this.sketchCollector = sketchCollector;
         }
 
         @Override
-        public LeafCollector getLeafCollector(LeafReaderContext context) {
-            return new ReservoirLeafCollector(reservoir, readerIdx, context);
+        public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+            sketchCollector.setNextReader(context);
+            return new ReservoirLeafCollector(reservoir, readerIdx, context, sketchCollector);
         }
 
         @Override
@@ -365,11 +457,16 @@ public final class ReservoirSampler {
         private final Reservoir reservoir;
         private final int readerIdx;
         private final LeafReaderContext context;
+        private final SketchCollector sketchCollector;
 
-        ReservoirLeafCollector(Reservoir reservoir, int readerIdx, LeafReaderContext context) {
+        ReservoirLeafCollector(Reservoir reservoir,
+                               int readerIdx,
+                               LeafReaderContext context,
+                               SketchCollector sketchCollector) {
             this.reservoir = reservoir;
             this.readerIdx = readerIdx;
             this.context = context;
+            this.sketchCollector = sketchCollector;
         }
 
         @Override
@@ -378,6 +475,7 @@ public final class ReservoirSampler {
 
         @Override
         public void collect(int doc) {
+            sketchCollector.collect(doc);
             var shouldContinue = reservoir.update(FetchId.encode(readerIdx, doc + context.docBase));
             if (shouldContinue == false) {
                 throw new CollectionTerminatedException();
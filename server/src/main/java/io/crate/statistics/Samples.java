@@ -26,9 +26,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.jetbrains.annotations.Nullable;
 
 import io.crate.Streamer;
 import io.crate.common.collections.Lists;
@@ -37,7 +39,7 @@ import io.crate.data.RowN;
 
 class Samples implements Writeable {
 
-    static final Samples EMPTY = new Samples(List.of(), List.of(), 0L, 0L);
+    static final Samples EMPTY = new Samples(List.of(), List.of(), 0L, 0L, 0L, new ColumnSketch[0]);
 
     @SuppressWarnings("rawtypes")
     private final List<Streamer> recordStreamer;
@@ -45,12 +47,32 @@ class Samples implements Writeable {
     final long numTotalDocs;
     final long numTotalSizeInBytes;
 
+    /**
+     * Number of operations applied to the sampled primary shards (sum of their max seq_no + 1).
+     * -1 if unknown because a node which doesn't track it was involved.
+     */
+    final long numModifications;
+
+    /**
+     * Sketches over all values of each sampled column, null entries for columns without sketches.
+     * Empty if no sketches were collected, null if unknown because a node which doesn't build sketches was involved.
+     */
+    @Nullable
+    final ColumnSketch[] sketches;
+
     @SuppressWarnings("rawtypes")
-    Samples(List<Row> records, List<Streamer> recordStreamer, long numTotalDocs, long numTotalSizeInBytes) {
+    Samples(List<Row> records,
+            List<Streamer> recordStreamer,
+            long numTotalDocs,
+            long numTotalSizeInBytes,
+            long numModifications,
+            @Nullable ColumnSketch[] sketches) {
         this.records = records;
         this.recordStreamer = recordStreamer;
         this.numTotalDocs = numTotalDocs;
         this.numTotalSizeInBytes = numTotalSizeInBytes;
+        this.numModifications = numModifications;
+        this.sketches = sketches;
     }
 
     @SuppressWarnings("rawtypes")
@@ -58,6 +80,20 @@ class Samples implements Writeable {
         this.recordStreamer = recordStreamer;
         this.numTotalDocs = in.readLong();
         this.numTotalSizeInBytes = in.readLong();
+        if (in.getVersion().onOrAfter(Version.V_5_7_0)) {
+            this.numModifications = in.readLong();
+            if (in.readBoolean()) {
+                this.sketches = new ColumnSketch[in.readVInt()];
+                for (int i = 0; i < sketches.length; i++) {
+                    sketches[i] = in.readOptionalWriteable(ColumnSketch::new);
+                }
+            } else {
+                this.sketches = null;
+            }
+        } else {
+            this.numModifications = -1L;
+            this.sketches = null;
+        }
         int numRecords = in.readVInt();
         this.records = new ArrayList<>(numRecords);
         for (int i = 0; i < numRecords; i++) {
@@ -73,6 +109,16 @@ class Samples implements Writeable {
     public void writeTo(StreamOutput out) throws IOException {
         out.writeLong(numTotalDocs);
         out.writeLong(numTotalSizeInBytes);
+        if (out.getVersion().onOrAfter(Version.V_5_7_0)) {
+            out.writeLong(numModifications);
+            out.writeBoolean(sketches != null);
+            if (sketches != null) {
+                out.writeVInt(sketches.length);
+                for (ColumnSketch sketch : sketches) {
+                    out.writeOptionalWriteable(sketch);
+                }
+            }
+        }
         out.writeVInt(records.size());
         for (Row row : records) {
             assert row.numColumns() == recordStreamer.size()
@@ -90,10 +136,42 @@ class Samples implements Writeable {
             newSamples,
             s1.recordStreamer.isEmpty() ? s2.recordStreamer : s1.recordStreamer,
             s1.numTotalDocs + s2.numTotalDocs,
-            s1.numTotalSizeInBytes + s2.numTotalSizeInBytes
+            s1.numTotalSizeInBytes + s2.numTotalSizeInBytes,
+            s1.numModifications == -1 || s2.numModifications == -1
+                ? -1
+                : s1.numModifications + s2.numModifications,
+            mergeSketches(s1.sketches, s2.sketches)
         );
     }
 
+    @Nullable
+    private static ColumnSketch[] mergeSketches(@Nullable ColumnSketch[] sketches1, @Nullable ColumnSketch[] sketches2) {
+        if (sketches1 == null || sketches2 == null) {
+            return null;
+        }
+        if (sketches1.length == 0) {
+            return sketches2;
+        } else if (sketches2.length == 0) {
+            return sketches1;
+        }
+        assert sketches1.length == sketches2.length : "Sketches to merge must be for the same columns";
+        ColumnSketch[] merged = new ColumnSketch[sketches1.length];
+        for (int i = 0; i < merged.length; i++) {
+            ColumnSketch sketch1 = sketches1[i];
+            ColumnSketch sketch2 = sketches2[i];
+            merged[i] = sketch1 == null || sketch2 == null ? null : sketch1.merge(sketch2);
+        }
+        return merged;
+    }
+
+    /**
+     * @return the sketch of the column at {@code index} or null if none is available.
+     */
+    @Nullable
+    ColumnSketch sketch(int index) {
+        return sketches == null || index >= sketches.length ? null : sketches[index];
+    }
+
     private static List<Row> createNewSamples(int maxSampleSize, Samples s1, Samples s2, Random random) {
         if (s1.records.isEmpty()) {
             return s2.records;
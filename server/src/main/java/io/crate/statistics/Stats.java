@@ -29,6 +29,7 @@ import java.util.Map;
 import org.jetbrains.annotations.Nullable;
 
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -52,23 +53,43 @@ public class Stats implements Writeable {
     @VisibleForTesting
     final long sizeInBytes;
 
+    /**
+     * Number of modifications of the table at the time the samples were taken. -1 if unknown.
+     * See {@link Samples#numModifications}
+     */
+    private final long numModifications;
+
     private final Map<ColumnIdent, ColumnStats<?>> statsByColumn;
 
     private Stats() {
         numDocs = -1;
         sizeInBytes = -1;
+        numModifications = -1;
         statsByColumn = Map.of();
     }
 
     public Stats(long numDocs, long sizeInBytes, Map<ColumnIdent, ColumnStats<?>> statsByColumn) {
+        this(numDocs, sizeInBytes, -1, statsByColumn);
+    }
+
+    public Stats(long numDocs,
+                 long sizeInBytes,
+                 long numModifications,
+                 Map<ColumnIdent, ColumnStats<?>> statsByColumn) {
         this.numDocs = numDocs;
         this.sizeInBytes = sizeInBytes;
+        this.numModifications = numModifications;
         this.statsByColumn = statsByColumn;
     }
 
     public Stats(StreamInput in) throws IOException {
         this.numDocs = in.readLong();
         this.sizeInBytes = in.readLong();
+        if (in.getVersion().onOrAfter(Version.V_5_7_0)) {
+            this.numModifications = in.readLong();
+        } else {
+            this.numModifications = -1;
+        }
         int numColumnStats = in.readVInt();
         this.statsByColumn = new HashMap<>();
         for (int i = 0; i < numColumnStats; i++) {
@@ -80,6 +101,9 @@ public class Stats implements Writeable {
     public void writeTo(StreamOutput out) throws IOException {
         out.writeLong(numDocs);
         out.writeLong(sizeInBytes);
+        if (out.getVersion().onOrAfter(Version.V_5_7_0)) {
+            out.writeLong(numModifications);
+        }
         out.writeVInt(statsByColumn.size());
         for (var entry : statsByColumn.entrySet()) {
             entry.getKey().writeTo(out);
@@ -90,9 +114,9 @@ public class Stats implements Writeable {
     public Stats withNumDocs(long numDocs) {
         long sizePerRow = averageSizePerRowInBytes();
         if (sizePerRow < 1) {
-            return new Stats(numDocs, -1, statsByColumn);
+            return new Stats(numDocs, -1, numModifications, statsByColumn);
         } else {
-            return new Stats(numDocs, sizePerRow * numDocs, statsByColumn);
+            return new Stats(numDocs, sizePerRow * numDocs, numModifications, statsByColumn);
         }
     }
 
@@ -116,6 +140,10 @@ public class Stats implements Writeable {
         return sizeInBytes;
     }
 
+    public long numModifications() {
+        return numModifications;
+    }
+
     public long averageSizePerRowInBytes() {
         if (numDocs == -1) {
             return -1;
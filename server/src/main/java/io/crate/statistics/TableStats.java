@@ -36,9 +36,19 @@ import org.elasticsearch.common.inject.Singleton;
 public class TableStats {
 
     private volatile Map<RelationName, Stats> tableStats = new HashMap<>();
+    private volatile long version = 0;
 
     public void updateTableStats(Map<RelationName, Stats> tableStats) {
         this.tableStats = tableStats;
+        this.version++;
+    }
+
+    /**
+     * Returns a number which is incremented each time the statistics are updated.
+     * Can be used to detect if something derived from the statistics (e.g. a plan) is outdated.
+     */
+    public long version() {
+        return version;
     }
 
     /**
@@ -21,8 +21,8 @@
 
 package io.crate.statistics;
 
-
-import org.jetbrains.annotations.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleFunction;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,16 +36,18 @@ import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.jetbrains.annotations.Nullable;
 
-import io.crate.action.sql.BaseResultReceiver;
-import io.crate.action.sql.Session;
-import io.crate.action.sql.Sessions;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.unit.TimeValue;
-import io.crate.data.Row;
 
 /**
  * Periodically refresh {@link TableStats} based on {@link #refreshInterval}.
+ * <p>
+ * Unlike a {@code ANALYZE} statement, a periodic refresh only samples tables which
+ * got modified by more than {@link #STATS_SERVICE_CHANGE_THRESHOLD_SETTING} since they
+ * were sampled the last time.
+ * </p>
  */
 @Singleton
 public class TableStatsService implements Runnable {
@@ -58,15 +60,19 @@ public class TableStatsService implements Runnable {
     public static final Setting<ByteSizeValue> STATS_SERVICE_THROTTLING_SETTING = Setting.byteSizeSetting(
         "stats.service.max_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB), Property.NodeScope, Property.Dynamic, Property.Exposed);
 
-    static final String STMT = "ANALYZE";
+    public static final Setting<Float> STATS_SERVICE_CHANGE_THRESHOLD_SETTING = Setting.floatSetting(
+        "stats.service.change_threshold", 0.1f, 0.0f, Property.NodeScope, Property.Dynamic, Property.Exposed);
 
     private final ClusterService clusterService;
     private final ThreadPool threadPool;
-    private final Session session;
+    private final DoubleFunction<CompletableFuture<?>> refreshStats;
 
     @VisibleForTesting
     volatile TimeValue refreshInterval;
 
+    @VisibleForTesting
+    volatile float changeThreshold;
+
     @VisibleForTesting
     volatile Scheduler.ScheduledCancellable scheduledRefresh;
 
@@ -74,15 +80,26 @@ public class TableStatsService implements Runnable {
     public TableStatsService(Settings settings,
                              ThreadPool threadPool,
                              ClusterService clusterService,
-                             Sessions sqlOperations) {
+                             TransportAnalyzeAction analyzeAction) {
+        this(settings, threadPool, clusterService, analyzeAction::fetchSamplesThenGenerateAndPublishStats);
+    }
+
+    @VisibleForTesting
+    TableStatsService(Settings settings,
+                      ThreadPool threadPool,
+                      ClusterService clusterService,
+                      DoubleFunction<CompletableFuture<?>> refreshStats) {
         this.threadPool = threadPool;
         this.clusterService = clusterService;
+        this.refreshStats = refreshStats;
         refreshInterval = STATS_SERVICE_REFRESH_INTERVAL_SETTING.get(settings);
+        changeThreshold = STATS_SERVICE_CHANGE_THRESHOLD_SETTING.get(settings);
         scheduledRefresh = scheduleNextRefresh(refreshInterval);
-        session = sqlOperations.newSystemSession();
 
         clusterService.getClusterSettings().addSettingsUpdateConsumer(
             STATS_SERVICE_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            STATS_SERVICE_CHANGE_THRESHOLD_SETTING, newThreshold -> changeThreshold = newThreshold);
     }
 
     @Override
@@ -100,18 +117,16 @@ public class TableStatsService implements Runnable {
             return;
         }
         if (!clusterService.state().nodes().isLocalNodeElectedMaster()) {
-            // `ANALYZE` will publish the new stats to all nodes, so we need only a single node running it.
+            // The new stats are published to all nodes, so we need only a single node running the refresh.
             return;
         }
         try {
-            BaseResultReceiver resultReceiver = new BaseResultReceiver();
-            resultReceiver.completionFuture().whenComplete((res, err) -> {
+            refreshStats.apply(changeThreshold).whenComplete((res, err) -> {
                 scheduledRefresh = scheduleNextRefresh(refreshInterval);
                 if (err != null) {
-                    LOGGER.error("Error running periodic " + STMT + "", err);
+                    LOGGER.error("Error running periodic table stats refresh", err);
                 }
             });
-            session.quickExec(STMT, resultReceiver, Row.EMPTY);
         } catch (Throwable t) {
             LOGGER.error("error retrieving table stats", t);
         }
@@ -86,6 +86,7 @@ public final class TransportAnalyzeAction {
     private final TransportService transportService;
     private final Schemas schemas;
     private final ClusterService clusterService;
+    private final TableStats tableStats;
     private final ConcurrentHashMap<FetchSampleRequest, CompletableFuture<Samples>> analysisByRequest = new ConcurrentHashMap<>();
     private final Executor executor;
 
@@ -99,6 +100,7 @@ public final class TransportAnalyzeAction {
         this.transportService = transportService;
         this.schemas = schemas;
         this.clusterService = clusterService;
+        this.tableStats = tableStats;
         this.executor = threadPool.executor(ThreadPool.Names.SEARCH);
 
         transportService.registerRequestHandler(
@@ -144,8 +146,23 @@ public final class TransportAnalyzeAction {
         );
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Samples all tables and publishes the resulting statistics.
+     */
     public CompletableFuture<AcknowledgedResponse> fetchSamplesThenGenerateAndPublishStats() {
+        return fetchSamplesThenGenerateAndPublishStats(-1);
+    }
+
+    /**
+     * Like {@link #fetchSamplesThenGenerateAndPublishStats()} but only tables which got modified by more
+     * than {@code changeThreshold * numDocs} operations since their last sampling are sampled again.
+     * The other tables keep their column statistics, only their number of docs and size is updated.
+     *
+     * @param changeThreshold ratio of modified documents required to re-sample a table.
+     *                        If negative, all tables are sampled.
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<AcknowledgedResponse> fetchSamplesThenGenerateAndPublishStats(double changeThreshold) {
         ArrayList<CompletableFuture<Map.Entry<RelationName, Stats>>> futures = new ArrayList<>();
         for (SchemaInfo schema : schemas) {
             if (!(schema instanceof DocSchemaInfo)) {
@@ -158,16 +175,56 @@ public final class TransportAnalyzeAction {
                     .map(x -> table.getReadReference(x.column()))
                     .toList();
 
-                futures.add(fetchSamples(
-                    table.ident(),
-                    primitiveColumns
-                ).thenApply(samples -> Map.entry(table.ident(), createTableStats(samples, primitiveColumns))));
+                RelationName relationName = table.ident();
+                Stats previous = tableStats.getStats(relationName);
+                CompletableFuture<Stats> newStats;
+                if (changeThreshold < 0 || previous.numModifications() < 0) {
+                    newStats = fetchSamples(relationName, primitiveColumns, NUM_SAMPLES)
+                        .thenApply(samples -> createTableStats(samples, primitiveColumns));
+                } else {
+                    // Fetching 0 samples is cheap and only returns the counters of the table
+                    newStats = fetchSamples(relationName, primitiveColumns, 0).thenCompose(counters -> {
+                        if (needsResampling(previous, counters, primitiveColumns, changeThreshold)) {
+                            return fetchSamples(relationName, primitiveColumns, NUM_SAMPLES)
+                                .thenApply(samples -> createTableStats(samples, primitiveColumns));
+                        }
+                        return completedFuture(new Stats(
+                            counters.numTotalDocs,
+                            counters.numTotalSizeInBytes,
+                            previous.numModifications(),
+                            previous.statsByColumn()
+                        ));
+                    });
+                }
+                futures.add(newStats.thenApply(stats -> Map.entry(relationName, stats)));
             }
         }
         return CompletableFutures.allAsList(futures)
             .thenCompose(entries -> publishTableStats(Map.ofEntries(entries.toArray(new Map.Entry[0]))));
     }
 
+    /**
+     * @return true if the statistics of a table must be re-created because its columns changed,
+     *         or the number of modifications since the last sampling exceeds {@code changeThreshold * numDocs}.
+     */
+    @VisibleForTesting
+    static boolean needsResampling(Stats previous,
+                                   Samples counters,
+                                   List<Reference> columns,
+                                   double changeThreshold) {
+        if (previous.numDocs() < 0 || previous.numModifications() < 0 || counters.numModifications < 0) {
+            return true;
+        }
+        for (Reference column : columns) {
+            if (previous.getColumnStats(column.column()) == null) {
+                return true;
+            }
+        }
+        // A dropped partition or re-created table decreases the counter
+        long changes = Math.abs(counters.numModifications - previous.numModifications());
+        return changes > changeThreshold * previous.numDocs();
+    }
+
     private CompletableFuture<AcknowledgedResponse> publishTableStats(Map<RelationName, Stats> newTableStats) {
         DiscoveryNodes discoveryNodes = clusterService.state().nodes();
         var listener = new FutureActionListener<AcknowledgedResponse>();
@@ -217,13 +274,17 @@ public final class TransportAnalyzeAction {
                 nullCount,
                 samples.numTotalDocs
             );
+            ColumnSketch sketch = samples.sketch(i);
+            if (sketch != null) {
+                columnStats = columnStats.withSketch(sketch);
+            }
             statsByColumn.put(primitiveColumn.column(), columnStats);
         }
-        return new Stats(samples.numTotalDocs, samples.numTotalSizeInBytes, statsByColumn);
+        return new Stats(samples.numTotalDocs, samples.numTotalSizeInBytes, samples.numModifications, statsByColumn);
     }
 
     @SuppressWarnings("rawtypes")
-    private CompletableFuture<Samples> fetchSamples(RelationName relationName, List<Reference> columns) {
+    private CompletableFuture<Samples> fetchSamples(RelationName relationName, List<Reference> columns, int maxSamples) {
         FutureActionListener<FetchSampleResponse> listener = new FutureActionListener<>();
         DiscoveryNodes discoveryNodes = clusterService.state().nodes();
         MultiActionListener<FetchSampleResponse, ?, FetchSampleResponse> multiListener = new MultiActionListener<>(
@@ -243,7 +304,7 @@ public final class TransportAnalyzeAction {
             transportService.sendRequest(
                 node,
                 FETCH_SAMPLES,
-                new FetchSampleRequest(relationName, columns, TransportAnalyzeAction.NUM_SAMPLES),
+                new FetchSampleRequest(relationName, columns, maxSamples),
                 responseHandler
             );
         }
@@ -50,7 +50,8 @@
  *          - Singleton providing access to the currently available statistics
  *
  *       TableStatsService
- *          - Periodically invokes a ANALYZE
+ *          - Periodically invokes TransportAnalyzeAction, which only samples tables
+ *            modified by more than `stats.service.change_threshold` since their last sampling
  * }
  * </pre>
  */
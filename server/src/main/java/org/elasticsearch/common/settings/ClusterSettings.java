@@ -99,11 +99,15 @@ import org.elasticsearch.snapshots.SnapshotsService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportSettings;
 
+import io.crate.action.sql.PlanCache;
 import io.crate.action.sql.Sessions;
 import io.crate.auth.AuthSettings;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.cluster.gracefulstop.DecommissioningService;
+import io.crate.execution.engine.collect.sources.FileCollectSource;
 import io.crate.execution.engine.collect.stats.JobsLogService;
+import io.crate.execution.engine.distribution.PageCompression;
+import io.crate.execution.engine.spill.SpillDirectory;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.legacy.LegacySettings;
@@ -415,7 +419,9 @@ public final class ClusterSettings extends AbstractScopedSettings {
         JobsLogService.STATS_OPERATIONS_LOG_EXPIRATION_SETTING,
         TableStatsService.STATS_SERVICE_REFRESH_INTERVAL_SETTING,
         TableStatsService.STATS_SERVICE_THROTTLING_SETTING,
+        TableStatsService.STATS_SERVICE_CHANGE_THRESHOLD_SETTING,
         ShardingUpsertExecutor.BULK_REQUEST_TIMEOUT_SETTING,
+        FileCollectSource.PARALLELISM_SETTING,
         DecommissioningService.DECOMMISSION_INTERNAL_SETTING_GROUP,
         DecommissioningService.GRACEFUL_STOP_MIN_AVAILABILITY_SETTING,
         DecommissioningService.GRACEFUL_STOP_TIMEOUT_SETTING,
@@ -425,10 +431,13 @@ public final class ClusterSettings extends AbstractScopedSettings {
         UDCService.UDC_INITIAL_DELAY_SETTING,
         UDCService.UDC_INTERVAL_SETTING,
         MemoryManagerFactory.MEMORY_ALLOCATION_TYPE,
+        SpillDirectory.SPILL_ENABLED,
+        PageCompression.COMPRESSION_ENABLED,
         AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP,
         Sessions.NODE_READ_ONLY_SETTING,
         Sessions.STATEMENT_TIMEOUT,
         Sessions.MEMORY_LIMIT,
+        PlanCache.PLAN_CACHE_ENABLED,
         PostgresNetty.PSQL_ENABLED_SETTING,
         PostgresNetty.PSQL_PORT_SETTING,
         AuthSettings.AUTH_HOST_BASED_ENABLED_SETTING,
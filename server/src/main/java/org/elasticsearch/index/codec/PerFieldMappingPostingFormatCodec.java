@@ -20,6 +20,7 @@
 package org.elasticsearch.index.codec;
 
 import java.io.IOException;
+import java.util.Locale;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.codecs.Codec;
@@ -29,13 +30,17 @@ import org.apache.lucene.codecs.KnnVectorsReader;
 import org.apache.lucene.codecs.KnnVectorsWriter;
 import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.SegmentWriteState;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
 
 import io.crate.lucene.codec.CustomLucene90DocValuesFormat;
+import io.crate.types.DataTypes;
 import io.crate.types.FloatVectorType;
 
 
@@ -49,8 +54,38 @@ import io.crate.types.FloatVectorType;
  */
 // LUCENE UPGRADE: make sure to move to a new codec depending on the lucene version
 public class PerFieldMappingPostingFormatCodec extends Lucene99Codec {
+
+    public static final String QUANTIZATION_NONE = "none";
+    public static final String QUANTIZATION_INT8 = "int8";
+
+    /**
+     * Stores float_vector columns additionally as int8 quantized vectors which are used to build and
+     * search the HNSW graph. The quantized vectors need a quarter of the memory of the raw vectors.
+     * The raw vectors are kept to re-score the candidates of a kNN search,
+     * see {@link io.crate.expression.scalar.KnnMatch}.
+     */
+    public static final Setting<String> INDEX_KNN_QUANTIZATION_SETTING = new Setting<>(
+        "index.knn.quantization",
+        QUANTIZATION_NONE,
+        s -> {
+            String value = s.toLowerCase(Locale.ENGLISH);
+            switch (value) {
+                case QUANTIZATION_NONE:
+                case QUANTIZATION_INT8:
+                    return value;
+                default:
+                    throw new IllegalArgumentException(
+                        "unknown value for [index.knn.quantization] must be one of [none, int8] but was: " + s);
+            }
+        },
+        DataTypes.STRING,
+        Property.IndexScope,
+        Property.Final
+    );
+
     private final Logger logger;
     private final MapperService mapperService;
+    private final boolean quantizeVectors;
 
     static {
         assert Codec.forName(Lucene.LATEST_CODEC).getClass().isAssignableFrom(PerFieldMappingPostingFormatCodec.class) : "PerFieldMappingPostingFormatCodec must subclass the latest lucene codec: " + Lucene.LATEST_CODEC;
@@ -60,6 +95,8 @@ public class PerFieldMappingPostingFormatCodec extends Lucene99Codec {
         super(compressionMode);
         this.mapperService = mapperService;
         this.logger = logger;
+        this.quantizeVectors = INDEX_KNN_QUANTIZATION_SETTING.get(mapperService.getIndexSettings().getSettings())
+            .equals(QUANTIZATION_INT8);
     }
 
     @Override
@@ -78,7 +115,9 @@ public class PerFieldMappingPostingFormatCodec extends Lucene99Codec {
 
     @Override
     public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
-        var format = super.getKnnVectorsFormatForField(field);
+        var format = quantizeVectors
+            ? new Lucene99HnswScalarQuantizedVectorsFormat()
+            : super.getKnnVectorsFormatForField(field);
         return new KnnVectorsFormat(format.getName()) {
 
             @Override
@@ -22,6 +22,11 @@ package org.elasticsearch.index.store;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
@@ -57,6 +62,20 @@ public class FsDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
         } // can we set on both - node and index level, some nodes might be running on NFS so they might need simple rather than native
     }, DataTypes.STRING, Property.IndexScope, Property.NodeScope);
 
+    /**
+     * File extensions of files which are loaded into the page cache when they're opened using mmap.
+     * Loading a file reads it sequentially, which avoids page faults for each page accessed by a
+     * full scan (e.g. over doc values) if the file isn't cached yet. {@code *} preloads all files.
+     */
+    public static final Setting<List<String>> INDEX_STORE_PRE_LOAD_SETTING = Setting.listSetting(
+        "index.store.preload",
+        List.of(),
+        Function.identity(),
+        DataTypes.STRING_ARRAY,
+        Property.IndexScope,
+        Property.NodeScope
+    );
+
 
     @Override
     public Directory newDirectory(IndexSettings indexSettings, ShardPath path) throws IOException {
@@ -77,17 +96,21 @@ public class FsDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
         } else {
             type = IndexModule.Type.fromSettingsKey(storeType);
         }
+        BiPredicate<String, IOContext> preload = preloadFunc(indexSettings);
         switch (type) {
             case HYBRIDFS:
                 // Use Lucene defaults
                 final FSDirectory primaryDirectory = FSDirectory.open(location, lockFactory);
                 if (primaryDirectory instanceof MMapDirectory mMapDirectory) {
+                    mMapDirectory.setPreload(preload);
                     return new HybridDirectory(lockFactory, mMapDirectory);
                 } else {
                     return primaryDirectory;
                 }
             case MMAPFS:
-                return new MMapDirectory(location, lockFactory);
+                MMapDirectory mMapDirectory = new MMapDirectory(location, lockFactory);
+                mMapDirectory.setPreload(preload);
+                return mMapDirectory;
             case NIOFS:
                 return new NIOFSDirectory(location, lockFactory);
             default:
@@ -95,6 +118,23 @@ public class FsDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
         }
     }
 
+    /**
+     * @return predicate deciding which files opened using mmap are loaded into the page cache
+     */
+    protected BiPredicate<String, IOContext> preloadFunc(IndexSettings indexSettings) {
+        return getPreloadFunc(new HashSet<>(indexSettings.getValue(INDEX_STORE_PRE_LOAD_SETTING)));
+    }
+
+    static BiPredicate<String, IOContext> getPreloadFunc(Set<String> preLoadExtensions) {
+        if (preLoadExtensions.isEmpty()) {
+            return MMapDirectory.NO_FILES;
+        }
+        if (preLoadExtensions.contains("*")) {
+            return MMapDirectory.ALL_FILES;
+        }
+        return (name, context) -> preLoadExtensions.contains(FileSwitchDirectory.getExtension(name));
+    }
+
     public static boolean isHybridFs(Directory directory) {
         Directory unwrap = FilterDirectory.unwrap(directory);
         return unwrap instanceof HybridDirectory;
@@ -0,0 +1,144 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.action.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.planner.Plan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.role.Role;
+import io.crate.statistics.TableStats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataType;
+
+public class PlanCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private final TableStats tableStats = new TableStats();
+
+    private PlanCache planCache(boolean enabled) {
+        Settings settings = Settings.builder().put(PlanCache.PLAN_CACHE_ENABLED.getKey(), enabled).build();
+        return new PlanCache(
+            settings,
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            tableStats
+        );
+    }
+
+    private static PreparedStmt preparedStmt(AnalyzedStatement analyzedStatement) {
+        return new PreparedStmt(null, analyzedStatement, "select ?", new DataType<?>[0]);
+    }
+
+    @Test
+    public void test_cached_plan_is_reused_until_metadata_changes() {
+        PlanCache planCache = planCache(true);
+        PreparedStmt preparedStmt = preparedStmt(mock(AnalyzedRelation.class));
+        CoordinatorSessionSettings sessionSettings = new CoordinatorSessionSettings(Role.CRATE_USER);
+        ClusterState state = clusterService.state();
+        LogicalPlan plan = mock(LogicalPlan.class);
+
+        assertThat(planCache.get(preparedStmt, state, sessionSettings)).isNull();
+        planCache.put(preparedStmt, plan, state, sessionSettings);
+        assertThat(planCache.get(preparedStmt, state, sessionSettings)).isSameAs(plan);
+
+        ClusterState newState = ClusterState.builder(state)
+            .metadata(Metadata.builder(state.metadata()).version(state.metadata().version() + 1))
+            .build();
+        assertThat(planCache.get(preparedStmt, newState, sessionSettings)).isNull();
+
+        assertThat(planCache.hits()).isEqualTo(1L);
+        assertThat(planCache.misses()).isEqualTo(2L);
+    }
+
+    @Test
+    public void test_cached_plan_is_not_reused_if_optimizer_session_settings_changed() {
+        PlanCache planCache = planCache(true);
+        PreparedStmt preparedStmt = preparedStmt(mock(AnalyzedRelation.class));
+        CoordinatorSessionSettings sessionSettings = new CoordinatorSessionSettings(Role.CRATE_USER);
+        ClusterState state = clusterService.state();
+
+        planCache.put(preparedStmt, mock(LogicalPlan.class), state, sessionSettings);
+        sessionSettings.setHashJoinEnabled(!sessionSettings.hashJoinsEnabled());
+        assertThat(planCache.get(preparedStmt, state, sessionSettings)).isNull();
+    }
+
+    @Test
+    public void test_only_plans_of_select_statements_are_cached() {
+        PlanCache planCache = planCache(true);
+        PreparedStmt preparedStmt = preparedStmt(mock(AnalyzedStatement.class));
+        CoordinatorSessionSettings sessionSettings = new CoordinatorSessionSettings(Role.CRATE_USER);
+        ClusterState state = clusterService.state();
+
+        planCache.put(preparedStmt, mock(Plan.class), state, sessionSettings);
+        assertThat(preparedStmt.cachedPlan()).isNull();
+        assertThat(planCache.get(preparedStmt, state, sessionSettings)).isNull();
+        assertThat(planCache.misses()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_disabled_cache_does_not_store_plans() {
+        PlanCache planCache = planCache(false);
+        PreparedStmt preparedStmt = preparedStmt(mock(AnalyzedRelation.class));
+        CoordinatorSessionSettings sessionSettings = new CoordinatorSessionSettings(Role.CRATE_USER);
+
+        planCache.put(preparedStmt, mock(LogicalPlan.class), clusterService.state(), sessionSettings);
+        assertThat(preparedStmt.cachedPlan()).isNull();
+    }
+
+    @Test
+    public void test_cached_plan_is_not_reused_if_table_stats_changed() {
+        PlanCache planCache = planCache(true);
+        PreparedStmt preparedStmt = preparedStmt(mock(AnalyzedRelation.class));
+        CoordinatorSessionSettings sessionSettings = new CoordinatorSessionSettings(Role.CRATE_USER);
+        ClusterState state = clusterService.state();
+
+        planCache.put(preparedStmt, mock(LogicalPlan.class), state, sessionSettings);
+        tableStats.updateTableStats(Map.of());
+        assertThat(planCache.get(preparedStmt, state, sessionSettings)).isNull();
+    }
+
+    @Test
+    public void test_statements_with_non_deterministic_functions_are_not_cacheable() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .addTable("create table tbl (x int, ts timestamp with time zone)")
+            .build();
+
+        assertThat(PlanCache.isCacheable(e.analyze("select * from tbl where x > ?"))).isTrue();
+        assertThat(PlanCache.isCacheable(e.analyze("select * from tbl where ts < now()"))).isFalse();
+        assertThat(PlanCache.isCacheable(e.analyze("select * from tbl where ts < current_timestamp"))).isFalse();
+        assertThat(PlanCache.isCacheable(e.analyze("select * from (select * from tbl where ts < now()) t"))).isFalse();
+        assertThat(PlanCache.isCacheable(
+            e.analyze("select * from tbl where x = (select max(x) from tbl where ts < now())"))).isFalse();
+    }
+}
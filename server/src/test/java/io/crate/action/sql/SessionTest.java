@@ -48,6 +48,7 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import io.crate.analyze.AnalyzedStatement;
+import io.crate.common.collections.Lists;
 import io.crate.common.unit.TimeValue;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
@@ -114,14 +115,14 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
 
         assertThat(session.portals.size()).isEqualTo(1);
         assertThat(session.preparedStatements.size()).isEqualTo(1);
-        assertThat(session.deferredExecutionsByStmt.size()).isEqualTo(0);
+        assertThat(session.deferredExecutions.size()).isEqualTo(0);
         assertThat(session.activeExecution).isEqualTo(activeExecutionFuture);
 
         session.close();
 
         assertThat(session.portals.size()).isEqualTo(0);
         assertThat(session.preparedStatements.size()).isEqualTo(0);
-        assertThat(session.deferredExecutionsByStmt.size()).isEqualTo(0);
+        assertThat(session.deferredExecutions.size()).isEqualTo(0);
         assertThat(session.activeExecution).isNull();
     }
 
@@ -138,7 +139,7 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         session.parse("", "insert into users (name) values (?)", List.of());
         session.bind("", "", List.of("Arthur"), null);
         session.execute("", -1, new BaseResultReceiver());
-        assertThat(session.deferredExecutionsByStmt.size()).isEqualTo(1);
+        assertThat(session.deferredExecutions.size()).isEqualTo(1);
         session.flush();
         var activeExecution = session.activeExecution;
         assertThat(activeExecution).isNotNull();
@@ -147,6 +148,38 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         assertThat(sync).isSameAs(activeExecution);
     }
 
+    @Test
+    public void test_only_consecutive_executions_of_same_statement_are_grouped() throws Exception {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService)
+            .addTable("create table users (name text)")
+            .overridePlanner(mock(Planner.class, Answers.RETURNS_MOCKS))
+            .build();
+        Session session = sqlExecutor.createSession();
+        session.parse("insert", "insert into users (name) values (?)", List.of());
+        session.parse("delete", "delete from users where name = ?", List.of());
+
+        session.bind("p1", "insert", List.of("Arthur"), null);
+        session.execute("p1", 0, new BaseResultReceiver());
+        session.bind("p2", "insert", List.of("Trillian"), null);
+        session.execute("p2", 0, new BaseResultReceiver());
+        assertThat(session.deferredExecutions).hasSize(1);
+
+        session.bind("p3", "delete", List.of("Arthur"), null);
+        session.execute("p3", 0, new BaseResultReceiver());
+        session.bind("p4", "insert", List.of("Marvin"), null);
+        session.execute("p4", 0, new BaseResultReceiver());
+
+        assertThat(session.deferredExecutions)
+            .extracting(group -> Lists.map(group, x -> x.portal().name()))
+            .containsExactly(
+                List.of("p1", "p2"),
+                List.of("p3"),
+                List.of("p4")
+            );
+        session.resetDeferredExecutions();
+        assertThat(session.deferredExecutions).isEmpty();
+    }
+
     @Test
     public void testProperCleanupOnSessionClose() {
         SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build();
@@ -163,13 +196,13 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
 
         assertThat(session.portals.size()).isEqualTo(2);
         assertThat(session.preparedStatements.size()).isEqualTo(2);
-        assertThat(session.deferredExecutionsByStmt.size()).isEqualTo(0);
+        assertThat(session.deferredExecutions.size()).isEqualTo(0);
 
         session.close();
 
         assertThat(session.portals.size()).isEqualTo(0);
         assertThat(session.preparedStatements.size()).isEqualTo(0);
-        assertThat(session.deferredExecutionsByStmt.size()).isEqualTo(0);
+        assertThat(session.deferredExecutions.size()).isEqualTo(0);
         assertThat(session.activeExecution).isNull();
     }
 
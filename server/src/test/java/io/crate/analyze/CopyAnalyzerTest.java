@@ -250,6 +250,13 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(analysis.compressionType()).isEqualTo(WriterProjection.CompressionType.GZIP);
     }
 
+    @Test
+    public void test_copy_to_with_lz4_compression() throws Exception {
+        BoundCopyTo analysis = analyze(
+            "COPY users TO DIRECTORY '/blah' WITH (compression='lz4')");
+        assertThat(analysis.compressionType()).isEqualTo(WriterProjection.CompressionType.LZ4);
+    }
+
     @Test
     public void testCopyToFileWithPartitionedTable() throws Exception {
         BoundCopyTo analysis = analyze("COPY parted TO DIRECTORY '/blah'");
@@ -335,6 +342,16 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
             .hasMessage("Output format not supported without specifying columns.");
     }
 
+    @Test
+    public void test_copy_to_columnar_format_requires_columns() throws Exception {
+        BoundCopyTo analysis = analyze("COPY users (id, name) TO DIRECTORY '/blah' WITH (format='columnar')");
+        assertThat(analysis.outputFormat()).isEqualTo(WriterProjection.OutputFormat.COLUMNAR);
+
+        assertThatThrownBy(() -> analyze("COPY users TO DIRECTORY '/blah' WITH (format='columnar')"))
+            .isExactlyInstanceOf(UnsupportedFeatureException.class)
+            .hasMessage("Output format not supported without specifying columns.");
+    }
+
     @Test
     public void testCopyFromWithReferenceAssignedToProperty() throws Exception {
         assertThatThrownBy(() -> analyze("COPY users FROM '/blah.txt' with (compression = gzip)"))
@@ -411,4 +428,25 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
             .isExactlyInstanceOf(UnsupportedOperationException.class)
             .hasMessage("Cannot use RETURN SUMMARY with wait_for_completion=false. Either set wait_for_completion=true, or remove RETURN SUMMARY");
     }
+
+    @Test
+    public void test_copy_from_stdin_has_no_uri() throws Exception {
+        BoundCopyFrom analysis = analyze("COPY users FROM STDIN");
+        assertThat(analysis.tableInfo().ident()).isEqualTo(USER_TABLE_IDENT);
+        assertThat(analysis.uri()).isNull();
+    }
+
+    @Test
+    public void test_copy_from_stdin_does_not_support_return_summary() throws Exception {
+        assertThatThrownBy(() -> analyze("COPY users FROM STDIN RETURN SUMMARY"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("RETURN SUMMARY is not supported with COPY FROM STDIN");
+    }
+
+    @Test
+    public void test_copy_from_stdin_does_not_support_wait_for_completion_false() throws Exception {
+        assertThatThrownBy(() -> analyze("COPY users FROM STDIN WITH (wait_for_completion = false)"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("Cannot use wait_for_completion=false with COPY FROM STDIN");
+    }
 }
@@ -29,7 +29,9 @@ import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERR
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.elasticsearch.cluster.metadata.IndexMetadata.INDEX_ROUTING_EXCLUDE_GROUP_SETTING;
+import static org.elasticsearch.index.codec.PerFieldMappingPostingFormatCodec.INDEX_KNN_QUANTIZATION_SETTING;
 import static org.elasticsearch.index.engine.EngineConfig.INDEX_CODEC_SETTING;
+import static org.elasticsearch.index.store.FsDirectoryFactory.INDEX_STORE_PRE_LOAD_SETTING;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -946,6 +948,26 @@ public class CreateAlterTableStatementAnalyzerTest extends CrateDummyClusterServ
             .hasMessage("Failed to parse value [-1] for setting [number_of_replicas] must be >= 0");
     }
 
+    @Test
+    public void test_create_table_with_knn_quantization() {
+        BoundCreateTable analysis = analyze("create table t (x float_vector(4)) with (\"knn.quantization\" = 'INT8')");
+        assertThat(analysis.tableParameter().settings().get(INDEX_KNN_QUANTIZATION_SETTING.getKey())).isEqualTo("int8");
+
+        assertThatThrownBy(() -> analyze("create table t (x float_vector(4)) with (\"knn.quantization\" = 'binary')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("unknown value for [index.knn.quantization] must be one of [none, int8] but was: binary");
+    }
+
+    @Test
+    public void test_create_table_with_store_preload() {
+        BoundCreateTable analysis = analyze("create table t (x int) with (\"store.preload\" = ['dvd', 'nvd'])");
+        assertThat(analysis.tableParameter().settings().getAsList(INDEX_STORE_PRE_LOAD_SETTING.getKey()))
+            .containsExactly("dvd", "nvd");
+
+        analysis = analyze("create table t (x int)");
+        assertThat(analysis.tableParameter().settings().hasValue(INDEX_STORE_PRE_LOAD_SETTING.getKey())).isFalse();
+    }
+
     @Test
     public void testCreateTableSameColumn() {
         // Same name, different type.
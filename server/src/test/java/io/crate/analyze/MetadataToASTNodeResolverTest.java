@@ -560,4 +560,17 @@ public class MetadataToASTNodeResolverTest extends CrateDummyClusterServiceUnitT
 
     }
 
+    @Test
+    public void test_store_preload_is_shown_as_array() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .addTable("create table t (x int) with (\"store.preload\" = ['dvd', 'nvd'])")
+            .build();
+        DocTableInfo table = e.resolveTableInfo("t");
+        CreateTable<?> node = MetadataToASTNodeResolver.resolveCreateTable(table);
+        assertThat(
+            SqlFormatter.formatSql(node),
+            Matchers.containsString("\"store.preload\" = ['dvd', 'nvd'],")
+        );
+    }
+
 }
@@ -137,6 +137,37 @@ public class WindowAggProjectionSerialisationTest {
         );
     }
 
+    @Test
+    public void test_presorted_flag_is_only_streamed_on_or_after_5_7_0() throws IOException {
+        FunctionImplementation sumFunctionImpl = getSumFunction();
+        WindowDefinition windowDef = new WindowDefinition(singletonList(Literal.of(1L)), null, null);
+        WindowFunction windowFunction = new WindowFunction(
+            sumFunctionImpl.signature(),
+            singletonList(Literal.of(2L)),
+            sumFunctionImpl.boundSignature().returnType(),
+            null,
+            windowDef,
+            null);
+        var windowAggProjection = new WindowAggProjection(
+            windowDef,
+            List.of(windowFunction),
+            List.of(Literal.of(42L)),
+            true);
+
+        var output = new BytesStreamOutput();
+        windowAggProjection.writeTo(output);
+        var actualWindowAggProjection = new WindowAggProjection(output.bytes().streamInput());
+        assertThat(actualWindowAggProjection.presorted(), is(true));
+        assertThat(actualWindowAggProjection, is(windowAggProjection));
+
+        output = new BytesStreamOutput();
+        output.setVersion(Version.V_5_6_0);
+        windowAggProjection.writeTo(output);
+        var input = output.bytes().streamInput();
+        input.setVersion(Version.V_5_6_0);
+        assertThat(new WindowAggProjection(input).presorted(), is(false));
+    }
+
     private FunctionImplementation getSumFunction() {
         return functions.getQualified(
             Signature.aggregate(
@@ -0,0 +1,144 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import static io.crate.testing.TestingHelpers.createNodeContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.common.MutableLong;
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchSimulatingIterator;
+import io.crate.data.testing.TestingBatchIterators;
+import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Literal;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.metadata.NodeContext;
+import io.crate.types.DataTypes;
+
+public class AdaptiveGroupingBatchIteratorTest extends ESTestCase {
+
+    private final NodeContext nodeCtx = createNodeContext();
+    private final List<Map<String, Object>> strategies = new ArrayList<>();
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private GroupingCollector<Object> countByKey(AggregateMode mode) {
+        AggregationFunction<?, ?> count = (AggregationFunction<?, ?>) nodeCtx.functions().getQualified(
+            CountAggregation.COUNT_STAR_SIGNATURE,
+            List.of(),
+            DataTypes.LONG
+        );
+        RowCollectExpression key = new RowCollectExpression(0);
+        return GroupingCollector.singleKey(
+            new CollectExpression[] { key },
+            mode,
+            new AggregationFunction[] { count },
+            new Input[][] { new Input[0] },
+            new Input[] { Literal.BOOLEAN_TRUE },
+            RamAccounting.NO_ACCOUNTING,
+            new OnHeapMemoryManager(bytes -> {}),
+            Version.CURRENT,
+            key,
+            DataTypes.INTEGER,
+            Version.CURRENT
+        );
+    }
+
+    private Supplier<BatchIterator<Row>> adaptiveGrouping(List<Integer> keys, int sampleSize) {
+        GroupingCollector<Object> collector = countByKey(AggregateMode.ITER_PARTIAL);
+        return () -> new AdaptiveGroupingBatchIterator<>(
+            new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(keys), 3, 7, null),
+            collector,
+            sampleSize,
+            strategies::add
+        );
+    }
+
+    @Test
+    public void test_only_partial_aggregations_with_fixed_size_states_support_pass_through() {
+        assertThat(countByKey(AggregateMode.ITER_PARTIAL).supportsPassThrough()).isTrue();
+        assertThat(countByKey(AggregateMode.ITER_FINAL).supportsPassThrough()).isFalse();
+        assertThat(countByKey(AggregateMode.PARTIAL_FINAL).supportsPassThrough()).isFalse();
+    }
+
+    @Test
+    public void test_rows_are_grouped_if_grouping_reduces_them() throws Exception {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            keys.add(i % 2);
+        }
+        var tester = BatchIteratorTester.forRows(adaptiveGrouping(keys, 5));
+        tester.verifyResultAndEdgeCaseBehaviour(List.of(
+            new Object[] { 0, new MutableLong(10) },
+            new Object[] { 1, new MutableLong(10) }
+        ));
+        assertThat(strategies).isNotEmpty();
+        assertThat(strategies.get(0))
+            .containsEntry("Strategy", "aggregate")
+            .containsEntry("SampledRows", 5L)
+            .containsEntry("Groups", 2);
+    }
+
+    @Test
+    public void test_rows_are_forwarded_if_grouping_does_not_reduce_them() throws Exception {
+        List<Integer> keys = new ArrayList<>();
+        List<Object[]> expectedResult = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            keys.add(i);
+            expectedResult.add(new Object[] { i, new MutableLong(1) });
+        }
+        var tester = BatchIteratorTester.forRows(adaptiveGrouping(keys, 5));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+        assertThat(strategies).isNotEmpty();
+        assertThat(strategies.get(0))
+            .containsEntry("Strategy", "pass_through")
+            .containsEntry("SampledRows", 5L)
+            .containsEntry("Groups", 5);
+    }
+
+    @Test
+    public void test_rows_are_grouped_if_source_has_less_rows_than_sample_size() throws Exception {
+        var tester = BatchIteratorTester.forRows(adaptiveGrouping(List.of(1, 2, 3), 5));
+        tester.verifyResultAndEdgeCaseBehaviour(List.of(
+            new Object[] { 1, new MutableLong(1) },
+            new Object[] { 2, new MutableLong(1) },
+            new Object[] { 3, new MutableLong(1) }
+        ));
+        assertThat(strategies).isEmpty();
+    }
+}
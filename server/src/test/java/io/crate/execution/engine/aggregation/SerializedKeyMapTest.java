@@ -0,0 +1,116 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.After;
+import org.junit.Test;
+
+import io.crate.memory.OffHeapMemoryManager;
+import io.crate.types.DataTypes;
+
+public class SerializedKeyMapTest extends ESTestCase {
+
+    private final OffHeapMemoryManager memoryManager = new OffHeapMemoryManager();
+
+    @After
+    public void releaseMemory() {
+        memoryManager.close();
+    }
+
+    @Test
+    public void test_many_keys_are_grouped_by_value_equality() {
+        SerializedKeyMap<List<Object>, Long> map = SerializedKeyMap.forManyKeys(
+            List.of(DataTypes.STRING, DataTypes.TIMESTAMPZ),
+            memoryManager
+        );
+        Map<List<Object>, Long> expected = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            List<Object> key = Arrays.asList("tenant-" + (i % 37), (long) (i % 11));
+            Long count = map.get(key);
+            map.put(key, count == null ? 1L : count + 1);
+            expected.merge(key, 1L, Long::sum);
+        }
+        assertThat(map).hasSize(expected.size());
+        assertThat(map).containsExactlyInAnyOrderEntriesOf(expected);
+    }
+
+    @Test
+    public void test_null_values_within_keys_are_supported() {
+        SerializedKeyMap<List<Object>, String> map = SerializedKeyMap.forManyKeys(
+            List.of(DataTypes.STRING, DataTypes.INTEGER),
+            memoryManager
+        );
+        map.put(Arrays.asList(null, 1), "a");
+        map.put(Arrays.asList("x", null), "b");
+        map.put(Arrays.asList(null, null), "c");
+
+        assertThat(map.get(Arrays.asList(null, 1))).isEqualTo("a");
+        assertThat(map.get(Arrays.asList("x", null))).isEqualTo("b");
+        assertThat(map.get(Arrays.asList(null, null))).isEqualTo("c");
+        assertThat(map.get(Arrays.asList(null, 2))).isNull();
+    }
+
+    @Test
+    public void test_single_string_key_with_null_and_large_values() {
+        SerializedKeyMap<String, Integer> map = SerializedKeyMap.forSingleKey(DataTypes.STRING, memoryManager);
+        String large = "a".repeat(2 * 1024 * 1024);
+        map.put(null, 1);
+        map.put(large, 2);
+        map.put("b", 3);
+
+        assertThat(map.get(null)).isEqualTo(1);
+        assertThat(map.get(large)).isEqualTo(2);
+        assertThat(map.get("b")).isEqualTo(3);
+
+        List<String> keys = new ArrayList<>(map.keySet());
+        assertThat(keys).containsExactly(null, large, "b");
+    }
+
+    @Test
+    public void test_clear_removes_all_entries() {
+        SerializedKeyMap<String, Integer> map = SerializedKeyMap.forSingleKey(DataTypes.STRING, memoryManager);
+        map.put("a", 1);
+        map.clear();
+        assertThat(map).isEmpty();
+        assertThat(map.get("a")).isNull();
+        map.put("b", 2);
+        assertThat(map).containsExactly(Map.entry("b", 2));
+    }
+
+    @Test
+    public void test_uses_serialized_keys_for_strings_and_multiple_keys_only() {
+        assertThat(GroupByMaps.useSerializedKeys(List.of(DataTypes.STRING))).isTrue();
+        assertThat(GroupByMaps.useSerializedKeys(List.of(DataTypes.LONG))).isFalse();
+        assertThat(GroupByMaps.useSerializedKeys(List.of(DataTypes.LONG, DataTypes.INTEGER))).isTrue();
+        assertThat(GroupByMaps.useSerializedKeys(List.of(DataTypes.STRING, DataTypes.UNTYPED_OBJECT))).isFalse();
+        assertThat(GroupByMaps.useSerializedKeys(List.of(DataTypes.INTERVAL))).isFalse();
+    }
+}
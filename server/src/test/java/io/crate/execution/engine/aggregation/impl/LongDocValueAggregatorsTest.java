@@ -0,0 +1,232 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation.impl;
+
+import static io.crate.testing.Asserts.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.Version;
+import org.junit.Test;
+
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.metadata.Reference;
+import io.crate.metadata.SearchPath;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.operation.aggregation.AggregationTestCase;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Tests that the block based {@link DocValueAggregator#apply(io.crate.data.breaker.RamAccounting, int[], int, Object)}
+ * of the integral min, max and sum aggregators yields the same results as applying the documents one by one.
+ */
+public class LongDocValueAggregatorsTest extends AggregationTestCase {
+
+    private static final List<String> FUNCTIONS = List.of(
+        MaximumAggregation.NAME,
+        MinimumAggregation.NAME,
+        SumAggregation.NAME
+    );
+
+    private final List<DataType<?>> argumentTypes = List.of(DataTypes.LONG);
+    private final Reference reference = toReference(argumentTypes).get(0);
+
+    @Test
+    public void test_block_and_per_doc_aggregation_over_several_segments_with_missing_values() throws Exception {
+        int numSegments = randomIntBetween(2, 4);
+        long[][][] segments = new long[numSegments][][];
+        List<Long> values = new ArrayList<>();
+        for (int s = 0; s < numSegments; s++) {
+            long[][] docs = new long[randomIntBetween(1, 200)][];
+            for (int d = 0; d < docs.length; d++) {
+                if (rarely()) {
+                    // multi-valued documents are skipped by the aggregators
+                    docs[d] = new long[] { randomIntBetween(-1000, 1000), randomIntBetween(-1000, 1000) };
+                } else if (randomIntBetween(0, 4) == 0) {
+                    docs[d] = new long[0];
+                } else {
+                    long value = randomIntBetween(-1000, 1000);
+                    docs[d] = new long[] { value };
+                    values.add(value);
+                }
+            }
+            segments[s] = docs;
+        }
+        try (Directory directory = newDirectory()) {
+            index(directory, segments);
+            try (IndexReader reader = DirectoryReader.open(directory)) {
+                assertThat(reader.leaves()).hasSize(numSegments);
+                assertAggregation(reader, MaximumAggregation.NAME,
+                    values.isEmpty() ? null : values.stream().mapToLong(x -> x).max().getAsLong());
+                assertAggregation(reader, MinimumAggregation.NAME,
+                    values.isEmpty() ? null : values.stream().mapToLong(x -> x).min().getAsLong());
+                assertAggregation(reader, SumAggregation.NAME,
+                    values.isEmpty() ? null : values.stream().mapToLong(x -> x).sum());
+            }
+        }
+    }
+
+    @Test
+    public void test_segments_without_values_keep_the_state() throws Exception {
+        long[][][] segments = new long[][][] {
+            { {}, {} },
+            { {}, { 7 }, {}, { -3 } },
+            { {} }
+        };
+        try (Directory directory = newDirectory()) {
+            index(directory, segments);
+            try (IndexReader reader = DirectoryReader.open(directory)) {
+                assertAggregation(reader, MaximumAggregation.NAME, 7L);
+                assertAggregation(reader, MinimumAggregation.NAME, -3L);
+                assertAggregation(reader, SumAggregation.NAME, 4L);
+            }
+        }
+    }
+
+    @Test
+    public void test_no_values_result_in_null() throws Exception {
+        long[][][] segments = new long[][][] {
+            { {}, {} },
+            { {}, { 1, 2 } }
+        };
+        try (Directory directory = newDirectory()) {
+            index(directory, segments);
+            try (IndexReader reader = DirectoryReader.open(directory)) {
+                for (String function : FUNCTIONS) {
+                    assertAggregation(reader, function, null);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_sum_overflow_throws_arithmetic_exception_in_block_and_per_doc_path() throws Exception {
+        List<long[][][]> overflowingSegments = List.of(
+            new long[][][] { { { Long.MAX_VALUE }, {}, { 1 } } },
+            new long[][][] { { { Long.MAX_VALUE } }, { {}, { 1 } } },
+            new long[][][] { { { Long.MIN_VALUE }, { -1 } } }
+        );
+        for (long[][][] segments : overflowingSegments) {
+            try (Directory directory = newDirectory()) {
+                index(directory, segments);
+                try (IndexReader reader = DirectoryReader.open(directory)) {
+                    assertThatThrownBy(() -> aggregatePerDoc(reader, SumAggregation.NAME))
+                        .isExactlyInstanceOf(ArithmeticException.class)
+                        .hasMessage("long overflow");
+                    assertThatThrownBy(() -> aggregateBlocks(reader, SumAggregation.NAME, randomIntBetween(1, 4)))
+                        .isExactlyInstanceOf(ArithmeticException.class)
+                        .hasMessage("long overflow");
+                }
+            }
+        }
+    }
+
+    private void assertAggregation(IndexReader reader, String function, Object expected) throws IOException {
+        assertThat(aggregatePerDoc(reader, function)).as(function).isEqualTo(expected);
+        assertThat(aggregateBlocks(reader, function, 1)).as(function).isEqualTo(expected);
+        assertThat(aggregateBlocks(reader, function, randomIntBetween(2, 64))).as(function).isEqualTo(expected);
+        assertThat(aggregateBlocks(reader, function, 1024)).as(function).isEqualTo(expected);
+    }
+
+    private void index(Directory directory, long[][][] segments) throws IOException {
+        var config = new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        try (var writer = new IndexWriter(directory, config)) {
+            for (long[][] docs : segments) {
+                for (long[] docValues : docs) {
+                    Document doc = new Document();
+                    for (long value : docValues) {
+                        doc.add(new SortedNumericDocValuesField(reference.storageIdent(), value));
+                    }
+                    writer.addDocument(doc);
+                }
+                writer.commit();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private DocValueAggregator<Object> aggregator(String function) {
+        var aggregationFunction = (AggregationFunction<?, ?>) nodeCtx.functions().get(
+            null,
+            function,
+            InputColumn.mapToInputColumns(argumentTypes),
+            SearchPath.pathWithPGCatalogAndDoc()
+        );
+        return (DocValueAggregator<Object>) aggregationFunction.getDocValueAggregator(
+            mock(LuceneReferenceResolver.class),
+            List.of(reference),
+            mock(DocTableInfo.class),
+            List.of()
+        );
+    }
+
+    private Object aggregatePerDoc(IndexReader reader, String function) throws IOException {
+        DocValueAggregator<Object> aggregator = aggregator(function);
+        Object state = aggregator.initialState(RAM_ACCOUNTING, memoryManager, Version.CURRENT);
+        for (LeafReaderContext leaf : reader.leaves()) {
+            aggregator.loadDocValues(leaf);
+            for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                aggregator.apply(RAM_ACCOUNTING, doc, state);
+            }
+        }
+        return aggregator.partialResult(RAM_ACCOUNTING, state);
+    }
+
+    private Object aggregateBlocks(IndexReader reader, String function, int blockSize) throws IOException {
+        DocValueAggregator<Object> aggregator = aggregator(function);
+        Object state = aggregator.initialState(RAM_ACCOUNTING, memoryManager, Version.CURRENT);
+        int[] docs = new int[blockSize];
+        for (LeafReaderContext leaf : reader.leaves()) {
+            aggregator.loadDocValues(leaf);
+            int numDocs = 0;
+            for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                docs[numDocs++] = doc;
+                if (numDocs == blockSize) {
+                    aggregator.apply(RAM_ACCOUNTING, docs, numDocs, state);
+                    numDocs = 0;
+                }
+            }
+            if (numDocs > 0) {
+                aggregator.apply(RAM_ACCOUNTING, docs, numDocs, state);
+            }
+        }
+        return aggregator.partialResult(RAM_ACCOUNTING, state);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation.impl.templates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class NumericDocValuesBlockTest extends ESTestCase {
+
+    @Test
+    public void test_read_skips_documents_without_value_and_with_multiple_values() throws Exception {
+        try (Directory directory = newDirectory()) {
+            try (var writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                long[][] docs = new long[][] { { 10 }, {}, { 20, 21 }, { -30 }, {}, { 40 } };
+                for (long[] values : docs) {
+                    Document doc = new Document();
+                    for (long value : values) {
+                        doc.add(new SortedNumericDocValuesField("x", value));
+                    }
+                    writer.addDocument(doc);
+                }
+                writer.forceMerge(1);
+            }
+            try (var reader = DirectoryReader.open(directory)) {
+                LeafReader leafReader = reader.leaves().get(0).reader();
+                var block = new NumericDocValuesBlock();
+
+                int numValues = block.read(DocValues.getSortedNumeric(leafReader, "x"), new int[] { 0, 1, 2, 3, 4, 5 }, 6);
+                assertThat(numValues).isEqualTo(3);
+                assertThat(block.values()).startsWith(10, -30, 40);
+
+                numValues = block.read(DocValues.getSortedNumeric(leafReader, "x"), new int[] { 1, 4, 5 }, 2);
+                assertThat(numValues).isEqualTo(0);
+
+                numValues = block.read(DocValues.getSortedNumeric(leafReader, "x"), new int[] { 3, 5 }, 2);
+                assertThat(numValues).isEqualTo(2);
+                assertThat(block.values()).startsWith(-30, 40);
+            }
+        }
+    }
+
+    @Test
+    public void test_read_of_field_missing_in_segment_returns_no_values() throws Exception {
+        try (Directory directory = newDirectory()) {
+            try (var writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                writer.addDocument(new Document());
+            }
+            try (var reader = DirectoryReader.open(directory)) {
+                LeafReader leafReader = reader.leaves().get(0).reader();
+                var block = new NumericDocValuesBlock();
+                assertThat(block.read(DocValues.getSortedNumeric(leafReader, "x"), new int[] { 0 }, 1)).isEqualTo(0);
+            }
+        }
+    }
+}
@@ -52,12 +52,15 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
+import io.crate.execution.engine.export.Lz4FrameOutputStream;
 
 public class FileReadingCollectorTest extends ESTestCase {
     private static ThreadPool THREAD_POOL;
     private static File tmpFile;
     private static File tmpFileGz;
+    private static File tmpFileLz4;
     private static File tmpFileEmptyLine;
 
     private static String line1 = "{\"name\": \"Arthur\", \"id\": 4, \"details\": {\"age\": 38}}";
@@ -75,6 +78,8 @@ public class FileReadingCollectorTest extends ESTestCase {
         Path copy_from = Files.createTempDirectory("copy_from");
         Path copy_from_gz = Files.createTempDirectory("copy_from_gz");
         Path copy_from_empty = Files.createTempDirectory("copy_from_empty");
+        Path copy_from_lz4 = Files.createTempDirectory("copy_from_lz4");
+        tmpFileLz4 = File.createTempFile("fileReadingCollector", ".json.lz4", copy_from_lz4.toFile());
         tmpFileGz = File.createTempFile("fileReadingCollector", ".json.gz", copy_from_gz.toFile());
         tmpFile = File.createTempFile("fileReadingCollector", ".json", copy_from.toFile());
         tmpFileEmptyLine = File.createTempFile("emptyLine", ".json", copy_from_empty.toFile());
@@ -86,6 +91,14 @@ public class FileReadingCollectorTest extends ESTestCase {
             writer.write(line2);
             writer.write("\n");
         }
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new Lz4FrameOutputStream(
+                    new FileOutputStream(tmpFileLz4), Runnable::run, 1, RamAccounting.NO_ACCOUNTING), StandardCharsets.UTF_8))) {
+            writer.write(line1);
+            writer.write("\n");
+            writer.write(line2);
+            writer.write("\n");
+        }
         try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8)) {
             writer.write(line1);
             writer.write("\n");
@@ -107,6 +120,7 @@ public class FileReadingCollectorTest extends ESTestCase {
     public static void tearDownClass() throws Exception {
         assertThat(tmpFile.delete()).isTrue();
         assertThat(tmpFileGz.delete()).isTrue();
+        assertThat(tmpFileLz4.delete()).isTrue();
         assertThat(tmpFileEmptyLine.delete()).isTrue();
         ThreadPool.terminate(THREAD_POOL, 30, TimeUnit.SECONDS);
     }
@@ -157,6 +171,21 @@ public class FileReadingCollectorTest extends ESTestCase {
         assertThat(result).containsExactly(expectedResult(tmpFileGz));
     }
 
+    @Test
+    public void test_collect_detects_compression_if_not_set() throws Throwable {
+        List<LineCursor> result = collect(fileToURI(tmpFileGz).toString());
+        assertThat(result).containsExactly(expectedResult(tmpFileGz));
+
+        result = collect(fileToURI(tmpFileLz4).toString());
+        assertThat(result).containsExactly(expectedResult(tmpFileLz4));
+    }
+
+    @Test
+    public void test_collect_from_lz4_compressed() throws Throwable {
+        List<LineCursor> result = collect(Collections.singletonList(fileToURI(tmpFileLz4).toString()), "lz4");
+        assertThat(result).containsExactly(expectedResult(tmpFileLz4));
+    }
+
     @Test
     public void testCollectWithEmptyLine() throws Throwable {
         List<LineCursor> result = collect(fileToURI(tmpFileEmptyLine).toString());
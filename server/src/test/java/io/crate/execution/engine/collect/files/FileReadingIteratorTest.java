@@ -38,12 +38,15 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.elasticsearch.common.settings.Settings;
@@ -56,8 +59,12 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import io.crate.data.BatchIterator;
+import io.crate.data.Row1;
 import io.crate.data.testing.BatchIteratorTester;
+import io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat;
 import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
+import io.crate.execution.engine.export.ColumnarFileWriter;
+import io.crate.types.DataTypes;
 
 public class FileReadingIteratorTest extends ESTestCase {
 
@@ -272,4 +279,154 @@ public class FileReadingIteratorTest extends ESTestCase {
                 assertThat(fi.currentElement().line()).isEqualTo("4");
             });
     }
+
+    @Test
+    public void test_row_groups_of_columnar_file_on_shared_storage_are_distributed_among_readers() throws Exception {
+        Path tempFile = createTempFile("tempfile1", ".col");
+        int numRows = 25_000;
+        try (var writer = new ColumnarFileWriter(Files.newOutputStream(tempFile), List.of("id"), List.of(DataTypes.INTEGER))) {
+            for (int i = 0; i < numRows; i++) {
+                writer.write(new Row1(i));
+            }
+        }
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        List<Object> ids = new ArrayList<>();
+        for (int readerNumber = 0; readerNumber < 2; readerNumber++) {
+            var fi = new FileReadingIterator(
+                fileUris,
+                null,
+                Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                true,
+                2,
+                readerNumber,
+                Settings.EMPTY,
+                THREAD_POOL.scheduler(),
+                InputFormat.COLUMNAR,
+                FileReadingIterator.Split.NONE
+            );
+            int numReadRows = 0;
+            while (fi.moveNext()) {
+                LineCursor cursor = fi.currentElement();
+                assertThat(cursor.failure()).isNull();
+                assertThat(cursor.lineNumber()).isEqualTo((int) cursor.document().get("id") + 1L);
+                ids.add(cursor.document().get("id"));
+                numReadRows++;
+            }
+            fi.close();
+            assertThat(numReadRows).isLessThan(numRows);
+        }
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(IntStream.range(0, numRows).boxed().toList());
+    }
+
+    @Test
+    public void test_chunks_of_large_file_are_read_by_workers_on_line_boundaries() throws Exception {
+        Path tempFile = createTempFile("tempfile1", ".json");
+        List<String> lines = IntStream.range(0, 500)
+            .mapToObj(i -> "{\"id\": " + i + ", \"name\": \"" + "x".repeat(i % 13) + "\"}")
+            .toList();
+        Files.write(tempFile, lines);
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        int numWorkers = 3;
+        List<String> readLines = new ArrayList<>();
+        long bytesRead = 0;
+        for (int worker = 0; worker < numWorkers; worker++) {
+            var fi = new FileReadingIterator(
+                fileUris,
+                null,
+                Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                false,
+                1,
+                0,
+                Settings.EMPTY,
+                THREAD_POOL.scheduler(),
+                InputFormat.JSON,
+                new FileReadingIterator.Split(numWorkers, worker, randomIntBetween(10, 200), false)
+            );
+            List<String> linesOfWorker = new ArrayList<>();
+            while (fi.moveNext()) {
+                assertThat(fi.currentElement().failure()).isNull();
+                linesOfWorker.add(fi.currentElement().line());
+            }
+            fi.close();
+            assertThat(linesOfWorker).hasSizeLessThan(lines.size());
+            readLines.addAll(linesOfWorker);
+            bytesRead += fi.bytesRead();
+        }
+        assertThat(readLines).containsExactlyInAnyOrderElementsOf(lines);
+        assertThat(bytesRead).isGreaterThanOrEqualTo(Files.size(tempFile));
+    }
+
+    @Test
+    public void test_csv_header_is_prepended_to_first_chunk_of_worker() throws Exception {
+        Path tempFile = createTempFile("tempfile1", ".csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("id,name");
+        for (int i = 0; i < 100; i++) {
+            lines.add(i + ",name" + i);
+        }
+        Files.write(tempFile, lines);
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        int numWorkers = 2;
+        List<String> readLines = new ArrayList<>();
+        for (int worker = 0; worker < numWorkers; worker++) {
+            var fi = new FileReadingIterator(
+                fileUris,
+                null,
+                Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                false,
+                1,
+                0,
+                Settings.EMPTY,
+                THREAD_POOL.scheduler(),
+                InputFormat.CSV,
+                new FileReadingIterator.Split(numWorkers, worker, 100, true)
+            );
+            assertThat(fi.moveNext()).isTrue();
+            assertThat(fi.currentElement().line()).isEqualTo("id,name");
+            while (fi.moveNext()) {
+                readLines.add(fi.currentElement().line());
+            }
+            fi.close();
+        }
+        assertThat(readLines).containsExactlyInAnyOrderElementsOf(lines.subList(1, lines.size()));
+    }
+
+    @Test
+    public void test_lz4_file_is_decompressed_and_not_split_into_chunks() throws Exception {
+        // Frame as written by the lz4 command line tool: 64KB blocks, a content checksum,
+        // a compressed block followed by a block which is stored uncompressed.
+        String path = Paths.get(getClass().getResource("/essetup/data/copy/test_copy_from.json.lz4").toURI())
+            .toUri().toString();
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(path));
+
+        int numWorkers = 2;
+        List<String> readLines = new ArrayList<>();
+        for (int worker = 0; worker < numWorkers; worker++) {
+            var fi = new FileReadingIterator(
+                fileUris,
+                null,
+                Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                false,
+                1,
+                0,
+                Settings.EMPTY,
+                THREAD_POOL.scheduler(),
+                InputFormat.JSON,
+                new FileReadingIterator.Split(numWorkers, worker, 10, false)
+            );
+            while (fi.moveNext()) {
+                assertThat(fi.currentElement().failure()).isNull();
+                readLines.add(fi.currentElement().line());
+            }
+            fi.close();
+        }
+        assertThat(readLines).containsExactly(
+            "{\"id\": 1, \"name\": \"Arthur\"}",
+            "{\"id\": 2, \"name\": \"Trillian\"}",
+            "{\"id\": 3, \"name\": \"Ford\"}"
+        );
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.files;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchSimulatingIterator;
+import io.crate.data.testing.TestingBatchIterators;
+
+public class PrefetchingBatchIteratorTest extends ESTestCase {
+
+    private static final List<Object[]> EXPECTED = IntStream.range(0, 10)
+        .mapToObj(i -> new Object[] { i })
+        .toList();
+
+    @Test
+    public void test_prefetching_iterator_returns_all_rows_of_source() throws Exception {
+        var tester = BatchIteratorTester.forRows(
+            () -> new PrefetchingBatchIterator(TestingBatchIterators.range(0, 10), 1, 3));
+        tester.verifyResultAndEdgeCaseBehaviour(EXPECTED);
+    }
+
+    @Test
+    public void test_prefetching_iterator_loads_batches_of_source() throws Exception {
+        var tester = BatchIteratorTester.forRows(
+            () -> new PrefetchingBatchIterator(
+                new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 10), 2, 5, null), 1, 3));
+        tester.verifyResultAndEdgeCaseBehaviour(EXPECTED);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.common.unit.TimeValue;
+import io.crate.exceptions.JobKilledException;
+import io.crate.execution.jobs.TasksService;
+
+public class StdinInputStreamTest extends ESTestCase {
+
+    @Test
+    public void test_reads_written_chunks_until_finished() throws Exception {
+        StdinInputStream stream = new StdinInputStream(readFromClient -> {});
+        List<String> lines = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            try (var in = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        reader.start();
+        stream.write("{\"x\": 1}\n{\"x\"".getBytes(StandardCharsets.UTF_8));
+        stream.write(": 2}\n".getBytes(StandardCharsets.UTF_8));
+        stream.finish();
+        reader.join(5000);
+
+        assertThat(reader.isAlive()).isFalse();
+        assertThat(lines).containsExactly("{\"x\": 1}", "{\"x\": 2}");
+    }
+
+    @Test
+    public void test_read_fails_if_client_aborted() throws Exception {
+        StdinInputStream stream = new StdinInputStream(readFromClient -> {});
+        stream.write(new byte[] { 1, 2 });
+        stream.fail("COPY from stdin failed: aborted");
+
+        assertThatThrownBy(stream::read)
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("COPY from stdin failed: aborted");
+    }
+
+    @Test
+    public void test_pauses_reading_from_client_if_too_much_data_is_buffered() throws Exception {
+        List<Boolean> readFromClient = new ArrayList<>();
+        StdinInputStream stream = new StdinInputStream(readFromClient::add);
+        byte[] chunk = new byte[StdinInputStream.MAX_BUFFERED_BYTES / 4];
+        for (int i = 0; i < 5; i++) {
+            stream.write(chunk);
+        }
+        assertThat(readFromClient).containsExactly(false);
+
+        byte[] buffer = new byte[chunk.length];
+        for (int i = 0; i < 4; i++) {
+            assertThat(stream.read(buffer, 0, buffer.length)).isEqualTo(chunk.length);
+        }
+        assertThat(readFromClient).containsExactly(false, true);
+    }
+
+    @Test
+    public void test_close_discards_data_and_resumes_reading_from_client() throws Exception {
+        List<Boolean> readFromClient = new ArrayList<>();
+        StdinInputStream stream = new StdinInputStream(readFromClient::add);
+        stream.write(new byte[StdinInputStream.MAX_BUFFERED_BYTES + 1]);
+        stream.close();
+        stream.write(new byte[] { 1 });
+
+        assertThat(readFromClient).containsExactly(false, true);
+        assertThatThrownBy(stream::read)
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Stream closed");
+    }
+
+    @Test
+    public void test_read_fails_if_client_does_not_send_data_within_idle_timeout() throws Exception {
+        StdinInputStream stream = new StdinInputStream(readFromClient -> {}, TimeValue.timeValueMillis(10));
+
+        assertThatThrownBy(stream::read)
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Timed out after 10ms waiting for data from the client");
+    }
+
+    @Test
+    public void test_killing_the_job_releases_a_blocked_reader() throws Exception {
+        StdinFileInputFactory stdinInputs = new StdinFileInputFactory(mock(TasksService.class));
+        UUID jobId = UUID.randomUUID();
+        StdinInputStream stream = new StdinInputStream(readFromClient -> {});
+        stdinInputs.register(jobId, stream);
+        URI uri = StdinFileInputFactory.uri(jobId);
+        FileInput fileInput = stdinInputs.create(uri, Settings.EMPTY);
+        InputStream in = fileInput.getStream(uri);
+        assertThatThrownBy(() -> fileInput.getStream(uri))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("No data from STDIN available for job " + jobId);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                in.read();
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        stdinInputs.killJob(jobId);
+        reader.join(5000);
+
+        assertThat(reader.isAlive()).isFalse();
+        assertThat(failure.get()).hasMessage(JobKilledException.MESSAGE);
+    }
+}
@@ -63,11 +63,17 @@ public class DistributedResultRequestTest extends ESTestCase {
         StreamInput in = out.bytes().streamInput();
         DistributedResultRequest r2 = new DistributedResultRequest(in);
 
-        assertEquals(r1.readRows(streamers).size(), r2.readRows(streamers).size());
+        assertEquals(
+            r1.readRows(streamers, RamAccounting.NO_ACCOUNTING).size(),
+            r2.readRows(streamers, RamAccounting.NO_ACCOUNTING).size()
+        );
         assertThat(r1.isLast(), is(r2.isLast()));
         assertThat(r1.executionPhaseInputId(), is(r2.executionPhaseInputId()));
 
-        assertThat(r2.readRows(streamers), contains(isRow("ab"), isNullRow(), isRow("cd")));
+        assertThat(
+            r2.readRows(streamers, RamAccounting.NO_ACCOUNTING),
+            contains(isRow("ab"), isNullRow(), isRow("cd"))
+        );
     }
 
     @Test
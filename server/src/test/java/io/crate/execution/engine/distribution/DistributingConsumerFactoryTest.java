@@ -58,7 +58,8 @@ public class DistributingConsumerFactoryTest extends CrateDummyClusterServiceUni
         rowDownstreamFactory = new DistributingConsumerFactory(
             clusterService,
             THREAD_POOL,
-            mock(Node.class)
+            mock(Node.class),
+            new PageCompression(false)
         );
     }
 
@@ -173,7 +173,8 @@ public class DistributingConsumerTest extends ESTestCase {
             0,
             Collections.singletonList("n1"),
             distributedResultAction::execute,
-            2 // pageSize
+            2, // pageSize
+            null
         );
     }
 
@@ -207,9 +208,10 @@ public class DistributingConsumerTest extends ESTestCase {
             PageBucketReceiver bucketReceiver = distResultRXTask.getBucketReceiver(resultRequest.executionPhaseInputId());
             assertThat(bucketReceiver).isNotNull();
             if (throwable == null) {
+                RamAccounting ramAccounting = distResultRXTask.ramAccounting(resultRequest.executionPhaseInputId());
                 bucketReceiver.setBucket(
                     resultRequest.bucketIdx(),
-                    resultRequest.readRows(streamers),
+                    resultRequest.readRows(streamers, ramAccounting),
                     resultRequest.isLast(),
                     needMore -> listener.onResponse(new DistributedResultResponse(needMore)));
             } else {
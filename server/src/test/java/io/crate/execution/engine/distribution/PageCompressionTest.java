@@ -0,0 +1,187 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.distribution;
+
+import static io.crate.testing.Asserts.assertThat;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.types.DataTypes;
+
+public class PageCompressionTest extends ESTestCase {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[] { DataTypes.STRING.streamer(), DataTypes.INTEGER.streamer() };
+
+    private static StreamBucket bucket(int numRows) {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, RamAccounting.NO_ACCOUNTING);
+        for (int i = 0; i < numRows; i++) {
+            builder.add(new RowN("some repetitive value " + (i % 10), i));
+        }
+        return builder.build();
+    }
+
+    private static List<Object[]> rows(StreamBucket bucket) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Row row : bucket) {
+            rows.add(row.materialize());
+        }
+        return rows;
+    }
+
+    private static StreamBucket roundTrip(StreamBucket bucket, Version version) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(version);
+        bucket.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(version);
+        return new StreamBucket(in, STREAMERS);
+    }
+
+    @Test
+    public void test_large_page_is_compressed_and_rows_are_decompressed_on_read() throws Exception {
+        PageCompression pageCompression = new PageCompression(true);
+        StreamBucket bucket = bucket(1000);
+        bucket.compressor(pageCompression.newCompressor());
+
+        BytesStreamOutput uncompressedOut = new BytesStreamOutput();
+        bucket(1000).writeTo(uncompressedOut);
+        BytesStreamOutput out = new BytesStreamOutput();
+        bucket.writeTo(out);
+        assertThat(out.size()).isLessThan(uncompressedOut.size());
+
+        StreamBucket received = new StreamBucket(out.bytes().streamInput(), STREAMERS);
+        assertThat(received.size()).isEqualTo(1000);
+        assertThat(rows(received)).containsExactlyElementsOf(rows(bucket(1000)));
+
+        assertThat(pageCompression.bytesSaved()).isGreaterThan(0L);
+        assertThat(pageCompression.bytesSent() + pageCompression.bytesSaved())
+            .isGreaterThanOrEqualTo(PageCompression.MIN_PAGE_BYTES);
+    }
+
+    @Test
+    public void test_compressed_bucket_can_be_forwarded_and_sent_to_old_nodes() throws Exception {
+        StreamBucket bucket = bucket(1000);
+        bucket.compressor(new PageCompression(true).newCompressor());
+        StreamBucket received = roundTrip(bucket, Version.CURRENT);
+
+        StreamBucket forwarded = roundTrip(received, Version.CURRENT);
+        assertThat(rows(forwarded)).containsExactlyElementsOf(rows(bucket(1000)));
+
+        StreamBucket sentToOldNode = roundTrip(roundTrip(bucket, Version.CURRENT), Version.V_5_6_0);
+        assertThat(rows(sentToOldNode)).containsExactlyElementsOf(rows(bucket(1000)));
+    }
+
+    @Test
+    public void test_bucket_sent_to_several_nodes_is_compressed_once() throws Exception {
+        PageCompression pageCompression = new PageCompression(true);
+        StreamBucket bucket = bucket(1000);
+        bucket.compressor(pageCompression.newCompressor());
+
+        BytesStreamOutput first = new BytesStreamOutput();
+        bucket.writeTo(first);
+        long sentPerPage = pageCompression.bytesSent();
+        long savedPerPage = pageCompression.bytesSaved();
+        assertThat(savedPerPage).isGreaterThan(0L);
+
+        // Written again, e.g. to another node or on a retry, the page is counted once
+        bucket.writeTo(new BytesStreamOutput());
+        assertThat(pageCompression.bytesSent()).isEqualTo(sentPerPage);
+        assertThat(pageCompression.bytesSaved()).isEqualTo(savedPerPage);
+
+        // A compressor which doesn't compress anymore shows that the compressed bytes are reused
+        PageCompression disabled = new PageCompression(false);
+        bucket.compressor(disabled.newCompressor());
+        BytesStreamOutput second = new BytesStreamOutput();
+        bucket.writeTo(second);
+        assertThat(second.bytes()).isEqualTo(first.bytes());
+        assertThat(disabled.bytesSent()).isEqualTo(0L);
+
+        StreamBucket received = new StreamBucket(second.bytes().streamInput(), STREAMERS);
+        assertThat(rows(received)).containsExactlyElementsOf(rows(bucket(1000)));
+    }
+
+    @Test
+    public void test_small_pages_and_disabled_compression_send_raw_bytes() throws Exception {
+        PageCompression enabled = new PageCompression(true);
+        PageCompression.Compressor compressor = enabled.newCompressor();
+        BytesArray small = new BytesArray(new byte[PageCompression.MIN_PAGE_BYTES - 1]);
+        assertThat(compressor.maybeCompress(small)).isNull();
+        assertThat(enabled.bytesSent()).isEqualTo(PageCompression.MIN_PAGE_BYTES - 1);
+        assertThat(enabled.bytesSaved()).isEqualTo(0L);
+
+        PageCompression disabled = new PageCompression(false);
+        BytesArray large = new BytesArray(new byte[PageCompression.MIN_PAGE_BYTES * 4]);
+        assertThat(disabled.newCompressor().maybeCompress(large)).isNull();
+        assertThat(disabled.bytesSaved()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_compression_is_skipped_for_next_pages_after_poor_ratio() throws Exception {
+        PageCompression pageCompression = new PageCompression(true);
+        PageCompression.Compressor compressor = pageCompression.newCompressor();
+        BytesArray incompressible = new BytesArray(randomByteArrayOfLength(PageCompression.MIN_PAGE_BYTES * 2));
+        BytesArray compressible = new BytesArray(new byte[PageCompression.MIN_PAGE_BYTES * 2]);
+
+        assertThat(compressor.maybeCompress(incompressible)).isNull();
+        for (int i = 0; i < PageCompression.PAGES_TO_SKIP_AFTER_POOR_RATIO; i++) {
+            assertThat(compressor.maybeCompress(compressible)).isNull();
+        }
+        assertThat(compressor.maybeCompress(compressible)).isNotNull();
+    }
+
+    @Test
+    public void test_decompressed_rows_are_accounted_while_they_are_read() throws Exception {
+        StreamBucket bucket = bucket(1000);
+        bucket.compressor(new PageCompression(true).newCompressor());
+        BytesStreamOutput out = new BytesStreamOutput();
+        bucket.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        assertThat(in.readVInt()).isEqualTo(1000);
+        assertThat(in.readBoolean()).isTrue();
+        int uncompressedLength = in.readVInt();
+
+        var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", 0);
+        StreamBucket received = new StreamBucket(out.bytes().streamInput(), STREAMERS);
+        received.ramAccounting(ramAccounting);
+        Iterator<Row> it = received.iterator();
+        assertThat(ramAccounting.totalBytes()).isEqualTo(uncompressedLength);
+        while (it.hasNext()) {
+            it.next();
+        }
+        assertThat(ramAccounting.totalBytes()).isZero();
+    }
+}
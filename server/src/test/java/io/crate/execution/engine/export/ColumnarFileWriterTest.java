@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.files.ColumnarFileReader;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class ColumnarFileWriterTest extends ESTestCase {
+
+    private static final List<String> NAMES = List.of("id", "name", "tags", "obj");
+    private static final List<DataType<?>> TYPES = List.of(
+        DataTypes.INTEGER,
+        DataTypes.STRING,
+        DataTypes.STRING_ARRAY,
+        DataTypes.UNTYPED_OBJECT
+    );
+
+    private static BytesStreamOutput write(int numRows) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(out, NAMES, TYPES)) {
+            for (int i = 0; i < numRows; i++) {
+                writer.write(new RowN(
+                    i,
+                    i % 10 == 0 ? null : "name-" + i,
+                    List.of("a", "b" + i),
+                    Map.of("x", i)
+                ));
+            }
+        }
+        return out;
+    }
+
+    private static List<Map<String, Object>> read(BytesStreamOutput out, IntPredicate readRowGroup) throws IOException {
+        List<Map<String, Object>> documents = new ArrayList<>();
+        try (InputStream in = out.bytes().streamInput();
+             ColumnarFileReader reader = new ColumnarFileReader(in, readRowGroup)) {
+            assertThat(reader.columnNames()).isEqualTo(NAMES);
+            assertThat(reader.columnTypes()).isEqualTo(TYPES);
+            LinkedHashMap<String, Object> document;
+            while ((document = reader.nextDocument()) != null) {
+                assertThat(reader.rowNumber()).isEqualTo(((Integer) document.get("id")) + 1L);
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+
+    @Test
+    public void test_written_rows_are_read_as_documents() throws Exception {
+        List<Map<String, Object>> documents = read(write(3), rowGroup -> true);
+
+        assertThat(documents).hasSize(3);
+        assertThat(documents.get(0).keySet()).containsExactly("id", "name", "tags", "obj");
+        assertThat(documents.get(0))
+            .containsEntry("id", 0)
+            .containsEntry("name", null)
+            .containsEntry("tags", List.of("a", "b0"))
+            .containsEntry("obj", Map.of("x", 0));
+        assertThat(documents.get(2)).containsEntry("name", "name-2");
+    }
+
+    @Test
+    public void test_file_without_rows_contains_only_header() throws Exception {
+        assertThat(read(write(0), rowGroup -> true)).isEmpty();
+    }
+
+    @Test
+    public void test_skipped_row_groups_are_not_returned_but_counted_as_rows() throws Exception {
+        int numRows = ColumnarFileWriter.ROW_GROUP_SIZE * 2 + 10;
+        BytesStreamOutput out = write(numRows);
+
+        List<Map<String, Object>> firstReader = read(out, rowGroup -> rowGroup % 2 == 0);
+        List<Map<String, Object>> secondReader = read(out, rowGroup -> rowGroup % 2 == 1);
+
+        assertThat(firstReader).hasSize(ColumnarFileWriter.ROW_GROUP_SIZE + 10);
+        assertThat(secondReader).hasSize(ColumnarFileWriter.ROW_GROUP_SIZE);
+        assertThat(secondReader.get(0)).containsEntry("id", ColumnarFileWriter.ROW_GROUP_SIZE);
+    }
+
+    @Test
+    public void test_reader_rejects_files_in_other_formats() throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.writeBytes("{\"id\": 1}\n".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> new ColumnarFileReader(out.bytes().streamInput(), rowGroup -> true))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Not a file in the columnar format");
+    }
+}
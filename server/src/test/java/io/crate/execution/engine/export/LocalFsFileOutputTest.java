@@ -33,13 +33,16 @@ import java.util.concurrent.Executor;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
+import io.crate.data.breaker.RamAccounting;
+
 public class LocalFsFileOutputTest extends ESTestCase {
 
     @Test
     public void testIsBufferedOutputStream() throws Exception {
         Path file = createTempFile("out", "json");
         LocalFsFileOutput localFsFileOutput = new LocalFsFileOutput();
-        try (OutputStream os = localFsFileOutput.acquireOutputStream(mock(Executor.class), file.toUri(), null)) {
+        try (OutputStream os = localFsFileOutput.acquireOutputStream(
+                mock(Executor.class), file.toUri(), null, RamAccounting.NO_ACCOUNTING)) {
             assertThat(os, instanceOf(BufferedOutputStream.class));
         }
     }
@@ -0,0 +1,155 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.execution.engine.collect.files.Lz4FrameInputStream;
+
+public class Lz4FrameOutputStreamTest extends ESTestCase {
+
+    private static byte[] roundTrip(byte[] data, int parallelism) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "lz4", 0);
+        try (var out = new Lz4FrameOutputStream(compressed, executor, parallelism, ramAccounting)) {
+            int half = data.length / 2;
+            out.write(data, 0, half);
+            for (int i = half; i < data.length; i++) {
+                out.write(data[i]);
+            }
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(ramAccounting.totalBytes()).isZero();
+        try (InputStream in = new Lz4FrameInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void test_compressed_blocks_are_written_in_order() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        int line = 0;
+        while (sb.length() < 3 * Lz4FrameOutputStream.BLOCK_SIZE + 100) {
+            sb.append("{\"id\": ").append(line++).append(", \"name\": \"").append(randomAlphaOfLength(5)).append("\"}\n");
+        }
+        byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+        assertThat(roundTrip(data, 3)).isEqualTo(data);
+    }
+
+    @Test
+    public void test_round_trip_of_small_and_random_data() throws Exception {
+        for (int length : new int[] { 0, 1, 12, 13, 1000 }) {
+            byte[] data = randomByteArrayOfLength(length);
+            assertThat(roundTrip(data, 1)).isEqualTo(data);
+        }
+    }
+
+    @Test
+    public void test_buffers_are_accounted_while_writing_and_released_on_close() throws Exception {
+        var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "lz4", 0);
+        var out = new Lz4FrameOutputStream(new ByteArrayOutputStream(), Runnable::run, 2, ramAccounting);
+        assertThat(ramAccounting.totalBytes()).isZero();
+
+        out.write(new byte[Lz4FrameOutputStream.BLOCK_SIZE]);
+        out.write(1);
+        // The submitted block, its compression buffers and the next block
+        assertThat(ramAccounting.totalBytes()).isGreaterThan(2L * Lz4FrameOutputStream.BLOCK_SIZE);
+
+        out.close();
+        assertThat(ramAccounting.totalBytes()).isZero();
+    }
+
+    @Test
+    public void test_write_fails_if_the_memory_limit_is_reached() throws Exception {
+        int limit = Lz4FrameOutputStream.BLOCK_SIZE + 1024;
+        var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "lz4", limit);
+        var out = new Lz4FrameOutputStream(new ByteArrayOutputStream(), Runnable::run, 2, ramAccounting);
+
+        assertThatThrownBy(() -> out.write(new byte[Lz4FrameOutputStream.BLOCK_SIZE]))
+            .isExactlyInstanceOf(CircuitBreakingException.class);
+        assertThatThrownBy(out::close)
+            .isExactlyInstanceOf(CircuitBreakingException.class);
+        assertThat(ramAccounting.totalBytes()).isZero();
+    }
+
+    @Test
+    public void test_header_checksum_matches_xxhash32() {
+        // Descriptor of the lz4 command line tool defaults, its header checksum byte is 0xA7
+        int checksum = Lz4FrameOutputStream.xxHash32(new byte[] { 0x64, 0x40 });
+        assertThat((checksum >> 8) & 0xFF).isEqualTo(0xA7);
+    }
+
+    @Test
+    public void test_frame_bytes_of_fixed_input() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "lz4", 0);
+        try (var out = new Lz4FrameOutputStream(compressed, Runnable::run, 1, ramAccounting)) {
+            out.write("abcd".repeat(8).getBytes(StandardCharsets.US_ASCII));
+        }
+        assertThat(compressed.toByteArray()).isEqualTo(new byte[] {
+            // magic number, FLG (version 01, independent blocks), BD (4MB blocks), header checksum
+            0x04, 0x22, 0x4D, 0x18, 0x60, 0x70, 0x73,
+            // compressed block size 14
+            0x0E, 0x00, 0x00, 0x00,
+            // 4 literals "abcd", match of offset 4 and length 4 + 15 + 4, ending 5 bytes before the end
+            0x4F, 'a', 'b', 'c', 'd', 0x04, 0x00, 0x04,
+            // last 5 literals "dabcd"
+            0x50, 'd', 'a', 'b', 'c', 'd',
+            // end mark
+            0x00, 0x00, 0x00, 0x00
+        });
+    }
+
+    @Test
+    public void test_small_block_which_does_not_compress_is_stored_uncompressed() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "lz4", 0);
+        try (var out = new Lz4FrameOutputStream(compressed, Runnable::run, 1, ramAccounting)) {
+            out.write("hello world\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        assertThat(compressed.toByteArray()).isEqualTo(new byte[] {
+            0x04, 0x22, 0x4D, 0x18, 0x60, 0x70, 0x73,
+            // block size 12 with the highest bit marking an uncompressed block
+            0x0C, 0x00, 0x00, (byte) 0x80,
+            'h', 'e', 'l', 'l', 'o', ' ', 'w', 'o', 'r', 'l', 'd', '\n',
+            0x00, 0x00, 0x00, 0x00
+        });
+    }
+}
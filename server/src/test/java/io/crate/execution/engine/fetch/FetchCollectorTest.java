@@ -23,14 +23,43 @@ package io.crate.execution.engine.fetch;
 
 import static org.elasticsearch.test.ESTestCase.randomIntBetween;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.randomizedtesting.RandomizedRunner;
 
+import io.crate.Streamer;
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.common.collections.BorrowedItem;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.execution.engine.distribution.StreamBucket;
+import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.types.DataTypes;
+
 @RunWith(RandomizedRunner.class)
 public class FetchCollectorTest {
 
@@ -49,4 +78,95 @@ public class FetchCollectorTest {
         nonSequential.add(48);
         assertThat(FetchCollector.isSequential(nonSequential), is(false));
     }
+
+    @Test
+    public void test_positions_sorted_by_doc_id() {
+        IntArrayList ascending = IntArrayList.from(1, 3, 3, 8);
+        assertThat(FetchCollector.positionsSortedByDocId(ascending), nullValue());
+
+        IntArrayList unordered = IntArrayList.from(42, 7, 13, 7, 0);
+        assertThat(FetchCollector.positionsSortedByDocId(unordered), is(new int[] { 4, 1, 3, 2, 0 }));
+    }
+
+    @Test
+    public void test_collect_unordered_doc_ids_over_several_segments_returns_rows_in_requested_order() throws Exception {
+        try (var directory = new ByteBuffersDirectory()) {
+            try (var writer = new IndexWriter(directory, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                for (int segment = 0; segment < 3; segment++) {
+                    for (int i = 0; i < 10; i++) {
+                        Document doc = new Document();
+                        doc.add(new StoredField("x", segment * 10 + i));
+                        writer.addDocument(doc);
+                    }
+                    writer.commit();
+                }
+            }
+            try (var reader = DirectoryReader.open(directory)) {
+                assertThat(reader.leaves().size(), is(3));
+                FetchTask fetchTask = mock(FetchTask.class);
+                when(fetchTask.searcher(0)).thenReturn(new BorrowedItem<>(new IndexSearcher(reader), () -> {}));
+                DocTableInfo table = mock(DocTableInfo.class);
+                when(table.droppedColumns()).thenReturn(Set.of());
+                when(fetchTask.table(0)).thenReturn(table);
+
+                Streamer<?>[] streamers = new Streamer<?>[] { DataTypes.INTEGER.streamer() };
+                var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "fetch", 0);
+                var fetchCollector = new FetchCollector(
+                    List.of(new StoredIntExpression("x")),
+                    streamers,
+                    fetchTask,
+                    ramAccounting,
+                    0
+                );
+                IntArrayList docIds = IntArrayList.from(25, 3, 17, 3, 0, 29, 11);
+                StreamBucket bucket = fetchCollector.collect(docIds);
+
+                List<Object> values = new ArrayList<>();
+                for (Row row : bucket) {
+                    values.add(row.get(0));
+                }
+                assertThat(values, contains(25, 3, 17, 3, 0, 29, 11));
+
+                // The rows read in doc id order are released once they're copied into the bucket
+                var expectedAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "expected", 0);
+                var expectedBuilder = new StreamBucket.Builder(streamers, expectedAccounting);
+                for (int i = 0; i < docIds.size(); i++) {
+                    expectedBuilder.add(new Row1(docIds.get(i)));
+                }
+                assertThat(ramAccounting.totalBytes(), is(expectedAccounting.totalBytes()));
+            }
+        }
+    }
+
+    private static class StoredIntExpression extends LuceneCollectorExpression<Integer> {
+
+        private final String field;
+        private ReaderContext context;
+        private Integer value;
+
+        StoredIntExpression(String field) {
+            this.field = field;
+        }
+
+        @Override
+        public void setNextReader(ReaderContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void setNextDocId(int doc) {
+            var visitor = new DocumentStoredFieldVisitor(field);
+            try {
+                context.visitDocument(doc, visitor);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            value = visitor.getDocument().getField(field).numericValue().intValue();
+        }
+
+        @Override
+        public Integer value() {
+            return value;
+        }
+    }
 }
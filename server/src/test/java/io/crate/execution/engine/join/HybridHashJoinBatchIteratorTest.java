@@ -0,0 +1,232 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongToIntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.breaker.RowAccounting;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchSimulatingIterator;
+import io.crate.data.testing.TestingBatchIterators;
+import io.crate.execution.engine.spill.SpillDirectory;
+import io.crate.types.DataTypes;
+
+public class HybridHashJoinBatchIteratorTest extends ESTestCase {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[] { DataTypes.INTEGER.streamer() };
+
+    private Path spillPath;
+    private SpillDirectory spillDirectory;
+
+    @Before
+    public void setupSpillDirectory() throws Exception {
+        spillPath = createTempDir().resolve("spill");
+        spillDirectory = new SpillDirectory(spillPath, true);
+    }
+
+    private Supplier<BatchIterator<Row>> joinIterator(Supplier<BatchIterator<Row>> left,
+                                                      Supplier<BatchIterator<Row>> right,
+                                                      ToIntFunction<Row> hash,
+                                                      LongToIntFunction blockSize) {
+        return () -> new HybridHashJoinBatchIterator(
+            left.get(),
+            right.get(),
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            hash,
+            hash,
+            blockSize,
+            prefix -> spillDirectory.newFile(prefix, STREAMERS),
+            prefix -> spillDirectory.newFile(prefix, STREAMERS)
+        );
+    }
+
+    private static List<Object[]> expectedDuplicateValuesResult() {
+        return Arrays.asList(
+            new Object[] { 1, 1 }, new Object[] { 1, 1 },
+            new Object[] { 2, 2 }, new Object[] { 2, 2 },
+            new Object[] { 3, 3 },
+            new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }
+        );
+    }
+
+    private static Supplier<BatchIterator<Row>> duplicateValuesLeft() {
+        return () -> new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4)), 2, 4, null);
+    }
+
+    private static Supplier<BatchIterator<Row>> duplicateValuesRight() {
+        return () -> new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6)), 2, 4, null);
+    }
+
+    @Test
+    public void test_join_without_spilling_if_left_fits_into_block() throws Exception {
+        var tester = BatchIteratorTester.forRows(joinIterator(
+            duplicateValuesLeft(),
+            duplicateValuesRight(),
+            row -> Objects.hash(row.get(0)),
+            ignored -> 100
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedDuplicateValuesResult());
+    }
+
+    @Test
+    public void test_join_with_spilled_partitions() throws Exception {
+        var tester = BatchIteratorTester.forRows(joinIterator(
+            duplicateValuesLeft(),
+            duplicateValuesRight(),
+            row -> Objects.hash(row.get(0)),
+            ignored -> 1
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedDuplicateValuesResult());
+    }
+
+    @Test
+    public void test_join_with_spilled_partitions_and_hash_collisions() throws Exception {
+        var tester = BatchIteratorTester.forRows(joinIterator(
+            duplicateValuesLeft(),
+            duplicateValuesRight(),
+            row -> (Integer) row.get(0) % 3,
+            ignored -> 2
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedDuplicateValuesResult());
+    }
+
+    @Test
+    public void test_large_join_with_spilling_matches_all_rows_and_removes_files() throws Exception {
+        BatchIterator<Row> join = joinIterator(
+            () -> new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 10_000), 500, 20, null),
+            () -> new BatchSimulatingIterator<>(TestingBatchIterators.range(5_000, 20_000), 500, 30, null),
+            row -> Objects.hash(row.get(0)),
+            ignored -> 100
+        ).get();
+        List<Object[]> result = join
+            .map(Row::materialize)
+            .toList()
+            .get(10, TimeUnit.SECONDS);
+        List<Object[]> expected = new ArrayList<>();
+        for (int i = 5_000; i < 10_000; i++) {
+            expected.add(new Object[] { i, i });
+        }
+        assertThat(result).containsExactlyInAnyOrderElementsOf(expected);
+
+        join.close();
+        try (Stream<Path> files = Files.list(spillPath)) {
+            assertThat(files.collect(Collectors.toList())).isEmpty();
+        }
+    }
+
+    /**
+     * Accounts a fixed size per row. The limit is lowered once it is reached to simulate
+     * memory which got used by other operations in the meantime.
+     */
+    private static class LimitedRowAccounting implements RowAccounting<Object[]> {
+
+        static final long ROW_BYTES = 10;
+
+        private final long limitAfterBreak;
+        long limit;
+        long bytes = 0;
+        int numBreaks = 0;
+
+        LimitedRowAccounting(long limit, long limitAfterBreak) {
+            this.limit = limit;
+            this.limitAfterBreak = limitAfterBreak;
+        }
+
+        @Override
+        public long accountForAndMaybeBreak(Object[] row) {
+            if (bytes + ROW_BYTES > limit) {
+                var e = new CircuitBreakingException("Limit of " + limit + " bytes reached");
+                numBreaks++;
+                limit = limitAfterBreak;
+                throw e;
+            }
+            bytes += ROW_BYTES;
+            return ROW_BYTES;
+        }
+
+        @Override
+        public void release() {
+            bytes = 0;
+        }
+    }
+
+    @Test
+    public void test_spill_releases_accounting_and_spills_first_partition_if_rows_do_not_fit_anymore() throws Exception {
+        var rowAccounting = new LimitedRowAccounting(
+            10 * LimitedRowAccounting.ROW_BYTES,
+            5 * LimitedRowAccounting.ROW_BYTES
+        );
+        BatchIterator<Row> join = new HybridHashJoinBatchIterator(
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 100), 20, 5, null),
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(50, 150), 20, 5, null),
+            rowAccounting,
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            // All rows are in the first partition, which stays in memory on the first spill
+            row -> 0,
+            row -> 0,
+            avgRowSize -> avgRowSize < 0 ? 1000 : (int) (rowAccounting.limit / avgRowSize),
+            prefix -> spillDirectory.newFile(prefix, STREAMERS),
+            prefix -> spillDirectory.newFile(prefix, STREAMERS)
+        );
+        List<Object[]> result = join
+            .map(Row::materialize)
+            .toList()
+            .get(10, TimeUnit.SECONDS);
+        List<Object[]> expected = new ArrayList<>();
+        for (int i = 50; i < 100; i++) {
+            expected.add(new Object[] { i, i });
+        }
+        assertThat(result).containsExactlyInAnyOrderElementsOf(expected);
+        // Tripped on the 11th row and again when the 10 rows of the first partition were accounted after the spill
+        assertThat(rowAccounting.numBreaks).isEqualTo(2);
+        assertThat(rowAccounting.bytes).isLessThanOrEqualTo(rowAccounting.limit);
+        join.close();
+    }
+}
@@ -25,16 +25,26 @@ import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
+import io.crate.Streamer;
 import io.crate.breaker.ConcurrentRamAccounting;
 import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.data.BatchIterator;
@@ -42,10 +52,12 @@ import io.crate.data.Bucket;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.breaker.RowAccounting;
+import io.crate.data.testing.BatchIteratorTester;
 import io.crate.data.testing.TestingBatchIterators;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.execution.engine.spill.SpillDirectory;
 import io.crate.expression.symbol.Literal;
 import io.crate.types.DataTypes;
 
@@ -124,4 +136,72 @@ public class SortingProjectorTest extends ESTestCase {
         expectedException.expect(CircuitBreakingException.class);
         consumer.getResult();
     }
+
+    private static SortingProjector createSpillingProjector(RowAccounting<Object[]> rowAccounting,
+                                                            SpillDirectory spillDirectory,
+                                                            int offset,
+                                                            long maxRunBytes) {
+        RowCollectExpression input = new RowCollectExpression(0);
+        Streamer<?>[] streamers = new Streamer[] { DataTypes.INTEGER.streamer(), DataTypes.BOOLEAN.streamer() };
+        return new SortingProjector(
+            rowAccounting,
+            List.of(input, Literal.of(true)),
+            List.<CollectExpression<Row, ?>>of(input),
+            1,
+            OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, false, false),
+            offset,
+            () -> spillDirectory.newFile("sort-run-", streamers),
+            maxRunBytes
+        );
+    }
+
+    private static RowCellsAccountingWithEstimators rowAccounting(CircuitBreaker circuitBreaker) {
+        return new RowCellsAccountingWithEstimators(
+            List.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
+            ConcurrentRamAccounting.forCircuitBreaker("testContext", circuitBreaker, 0),
+            0);
+    }
+
+    @Test
+    public void test_sort_with_spilled_runs_merges_runs_and_removes_files() throws Exception {
+        Path spillPath = createTempDir().resolve("spill");
+        SpillDirectory spillDirectory = new SpillDirectory(spillPath, true);
+        List<Integer> values = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+        Collections.shuffle(values, random());
+        List<Object[]> expected = new ArrayList<>();
+        for (int i = 5; i < 500; i++) {
+            expected.add(new Object[] { i });
+        }
+
+        var tester = BatchIteratorTester.forRows(() -> createSpillingProjector(
+            rowAccounting(new NoopCircuitBreaker("dummy")),
+            spillDirectory,
+            5,
+            100
+        ).apply(TestingBatchIterators.ofValues(values)));
+        tester.verifyResultAndEdgeCaseBehaviour(expected);
+
+        try (Stream<Path> files = Files.list(spillPath)) {
+            assertThat(files.collect(Collectors.toList()), is(List.of()));
+        }
+    }
+
+    @Test
+    public void test_sort_spills_runs_instead_of_failing_if_circuit_breaker_trips() throws Exception {
+        MemoryCircuitBreaker circuitBreaker = new MemoryCircuitBreaker(
+            new ByteSizeValue(30, ByteSizeUnit.BYTES),
+            1,
+            LogManager.getLogger(SortingProjectorTest.class)
+        );
+        SpillDirectory spillDirectory = new SpillDirectory(createTempDir().resolve("spill"), true);
+        Projector projector = createSpillingProjector(rowAccounting(circuitBreaker), spillDirectory, 0, Long.MAX_VALUE);
+        consumer.accept(projector.apply(TestingBatchIterators.range(1, 11)), null);
+
+        Bucket rows = consumer.getBucket();
+        int expectedValue = 1;
+        for (Row row : rows) {
+            assertThat(row, isRow(expectedValue++));
+        }
+        assertThat(expectedValue, is(11));
+    }
 }
@@ -41,6 +41,15 @@ public class AggregationWindowFunctionsTest extends AbstractWindowFunctionTest {
         new Object[]{null, null}
     };
 
+    private static final Object[][] UNORDERED_D_ROWS = {
+        new Object[]{1, 5.0},
+        new Object[]{2, 1.0},
+        new Object[]{3, 4.0},
+        new Object[]{4, 2.0},
+        new Object[]{5, 3.0},
+        new Object[]{6, 0.5}
+    };
+
     @Test
     public void testSumOverUnboundedPrecedingToUnboundedFollowingFrames() throws Throwable {
         Object[] expected = new Object[]{5L, 5L, 5L, 12L, 12L, 12L, null};
@@ -332,4 +341,34 @@ public class AggregationWindowFunctionsTest extends AbstractWindowFunctionTest {
             rows
         );
     }
+
+    @Test
+    public void test_max_over_sliding_rows_frame() throws Throwable {
+        assertEvaluate(
+            "max(d) OVER(ORDER BY x ROWS BETWEEN 1 PRECEDING and 1 FOLLOWING)",
+            new Object[]{5.0, 5.0, 4.0, 4.0, 3.0, 3.0},
+            List.of(new ColumnIdent("x"), new ColumnIdent("d")),
+            UNORDERED_D_ROWS
+        );
+    }
+
+    @Test
+    public void test_min_over_sliding_rows_frame() throws Throwable {
+        assertEvaluate(
+            "min(d) OVER(ORDER BY x ROWS BETWEEN 2 PRECEDING and CURRENT ROW)",
+            new Object[]{5.0, 1.0, 1.0, 1.0, 2.0, 0.5},
+            List.of(new ColumnIdent("x"), new ColumnIdent("d")),
+            UNORDERED_D_ROWS
+        );
+    }
+
+    @Test
+    public void test_max_by_over_sliding_rows_frame() throws Throwable {
+        assertEvaluate(
+            "max_by(x, d) OVER(ORDER BY x ROWS BETWEEN 1 PRECEDING and 1 FOLLOWING)",
+            new Object[]{1, 1, 3, 3, 5, 5},
+            List.of(new ColumnIdent("x"), new ColumnIdent("d")),
+            UNORDERED_D_ROWS
+        );
+    }
 }
@@ -0,0 +1,61 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.window;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class SegmentTreeTest extends ESTestCase {
+
+    @Test
+    public void test_query_combines_values_of_range_in_order() {
+        int size = randomIntBetween(1, 50);
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(i + ",");
+        }
+        SegmentTree<String> tree = new SegmentTree<>(values, (a, b) -> a + b);
+        for (int from = 0; from <= size; from++) {
+            for (int to = from; to <= size; to++) {
+                String expected = from == to ? "empty" : String.join("", values.subList(from, to));
+                assertThat(tree.query(from, to, "empty")).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    public void test_query_max_over_sliding_ranges() {
+        List<Integer> values = List.of(5, 1, 4, 2, 3, 0);
+        SegmentTree<Integer> tree = new SegmentTree<>(values, Math::max);
+        assertThat(tree.query(0, 2, null)).isEqualTo(5);
+        assertThat(tree.query(1, 4, null)).isEqualTo(4);
+        assertThat(tree.query(3, 6, null)).isEqualTo(3);
+        assertThat(tree.query(5, 6, null)).isEqualTo(0);
+        assertThat(tree.numNodes()).isEqualTo(12);
+    }
+}
@@ -363,6 +363,65 @@ public class WindowBatchIteratorTest {
         assertThat(ramAccounting.totalBytes(), is(480L));
     }
 
+    @Test
+    public void test_presorted_window_batch_iterator_computes_window_functions_per_partition() throws Exception {
+        var tester = BatchIteratorTester.forRows(
+            () -> WindowFunctionBatchIterator.ofPresorted(
+                new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(List.of(1, 1, 1, 2, 2, 3, 4, 4)), 3, 3, null),
+                new IgnoreRowAccounting(),
+                RamAccounting.NO_ACCOUNTING,
+                (partitionStart, partitionEnd, currentIndex, sortedRows) -> partitionStart,
+                (partitionStart, partitionEnd, currentIndex, sortedRows) -> currentIndex + 1,
+                OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, false, false),
+                1,
+                List.of(rowNumberWindowFunction()),
+                List.of(),
+                new Boolean[]{null},
+                new Input[0])
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(List.of(
+            $(1, 1),
+            $(1, 2),
+            $(1, 3),
+            $(2, 1),
+            $(2, 2),
+            $(3, 1),
+            $(4, 1),
+            $(4, 2)
+        ));
+    }
+
+    @Test
+    public void test_presorted_window_batch_iterator_only_accounts_for_current_partitions() throws Exception {
+        RamAccounting ramAccounting = ConcurrentRamAccounting.forCircuitBreaker("test", new NoopCircuitBreaker("dummy"), 0);
+        BatchIterator<Row> iterator = WindowFunctionBatchIterator.ofPresorted(
+            TestingBatchIterators.ofValues(List.of(1, 1, 1, 2, 2, 3)),
+            new RowAccountingWithEstimators(List.of(DataTypes.INTEGER), ramAccounting, 32),
+            ramAccounting,
+            (partitionStart, partitionEnd, currentIndex, sortedRows) -> partitionStart,
+            (partitionStart, partitionEnd, currentIndex, sortedRows) -> currentIndex + 1,
+            OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, false, false),
+            1,
+            List.of(rowNumberWindowFunction()),
+            List.of(),
+            new Boolean[]{null},
+            new Input[][]{new Input[0]}
+        );
+        // rows of the first partition and the first row of the second partition, 48 bytes each
+        assertThat(iterator.moveNext(), is(true));
+        assertThat(ramAccounting.totalBytes(), is(192L));
+        assertThat(iterator.moveNext(), is(true));
+        assertThat(iterator.moveNext(), is(true));
+
+        // first partition is released once the second partition is emitted
+        assertThat(iterator.moveNext(), is(true));
+        assertThat(ramAccounting.totalBytes(), is(144L));
+
+        while (iterator.moveNext()) {
+        }
+        assertThat(ramAccounting.totalBytes(), is(0L));
+    }
+
     @Test
     public void testWindowBatchIteratorWithOrderedWindowOverNullValues() throws Exception {
         var rows = Arrays.asList(
@@ -25,6 +25,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
@@ -44,4 +46,16 @@ public class LineContextTest extends ESTestCase {
         assertNull(context.get(new ColumnIdent("details", "invalid")));
         assertEquals(43, context.get(new ColumnIdent("details", "age")));
     }
+
+    @Test
+    public void test_parsed_source_is_converted_to_json_if_raw_source_is_requested() {
+        LineContext context = new LineContext(new LineCursor());
+        LinkedHashMap<String, Object> source = new LinkedHashMap<>();
+        source.put("name", "foo");
+        source.put("details", Map.of("age", 43));
+        context.parsedSource(source);
+
+        assertEquals(43, context.get(new ColumnIdent("details", "age")));
+        assertEquals("{\"name\":\"foo\",\"details\":{\"age\":43}}", context.sourceAsString());
+    }
 }
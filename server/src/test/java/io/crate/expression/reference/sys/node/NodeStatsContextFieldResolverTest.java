@@ -81,6 +81,8 @@ public class NodeStatsContextFieldResolverTest {
             () -> new ConnectionStats(2L, 4L),
             () -> postgresAddress,
             () -> 12L,
+            () -> 2048L,
+            () -> 1024L,
             () -> 1L
         );
     }
@@ -143,6 +145,26 @@ public class NodeStatsContextFieldResolverTest {
         assertThat(open.value(), is(12L));
     }
 
+    @Test
+    public void test_distributed_results_bytes_can_be_retrieved() {
+        NodeStatsContext statsContext = resolver.forTopColumnIdents(
+            Collections.singletonList(SysNodesTableInfo.Columns.CONNECTIONS));
+        RowCollectExpressionFactory<NodeStatsContext> expressionFactory =
+            SysNodesTableInfo.create().expressions().get(SysNodesTableInfo.Columns.CONNECTIONS);
+        NestableCollectExpression<NodeStatsContext, ?> expression = expressionFactory.create();
+
+        NestableCollectExpression transport = (NestableCollectExpression) expression.getChild("transport");
+        NestableCollectExpression distributedResults =
+            (NestableCollectExpression) transport.getChild("distributed_results");
+        NestableCollectExpression bytesSent = (NestableCollectExpression) distributedResults.getChild("bytes_sent");
+        bytesSent.setNextRow(statsContext);
+        assertThat(bytesSent.value(), is(2048L));
+
+        NestableCollectExpression bytesSaved = (NestableCollectExpression) distributedResults.getChild("bytes_saved");
+        bytesSaved.setNextRow(statsContext);
+        assertThat(bytesSaved.value(), is(1024L));
+    }
+
     @Test
     public void testColumnIdentsResolution() {
         NodeStatsContext context = resolver.forTopColumnIdents(Set.of(
@@ -0,0 +1,82 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.scalar;
+
+import static io.crate.testing.Asserts.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.test.IntegTestCase;
+import org.junit.Test;
+
+@IntegTestCase.ClusterScope(numDataNodes = 1)
+public class KnnMatchIT extends IntegTestCase {
+
+    @Test
+    public void test_segments_of_table_with_int8_quantization_use_quantized_vectors_format() throws Exception {
+        execute("create table quantized (id int, x float_vector(2)) clustered into 1 shards " +
+                "with (number_of_replicas = 0, \"knn.quantization\" = 'int8')");
+        execute("create table plain (id int, x float_vector(2)) clustered into 1 shards " +
+                "with (number_of_replicas = 0)");
+        ensureYellow();
+        for (String table : List.of("quantized", "plain")) {
+            execute("insert into " + table + " (id, x) values (1, [1.0, 1.0]), (2, [10.0, 10.0])");
+            execute("refresh table " + table);
+        }
+
+        assertThat(isQuantizedPerSegment("quantized")).isNotEmpty().containsOnly(true);
+        assertThat(isQuantizedPerSegment("plain")).isNotEmpty().containsOnly(false);
+
+        // Only knn_match with num_candidates re-scores the candidates using the original vectors,
+        // without it the ranking is based on the quantized vectors.
+        execute("select id from quantized where knn_match(x, [9.0, 9.0], 1, 2)");
+        assertThat(response).hasRows("2");
+        execute("select id from quantized where knn_match(x, [9.0, 9.0], 1)");
+        assertThat(response).hasRows("2");
+    }
+
+    private List<Boolean> isQuantizedPerSegment(String table) {
+        ClusterService clusterService = cluster().getDataNodeInstance(ClusterService.class);
+        Index index = clusterService.state().metadata().index(getFqn(table)).getIndex();
+        IndicesService indicesService = cluster().getDataNodeInstance(IndicesService.class);
+        IndexShard indexShard = indicesService.indexServiceSafe(index).getShard(0);
+        List<Boolean> result = new ArrayList<>();
+        try (Engine.Searcher searcher = indexShard.acquireSearcher("test")) {
+            for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                for (FieldInfo fieldInfo : leaf.reader().getFieldInfos()) {
+                    if (fieldInfo.getVectorDimension() > 0) {
+                        result.add(KnnMatch.NumCandidatesKnnQuery.isQuantized(fieldInfo));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
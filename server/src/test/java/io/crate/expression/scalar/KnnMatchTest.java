@@ -25,13 +25,30 @@ package io.crate.expression.scalar;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.IntStream;
 
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.elasticsearch.Version;
 import org.junit.Test;
 
 import io.crate.testing.QueryTester;
+import io.crate.types.FloatVectorType;
 
 public class KnnMatchTest extends ScalarTestCase {
 
@@ -58,6 +75,8 @@ public class KnnMatchTest extends ScalarTestCase {
         builder.indexValue("x", vector2);
         try (QueryTester tester = builder.build()) {
             Query query = tester.toQuery("knn_match(x, [1.2, 3.4, 5.6, 7.8], 10)");
+            // Without num_candidates there is no re-scoring, also not for quantized vectors
+            assertThat(query).isExactlyInstanceOf(KnnFloatVectorQuery.class);
             assertThat(query.toString()).isEqualTo("KnnFloatVectorQuery:x[1.2,...][10]");
 
             List<Object> result = tester.runQuery("x", "knn_match(x, [200, 300, 500, 700], 1)");
@@ -66,5 +85,99 @@ public class KnnMatchTest extends ScalarTestCase {
             );
         }
     }
-}
 
+    @Test
+    public void test_knn_match_uses_other_conjunctions_as_filter() throws Exception {
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            "create table tbl (x float_vector(2), tenant int)"
+        );
+        float[] vector1 = new float[] { 1.0f, 1.0f };
+        float[] vector2 = new float[] { 10.0f, 10.0f };
+        builder.indexValues(List.of("x", "tenant"), vector1, 1);
+        builder.indexValues(List.of("x", "tenant"), vector2, 7);
+        try (QueryTester tester = builder.build()) {
+            Query query = tester.toQuery("knn_match(x, [1.0, 1.0], 1) and tenant = 7");
+            assertThat(query).isExactlyInstanceOf(KnnFloatVectorQuery.class);
+
+            // Without the filter the nearest neighbour would be vector1, which doesn't match tenant = 7
+            List<Object> result = tester.runQuery("x", "knn_match(x, [1.0, 1.0], 1) and tenant = 7");
+            assertThat(result).containsExactly(vector2);
+        }
+    }
+
+    @Test
+    public void test_knn_match_with_num_candidates() throws Exception {
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            "create table tbl (x float_vector(4))"
+        );
+        float[] vector1 = new float[] { 200.2f, 300.4f, 500.6f, 700.8f };
+        float[] vector2 = new float[] { 0.2f, 0.5f, 0.7f, 0.8f };
+        builder.indexValue("x", vector1);
+        builder.indexValue("x", vector2);
+        try (QueryTester tester = builder.build()) {
+            Query query = tester.toQuery("knn_match(x, [1.2, 3.4, 5.6, 7.8], 1, 10)");
+            assertThat(query).isExactlyInstanceOf(KnnMatch.NumCandidatesKnnQuery.class);
+
+            List<Object> result = tester.runQuery("x", "knn_match(x, [200, 300, 500, 700], 1, 10)");
+            assertThat(result).containsExactly(vector1);
+
+            assertThatThrownBy(() -> tester.toQuery("knn_match(x, [1.2, 3.4, 5.6, 7.8], 10, 5)"))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The number of candidates of knn_match must be greater than or equal to k, got: 5");
+        }
+    }
+
+    @Test
+    public void test_knn_match_with_num_candidates_rescores_quantized_vectors() throws Exception {
+        IndexWriterConfig config = new IndexWriterConfig();
+        config.setCodec(new Lucene99Codec() {
+
+            @Override
+            public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+                return new Lucene99HnswScalarQuantizedVectorsFormat();
+            }
+        });
+        int numDocs = 200;
+        float[][] vectors = new float[numDocs][];
+        try (var directory = new ByteBuffersDirectory();
+             var writer = new IndexWriter(directory, config)) {
+            for (int i = 0; i < numDocs; i++) {
+                vectors[i] = new float[16];
+                for (int j = 0; j < vectors[i].length; j++) {
+                    vectors[i][j] = randomFloat();
+                }
+                Document doc = new Document();
+                doc.add(new KnnFloatVectorField("x", vectors[i], FloatVectorType.SIMILARITY_FUNC));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+            writer.commit();
+
+            float[] target = vectors[randomIntBetween(0, numDocs - 1)];
+            try (var reader = DirectoryReader.open(writer)) {
+                var query = new KnnMatch.NumCandidatesKnnQuery("x", target, 5, numDocs, null);
+                TopDocs topDocs = new IndexSearcher(reader).search(query, 5);
+
+                int[] expectedDocs = IntStream.range(0, numDocs)
+                    .boxed()
+                    .sorted(Comparator.comparing(
+                        (Integer doc) -> FloatVectorType.SIMILARITY_FUNC.compare(target, vectors[doc])).reversed())
+                    .limit(5)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+                assertThat(Arrays.stream(topDocs.scoreDocs).mapToInt(scoreDoc -> scoreDoc.doc).toArray())
+                    .containsExactly(expectedDocs);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    assertThat(scoreDoc.score).isEqualTo(
+                        FloatVectorType.SIMILARITY_FUNC.compare(target, vectors[scoreDoc.doc]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.integrationtests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.test.IntegTestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.Session;
+import io.crate.action.sql.Sessions;
+import io.crate.data.Row;
+import io.crate.role.Role;
+
+@IntegTestCase.ClusterScope(numDataNodes = 1, supportsDedicatedMasters = false, numClientNodes = 0)
+public class PlanCacheIntegrationTest extends IntegTestCase {
+
+    @Before
+    public void enablePlanCache() {
+        execute("set global transient plan_cache.enabled = true");
+    }
+
+    @After
+    public void resetPlanCache() {
+        execute("reset global plan_cache.enabled");
+    }
+
+    private static List<Object[]> executePrepared(Session session, String preparedStmt) throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        session.bind("portal", preparedStmt, List.of(), null);
+        session.execute("portal", 0, new BaseResultReceiver() {
+
+            @Override
+            public void setNextRow(Row row) {
+                rows.add(row.materialize());
+            }
+        });
+        session.sync().get(5, TimeUnit.SECONDS);
+        return rows;
+    }
+
+    @Test
+    public void test_prepared_statement_with_now_evaluates_now_on_each_execution() throws Exception {
+        execute("create table tbl (ts timestamp with time zone)");
+        execute("insert into tbl (ts) values (?)", new Object[] { System.currentTimeMillis() + 3000 });
+        execute("refresh table tbl");
+
+        Sessions sessions = cluster().getInstance(Sessions.class);
+        long hitsBefore = sessions.planCache().hits();
+        try (Session session = sessions.newSession(null, Role.CRATE_USER)) {
+            session.parse("stmt", "select count(*) from tbl where ts < now()", List.of());
+            assertThat(executePrepared(session, "stmt")).containsExactly(new Object[] { 0L });
+
+            assertBusy(
+                () -> assertThat(executePrepared(session, "stmt")).containsExactly(new Object[] { 1L }),
+                20,
+                TimeUnit.SECONDS
+            );
+        }
+        assertThat(sessions.planCache().hits()).isEqualTo(hitsBefore);
+    }
+
+    @Test
+    public void test_cached_plan_is_reused_for_deterministic_prepared_statement() throws Exception {
+        execute("create table tbl (x int)");
+        execute("insert into tbl (x) values (1), (2)");
+        execute("refresh table tbl");
+
+        Sessions sessions = cluster().getInstance(Sessions.class);
+        long hitsBefore = sessions.planCache().hits();
+        try (Session session = sessions.newSession(null, Role.CRATE_USER)) {
+            session.parse("stmt", "select count(*) from tbl where x > 1", List.of());
+            assertThat(executePrepared(session, "stmt")).containsExactly(new Object[] { 1L });
+            assertThat(executePrepared(session, "stmt")).containsExactly(new Object[] { 1L });
+        }
+        assertThat(sessions.planCache().hits()).isEqualTo(hitsBefore + 1);
+    }
+}
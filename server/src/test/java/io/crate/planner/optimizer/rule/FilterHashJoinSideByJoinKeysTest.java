@@ -0,0 +1,131 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.testing.Asserts.assertThat;
+
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.RelationName;
+import io.crate.planner.operators.HashJoin;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.MultiPhase;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Match;
+import io.crate.statistics.Stats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+
+public class FilterHashJoinSideByJoinKeysTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private LogicalPlan fact;
+    private LogicalPlan dim;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table fact (k int, v long)")
+            .addTable("create table dim (id int, attr text)")
+            .build();
+
+        fact = e.logicalPlan("SELECT k, v FROM fact");
+        dim = e.logicalPlan("SELECT id, attr FROM dim WHERE attr = 'x'");
+    }
+
+    private void updateStats(long numDocsFact, long numDocsDim) {
+        e.updateTableStats(Map.of(
+            new RelationName("doc", "fact"), new Stats(numDocsFact, numDocsFact * 12, Map.of()),
+            new RelationName("doc", "dim"), new Stats(numDocsDim, numDocsDim * 20, Map.of())
+        ));
+    }
+
+    private LogicalPlan apply(HashJoin join) {
+        var rule = new FilterHashJoinSideByJoinKeys();
+        Match<HashJoin> match = rule.pattern().accept(join, Captures.empty());
+        if (!match.isPresent()) {
+            return null;
+        }
+        return rule.apply(
+            match.value(),
+            match.captures(),
+            e.planStats(),
+            CoordinatorTxnCtx.systemTransactionContext(),
+            e.nodeCtx,
+            UnaryOperator.identity()
+        );
+    }
+
+    @Test
+    public void test_larger_side_is_filtered_by_the_join_keys_of_the_smaller_side() throws Exception {
+        updateStats(10_000_000, 1_000);
+        LogicalPlan result = apply(new HashJoin(fact, dim, e.asSymbol("fact.k = dim.id")));
+
+        assertThat(result).isExactlyInstanceOf(MultiPhase.class);
+        Map<LogicalPlan, SelectSymbol> dependencies = result.dependencies();
+        assertThat(dependencies).hasSize(1);
+        var entry = dependencies.entrySet().iterator().next();
+        assertThat(entry.getValue().getResultType()).isEqualTo(SelectSymbol.ResultType.SINGLE_COLUMN_MULTIPLE_VALUES);
+        assertThat(entry.getKey()).hasOperators(
+            "Limit[10001::bigint;0::bigint]",
+            "  └ GroupHashAggregate[id]",
+            "    └ Collect[doc.dim | [id] | (attr = 'x')]"
+        );
+        assertThat(((MultiPhase) result).source()).hasOperators(
+            "HashJoin[(k = id)]",
+            "  ├ Collect[doc.fact | [k, v] | ((k = ANY((SELECT id FROM (doc.dim)))) OR " +
+                "(array_length((SELECT id FROM (doc.dim)), 1) > 10000))]",
+            "  └ Collect[doc.dim | [id, attr] | (attr = 'x')]"
+        );
+    }
+
+    @Test
+    public void test_filter_is_only_added_once() throws Exception {
+        updateStats(10_000_000, 1_000);
+        LogicalPlan result = apply(new HashJoin(fact, dim, e.asSymbol("fact.k = dim.id")));
+        HashJoin filteredJoin = (HashJoin) ((MultiPhase) result).source();
+
+        assertThat(apply(filteredJoin)).isNull();
+    }
+
+    @Test
+    public void test_rule_does_not_apply_if_the_larger_side_is_not_large_enough() throws Exception {
+        updateStats(100_000, 1_000);
+        assertThat(apply(new HashJoin(fact, dim, e.asSymbol("fact.k = dim.id")))).isNull();
+    }
+
+    @Test
+    public void test_rule_does_not_apply_without_stats_or_for_too_many_keys() throws Exception {
+        assertThat(apply(new HashJoin(fact, dim, e.asSymbol("fact.k = dim.id")))).isNull();
+
+        // the filter on dim selects ~50_000 rows
+        updateStats(100_000_000, 10_000_000);
+        assertThat(apply(new HashJoin(fact, dim, e.asSymbol("fact.k = dim.id")))).isNull();
+    }
+}
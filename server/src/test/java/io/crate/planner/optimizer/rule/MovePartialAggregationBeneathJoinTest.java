@@ -0,0 +1,158 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.testing.Asserts.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.expression.symbol.Function;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.RelationName;
+import io.crate.planner.operators.GroupHashAggregate;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Match;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.MostCommonValues;
+import io.crate.statistics.Stats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
+
+public class MovePartialAggregationBeneathJoinTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private LogicalPlan fact;
+    private LogicalPlan dim;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table fact (k int, v long)")
+            .addTable("create table dim (id int, attr text)")
+            .build();
+
+        fact = e.logicalPlan("SELECT k, v FROM fact");
+        dim = e.logicalPlan("SELECT id, attr FROM dim");
+    }
+
+    private void updateStats(long numDocsFact, double distinctKeys) {
+        ColumnStats<Integer> keyStats = new ColumnStats<>(
+            0.0, 4, distinctKeys, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        e.updateTableStats(Map.of(
+            new RelationName("doc", "fact"), new Stats(numDocsFact, numDocsFact * 12, Map.of(new ColumnIdent("k"), keyStats)),
+            new RelationName("doc", "dim"), new Stats(10, 200, Map.of())
+        ));
+    }
+
+    private LogicalPlan apply(GroupHashAggregate groupBy) {
+        var rule = new MovePartialAggregationBeneathJoin();
+        Match<GroupHashAggregate> match = rule.pattern().accept(groupBy, Captures.empty());
+        if (!match.isPresent()) {
+            return null;
+        }
+        return rule.apply(
+            match.value(),
+            match.captures(),
+            e.planStats(),
+            CoordinatorTxnCtx.systemTransactionContext(),
+            e.nodeCtx,
+            UnaryOperator.identity()
+        );
+    }
+
+    private GroupHashAggregate groupBy(String groupKey, String aggregate) {
+        var join = new JoinPlan(fact, dim, JoinType.INNER, e.asSymbol("fact.k = dim.id"));
+        return new GroupHashAggregate(
+            join,
+            List.of(e.asSymbol(groupKey)),
+            List.of((Function) e.asSymbol(aggregate))
+        );
+    }
+
+    @Test
+    public void test_partial_aggregation_is_moved_beneath_join_if_it_reduces_the_rows() throws Exception {
+        updateStats(1000, 10);
+        var groupBy = groupBy("dim.attr", "sum(fact.v)");
+
+        assertThat(apply(groupBy)).hasOperators(
+            "GroupHashAggregate[attr | sum(v) | PARTIAL_FINAL]",
+            "  └ Join[INNER | (k = id)]",
+            "    ├ GroupHashAggregate[k | sum(v) | ITER_PARTIAL]",
+            "    │  └ Collect[doc.fact | [k, v] | true]",
+            "    └ Collect[doc.dim | [id, attr] | true]"
+        );
+    }
+
+    @Test
+    public void test_group_keys_of_the_aggregated_side_are_kept_in_the_partial_aggregation() throws Exception {
+        updateStats(1000, 10);
+        var join = new JoinPlan(fact, dim, JoinType.INNER, e.asSymbol("fact.k = dim.id"));
+        var groupBy = new GroupHashAggregate(
+            join,
+            List.of(e.asSymbol("dim.attr"), e.asSymbol("fact.k")),
+            List.of((Function) e.asSymbol("max(fact.v)"))
+        );
+
+        assertThat(apply(groupBy)).hasOperators(
+            "GroupHashAggregate[attr, k | max(v) | PARTIAL_FINAL]",
+            "  └ Join[INNER | (k = id)]",
+            "    ├ GroupHashAggregate[k | max(v) | ITER_PARTIAL]",
+            "    │  └ Collect[doc.fact | [k, v] | true]",
+            "    └ Collect[doc.dim | [id, attr] | true]"
+        );
+    }
+
+    @Test
+    public void test_partial_aggregation_is_not_moved_if_join_keys_are_unique() throws Exception {
+        updateStats(1000, 1000);
+        assertThat(apply(groupBy("dim.attr", "sum(fact.v)"))).isNull();
+    }
+
+    @Test
+    public void test_partial_aggregation_is_not_moved_without_stats() throws Exception {
+        assertThat(apply(groupBy("dim.attr", "sum(fact.v)"))).isNull();
+    }
+
+    @Test
+    public void test_aggregation_with_partial_state_type_different_from_result_type_is_not_moved() throws Exception {
+        updateStats(1000, 10);
+        assertThat(apply(groupBy("dim.attr", "avg(fact.v)"))).isNull();
+        assertThat(apply(groupBy("dim.attr", "count(fact.v)"))).isNull();
+    }
+
+    @Test
+    public void test_aggregation_using_columns_of_both_sides_is_not_moved() throws Exception {
+        updateStats(1000, 10);
+        assertThat(apply(groupBy("dim.attr", "sum(fact.v + dim.id)"))).isNull();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.testing.Asserts.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.Reference;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.joinorder.JoinGraph;
+import io.crate.planner.optimizer.joinorder.JoinOrderEnumerator;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.MostCommonValues;
+import io.crate.statistics.Stats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
+
+public class ReorderJoinsByCostTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private Collect a;
+    private Collect b;
+    private Collect c;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table a (x int)")
+            .addTable("create table b (y int)")
+            .addTable("create table c (z int)")
+            .build();
+
+        a = new Collect(new DocTableRelation(e.resolveTableInfo("a")), List.of((Reference) e.asSymbol("x")), WhereClause.MATCH_ALL);
+        b = new Collect(new DocTableRelation(e.resolveTableInfo("b")), List.of((Reference) e.asSymbol("y")), WhereClause.MATCH_ALL);
+        c = new Collect(new DocTableRelation(e.resolveTableInfo("c")), List.of((Reference) e.asSymbol("z")), WhereClause.MATCH_ALL);
+    }
+
+    private void updateStats(long numDocsA, long numDocsB, long numDocsC) {
+        e.updateTableStats(Map.of(
+            a.relation().relationName(), new Stats(numDocsA, numDocsA * 4, Map.of()),
+            b.relation().relationName(), new Stats(numDocsB, numDocsB * 4, Map.of()),
+            c.relation().relationName(), new Stats(numDocsC, numDocsC * 4, Map.of())
+        ));
+    }
+
+    private LogicalPlan apply(JoinPlan join) {
+        return new ReorderJoinsByCost().apply(
+            join,
+            Captures.empty(),
+            e.planStats(),
+            CoordinatorTxnCtx.systemTransactionContext(),
+            e.nodeCtx,
+            UnaryOperator.identity()
+        );
+    }
+
+    @Test
+    public void test_small_relation_is_joined_first() throws Exception {
+        updateStats(1000, 1000, 10);
+        var firstJoin = new JoinPlan(a, b, JoinType.INNER, e.asSymbol("a.x = b.y"));
+        var join = new JoinPlan(firstJoin, c, JoinType.INNER, e.asSymbol("b.y = c.z"));
+
+        var joinGraph = JoinGraph.create(join, UnaryOperator.identity());
+        var enumerator = JoinOrderEnumerator.create(joinGraph, e.planStats());
+        assertThat(enumerator).isNotNull();
+        List<LogicalPlan> bestOrder = enumerator.bestOrder();
+        assertThat(bestOrder).containsExactly(c, b, a);
+        assertThat(enumerator.cost(bestOrder)).isLessThan(enumerator.cost(joinGraph.nodes()));
+
+        assertThat(apply(join)).hasOperators(
+            "Eval[x, y, z]",
+            "  └ Join[INNER | (x = y)]",
+            "    ├ Join[INNER | (y = z)]",
+            "    │  ├ Collect[doc.c | [z] | true]",
+            "    │  └ Collect[doc.b | [y] | true]",
+            "    └ Collect[doc.a | [x] | true]"
+        );
+    }
+
+    @Test
+    public void test_join_selectivity_uses_column_stats_of_each_relation() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table t1 (id int)")
+            .addTable("create table t2 (id int)")
+            .build();
+        var t1 = new Collect(new DocTableRelation(e.resolveTableInfo("t1")), List.of((Reference) e.asSymbol("t1.id")), WhereClause.MATCH_ALL);
+        var t2 = new Collect(new DocTableRelation(e.resolveTableInfo("t2")), List.of((Reference) e.asSymbol("t2.id")), WhereClause.MATCH_ALL);
+        var t1IdStats = new ColumnStats<>(0.5, 4, 10, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        var t2IdStats = new ColumnStats<>(0.0, 4, 100, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        e.updateTableStats(Map.of(
+            t1.relation().relationName(), new Stats(1000, 4000, Map.of(new ColumnIdent("id"), t1IdStats)),
+            t2.relation().relationName(), new Stats(1000, 4000, Map.of(new ColumnIdent("id"), t2IdStats))
+        ));
+        var join = new JoinPlan(t1, t2, JoinType.INNER, e.asSymbol("t1.id = t2.id"));
+
+        var joinGraph = JoinGraph.create(join, UnaryOperator.identity());
+        var enumerator = JoinOrderEnumerator.create(joinGraph, e.planStats());
+        assertThat(enumerator).isNotNull();
+        // 1000 * 1000 * (1 - 0.5) * (1 - 0.0) / max(10, 100)
+        assertThat(enumerator.cost(List.of(t1, t2))).isEqualTo(5000.0);
+        assertThat(enumerator.cost(List.of(t2, t1))).isEqualTo(5000.0);
+    }
+
+    @Test
+    public void test_join_order_is_kept_if_it_is_already_the_cheapest() throws Exception {
+        updateStats(1000, 1000, 10);
+        var firstJoin = new JoinPlan(c, b, JoinType.INNER, e.asSymbol("b.y = c.z"));
+        var join = new JoinPlan(firstJoin, a, JoinType.INNER, e.asSymbol("a.x = b.y"));
+
+        assertThat(apply(join)).isNull();
+    }
+
+    @Test
+    public void test_join_order_is_kept_without_stats() throws Exception {
+        var firstJoin = new JoinPlan(a, b, JoinType.INNER, e.asSymbol("a.x = b.y"));
+        var join = new JoinPlan(firstJoin, c, JoinType.INNER, e.asSymbol("b.y = c.z"));
+
+        assertThat(apply(join)).isNull();
+    }
+
+    @Test
+    public void test_outer_joins_are_not_reordered() throws Exception {
+        updateStats(1000, 1000, 10);
+        var firstJoin = new JoinPlan(a, b, JoinType.LEFT, e.asSymbol("a.x = b.y"));
+        var join = new JoinPlan(firstJoin, c, JoinType.INNER, e.asSymbol("b.y = c.z"));
+
+        assertThat(apply(join)).isNull();
+    }
+
+    @Test
+    public void test_joins_with_non_equi_conditions_are_not_reordered() throws Exception {
+        updateStats(1000, 1000, 10);
+        Symbol joinCondition = e.asSymbol("a.x = b.y AND a.x > b.y");
+        var firstJoin = new JoinPlan(a, b, JoinType.INNER, joinCondition);
+        var join = new JoinPlan(firstJoin, c, JoinType.INNER, e.asSymbol("b.y = c.z"));
+
+        assertThat(apply(join)).isNull();
+    }
+}
@@ -38,6 +38,7 @@ import io.crate.common.collections.Lists;
 import io.crate.data.Row;
 import io.crate.data.Row1;
 import io.crate.expression.operator.OperatorModule;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.CoordinatorTxnCtx;
@@ -46,6 +47,7 @@ import io.crate.metadata.NodeContext;
 import io.crate.metadata.TransactionContext;
 import io.crate.role.Role;
 import io.crate.statistics.ColumnStats;
+import io.crate.statistics.MostCommonValues;
 import io.crate.statistics.Stats;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SqlExpressions;
@@ -112,6 +114,22 @@ public class SelectivityFunctionsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(estimate(stats, query)).isEqualTo(3L);
     }
 
+    @Test
+    public void test_eq_join_selectivity_uses_stats_of_each_relation_for_columns_with_same_name() {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        Function joinCondition = (Function) expressions.asSymbol("t1.i = t2.i");
+        Symbol t1i = joinCondition.arguments().get(0);
+        Symbol t2i = joinCondition.arguments().get(1);
+        var t1iStats = new ColumnStats<>(0.5, 4, 10, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        var t2iStats = new ColumnStats<>(0.0, 4, 100, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        Stats t1Stats = new Stats(1000, 4000, Map.of(new ColumnIdent("i"), t1iStats));
+        Stats t2Stats = new Stats(1000, 4000, Map.of(new ColumnIdent("i"), t2iStats));
+
+        // (1 - 0.5) * (1 - 0.0) / max(10, 100)
+        assertThat(SelectivityFunctions.eqJoinSelectivity(t1i, t1Stats, t2i, t2Stats)).isEqualTo(0.005);
+        assertThat(SelectivityFunctions.eqJoinSelectivity(t2i, t2Stats, t1i, t1Stats)).isEqualTo(0.005);
+    }
+
     @Test
     public void test_eq_value_that_is_present_in_mcv_uses_mcv_frequency_as_selectivity() {
         SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
@@ -212,4 +230,26 @@ public class SelectivityFunctionsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(estimate(stats, expressions.asSymbol("x >= 5"))).isEqualTo(9);
         assertThat(estimate(stats, expressions.asSymbol("x > null"))).isEqualTo(0);
     }
+
+    @Test
+    public void test_range_selectivity_uses_quantiles_if_available() {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        double[] quantiles = new double[101];
+        for (int i = 0; i < quantiles.length; i++) {
+            quantiles[i] = i * 10;
+        }
+        var columnStats = new ColumnStats<>(
+            0.5,
+            4,
+            500,
+            DataTypes.INTEGER,
+            MostCommonValues.EMPTY,
+            List.of(),
+            quantiles
+        );
+        Stats stats = new Stats(1000, 16, Map.of(new ColumnIdent("x"), columnStats));
+        assertThat(estimate(stats, expressions.asSymbol("x < 250"))).isEqualTo(125L);
+        assertThat(estimate(stats, expressions.asSymbol("x >= 900"))).isEqualTo(50L);
+        assertThat(estimate(stats, expressions.asSymbol("x > 2000"))).isEqualTo(0L);
+    }
 }
@@ -37,6 +37,7 @@ import org.junit.Test;
 
 import io.crate.data.Row;
 import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGType;
 import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.types.DataTypes;
 import io.netty.buffer.ByteBuf;
@@ -101,6 +102,56 @@ public class MessagesTest extends ESTestCase {
         }
     }
 
+    @Test
+    public void test_write_data_rows_into_single_buffer_and_discard_partially_written_row() throws Exception {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            var columnTypes = Arrays.<PGType<?>>asList(PGTypes.get(DataTypes.INTEGER), PGTypes.get(DataTypes.STRING));
+            Messages.writeDataRow(buffer, new RowN($(10, "foo")), columnTypes, null);
+            int firstRowEnd = buffer.writerIndex();
+            try {
+                Messages.writeDataRow(
+                    buffer,
+                    new Row() {
+                        @Override
+                        public int numColumns() {
+                            return 2;
+                        }
+
+                        @Override
+                        public Object get(int index) {
+                            if (index == 0) {
+                                return 20;
+                            }
+                            throw new IllegalArgumentException("Dummy");
+                        }
+                    },
+                    columnTypes,
+                    null
+                );
+                fail("writeDataRow should raise an exception");
+            } catch (IllegalArgumentException ignored) {
+            }
+            assertThat(buffer.writerIndex(), is(firstRowEnd));
+            Messages.writeDataRow(buffer, new RowN($(30, null)), columnTypes, null);
+
+            // D | len | numCols | len | "10" | len | "foo"
+            assertThat((char) buffer.readByte(), is('D'));
+            assertThat(buffer.readInt(), is(4 + 2 + 4 + 2 + 4 + 3));
+            buffer.skipBytes(2 + 4 + 2 + 4 + 3);
+
+            assertThat((char) buffer.readByte(), is('D'));
+            assertThat(buffer.readInt(), is(4 + 2 + 4 + 2 + 4));
+            assertThat(buffer.readShort(), is((short) 2));
+            assertThat(buffer.readInt(), is(2));
+            assertThat(buffer.readCharSequence(2, StandardCharsets.UTF_8).toString(), is("30"));
+            assertThat(buffer.readInt(), is(-1));
+            assertThat(buffer.readableBytes(), is(0));
+        } finally {
+            buffer.release();
+        }
+    }
+
     @Test
     public void testCommandCompleteWithWhitespace() throws Exception {
         final EmbeddedChannel channel = new EmbeddedChannel();
@@ -33,6 +33,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -65,8 +66,14 @@ import io.crate.action.sql.Sessions;
 import io.crate.auth.AccessControl;
 import io.crate.auth.AlwaysOKAuthentication;
 import io.crate.auth.AuthenticationMethod;
+import io.crate.data.Row1;
 import io.crate.exceptions.JobKilledException;
+import io.crate.execution.engine.collect.files.StdinInputStream;
 import io.crate.execution.jobs.kill.KillJobsNodeRequest;
+import io.crate.expression.symbol.ScopedSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.RelationName;
 import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.metadata.settings.session.SessionSettingRegistry;
 import io.crate.protocols.postgres.types.PGTypes;
@@ -192,6 +199,227 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
         assertThat(flushed.get(), is(true));
     }
 
+    @Test
+    public void test_pipelined_deferred_executions_are_completed_and_flushed_on_sync() throws Exception {
+        Sessions sqlOperations = mock(Sessions.class);
+        Session session = mock(Session.class);
+        when(sqlOperations.newSession(any(String.class), any(Role.class))).thenReturn(session);
+        when(session.sessionSettings()).thenReturn(new CoordinatorSessionSettings(Role.CRATE_USER));
+        when(session.transactionState()).thenReturn(TransactionState.IDLE);
+        when(session.getQuery(any(String.class))).thenReturn("insert into users (name) values ('Arthur')");
+        when(session.getOutputTypes(any(String.class))).thenReturn(null);
+        when(session.hasDeferredExecutions()).thenReturn(true);
+        // Like Session, defer the executions until sync and complete sync once all receivers completed
+        List<RowCountReceiver> receivers = new ArrayList<>();
+        when(session.execute(any(String.class), any(int.class), any(RowCountReceiver.class))).thenAnswer(invocation -> {
+            receivers.add(invocation.getArgument(2));
+            return null;
+        });
+        when(session.sync()).thenAnswer(invocation -> {
+            List<CompletableFuture<?>> futures = new ArrayList<>();
+            for (RowCountReceiver receiver : receivers) {
+                receiver.setNextRow(new Row1(1L));
+                receiver.allFinished();
+                futures.add(receiver.completionFuture());
+            }
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        });
+        PostgresWireProtocol ctx =
+            new PostgresWireProtocol(
+                sqlOperations,
+                new SessionSettingRegistry(Set.of()),
+                sessionSettings -> AccessControl.DISABLED,
+                chPipeline -> {},
+                new AlwaysOKAuthentication(() -> List.of(Role.CRATE_USER)),
+                null);
+        channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
+        sendStartupMessage(channel);
+        readAuthenticationOK(channel);
+        skipParameterMessages(channel);
+        readKeyData(channel);
+        readReadyForQueryMessage(channel);
+
+        ByteBuf buffer = Unpooled.buffer();
+        for (int i = 0; i < 2; i++) {
+            ClientMessages.sendParseMessage(buffer, "", "insert into users (name) values ('Arthur')", new int[0]);
+            ClientMessages.sendBindMessage(buffer, "", "", List.of());
+            ClientMessages.sendExecute(buffer, "", 0);
+        }
+        ClientMessages.sendSync(buffer);
+        channel.writeInbound(buffer);
+        channel.releaseInbound();
+
+        List<Character> messageTypes = new ArrayList<>();
+        ByteBuf response;
+        while ((response = channel.readOutbound()) != null) {
+            messageTypes.add((char) response.getByte(0));
+            response.release();
+        }
+        // ParseComplete, BindComplete, CommandComplete for each execution and a final ReadyForQuery
+        assertThat(messageTypes).containsExactly('1', '2', 'C', '1', '2', 'C', 'Z');
+    }
+
+    @Test
+    public void test_copy_from_stdin_streams_copy_data_to_the_execution() throws Exception {
+        Session session = mockSession(null);
+        AtomicReference<StdinInputStream> stream = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            stream.set(invocation.getArgument(1));
+            return null;
+        }).when(session).copyIn(any(String.class), any(StdinInputStream.class));
+        AtomicReference<RowCountReceiver> receiver = new AtomicReference<>();
+        when(session.execute(any(String.class), any(int.class), any(RowCountReceiver.class))).thenAnswer(invocation -> {
+            receiver.set(invocation.getArgument(2));
+            return null;
+        });
+        when(session.sync()).thenAnswer(invocation -> receiver.get().completionFuture());
+        connect(session);
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendQuery(buffer, "COPY users FROM STDIN");
+        channel.writeInbound(buffer);
+        channel.releaseInbound();
+        assertThat(readMessages(channel)).containsExactly("G");
+
+        buffer = Unpooled.buffer();
+        ClientMessages.sendCopyData(buffer, "{\"name\": \"Arthur\"}\n{\"name\"");
+        ClientMessages.sendCopyData(buffer, ": \"Trillian\"}\n");
+        ClientMessages.sendCopyDone(buffer);
+        channel.writeInbound(buffer);
+        channel.releaseInbound();
+
+        // The execution reads the data sent by the client
+        String data = new String(stream.get().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(data).isEqualTo("{\"name\": \"Arthur\"}\n{\"name\": \"Trillian\"}\n");
+        assertThat(readMessages(channel)).isEmpty();
+
+        receiver.get().setNextRow(new Row1(2L));
+        receiver.get().allFinished();
+        assertThat(readMessages(channel)).containsExactly("C COPY 2", "Z");
+    }
+
+    @Test
+    public void test_copy_fail_aborts_copy_from_stdin() throws Exception {
+        Session session = mockSession(null);
+        AtomicReference<StdinInputStream> stream = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            stream.set(invocation.getArgument(1));
+            return null;
+        }).when(session).copyIn(any(String.class), any(StdinInputStream.class));
+        AtomicReference<RowCountReceiver> receiver = new AtomicReference<>();
+        when(session.execute(any(String.class), any(int.class), any(RowCountReceiver.class))).thenAnswer(invocation -> {
+            receiver.set(invocation.getArgument(2));
+            return null;
+        });
+        when(session.sync()).thenAnswer(invocation -> receiver.get().completionFuture());
+        connect(session);
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendQuery(buffer, "COPY users FROM STDIN");
+        ClientMessages.sendCopyData(buffer, "{\"name\": \"Arthur\"}\n");
+        ClientMessages.sendCopyFail(buffer, "aborted by user");
+        channel.writeInbound(buffer);
+        channel.releaseInbound();
+        assertThat(readMessages(channel)).containsExactly("G");
+        verify(session).cancelCurrentJob();
+
+        IOException readFailure = null;
+        try {
+            stream.get().readAllBytes();
+        } catch (IOException e) {
+            readFailure = e;
+        }
+        assertThat(readFailure).hasMessage("COPY from stdin failed: aborted by user");
+
+        receiver.get().fail(readFailure);
+        assertThat(readMessages(channel)).containsExactly("E", "Z");
+    }
+
+    @Test
+    public void test_copy_to_stdout_sends_rows_as_copy_data() throws Exception {
+        Session session = mockSession(
+            List.of(new ScopedSymbol(new RelationName("doc", "users"), new ColumnIdent("name"), DataTypes.STRING)));
+        AtomicReference<CopyOutReceiver> receiver = new AtomicReference<>();
+        when(session.execute(any(String.class), any(int.class), any(CopyOutReceiver.class))).thenAnswer(invocation -> {
+            receiver.set(invocation.getArgument(2));
+            return null;
+        });
+        when(session.sync()).thenAnswer(invocation -> {
+            receiver.get().setNextRow(new Row1("Arthur"));
+            receiver.get().setNextRow(new Row1("Trillian"));
+            receiver.get().allFinished();
+            return receiver.get().completionFuture();
+        });
+        connect(session);
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendQuery(buffer, "COPY (SELECT name FROM users) TO STDOUT");
+        channel.writeInbound(buffer);
+        channel.releaseInbound();
+
+        assertThat(readMessages(channel)).containsExactly(
+            "H",
+            "d {\"name\":\"Arthur\"}\n",
+            "d {\"name\":\"Trillian\"}\n",
+            "c",
+            "C COPY 2",
+            "Z"
+        );
+    }
+
+    private static Session mockSession(@Nullable List<Symbol> fields) {
+        Session session = mock(Session.class);
+        when(session.sessionSettings()).thenReturn(new CoordinatorSessionSettings(Role.CRATE_USER));
+        when(session.transactionState()).thenReturn(TransactionState.IDLE);
+        DescribeResult describeResult = mock(DescribeResult.class);
+        when(describeResult.getFields()).thenReturn(fields);
+        when(session.describe(Mockito.anyChar(), Mockito.anyString())).thenReturn(describeResult);
+        return session;
+    }
+
+    private void connect(Session session) {
+        Sessions sqlOperations = mock(Sessions.class);
+        when(sqlOperations.newSession(any(String.class), any(Role.class))).thenReturn(session);
+        PostgresWireProtocol ctx =
+            new PostgresWireProtocol(
+                sqlOperations,
+                new SessionSettingRegistry(Set.of()),
+                sessionSettings -> AccessControl.DISABLED,
+                chPipeline -> {},
+                new AlwaysOKAuthentication(() -> List.of(Role.CRATE_USER)),
+                null);
+        channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
+        sendStartupMessage(channel);
+        readAuthenticationOK(channel);
+        skipParameterMessages(channel);
+        readKeyData(channel);
+        readReadyForQueryMessage(channel);
+    }
+
+    /**
+     * @return the message types of the sent messages, followed by the payload of CopyData and CommandComplete messages
+     */
+    private static List<String> readMessages(EmbeddedChannel channel) {
+        List<String> messages = new ArrayList<>();
+        ByteBuf response;
+        while ((response = channel.readOutbound()) != null) {
+            try {
+                char type = (char) response.readByte();
+                int length = response.readInt();
+                if (type == 'd') {
+                    messages.add("d " + response.readCharSequence(length - 4, StandardCharsets.UTF_8));
+                } else if (type == 'C') {
+                    messages.add("C " + PostgresWireProtocol.readCString(response));
+                } else {
+                    messages.add(String.valueOf(type));
+                }
+            } finally {
+                response.release();
+            }
+        }
+        return messages;
+    }
+
     @Test
     public void testBindMessageCanBeReadIfTypeForParamsIsUnknown() throws Exception {
         var mockedSqlOperations = mock(Sessions.class);
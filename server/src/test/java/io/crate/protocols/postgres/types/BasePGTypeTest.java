@@ -56,6 +56,27 @@ public abstract class BasePGTypeTest<T> extends ESTestCase {
         }
     }
 
+    /**
+     * Asserts that the text written directly into the buffer matches {@link PGType#encodeAsUTF8Text(Object)}
+     */
+    @SuppressWarnings("unchecked")
+    void assertTextWrittenAsEncoded(Object value) {
+        byte[] expectedBytes = pgType.encodeAsUTF8Text(value);
+        ByteBuf buffer = Unpooled.buffer(1);
+        try {
+            int bytesWritten = pgType.writeAsText(buffer, value);
+            assertThat(bytesWritten, is(PGType.INT32_BYTE_SIZE + expectedBytes.length));
+            assertThat(buffer.readInt(), is(expectedBytes.length));
+
+            byte[] bytes = new byte[expectedBytes.length];
+            buffer.readBytes(bytes);
+            assertThat(bytes, is(expectedBytes));
+            assertThat(buffer.readableBytes(), is(0));
+        } finally {
+            buffer.release();
+        }
+    }
+
     void assertBytesReadBinary(byte[] value, T expectedValue) {
         assertBytesReadBinary(value, expectedValue, pgType.typeLen());
     }
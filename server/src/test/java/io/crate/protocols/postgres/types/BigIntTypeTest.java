@@ -36,6 +36,14 @@ public class BigIntTypeTest extends BasePGTypeTest<Long> {
         assertBytesWritten(Long.MIN_VALUE, new byte[]{0, 0, 0, 8, -128, 0, 0, 0, 0, 0, 0, 0});
     }
 
+    @Test
+    public void test_write_value_as_text() throws Exception {
+        for (long value : new long[] { 0L, 9L, -9L, 1_000_000_000_000L, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE + 1 }) {
+            assertTextWrittenAsEncoded(value);
+        }
+        assertTextWrittenAsEncoded(randomLong());
+    }
+
     @Test
     public void testReadValueBinary() throws Exception {
         assertBytesReadBinary(new byte[]{127, -1, -1, -1, -1, -1, -1, -1}, Long.MAX_VALUE);
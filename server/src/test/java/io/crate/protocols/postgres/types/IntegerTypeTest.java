@@ -36,6 +36,14 @@ public class IntegerTypeTest extends BasePGTypeTest<Integer> {
         assertBytesWritten(Integer.MIN_VALUE, new byte[]{0, 0, 0, 4, -128, 0, 0, 0});
     }
 
+    @Test
+    public void test_write_value_as_text() throws Exception {
+        for (int value : new int[] { 0, 7, -7, 10, -10, 123456, Integer.MIN_VALUE, Integer.MAX_VALUE }) {
+            assertTextWrittenAsEncoded(value);
+        }
+        assertTextWrittenAsEncoded(randomInt());
+    }
+
     @Test
     public void testReadValueBinary() throws Exception {
         assertBytesReadBinary(new byte[]{127, -1, -1, -1}, Integer.MAX_VALUE);
@@ -21,6 +21,7 @@
 
 package io.crate.protocols.postgres.types;
 
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
@@ -46,6 +47,13 @@ public class JsonTypeTest extends BasePGTypeTest<Map<String, Object>> {
         assertBytesWritten(map, expectedBytes, 24);
     }
 
+    @Test
+    public void test_write_value_as_text() throws Exception {
+        assertTextWrittenAsEncoded(map);
+        assertTextWrittenAsEncoded(List.of(1, "foo", map));
+        assertTextWrittenAsEncoded("{\"ä\": 1}");
+    }
+
     @Test
     public void testReadValue() throws Exception {
         byte[] bytes = new byte[]{
@@ -59,6 +59,12 @@ public class TimestampTypeTest extends BasePGTypeTest<Long> {
             is("1000-12-22 00:00:00.000+00 BC"));
     }
 
+    @Test
+    public void test_write_value_as_text() {
+        assertTextWrittenAsEncoded(1467072000000L);
+        assertTextWrittenAsEncoded(-93661920000000L);
+    }
+
     @Test
     public void testDecodeUTF8TextWithUnexpectedNumberOfFractionDigits() {
         expectedException.expectMessage("Text '2016-06-28 00:00:00.0000000001+05:00' could not be parsed");
@@ -59,6 +59,12 @@ public class TimestampZTypeTest extends BasePGTypeTest<Long> {
             is("1000-12-22 00:00:00.000+00 BC"));
     }
 
+    @Test
+    public void test_write_value_as_text() {
+        assertTextWrittenAsEncoded(1467072000000L);
+        assertTextWrittenAsEncoded(-93661920000000L);
+    }
+
     @Test
     public void testDecodeUTF8TextWithUnexpectedNumberOfFractionDigits() {
         expectedException.expect(IllegalArgumentException.class);
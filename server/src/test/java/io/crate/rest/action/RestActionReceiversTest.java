@@ -21,9 +21,12 @@
 
 package io.crate.rest.action;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
@@ -33,6 +36,7 @@ import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
+import io.crate.auth.AccessControl;
 import io.crate.breaker.RowAccountingWithEstimators;
 import io.crate.data.Row;
 import io.crate.data.Row1;
@@ -44,6 +48,14 @@ import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.RelationName;
 import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 
 public class RestActionReceiversTest extends ESTestCase {
 
@@ -126,4 +138,134 @@ public class RestActionReceiversTest extends ESTestCase {
         String s = Strings.toString(builder.build());
         assertEquals(s, "{\"results\":[{\"rowcount\":1},{\"rowcount\":2},{\"rowcount\":3}]}");
     }
+
+    private static RestStreamingResultSetReceiver streamingReceiver(EmbeddedChannel channel,
+                                                                    RestStreamingResultSetReceiver.Format format,
+                                                                    List<Symbol> fields) throws IOException {
+        return new RestStreamingResultSetReceiver(
+            channel,
+            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK),
+            false,
+            format,
+            fields,
+            0L,
+            true,
+            AccessControl.DISABLED
+        );
+    }
+
+    /**
+     * Reads the response head and the content of all chunks written to the channel
+     */
+    private static String readStreamedContent(EmbeddedChannel channel) {
+        assertThat((Object) channel.readOutbound()).isInstanceOf(HttpResponse.class);
+        StringBuilder content = new StringBuilder();
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            ByteBuf buf = ((HttpContent) msg).content();
+            content.append(buf.toString(StandardCharsets.UTF_8));
+            buf.release();
+            if (msg instanceof LastHttpContent) {
+                break;
+            }
+        }
+        return content.toString();
+    }
+
+    @Test
+    public void test_streaming_receiver_with_json_format_writes_same_document_as_result_set_receiver() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(
+            channel, RestStreamingResultSetReceiver.Format.JSON, fields);
+        receiver.nextBatch();
+        receiver.setNextRow(rows.get(0));
+        receiver.setNextRow(rows.get(1));
+        receiver.batchFinished();
+        assertThat(receiver.completionFuture()).isCompleted();
+        assertThat(receiver.isFinished()).isFalse();
+
+        receiver.nextBatch();
+        receiver.setNextRow(rows.get(2));
+        receiver.allFinished();
+        assertThat(receiver.isFinished()).isTrue();
+        assertThat(receiver.result()).isCompletedWithValue(null);
+
+        ResultToXContentBuilder builder = ResultToXContentBuilder.builder(JsonXContent.builder());
+        builder.cols(fields);
+        builder.colTypes(fields);
+        builder.startRows();
+        for (Row row : rows) {
+            builder.addRow(row, 3);
+        }
+        builder.finishRows();
+        builder.rowCount(rows.size());
+
+        assertThat(stripDuration(readStreamedContent(channel)))
+            .isEqualTo(stripDuration(Strings.toString(builder.build())));
+        assertThat(channel.isOpen()).isTrue();
+    }
+
+    @Test
+    public void test_streaming_receiver_with_ndjson_format_writes_one_line_per_row() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(
+            channel, RestStreamingResultSetReceiver.Format.NDJSON, fields);
+        for (Row row : rows) {
+            receiver.setNextRow(row);
+        }
+        receiver.allFinished();
+
+        String header = Strings.toString(ResultToXContentBuilder.builder(JsonXContent.builder())
+            .cols(fields)
+            .colTypes(fields)
+            .build());
+        assertThat(stripDuration(readStreamedContent(channel))).isEqualTo(
+            header + "\n" +
+            "[\"foo\",1,true]\n" +
+            "[\"bar\",2,false]\n" +
+            "[\"foobar\",3,null]\n" +
+            "{\"rowcount\":3}\n"
+        );
+    }
+
+    @Test
+    public void test_streaming_receiver_failure_before_first_chunk_fails_result() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(
+            channel, RestStreamingResultSetReceiver.Format.JSON, fields);
+        receiver.setNextRow(rows.get(0));
+        receiver.fail(new IllegalStateException("dummy"));
+
+        assertThat(receiver.result()).isCompletedExceptionally();
+        assertThat((Object) channel.readOutbound()).isNull();
+    }
+
+    @Test
+    public void test_streaming_receiver_failure_after_first_chunk_appends_error_and_closes_connection() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(
+            channel, RestStreamingResultSetReceiver.Format.JSON, fields);
+        receiver.setNextRow(rows.get(0));
+        receiver.batchFinished();
+        receiver.nextBatch();
+        receiver.fail(new IllegalStateException("dummy"));
+
+        assertThat(receiver.result()).isCompletedWithValue(null);
+        assertThat(receiver.completionFuture()).isCompletedExceptionally();
+        String content = readStreamedContent(channel);
+        assertThat(content)
+            .contains("\"rows\":[[\"foo\",1,true]],\"rowcount\":1,\"error\":{\"message\":")
+            .contains("dummy")
+            .endsWith("}}");
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    public void test_invalid_streaming_format() {
+        assertThat(RestStreamingResultSetReceiver.Format.of("NDJSON"))
+            .isEqualTo(RestStreamingResultSetReceiver.Format.NDJSON);
+        assertThatThrownBy(() -> RestStreamingResultSetReceiver.Format.of("csv"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid format 'csv', supported formats are: json, ndjson");
+    }
 }
@@ -23,8 +23,10 @@ package io.crate.rest.action;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
@@ -32,6 +34,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Map;
 
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.settings.Settings;
@@ -137,5 +140,19 @@ public class SqlHttpHandlerTest {
         assertFalse(session.sessionSettings().hashJoinsEnabled());
         assertThat(session.sessionSettings().searchPath().currentSchema(), containsString("dummy_path"));
     }
-}
 
+    @Test
+    public void test_format_is_only_validated_if_the_response_is_streamed() {
+        assertThat(SqlHttpHandler.streamingFormat(Map.of()), is(nullValue()));
+        assertThat(SqlHttpHandler.streamingFormat(Map.of("format", List.of("csv"))), is(nullValue()));
+        assertThat(
+            SqlHttpHandler.streamingFormat(Map.of("format", List.of("NDJSON"))),
+            is(RestStreamingResultSetReceiver.Format.NDJSON));
+        assertThat(
+            SqlHttpHandler.streamingFormat(Map.of("stream", List.of(""))),
+            is(RestStreamingResultSetReceiver.Format.JSON));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SqlHttpHandler.streamingFormat(Map.of("stream", List.of(""), "format", List.of("csv"))));
+    }
+}
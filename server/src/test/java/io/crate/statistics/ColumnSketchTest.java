@@ -0,0 +1,93 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.statistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Offset.offset;
+import static org.assertj.core.data.Percentage.withPercentage;
+
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Test;
+
+public class ColumnSketchTest {
+
+    @Test
+    public void test_approx_distinct_and_quantiles() {
+        ColumnSketch sketch = new ColumnSketch(true);
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add(i);
+            sketch.add(null);
+        }
+        assertThat(sketch.approxDistinct()).isCloseTo(100_000L, withPercentage(5));
+        double[] quantiles = sketch.quantiles(4);
+        assertThat(quantiles).hasSize(5);
+        assertThat(quantiles[0]).isEqualTo(0.0);
+        assertThat(quantiles[2]).isCloseTo(50_000.0, offset(500.0));
+        assertThat(quantiles[4]).isEqualTo(99_999.0);
+    }
+
+    @Test
+    public void test_sketch_without_digest_has_no_quantiles() {
+        ColumnSketch sketch = new ColumnSketch(false);
+        sketch.add("foo");
+        sketch.add("bar");
+        sketch.add("foo");
+        assertThat(sketch.approxDistinct()).isEqualTo(2L);
+        assertThat(sketch.quantiles(4)).isEmpty();
+    }
+
+    @Test
+    public void test_merge_does_not_modify_inputs() {
+        ColumnSketch s1 = new ColumnSketch(true);
+        ColumnSketch s2 = new ColumnSketch(true);
+        for (int i = 0; i < 1000; i++) {
+            s1.add(i);
+            s2.add(i + 500);
+        }
+        ColumnSketch merged = s1.merge(s2);
+        assertThat(merged.approxDistinct()).isCloseTo(1500L, withPercentage(5));
+        assertThat(merged.quantiles(1)).containsExactly(0.0, 1499.0);
+        assertThat(s1.approxDistinct()).isCloseTo(1000L, withPercentage(5));
+        assertThat(s1.quantiles(1)).containsExactly(0.0, 999.0);
+    }
+
+    @Test
+    public void test_streaming() throws Exception {
+        ColumnSketch sketch = new ColumnSketch(true);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add((double) i);
+        }
+        BytesStreamOutput out = new BytesStreamOutput();
+        sketch.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        ColumnSketch streamed = new ColumnSketch(in);
+        assertThat(streamed.approxDistinct()).isEqualTo(sketch.approxDistinct());
+        double[] expected = sketch.quantiles(10);
+        double[] actual = streamed.quantiles(10);
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.length; i++) {
+            assertThat(actual[i]).isCloseTo(expected[i], offset(10.0));
+        }
+    }
+}
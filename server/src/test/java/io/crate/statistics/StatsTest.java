@@ -26,6 +26,9 @@ import static org.junit.Assert.assertThat;
 
 import java.util.Map;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -37,4 +40,22 @@ public class StatsTest extends ESTestCase {
         Stats stats = new Stats(0L, 200L, Map.of());
         assertThat(stats.averageSizePerRowInBytes(), Matchers.is(0L));
     }
+
+    @Test
+    public void test_num_modifications_is_streamed_only_to_nodes_supporting_it() throws Exception {
+        Stats stats = new Stats(10L, 200L, 42L, Map.of());
+        BytesStreamOutput out = new BytesStreamOutput();
+        stats.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        assertThat(new Stats(in).numModifications(), Matchers.is(42L));
+
+        out = new BytesStreamOutput();
+        out.setVersion(Version.V_5_6_0);
+        stats.writeTo(out);
+        in = out.bytes().streamInput();
+        in.setVersion(Version.V_5_6_0);
+        Stats oldStats = new Stats(in);
+        assertThat(oldStats.numDocs(), Matchers.is(10L));
+        assertThat(oldStats.numModifications(), Matchers.is(-1L));
+    }
 }
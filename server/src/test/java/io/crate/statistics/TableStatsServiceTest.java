@@ -23,16 +23,16 @@ package io.crate.statistics;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Test;
-import org.mockito.Answers;
-import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
-import io.crate.action.sql.Session;
-import io.crate.action.sql.Sessions;
 import io.crate.common.unit.TimeValue;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 
@@ -45,7 +45,7 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             Settings.builder().put(TableStatsService.STATS_SERVICE_REFRESH_INTERVAL_SETTING.getKey(), 0).build(),
             THREAD_POOL,
             clusterService,
-            Mockito.mock(Sessions.class, Answers.RETURNS_MOCKS));
+            threshold -> new CompletableFuture<>());
 
         assertThat(statsService.refreshInterval).isEqualTo(TimeValue.timeValueMinutes(0));
         assertThat(statsService.scheduledRefresh).isNull();
@@ -55,7 +55,7 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             Settings.EMPTY,
             THREAD_POOL,
             clusterService,
-            Mockito.mock(Sessions.class, Answers.RETURNS_MOCKS));
+            threshold -> new CompletableFuture<>());
 
         assertThat(statsService.refreshInterval)
             .isEqualTo(TableStatsService.STATS_SERVICE_REFRESH_INTERVAL_SETTING.getDefault(Settings.EMPTY));
@@ -86,20 +86,23 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
     }
 
     @Test
-    public void testStatsQueriesCorrectly() {
-        Sessions sqlOperations = Mockito.mock(Sessions.class);
-        Session session = Mockito.mock(Session.class);
-        Mockito.when(sqlOperations.newSystemSession()).thenReturn(session);
-
+    public void test_refresh_uses_change_threshold() {
+        List<Double> thresholds = new ArrayList<>();
         TableStatsService statsService = new TableStatsService(
             Settings.EMPTY,
             THREAD_POOL,
             clusterService,
-            sqlOperations
+            threshold -> {
+                thresholds.add(threshold);
+                return new CompletableFuture<>();
+            }
         );
         statsService.run();
+        clusterService.getClusterSettings().applySettings(Settings.builder()
+            .put(TableStatsService.STATS_SERVICE_CHANGE_THRESHOLD_SETTING.getKey(), 0.5).build());
+        statsService.run();
 
-        Mockito.verify(session, Mockito.times(1)).quickExec(ArgumentMatchers.eq(TableStatsService.STMT), ArgumentMatchers.any(), ArgumentMatchers.any());
+        assertThat(thresholds).containsExactly((double) 0.1f, 0.5);
     }
 
     @Test
@@ -107,18 +110,19 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
         final ClusterService clusterService = Mockito.mock(ClusterService.class);
         Mockito.when(clusterService.localNode()).thenReturn(null);
         Mockito.when(clusterService.getClusterSettings()).thenReturn(this.clusterService.getClusterSettings());
-        Sessions sqlOperations = Mockito.mock(Sessions.class);
-        Session session = Mockito.mock(Session.class);
-        Mockito.when(sqlOperations.newSession(ArgumentMatchers.anyString(), ArgumentMatchers.any())).thenReturn(session);
+        List<Double> thresholds = new ArrayList<>();
 
         TableStatsService statsService = new TableStatsService(
             Settings.EMPTY,
             THREAD_POOL,
             clusterService,
-            sqlOperations
+            threshold -> {
+                thresholds.add(threshold);
+                return new CompletableFuture<>();
+            }
         );
 
         statsService.run();
-        Mockito.verify(session, Mockito.times(0)).sync();
+        assertThat(thresholds).isEmpty();
     }
 }
@@ -26,11 +26,13 @@ import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
 import io.crate.data.Row1;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.ReferenceIdent;
 import io.crate.metadata.RelationName;
@@ -53,7 +55,9 @@ public class TransportAnalyzeActionTest extends ESTestCase {
             List.of(new Row1(rows), new Row1(rows)),
             List.of(type.streamer()),
             2,
-            type.valueBytes(rows)
+            type.valueBytes(rows),
+            2,
+            new ColumnSketch[0]
         );
         var references = List.<Reference>of(
             new SimpleReference(
@@ -66,4 +70,24 @@ public class TransportAnalyzeActionTest extends ESTestCase {
         var stats = TransportAnalyzeAction.createTableStats(samples, references);
         assertThat(stats.numDocs, is(2L));
     }
+
+    @Test
+    public void test_needs_resampling_depends_on_modifications_and_columns() {
+        RelationName relationName = new RelationName(Schemas.DOC_SCHEMA_NAME, "dummy");
+        Reference x = new SimpleReference(new ReferenceIdent(relationName, "x"), RowGranularity.DOC, DataTypes.INTEGER, 1, null);
+        Reference y = new SimpleReference(new ReferenceIdent(relationName, "y"), RowGranularity.DOC, DataTypes.INTEGER, 2, null);
+        ColumnStats<Integer> columnStats = ColumnStats.fromSortedValues(List.of(1, 2), DataTypes.INTEGER, 0, 2);
+        Stats previous = new Stats(100, 800, 100, Map.of(new ColumnIdent("x"), columnStats));
+
+        assertThat(TransportAnalyzeAction.needsResampling(previous, counters(110), List.of(x), 0.1), is(false));
+        assertThat(TransportAnalyzeAction.needsResampling(previous, counters(111), List.of(x), 0.1), is(true));
+        assertThat(TransportAnalyzeAction.needsResampling(previous, counters(50), List.of(x), 0.1), is(true));
+        assertThat(TransportAnalyzeAction.needsResampling(previous, counters(100), List.of(x, y), 0.1), is(true));
+        assertThat(TransportAnalyzeAction.needsResampling(previous, counters(-1), List.of(x), 0.1), is(true));
+        assertThat(TransportAnalyzeAction.needsResampling(Stats.EMPTY, counters(100), List.of(x), 0.1), is(true));
+    }
+
+    private static Samples counters(long numModifications) {
+        return new Samples(List.of(), List.of(), 100, 800, numModifications, new ColumnSketch[0]);
+    }
 }
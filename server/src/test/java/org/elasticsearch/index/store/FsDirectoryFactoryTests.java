@@ -19,14 +19,22 @@
 
 package org.elasticsearch.index.store;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiPredicate;
 
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.store.NIOFSDirectory;
 import org.apache.lucene.store.NoLockFactory;
@@ -90,4 +98,68 @@ public class FsDirectoryFactoryTests extends ESTestCase {
             }
         }
     }
+
+    @Test
+    public void test_preload_func_matches_configured_extensions() {
+        BiPredicate<String, IOContext> noFiles = FsDirectoryFactory.getPreloadFunc(Set.of());
+        assertThat(noFiles.test("_0.dvd", IOContext.DEFAULT)).isFalse();
+
+        BiPredicate<String, IOContext> allFiles = FsDirectoryFactory.getPreloadFunc(Set.of("*"));
+        assertThat(allFiles.test("_0.fdt", IOContext.DEFAULT)).isTrue();
+
+        BiPredicate<String, IOContext> docValues = FsDirectoryFactory.getPreloadFunc(Set.of("dvd", "nvd"));
+        assertThat(docValues.test("_0_Lucene90_0.dvd", IOContext.DEFAULT)).isTrue();
+        assertThat(docValues.test("_0.nvd", IOContext.DEFAULT)).isTrue();
+        assertThat(docValues.test("_0.fdt", IOContext.DEFAULT)).isFalse();
+    }
+
+    @Test
+    public void test_mmap_directory_preloads_configured_extensions() throws IOException {
+        assertPreloadedFiles("mmapfs");
+    }
+
+    @Test
+    public void test_hybrid_directory_preloads_configured_extensions() throws IOException {
+        assumeTrue("hybridfs requires mmap", Constants.JRE_IS_64BIT && MMapDirectory.UNMAP_SUPPORTED);
+        assertPreloadedFiles("hybridfs");
+    }
+
+    private void assertPreloadedFiles(String storeType) throws IOException {
+        Settings settings = Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), storeType)
+            .putList(FsDirectoryFactory.INDEX_STORE_PRE_LOAD_SETTING.getKey(), "dvd", "nvd")
+            .build();
+        IndexSettings indexSettings = IndexSettingsModule.newIndexSettings("foo", settings);
+        Path tempDir = createTempDir().resolve(indexSettings.getUUID()).resolve("0");
+        Set<String> preloaded = new HashSet<>();
+        FsDirectoryFactory service = new FsDirectoryFactory() {
+
+            @Override
+            protected BiPredicate<String, IOContext> preloadFunc(IndexSettings indexSettings) {
+                BiPredicate<String, IOContext> preload = super.preloadFunc(indexSettings);
+                return (name, context) -> {
+                    boolean result = preload.test(name, context);
+                    if (result) {
+                        preloaded.add(name);
+                    }
+                    return result;
+                };
+            }
+        };
+        List<String> files = List.of("_0.dvd", "_0.nvd", "_0.tim", "_0.fdt");
+        try (Directory directory = service.newFSDirectory(tempDir, NoLockFactory.INSTANCE, indexSettings)) {
+            for (String file : files) {
+                try (IndexOutput out = directory.createOutput(file, IOContext.DEFAULT)) {
+                    out.writeLong(42L);
+                }
+            }
+            for (String file : files) {
+                try (IndexInput in = directory.openInput(file, IOContext.DEFAULT)) {
+                    assertThat(in.readLong()).isEqualTo(42L);
+                }
+            }
+        }
+        assertThat(preloaded).containsExactlyInAnyOrder("_0.dvd", "_0.nvd");
+    }
 }
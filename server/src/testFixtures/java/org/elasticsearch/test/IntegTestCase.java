@@ -1626,11 +1626,9 @@ public abstract class IntegTestCase extends ESTestCase {
     public void ensureNoSessionsLeft() throws Exception {
         assertBusy(() -> {
             for (var sessions : cluster().getInstances(Sessions.class)) {
-                String msg = "Sessions must be closed after test teardown. " +
-                    "An exception is one session created by the TableStatsService";
                 assertThat(sessions.getActive())
-                    .as(msg)
-                    .hasSize(1);
+                    .as("Sessions must be closed after test teardown")
+                    .isEmpty();
             }
         });
     }